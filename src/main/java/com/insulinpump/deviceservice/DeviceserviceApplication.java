@@ -2,13 +2,18 @@ package com.insulinpump.deviceservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 
 @EnableDiscoveryClient
 @EnableFeignClients
-@SpringBootApplication
+@EnableScheduling
+// R2DBC solo para las lecturas reactivas, configurado en ReactiveReadConfig
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
 public class DeviceserviceApplication {
 
 	public static void main(String[] args) {
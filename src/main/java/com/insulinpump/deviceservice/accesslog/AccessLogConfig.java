@@ -0,0 +1,15 @@
+package com.insulinpump.deviceservice.accesslog;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(AccessLogProperties.class)
+public class AccessLogConfig {
+
+    @Bean
+    public AccessLogFilter accessLogFilter(AccessLogProperties properties) {
+        return new AccessLogFilter(properties);
+    }
+}
@@ -0,0 +1,106 @@
+package com.insulinpump.deviceservice.accesslog;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Un único evento estructurado por petición, emitido en el logger ACCESS_LOG (asíncrono en logback-spring.xml)
+public class AccessLogFilter extends OncePerRequestFilter implements Ordered {
+
+    public static final String LOGGER_NAME = "ACCESS_LOG";
+    // Justo dentro del filtro de métricas de Spring Boot, envolviendo al resto de filtros de la aplicación
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 10;
+
+    private static final Logger accessLog = LoggerFactory.getLogger(LOGGER_NAME);
+    // Inicio de la petición original, para medir también los despachos asíncronos (long-polling de /changes)
+    private static final String START_ATTRIBUTE = AccessLogFilter.class.getName() + ".start";
+
+    private final AccessLogProperties properties;
+
+    public AccessLogFilter(AccessLogProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || request.getRequestURI().startsWith("/actuator");
+    }
+
+    // DeferredResult termina en un despacho asíncrono: el evento se emite ahí, con el estado y la duración reales
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Object started = request.getAttribute(START_ATTRIBUTE);
+        long start = started instanceof Long nanos ? nanos : System.nanoTime();
+        Throwable failure = null;
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            if (failure == null && request.isAsyncStarted()) {
+                // Queda un despacho asíncrono pendiente: el evento se emitirá en él
+                request.setAttribute(START_ATTRIBUTE, start);
+            } else {
+                long elapsedNanos = System.nanoTime() - start;
+                int status = failure != null ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus();
+                if (accessLog.isInfoEnabled() && shouldLog(request.getMethod(), status, elapsedNanos)) {
+                    log(request, status, elapsedNanos, failure);
+                }
+            }
+        }
+    }
+
+    boolean shouldLog(String method, int status, long elapsedNanos) {
+        return shouldLog(properties, method, status, elapsedNanos);
+    }
+
+    // Compartido con AccessLogWebFilter: errores, escrituras y peticiones lentas siempre; lecturas correctas muestreadas
+    static boolean shouldLog(AccessLogProperties properties, String method, int status, long elapsedNanos) {
+        boolean successfulRead = status < 400 && ("GET".equals(method) || "HEAD".equals(method));
+        if (!successfulRead || elapsedNanos >= properties.getSlowThreshold().toNanos()) {
+            return true;
+        }
+        double rate = properties.getSuccessReadSampleRate();
+        return rate >= 1.0 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private void log(HttpServletRequest request, int status, long elapsedNanos, Throwable failure) {
+        Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        LoggingEventBuilder event = accessLog.atInfo()
+                .addKeyValue("method", request.getMethod())
+                .addKeyValue("route", route != null ? route : "UNMATCHED")
+                .addKeyValue("path", request.getRequestURI())
+                .addKeyValue("status", status)
+                .addKeyValue("durationMs", elapsedNanos / 1_000_000.0)
+                .addKeyValue("client", request.getRemoteAddr());
+        if (request.getQueryString() != null) {
+            event.addKeyValue("query", request.getQueryString());
+        }
+        if (failure != null) {
+            event.addKeyValue("exception", failure.getClass().getSimpleName());
+        }
+        event.log("request");
+    }
+}
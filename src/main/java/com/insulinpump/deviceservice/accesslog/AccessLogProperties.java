@@ -0,0 +1,18 @@
+package com.insulinpump.deviceservice.accesslog;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "device.access-log")
+public class AccessLogProperties {
+
+    private boolean enabled = true;
+    // Fracción de lecturas correctas que se registran; errores, escrituras y peticiones lentas siempre
+    private double successReadSampleRate = 1.0;
+    private Duration slowThreshold = Duration.ofSeconds(1);
+    // Capacidad de la cola del appender asíncrono (leída por logback-spring.xml); si se llena se descartan eventos
+    private int queueSize = 8192;
+}
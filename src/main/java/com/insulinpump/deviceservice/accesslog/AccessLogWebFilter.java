@@ -0,0 +1,75 @@
+package com.insulinpump.deviceservice.accesslog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+// AccessLogFilter para el servidor reactivo: mismo logger, mismos campos y mismo muestreo. La duración llega
+// hasta que se ha escrito la respuesta, también en los listados en streaming.
+public class AccessLogWebFilter implements WebFilter {
+
+    private static final Logger accessLog = LoggerFactory.getLogger(AccessLogFilter.LOGGER_NAME);
+
+    private final AccessLogProperties properties;
+
+    public AccessLogWebFilter(AccessLogProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!properties.isEnabled() || exchange.getRequest().getPath().value().startsWith("/actuator")) {
+            return chain.filter(exchange);
+        }
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return chain.filter(exchange)
+                    .doOnEach(signal -> {
+                        if (signal.isOnComplete() || signal.isOnError()) {
+                            done(exchange, System.nanoTime() - start, signal.getThrowable());
+                        }
+                    })
+                    .doOnCancel(() -> done(exchange, System.nanoTime() - start, null));
+        });
+    }
+
+    private void done(ServerWebExchange exchange, long elapsedNanos, Throwable failure) {
+        HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
+        int status = failure != null ? 500 : statusCode != null ? statusCode.value() : 200;
+        ServerHttpRequest request = exchange.getRequest();
+        if (accessLog.isInfoEnabled()
+                && AccessLogFilter.shouldLog(properties, request.getMethod().name(), status, elapsedNanos)) {
+            log(exchange, status, elapsedNanos, failure);
+        }
+    }
+
+    private void log(ServerWebExchange exchange, int status, long elapsedNanos, Throwable failure) {
+        ServerHttpRequest request = exchange.getRequest();
+        Object route = exchange.getAttribute(RouterFunctions.MATCHING_PATTERN_ATTRIBUTE);
+        InetSocketAddress client = request.getRemoteAddress();
+        LoggingEventBuilder event = accessLog.atInfo()
+                .addKeyValue("method", request.getMethod().name())
+                .addKeyValue("route", route instanceof PathPattern pattern ? pattern.getPatternString() : "UNMATCHED")
+                .addKeyValue("path", request.getPath().value())
+                .addKeyValue("status", status)
+                .addKeyValue("durationMs", elapsedNanos / 1_000_000.0)
+                .addKeyValue("client", client != null ? client.getHostString() : null);
+        if (request.getURI().getRawQuery() != null) {
+            event.addKeyValue("query", request.getURI().getRawQuery());
+        }
+        if (failure != null) {
+            event.addKeyValue("exception", failure.getClass().getSimpleName());
+        }
+        event.log("request");
+    }
+}
@@ -0,0 +1,9 @@
+package com.insulinpump.deviceservice.alert;
+
+import java.time.Duration;
+import java.time.Instant;
+
+// key es el valor de groupBy (null si la regla no agrupa); count son las transiciones dentro de window
+public record Alert(String rule, String key, Long deviceId, String serialNo, int count, Duration window,
+                    Instant firedAt) {
+}
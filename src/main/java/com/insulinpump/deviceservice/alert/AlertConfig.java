@@ -0,0 +1,9 @@
+package com.insulinpump.deviceservice.alert;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(AlertProperties.class)
+public class AlertConfig {
+}
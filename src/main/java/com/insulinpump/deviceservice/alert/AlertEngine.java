@@ -0,0 +1,154 @@
+package com.insulinpump.deviceservice.alert;
+
+import com.insulinpump.deviceservice.event.DeviceChangedEvent;
+import com.insulinpump.deviceservice.facet.FacetField;
+import com.insulinpump.deviceservice.model.Device;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Motor de reglas de alerta sobre el flujo de escrituras de DeviceService (DeviceChangedEvent, al confirmar).
+// Las reglas se compilan una vez al arrancar y se indexan por un campo y valor que exigen (modelo, firmware,
+// fabricante, estado o asignación): cada evento hace una búsqueda por campo indexado y solo evalúa las reglas
+// de sus valores, más las que no exigen ninguno. Una regla cuenta las transiciones (el dispositivo pasa a cumplir
+// la condición) y con threshold > 1 alerta cuando hay threshold en window para la misma clave de groupBy.
+// Solo ve las escrituras de esta réplica (cada cambio se evalúa una vez, en la réplica que lo hace): las ventanas
+// cuentan las transiciones de esta réplica, no las de la flota. Ver README para dimensionar threshold.
+@Component
+@Slf4j
+public class AlertEngine implements MeterBinder {
+
+    private static final CompiledRule[] NONE = new CompiledRule[0];
+
+    private final List<AlertSink> sinks;
+    private final Clock clock;
+    private final List<CompiledRule> rules;
+    // Campo -> valor -> reglas que lo exigen; unindexed son las que no exigen ningún valor
+    private final Map<FacetField, Map<String, CompiledRule[]>> index = new EnumMap<>(FacetField.class);
+    private final FacetField[] indexedFields;
+    private final CompiledRule[] unindexed;
+    private Counter fired;
+
+    @Autowired
+    public AlertEngine(AlertProperties properties, List<AlertSink> sinks) {
+        this(properties, sinks, Clock.systemUTC());
+    }
+
+    AlertEngine(AlertProperties properties, List<AlertSink> sinks, Clock clock) {
+        this.sinks = List.copyOf(sinks);
+        this.clock = clock;
+        this.rules = new AlertRuleCompiler().compile(properties.getRules());
+        Map<FacetField, Map<String, List<CompiledRule>>> grouped = new EnumMap<>(FacetField.class);
+        List<CompiledRule> other = new ArrayList<>();
+        for (CompiledRule rule : rules) {
+            if (rule.indexTerm == null) {
+                other.add(rule);
+            } else {
+                grouped.computeIfAbsent(rule.indexTerm.field(), field -> new HashMap<>())
+                        .computeIfAbsent(rule.indexTerm.value(), value -> new ArrayList<>())
+                        .add(rule);
+            }
+        }
+        grouped.forEach((field, values) -> {
+            Map<String, CompiledRule[]> byValue = new HashMap<>();
+            values.forEach((value, matching) -> byValue.put(value, matching.toArray(NONE)));
+            index.put(field, byValue);
+        });
+        this.indexedFields = index.keySet().toArray(new FacetField[0]);
+        this.unindexed = other.toArray(NONE);
+        log.info("Reglas de alerta compiladas: {} ({} sin índice)", rules.size(), unindexed.length);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("device.alerts.rules", rules, List::size)
+                .description("Reglas de alerta compiladas")
+                .register(registry);
+        Gauge.builder("device.alerts.windows", this, AlertEngine::windowCount)
+                .description("Ventanas deslizantes abiertas en esta réplica")
+                .register(registry);
+        fired = Counter.builder("device.alerts.fired")
+                .description("Alertas entregadas a los sinks")
+                .register(registry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        evaluate(event.previous(), event.current());
+    }
+
+    @Scheduled(fixedDelayString = "${device.alerts.sweep-interval:1m}")
+    public void evictIdleWindows() {
+        long now = clock.millis();
+        int evicted = 0;
+        for (CompiledRule rule : rules) {
+            evicted += rule.evictIdle(now);
+        }
+        log.debug("Retiradas {} ventanas de alerta sin transiciones recientes", evicted);
+    }
+
+    // Un borrado (current null) no es una transición hacia ninguna condición
+    void evaluate(Device previous, Device current) {
+        if (current == null || rules.isEmpty()) {
+            return;
+        }
+        long now = clock.millis();
+        for (FacetField field : indexedFields) {
+            String value = field.valueOf(current);
+            CompiledRule[] candidates = value == null ? null : index.get(field).get(value);
+            if (candidates != null) {
+                evaluate(candidates, previous, current, now);
+            }
+        }
+        evaluate(unindexed, previous, current, now);
+    }
+
+    private void evaluate(CompiledRule[] candidates, Device previous, Device current, long now) {
+        for (CompiledRule rule : candidates) {
+            Alert alert = rule.evaluate(previous, current, now);
+            if (alert != null) {
+                deliver(alert);
+            }
+        }
+    }
+
+    // Un sink que falla no impide entregar la alerta a los demás ni afecta a la escritura ya confirmada
+    private void deliver(Alert alert) {
+        if (fired != null) {
+            fired.increment();
+        }
+        for (AlertSink sink : sinks) {
+            try {
+                sink.deliver(alert);
+            } catch (RuntimeException e) {
+                log.error("Error entregando la alerta '{}' a {}: {}", alert.rule(), sink.getClass().getSimpleName(),
+                        e.getMessage());
+            }
+        }
+    }
+
+    public int ruleCount() {
+        return rules.size();
+    }
+
+    int windowCount() {
+        int windows = 0;
+        for (CompiledRule rule : rules) {
+            windows += rule.keys();
+        }
+        return windows;
+    }
+}
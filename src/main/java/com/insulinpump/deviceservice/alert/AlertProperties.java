@@ -0,0 +1,31 @@
+package com.insulinpump.deviceservice.alert;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "device.alerts")
+public class AlertProperties {
+
+    // Alertas que se guardan en memoria para GET /api/devices/alerts
+    private int recentAlerts = 1_000;
+    // Cada cuánto se retiran las ventanas sin transiciones dentro de su window
+    private Duration sweepInterval = Duration.ofMinutes(1);
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+        private String name;
+        // Filtro con la sintaxis de facetas; la regla salta cuando un dispositivo pasa a cumplirlo
+        private String condition;
+        // Campo de faceta (status, manufacturer, model, firmwareVersion, assigned) que separa las ventanas
+        private String groupBy;
+        // Veces que debe cumplirse dentro de window para alertar (1 = en cada transición)
+        private int threshold = 1;
+        private Duration window;
+    }
+}
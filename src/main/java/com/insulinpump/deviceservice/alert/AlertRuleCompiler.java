@@ -0,0 +1,165 @@
+package com.insulinpump.deviceservice.alert;
+
+import com.insulinpump.deviceservice.exception.InvalidFacetFilterException;
+import com.insulinpump.deviceservice.facet.FacetField;
+import com.insulinpump.deviceservice.facet.FacetFilter;
+import com.insulinpump.deviceservice.facet.FacetFilterParser;
+import com.insulinpump.deviceservice.firmware.FirmwareVersion;
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+// Convierte cada regla de AlertProperties en predicados sobre Device una sola vez, al arrancar: la condición se
+// analiza con FacetFilterParser y cada nodo del árbol pasa a ser una comparación directa sobre el campo.
+// Una regla mal configurada impide arrancar (IllegalStateException con el nombre de la regla).
+final class AlertRuleCompiler {
+
+    // Campos de más a menos valores distintos en una flota típica
+    private static final List<FacetField> SELECTIVITY = List.of(FacetField.MODEL, FacetField.FIRMWARE_VERSION,
+            FacetField.MANUFACTURER, FacetField.STATUS, FacetField.ASSIGNED);
+
+    // Versiones de firmware ya analizadas: hay pocas distintas en la flota
+    private final Map<String, FirmwareVersion> firmwareVersions = new ConcurrentHashMap<>();
+
+    List<CompiledRule> compile(List<AlertProperties.Rule> rules) {
+        List<CompiledRule> compiled = new ArrayList<>(rules.size());
+        Set<String> names = new HashSet<>();
+        for (AlertProperties.Rule rule : rules) {
+            if (rule.getName() == null || rule.getName().isBlank()) {
+                throw new IllegalStateException("Regla de alerta sin nombre: " + rule);
+            }
+            if (!names.add(rule.getName())) {
+                throw invalid(rule, "nombre repetido");
+            }
+            compiled.add(compile(rule));
+        }
+        return compiled;
+    }
+
+    CompiledRule compile(AlertProperties.Rule rule) {
+        if (rule.getCondition() == null || rule.getCondition().isBlank()) {
+            throw invalid(rule, "falta la condición");
+        }
+        if (rule.getThreshold() < 1) {
+            throw invalid(rule, "threshold debe ser al menos 1");
+        }
+        if (rule.getThreshold() > 1 && (rule.getWindow() == null || rule.getWindow().isZero()
+                || rule.getWindow().isNegative())) {
+            throw invalid(rule, "threshold > 1 necesita window");
+        }
+        FacetField groupBy = null;
+        if (rule.getGroupBy() != null && !rule.getGroupBy().isBlank()) {
+            groupBy = FacetField.fromName(rule.getGroupBy().strip());
+            if (groupBy == null) {
+                throw invalid(rule, "campo groupBy desconocido '" + rule.getGroupBy() + "'");
+            }
+        }
+        FacetFilter filter;
+        try {
+            filter = FacetFilterParser.parse(rule.getCondition());
+        } catch (InvalidFacetFilterException e) {
+            throw invalid(rule, e.getMessage());
+        }
+        return new CompiledRule(rule.getName(), predicate(rule, filter), indexTerm(filter), groupBy,
+                rule.getThreshold(), rule.getThreshold() > 1 ? rule.getWindow() : null);
+    }
+
+    private Predicate<Device> predicate(AlertProperties.Rule rule, FacetFilter filter) {
+        return switch (filter) {
+            case FacetFilter.MatchAll matchAll -> device -> true;
+            case FacetFilter.Term term when term.field() == FacetField.STATUS -> {
+                DeviceStatus status = status(rule, term.value());
+                yield device -> device.getStatus() == status;
+            }
+            case FacetFilter.Term term when term.field() == FacetField.ASSIGNED -> {
+                boolean assigned = Boolean.parseBoolean(term.value());
+                yield device -> (device.getPatientId() != null) == assigned;
+            }
+            case FacetFilter.Term term -> device -> Objects.equals(term.field().valueOf(device), term.value());
+            case FacetFilter.FirmwareRange range -> device -> {
+                FirmwareVersion version = firmwareVersion(device.getFirmwareVersion());
+                return version != null && range.comparison().matches(version.compareTo(range.version()));
+            };
+            case FacetFilter.And and -> {
+                // Primero las igualdades, que descartan antes y no comparan versiones
+                List<Predicate<Device>> predicates = and.filters().stream()
+                        .sorted(Comparator.comparingInt(f -> f instanceof FacetFilter.Term ? 0 : 1))
+                        .map(f -> predicate(rule, f))
+                        .toList();
+                yield device -> {
+                    for (Predicate<Device> predicate : predicates) {
+                        if (!predicate.test(device)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                };
+            }
+            case FacetFilter.Or or -> {
+                List<Predicate<Device>> predicates = or.filters().stream().map(f -> predicate(rule, f)).toList();
+                yield device -> {
+                    for (Predicate<Device> predicate : predicates) {
+                        if (predicate.test(device)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                };
+            }
+            case FacetFilter.Not not -> predicate(rule, not.filter()).negate();
+        };
+    }
+
+    // Término de igualdad que el filtro exige para cumplirse (el del campo más selectivo); null si no hay ninguno.
+    // AlertEngine indexa la regla por él y solo la evalúa con dispositivos que tienen ese valor.
+    static FacetFilter.Term indexTerm(FacetFilter filter) {
+        return switch (filter) {
+            case FacetFilter.Term term -> term;
+            case FacetFilter.And and -> {
+                FacetFilter.Term best = null;
+                for (FacetFilter f : and.filters()) {
+                    FacetFilter.Term term = indexTerm(f);
+                    if (term != null && (best == null || SELECTIVITY.indexOf(term.field()) < SELECTIVITY.indexOf(best.field()))) {
+                        best = term;
+                    }
+                }
+                yield best;
+            }
+            default -> null;
+        };
+    }
+
+    private FirmwareVersion firmwareVersion(String value) {
+        return value == null ? null : firmwareVersions.computeIfAbsent(value, FirmwareVersion::parseOrNull);
+    }
+
+    private static DeviceStatus status(AlertProperties.Rule rule, String value) {
+        DeviceStatus status = parseStatus(value);
+        if (status == null) {
+            throw invalid(rule, "estado desconocido '" + value + "'");
+        }
+        return status;
+    }
+
+    private static DeviceStatus parseStatus(String value) {
+        for (DeviceStatus status : DeviceStatus.values()) {
+            if (status.name().equals(value)) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    private static IllegalStateException invalid(AlertProperties.Rule rule, String reason) {
+        return new IllegalStateException("Regla de alerta '" + rule.getName() + "': " + reason);
+    }
+}
@@ -0,0 +1,8 @@
+package com.insulinpump.deviceservice.alert;
+
+// Destino de las alertas. AlertEngine entrega cada alerta a todos los beans AlertSink, en el hilo que ha
+// confirmado la escritura: una implementación lenta debe encolar y volver.
+public interface AlertSink {
+
+    void deliver(Alert alert);
+}
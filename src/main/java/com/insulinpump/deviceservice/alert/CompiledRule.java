@@ -0,0 +1,75 @@
+package com.insulinpump.deviceservice.alert;
+
+import com.insulinpump.deviceservice.facet.FacetField;
+import com.insulinpump.deviceservice.facet.FacetFilter;
+import com.insulinpump.deviceservice.model.Device;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+// Regla ya compilada por AlertRuleCompiler. indexTerm es un campo y valor que la condición exige (null si no
+// exige ninguno): AlertEngine solo evalúa la regla para dispositivos con ese valor.
+final class CompiledRule {
+
+    // Clave de las reglas sin groupBy
+    private static final String ALL = "";
+
+    final String name;
+    final Predicate<Device> condition;
+    final FacetFilter.Term indexTerm;
+    private final FacetField groupBy;
+    private final int threshold;
+    private final Duration window;
+    private final Map<String, SlidingWindow> windows = new ConcurrentHashMap<>();
+
+    CompiledRule(String name, Predicate<Device> condition, FacetFilter.Term indexTerm, FacetField groupBy,
+                 int threshold, Duration window) {
+        this.name = name;
+        this.condition = condition;
+        this.indexTerm = indexTerm;
+        this.groupBy = groupBy;
+        this.threshold = threshold;
+        this.window = window;
+    }
+
+    // Solo cuenta la transición: current cumple la condición y previous (si existe) no
+    Alert evaluate(Device previous, Device current, long nowMillis) {
+        if (!condition.test(current) || previous != null && condition.test(previous)) {
+            return null;
+        }
+        String key = groupBy == null ? null : String.valueOf(groupBy.valueOf(current));
+        if (threshold > 1) {
+            // Dentro de compute: una ventana no se puede retirar mientras se registra en ella
+            boolean[] reached = new boolean[1];
+            windows.compute(key == null ? ALL : key, (k, sliding) -> {
+                SlidingWindow target = sliding != null ? sliding : new SlidingWindow(threshold, window.toMillis());
+                reached[0] = target.record(nowMillis);
+                return target;
+            });
+            if (!reached[0]) {
+                return null;
+            }
+        }
+        return new Alert(name, key, current.getId(), current.getSerialNo(), threshold, window,
+                Instant.ofEpochMilli(nowMillis));
+    }
+
+    // Retira las ventanas sin transiciones dentro de window; con groupBy por un campo de muchos valores el mapa
+    // crecería con cada valor visto
+    int evictIdle(long nowMillis) {
+        int evicted = 0;
+        for (String key : windows.keySet()) {
+            if (windows.computeIfPresent(key, (k, sliding) -> sliding.isIdle(nowMillis) ? null : sliding) == null) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    int keys() {
+        return windows.size();
+    }
+}
@@ -0,0 +1,19 @@
+package com.insulinpump.deviceservice.alert;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+public class LoggingAlertSink implements AlertSink {
+
+    @Override
+    public void deliver(Alert alert) {
+        if (alert.window() == null) {
+            log.warn("Alerta '{}': dispositivo {} ({})", alert.rule(), alert.deviceId(), alert.serialNo());
+        } else {
+            log.warn("Alerta '{}' (clave {}): {} transiciones en {}, la última del dispositivo {} ({})", alert.rule(),
+                    alert.key(), alert.count(), alert.window(), alert.deviceId(), alert.serialNo());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.insulinpump.deviceservice.alert;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+// Últimas alertas de esta réplica, de la más reciente a la más antigua
+@Component
+public class RecentAlerts implements AlertSink {
+
+    private final int capacity;
+    private final Deque<Alert> alerts = new ArrayDeque<>();
+
+    public RecentAlerts(AlertProperties properties) {
+        this.capacity = properties.getRecentAlerts();
+    }
+
+    @Override
+    public synchronized void deliver(Alert alert) {
+        if (capacity <= 0) {
+            return;
+        }
+        if (alerts.size() == capacity) {
+            alerts.removeLast();
+        }
+        alerts.addFirst(alert);
+    }
+
+    public synchronized List<Alert> recent(String rule, int limit) {
+        List<Alert> recent = new ArrayList<>(Math.min(limit, alerts.size()));
+        for (Iterator<Alert> iterator = alerts.iterator(); iterator.hasNext() && recent.size() < limit; ) {
+            Alert alert = iterator.next();
+            if (rule == null || rule.equals(alert.rule())) {
+                recent.add(alert);
+            }
+        }
+        return recent;
+    }
+}
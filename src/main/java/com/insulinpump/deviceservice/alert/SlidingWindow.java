@@ -0,0 +1,42 @@
+package com.insulinpump.deviceservice.alert;
+
+// Ventana deslizante de una clave: "threshold transiciones en window" equivale a que la transición de hace
+// threshold - 1 posiciones esté dentro de la ventana, así que basta un anillo con los últimos threshold instantes.
+// Al alertar se vacía, y la siguiente alerta necesita otras threshold transiciones. CompiledRule la usa siempre
+// dentro de un compute del mapa de ventanas, que ya serializa los accesos a cada clave.
+final class SlidingWindow {
+
+    private final long[] timestamps;
+    private final long windowMillis;
+    private int next;
+    private int size;
+
+    SlidingWindow(int threshold, long windowMillis) {
+        this.timestamps = new long[threshold];
+        this.windowMillis = windowMillis;
+    }
+
+    // true si con esta transición se alcanza el umbral
+    boolean record(long nowMillis) {
+        timestamps[next] = nowMillis;
+        next = (next + 1) % timestamps.length;
+        if (size < timestamps.length) {
+            size++;
+        }
+        // Con el anillo lleno, next apunta a la más antigua de las últimas threshold
+        if (size == timestamps.length && nowMillis - timestamps[next] < windowMillis) {
+            size = 0;
+            return true;
+        }
+        return false;
+    }
+
+    // Sin transiciones dentro de la ventana: ninguna de las guardadas puede contar ya para una alerta
+    boolean isIdle(long nowMillis) {
+        if (size == 0) {
+            return true;
+        }
+        long newest = timestamps[(next - 1 + timestamps.length) % timestamps.length];
+        return nowMillis - newest >= windowMillis;
+    }
+}
@@ -0,0 +1,26 @@
+package com.insulinpump.deviceservice.archive;
+
+import com.insulinpump.deviceservice.service.DeviceService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+// La tabla de archivo y las consultas con includeArchived existen siempre; el trabajo que mueve dispositivos
+// solo se crea con device.archive.enabled=true
+@Configuration
+@EnableConfigurationProperties(ArchiveProperties.class)
+public class ArchiveConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "device.archive", name = "enabled", havingValue = "true")
+    public DeviceArchiver deviceArchiver(DeviceService deviceService, ArchivedDeviceRepository archivedDeviceRepository,
+                                         ArchiveProperties properties, Environment environment) {
+        // Con sharding los dispositivos están en otras bases de datos y el movimiento no sería atómico
+        if (environment.getProperty("device.sharding.enabled", Boolean.class, false)) {
+            throw new IllegalStateException("device.archive.enabled no es compatible con device.sharding.enabled");
+        }
+        return new DeviceArchiver(deviceService, archivedDeviceRepository, properties);
+    }
+}
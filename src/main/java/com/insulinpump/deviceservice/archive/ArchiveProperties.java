@@ -0,0 +1,27 @@
+package com.insulinpump.deviceservice.archive;
+
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "device.archive")
+public class ArchiveProperties {
+
+    private boolean enabled = false;
+    private Duration interval = Duration.ofHours(1);
+    // Política de retirada: estado -> tiempo en ese estado tras el que el dispositivo se archiva
+    private Map<DeviceStatus, Duration> retireAfter = new EnumMap<>(Map.of(
+            DeviceStatus.DEFECTIVE, Duration.ofDays(30),
+            DeviceStatus.INACTIVE, Duration.ofDays(365)));
+    // Dispositivos por transacción: cada lote bloquea sus filas hasta confirmarse
+    private int chunkSize = 500;
+    // Ritmo máximo del movimiento, para no competir con el tráfico de la API
+    private int maxDevicesPerSecond = 1_000;
+    // Tope por ejecución; lo que quede se archiva en la siguiente
+    private int maxDevicesPerRun = 50_000;
+}
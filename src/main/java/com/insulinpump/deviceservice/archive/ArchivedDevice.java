@@ -0,0 +1,43 @@
+package com.insulinpump.deviceservice.archive;
+
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+// Dispositivo retirado de la tabla activa. Conserva su id y las mismas columnas que Device; se escribe por
+// lotes con DeviceArchivalRepository (JDBC) y JPA solo se usa para consultarlo.
+@Entity
+@Table(name = "dispositivos_archivados",
+        indexes = @Index(name = "idx_archivados_paciente", columnList = "patientId, id"))
+@Data
+@NoArgsConstructor
+public class ArchivedDevice {
+
+    @Id
+    private Long id;
+
+    @Column(unique = true)
+    private String serialNo;
+
+    private String model;
+    private String manufacturer;
+
+    @Enumerated(EnumType.STRING)
+    private DeviceStatus status;
+
+    private Long patientId;
+    private LocalDate manufactureDate;
+    private LocalDate lastMaintenanceDate;
+    private Float maxBasalRate;
+    private Float maxBolusAmount;
+    private Integer reservoirCapacity;
+    private String firmwareVersion;
+    private String batteryType;
+    private Instant statusChangedAt;
+
+    private Instant archivedAt;
+}
@@ -0,0 +1,26 @@
+package com.insulinpump.deviceservice.archive;
+
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ArchivedDeviceRepository extends JpaRepository<ArchivedDevice, Long>, DeviceArchivalRepository {
+    Optional<ArchivedDevice> findBySerialNo(String serialNo);
+    List<ArchivedDevice> findByPatientIdOrderById(Long patientId);
+    boolean existsBySerialNo(String serialNo);
+
+    // Filas anteriores a statusChangedAt en un estado de la política: su plazo de retención empieza ahora
+    @Modifying
+    @Transactional
+    @Query("update Device d set d.statusChangedAt = :now where d.status in :statuses and d.statusChangedAt is null")
+    int startRetentionClock(Collection<DeviceStatus> statuses, Instant now);
+}
@@ -0,0 +1,22 @@
+package com.insulinpump.deviceservice.archive;
+
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+// Paso de filas de dispositivos a dispositivos_archivados. Siempre sobre el DataSource principal: no hay
+// archivado con sharding.
+public interface DeviceArchivalRepository {
+
+    // Hasta limit dispositivos cuyo estado es una clave de retiredBefore y cambió antes de su valor, por orden de
+    // id y bloqueados hasta el final de la transacción (otra réplica que archive a la vez espera y los salta)
+    List<Device> findArchivable(Map<DeviceStatus, Instant> retiredBefore, int limit);
+
+    // Copia las filas a la tabla de archivo (INSERT ... SELECT, sin pasar por el contexto de persistencia) y las
+    // borra de la tabla activa. Los dispositivos deben estar bloqueados por findArchivable.
+    void moveToArchive(Collection<Long> ids, Instant archivedAt);
+}
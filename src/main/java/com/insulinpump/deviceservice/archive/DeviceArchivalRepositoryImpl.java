@@ -0,0 +1,63 @@
+package com.insulinpump.deviceservice.archive;
+
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+class DeviceArchivalRepositoryImpl implements DeviceArchivalRepository {
+
+    private static final String ATTRIBUTES = "id, serialNo, model, manufacturer, status, patientId, manufactureDate, "
+            + "lastMaintenanceDate, maxBasalRate, maxBolusAmount, reservoirCapacity, firmwareVersion, batteryType, "
+            + "statusChangedAt";
+    // Los mismos atributos leídos de la fila activa: d.id, d.serialNo, ...
+    private static final String SOURCE_ATTRIBUTES = ATTRIBUTES.replaceAll("(\\w+)", "d.$1");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Device> findArchivable(Map<DeviceStatus, Instant> retiredBefore, int limit) {
+        if (retiredBefore.isEmpty()) {
+            return List.of();
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Device> query = cb.createQuery(Device.class);
+        Root<Device> root = query.from(Device.class);
+        Predicate[] retired = retiredBefore.entrySet().stream()
+                .map(policy -> cb.and(
+                        cb.equal(root.get("status"), policy.getKey()),
+                        cb.lessThan(root.get("statusChangedAt"), policy.getValue())))
+                .toArray(Predicate[]::new);
+        query.select(root).where(cb.or(retired)).orderBy(cb.asc(root.get("id")));
+        return entityManager.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public void moveToArchive(Collection<Long> ids, Instant archivedAt) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        entityManager.createQuery("insert into ArchivedDevice (" + ATTRIBUTES + ", archivedAt) select "
+                        + SOURCE_ATTRIBUTES + ", :archivedAt from Device d where d.id in :ids")
+                .setParameter("archivedAt", archivedAt)
+                .setParameter("ids", ids)
+                .executeUpdate();
+        entityManager.createQuery("delete from Device d where d.id in :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,105 @@
+package com.insulinpump.deviceservice.archive;
+
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import com.insulinpump.deviceservice.service.DeviceService;
+import com.insulinpump.deviceservice.util.Throttle;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Mueve periódicamente a dispositivos_archivados los dispositivos que cumplen la política de retirada (estado y
+// tiempo en él). Trabaja por lotes de chunkSize, cada uno en su propia transacción de DeviceService, y limita el
+// ritmo a maxDevicesPerSecond. Una ejecución termina al quedarse sin candidatos o al llegar a maxDevicesPerRun.
+@Slf4j
+public class DeviceArchiver implements MeterBinder {
+
+    private final DeviceService deviceService;
+    private final ArchivedDeviceRepository archivedDeviceRepository;
+    private final ArchiveProperties properties;
+    private final Clock clock;
+    private Counter archivedDevices;
+    private Timer chunkTimer;
+
+    public DeviceArchiver(DeviceService deviceService, ArchivedDeviceRepository archivedDeviceRepository,
+                          ArchiveProperties properties) {
+        this(deviceService, archivedDeviceRepository, properties, Clock.systemUTC());
+    }
+
+    DeviceArchiver(DeviceService deviceService, ArchivedDeviceRepository archivedDeviceRepository,
+                   ArchiveProperties properties, Clock clock) {
+        this.deviceService = deviceService;
+        this.archivedDeviceRepository = archivedDeviceRepository;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        archivedDevices = Counter.builder("device.archive.archived")
+                .description("Dispositivos movidos a la tabla de archivo")
+                .register(registry);
+        chunkTimer = Timer.builder("device.archive.chunk")
+                .description("Duración de cada lote de archivado (bloqueo, copia y borrado)")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${device.archive.interval:1h}")
+    public void archive() {
+        try {
+            int archived = archiveRetired();
+            if (archived > 0) {
+                log.info("Archivados {} dispositivos retirados", archived);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Error archivando dispositivos retirados: {}", e.getMessage());
+        }
+    }
+
+    // Devuelve cuántos dispositivos se han archivado en esta ejecución
+    int archiveRetired() throws InterruptedException {
+        Map<DeviceStatus, Duration> policy = properties.getRetireAfter();
+        if (policy.isEmpty()) {
+            return 0;
+        }
+        Instant now = clock.instant();
+        // Filas anteriores a statusChangedAt: sin fecha no se sabe cuánto llevan retiradas
+        int started = archivedDeviceRepository.startRetentionClock(policy.keySet(), now);
+        if (started > 0) {
+            log.info("Plazo de retención iniciado para {} dispositivos sin fecha de cambio de estado", started);
+        }
+        Map<DeviceStatus, Instant> retiredBefore = new EnumMap<>(DeviceStatus.class);
+        policy.forEach((status, retention) -> retiredBefore.put(status, now.minus(retention)));
+
+        int archived = 0;
+        while (archived < properties.getMaxDevicesPerRun()) {
+            int limit = Math.min(properties.getChunkSize(), properties.getMaxDevicesPerRun() - archived);
+            long startedAt = System.nanoTime();
+            int moved = deviceService.archiveDevices(retiredBefore, limit);
+            if (chunkTimer != null) {
+                chunkTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            }
+            if (archivedDevices != null) {
+                archivedDevices.increment(moved);
+            }
+            archived += moved;
+            if (moved < limit) {
+                break;
+            }
+            Throttle.pace(moved, properties.getMaxDevicesPerSecond(), startedAt);
+        }
+        return archived;
+    }
+
+}
@@ -0,0 +1,10 @@
+package com.insulinpump.deviceservice.audit;
+
+public enum AuditAction {
+    CREATED,
+    UPDATED,
+    STATUS_CHANGED,
+    ASSIGNED,
+    DELETED,
+    ARCHIVED
+}
@@ -0,0 +1,9 @@
+package com.insulinpump.deviceservice.audit;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(AuditProperties.class)
+public class AuditConfig {
+}
@@ -0,0 +1,74 @@
+package com.insulinpump.deviceservice.audit;
+
+import com.insulinpump.deviceservice.event.DeviceChangeType;
+import com.insulinpump.deviceservice.event.DeviceChangedEvent;
+import com.insulinpump.deviceservice.model.Device;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+// Campos auditados de Device y diferencias entre dos versiones. Un alta compara contra null y una baja contra
+// null en el otro sentido, así el historial guarda también los valores iniciales y finales.
+final class AuditDiff {
+
+    private static final Map<String, Function<Device, Object>> FIELDS = fields();
+
+    private AuditDiff() {
+    }
+
+    record FieldChange(Object from, Object to) {
+    }
+
+    static Map<String, FieldChange> changes(Device previous, Device current) {
+        Map<String, FieldChange> changes = new LinkedHashMap<>();
+        FIELDS.forEach((name, getter) -> {
+            Object from = previous != null ? getter.apply(previous) : null;
+            Object to = current != null ? getter.apply(current) : null;
+            if (!Objects.equals(from, to)) {
+                changes.put(name, new FieldChange(from, to));
+            }
+        });
+        return Collections.unmodifiableMap(changes);
+    }
+
+    // Una modificación que solo toca el estado o la asignación se distingue para poder filtrarla en el historial
+    static AuditAction action(DeviceChangedEvent event, Map<String, FieldChange> changes) {
+        if (event.type() == DeviceChangeType.CREATED) {
+            return AuditAction.CREATED;
+        }
+        if (event.type() == DeviceChangeType.DELETED) {
+            return AuditAction.DELETED;
+        }
+        if (event.type() == DeviceChangeType.ARCHIVED) {
+            return AuditAction.ARCHIVED;
+        }
+        if (changes.keySet().equals(Set.of("status"))) {
+            return AuditAction.STATUS_CHANGED;
+        }
+        if (changes.keySet().equals(Set.of("patientId"))) {
+            return AuditAction.ASSIGNED;
+        }
+        return AuditAction.UPDATED;
+    }
+
+    private static Map<String, Function<Device, Object>> fields() {
+        Map<String, Function<Device, Object>> fields = new LinkedHashMap<>();
+        fields.put("serialNo", Device::getSerialNo);
+        fields.put("model", Device::getModel);
+        fields.put("manufacturer", Device::getManufacturer);
+        fields.put("status", Device::getStatus);
+        fields.put("patientId", Device::getPatientId);
+        fields.put("manufactureDate", Device::getManufactureDate);
+        fields.put("lastMaintenanceDate", Device::getLastMaintenanceDate);
+        fields.put("maxBasalRate", Device::getMaxBasalRate);
+        fields.put("maxBolusAmount", Device::getMaxBolusAmount);
+        fields.put("reservoirCapacity", Device::getReservoirCapacity);
+        fields.put("firmwareVersion", Device::getFirmwareVersion);
+        fields.put("batteryType", Device::getBatteryType);
+        return Collections.unmodifiableMap(fields);
+    }
+}
@@ -0,0 +1,33 @@
+package com.insulinpump.deviceservice.audit;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// Se escribe por lotes con AuditWriter (JDBC); JPA solo se usa para leer el historial
+@Entity
+@Table(name = "auditoria_dispositivos", indexes = @Index(name = "idx_auditoria_dispositivo", columnList = "deviceId, id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long deviceId;
+    private String serialNo;
+
+    @Enumerated(EnumType.STRING)
+    private AuditAction action;
+
+    // Campo -> {"from": ..., "to": ...} en JSON
+    @Column(length = 4000)
+    private String changes;
+
+    private Instant changedAt;
+}
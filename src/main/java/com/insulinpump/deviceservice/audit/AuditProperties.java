@@ -0,0 +1,21 @@
+package com.insulinpump.deviceservice.audit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "device.audit")
+public class AuditProperties {
+
+    private boolean enabled = true;
+    // Entradas en espera como máximo; si se llena, la escritura que la desborda inserta su entrada directamente
+    private int queueCapacity = 10_000;
+    private int batchSize = 200;
+    // Espera máxima de una entrada en la cola cuando no se llega a completar un lote
+    private Duration flushInterval = Duration.ofMillis(200);
+    // Reintentos de un lote antes de descartarlo (con error en el log y en device.audit.failed)
+    private int maxRetries = 3;
+    private int maxPageSize = 200;
+}
@@ -0,0 +1,7 @@
+package com.insulinpump.deviceservice.audit;
+
+import java.time.Instant;
+
+// Entrada pendiente de escribir; changes ya va serializado en JSON
+public record AuditRecord(Long deviceId, String serialNo, AuditAction action, String changes, Instant changedAt) {
+}
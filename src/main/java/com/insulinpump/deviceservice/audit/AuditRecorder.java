@@ -0,0 +1,225 @@
+package com.insulinpump.deviceservice.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insulinpump.deviceservice.event.DeviceChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Historial de cambios de los dispositivos fuera de la transacción de DeviceService: cada cambio confirmado
+// se encola (sin bloquear la petición) y un único hilo calcula el diff y lo inserta por lotes con AuditWriter.
+// Un lote se cierra al llegar a batchSize o al pasar flushInterval desde su primera entrada. Si la cola se
+// llena, la escritura que la desborda inserta su entrada ella misma para no perderla.
+@Component
+@Slf4j
+public class AuditRecorder implements SmartLifecycle, MeterBinder {
+
+    private final AuditWriter writer;
+    private final AuditProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final BlockingQueue<Pending> queue;
+
+    private volatile boolean running;
+    private Thread worker;
+    private Counter written;
+    private Counter overflows;
+    private Counter failed;
+
+    @Autowired
+    public AuditRecorder(AuditWriter writer, AuditProperties properties, ObjectMapper objectMapper) {
+        this(writer, properties, objectMapper, Clock.systemUTC());
+    }
+
+    AuditRecorder(AuditWriter writer, AuditProperties properties, ObjectMapper objectMapper, Clock clock) {
+        this.writer = writer;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+    }
+
+    private record Pending(DeviceChangedEvent event, Instant changedAt) {
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("device.audit.queue", queue, BlockingQueue::size)
+                .description("Entradas de auditoría pendientes de escribir")
+                .register(registry);
+        written = Counter.builder("device.audit.written")
+                .description("Entradas de auditoría escritas")
+                .register(registry);
+        overflows = Counter.builder("device.audit.overflows")
+                .description("Entradas escritas por la propia petición por estar llena la cola")
+                .register(registry);
+        failed = Counter.builder("device.audit.failed")
+                .description("Entradas de auditoría descartadas tras agotar los reintentos")
+                .register(registry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Pending pending = new Pending(event, clock.instant());
+        if (!queue.offer(pending)) {
+            increment(overflows, 1);
+            write(List.of(pending), 0);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::drainLoop, "device-audit-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // Antes de cerrar el DataSource: se escribe lo que quede en la cola
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            try {
+                worker.join(properties.getFlushInterval().multipliedBy(2).toMillis() + 1_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            worker = null;
+        }
+        List<Pending> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            write(remaining, 0);
+        }
+    }
+
+    // Se para después del servidor web, cuando ya no pueden llegar escrituras
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    int pending() {
+        return queue.size();
+    }
+
+    // Escribe un lote; devuelve las entradas sacadas de la cola (0 si no llegó ninguna en flushInterval)
+    int flush() throws InterruptedException {
+        long flushNanos = properties.getFlushInterval().toNanos();
+        Pending first = queue.poll(flushNanos, TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return 0;
+        }
+        List<Pending> batch = new ArrayList<>(properties.getBatchSize());
+        batch.add(first);
+        long deadline = System.nanoTime() + flushNanos;
+        while (batch.size() < properties.getBatchSize()) {
+            queue.drainTo(batch, properties.getBatchSize() - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= properties.getBatchSize() || remaining <= 0) {
+                break;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        write(batch, properties.getMaxRetries());
+        return batch.size();
+    }
+
+    private void drainLoop() {
+        while (running || !queue.isEmpty()) {
+            try {
+                flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error inesperado en el escritor de auditoría: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void write(List<Pending> batch, int retries) {
+        List<AuditRecord> records = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            AuditRecord record = toRecord(pending);
+            if (record != null) {
+                records.add(record);
+            }
+        }
+        if (records.isEmpty()) {
+            return;
+        }
+        for (int attempt = 0; ; attempt++) {
+            try {
+                writer.write(records);
+                increment(written, records.size());
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= retries) {
+                    increment(failed, records.size());
+                    log.error("Descartadas {} entradas de auditoría tras {} intentos: {}",
+                            records.size(), attempt + 1, e.getMessage());
+                    return;
+                }
+                log.warn("Error escribiendo {} entradas de auditoría, reintentando: {}", records.size(), e.getMessage());
+                try {
+                    Thread.sleep(100L << attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Una modificación sin cambios en los campos auditados no deja entrada
+    private AuditRecord toRecord(Pending pending) {
+        DeviceChangedEvent event = pending.event();
+        Map<String, AuditDiff.FieldChange> changes = AuditDiff.changes(event.previous(), event.current());
+        if (changes.isEmpty()) {
+            return null;
+        }
+        String serialNo = event.current() != null ? event.current().getSerialNo() : event.previous().getSerialNo();
+        try {
+            return new AuditRecord(event.deviceId(), serialNo, AuditDiff.action(event, changes),
+                    objectMapper.writeValueAsString(changes), pending.changedAt());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el cambio del dispositivo " + event.deviceId(), e);
+        }
+    }
+
+    private static void increment(Counter counter, int amount) {
+        if (counter != null) {
+            counter.increment(amount);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.insulinpump.deviceservice.audit;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AuditRepository extends JpaRepository<AuditEntry, Long> {
+
+    // Historial de un dispositivo del más reciente al más antiguo, paginado por cursor (id anterior a before)
+    List<AuditEntry> findByDeviceIdAndIdLessThanOrderByIdDesc(Long deviceId, Long before, Limit limit);
+}
@@ -0,0 +1,39 @@
+package com.insulinpump.deviceservice.audit;
+
+import com.insulinpump.deviceservice.dto.AuditEntryDto;
+import com.insulinpump.deviceservice.dto.AuditHistoryDto;
+import com.insulinpump.deviceservice.mapper.AuditMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// El historial se escribe de forma asíncrona: un cambio recién confirmado aparece tras flushInterval como mucho.
+// Se conserva también para dispositivos ya eliminados, así que un id desconocido devuelve un historial vacío.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditService {
+
+    private final AuditRepository repository;
+    private final AuditMapper auditMapper;
+    private final AuditProperties properties;
+
+    public AuditHistoryDto getHistory(Long deviceId, Long before, int limit) {
+        log.debug("Obteniendo historial del dispositivo {} antes de {}", deviceId, before);
+        int pageSize = Math.max(1, Math.min(limit, properties.getMaxPageSize()));
+        List<AuditEntryDto> entries = repository.findByDeviceIdAndIdLessThanOrderByIdDesc(deviceId,
+                        before != null ? before : Long.MAX_VALUE, Limit.of(pageSize + 1)).stream()
+                .map(auditMapper::toDto)
+                .collect(Collectors.toList());
+        Long nextBefore = null;
+        if (entries.size() > pageSize) {
+            entries = entries.subList(0, pageSize);
+            nextBefore = entries.get(pageSize - 1).getId();
+        }
+        return new AuditHistoryDto(entries, nextBefore);
+    }
+}
@@ -0,0 +1,29 @@
+package com.insulinpump.deviceservice.audit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+// Inserta las entradas de auditoría en un único batch JDBC, sin pasar por el contexto de persistencia
+@Component
+@RequiredArgsConstructor
+public class AuditWriter {
+
+    private static final String INSERT = "INSERT INTO auditoria_dispositivos "
+            + "(device_id, serial_no, action, changes, changed_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void write(List<AuditRecord> records) {
+        jdbcTemplate.batchUpdate(INSERT, records, records.size(), (statement, record) -> {
+            statement.setLong(1, record.deviceId());
+            statement.setString(2, record.serialNo());
+            statement.setString(3, record.action().name());
+            statement.setString(4, record.changes());
+            statement.setTimestamp(5, Timestamp.from(record.changedAt()));
+        });
+    }
+}
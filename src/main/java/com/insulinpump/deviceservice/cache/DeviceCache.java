@@ -0,0 +1,172 @@
+package com.insulinpump.deviceservice.cache;
+
+import com.insulinpump.deviceservice.changelog.ChangeLogListener;
+import com.insulinpump.deviceservice.changelog.DeviceChange;
+import com.insulinpump.deviceservice.event.DeviceChangedEvent;
+import com.insulinpump.deviceservice.mapper.DeviceMapper;
+import com.insulinpump.deviceservice.model.Device;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Caché local de dispositivos por id y por número de serie (LRU acotada con TTL). Se invalida con las
+// escrituras de esta réplica al confirmar y con las de las demás a través del change-log.
+@Component
+public class DeviceCache implements ChangeLogListener, MeterBinder {
+
+    private final DeviceCacheProperties properties;
+    private final DeviceMapper deviceMapper;
+    private final Clock clock;
+    // Orden de acceso: el primero es el menos usado recientemente
+    private final LinkedHashMap<Long, Entry> byId = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, Long> idBySerialNo = new HashMap<>();
+    // Cada invalidación lo incrementa; una carga solo se guarda si no ha habido invalidaciones mientras
+    // leía de la base de datos, para no reinsertar un valor anterior a una escritura recién confirmada
+    private final AtomicLong invalidations = new AtomicLong();
+    private Counter hits;
+    private Counter misses;
+
+    @Autowired
+    public DeviceCache(DeviceCacheProperties properties, DeviceMapper deviceMapper) {
+        this(properties, deviceMapper, Clock.systemUTC());
+    }
+
+    DeviceCache(DeviceCacheProperties properties, DeviceMapper deviceMapper, Clock clock) {
+        this.properties = properties;
+        this.deviceMapper = deviceMapper;
+        this.clock = clock;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("device.cache.size", this, DeviceCache::size)
+                .description("Dispositivos en la caché local")
+                .register(registry);
+        hits = Counter.builder("device.cache.requests").tag("result", "hit").register(registry);
+        misses = Counter.builder("device.cache.requests").tag("result", "miss").register(registry);
+    }
+
+    public Optional<Device> getById(Long id, Supplier<Optional<Device>> loader) {
+        if (!properties.isEnabled()) {
+            return loader.get();
+        }
+        Device cached = lookup(id);
+        return cached != null ? hit(cached) : load(loader);
+    }
+
+    public Optional<Device> getBySerialNo(String serialNo, Supplier<Optional<Device>> loader) {
+        if (!properties.isEnabled()) {
+            return loader.get();
+        }
+        Long id;
+        synchronized (this) {
+            id = idBySerialNo.get(serialNo);
+        }
+        Device cached = id != null ? lookup(id) : null;
+        return cached != null ? hit(cached) : load(loader);
+    }
+
+    // Escrituras de esta réplica: se invalida al confirmar, sin esperar al change-log
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        evict(event.deviceId(), event.serialNo(), event.previousSerialNo());
+    }
+
+    @Override
+    public void onChanges(List<DeviceChange> changes) {
+        for (DeviceChange change : changes) {
+            evict(change.deviceId(), change.serialNo(), change.previousSerialNo());
+        }
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+        invalidations.incrementAndGet();
+        byId.clear();
+        idBySerialNo.clear();
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    private synchronized Device lookup(Long id) {
+        Entry entry = byId.get(id);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt().isBefore(clock.instant())) {
+            remove(id);
+            return null;
+        }
+        return entry.device();
+    }
+
+    private Optional<Device> hit(Device cached) {
+        increment(hits);
+        // Copia: quien llama puede modificar el dispositivo sin alterar la caché
+        return Optional.of(deviceMapper.copy(cached));
+    }
+
+    private Optional<Device> load(Supplier<Optional<Device>> loader) {
+        increment(misses);
+        long stamp = invalidations.get();
+        Optional<Device> loaded = loader.get();
+        loaded.ifPresent(device -> put(deviceMapper.copy(device), stamp));
+        return loaded;
+    }
+
+    private synchronized void put(Device device, long stamp) {
+        if (invalidations.get() != stamp) {
+            return;
+        }
+        byId.put(device.getId(), new Entry(device, clock.instant().plus(properties.getTtl())));
+        idBySerialNo.put(device.getSerialNo(), device.getId());
+        if (byId.size() > properties.getMaxEntries()) {
+            remove(byId.keySet().iterator().next());
+        }
+    }
+
+    private synchronized void evict(Long id, String serialNo, String previousSerialNo) {
+        invalidations.incrementAndGet();
+        if (id != null) {
+            remove(id);
+        }
+        if (serialNo != null) {
+            idBySerialNo.remove(serialNo);
+        }
+        if (previousSerialNo != null) {
+            idBySerialNo.remove(previousSerialNo);
+        }
+    }
+
+    private void remove(Long id) {
+        Entry entry = byId.remove(id);
+        if (entry != null) {
+            idBySerialNo.remove(entry.device().getSerialNo(), id);
+        }
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    private record Entry(Device device, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.insulinpump.deviceservice.cache;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({DeviceCacheProperties.class, DeviceResponseCacheProperties.class})
+public class DeviceCacheConfig {
+}
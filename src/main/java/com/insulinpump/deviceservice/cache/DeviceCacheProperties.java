@@ -0,0 +1,16 @@
+package com.insulinpump.deviceservice.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "device.cache")
+public class DeviceCacheProperties {
+
+    private boolean enabled = true;
+    private int maxEntries = 10_000;
+    // Red de seguridad: aunque se pierda una invalidación, ninguna entrada vive más que esto
+    private Duration ttl = Duration.ofMinutes(10);
+}
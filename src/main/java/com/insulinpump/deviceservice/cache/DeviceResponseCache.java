@@ -0,0 +1,266 @@
+package com.insulinpump.deviceservice.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insulinpump.deviceservice.changelog.ChangeLogListener;
+import com.insulinpump.deviceservice.changelog.DeviceChange;
+import com.insulinpump.deviceservice.dto.DeviceDetailsDto;
+import com.insulinpump.deviceservice.dto.PatientDto;
+import com.insulinpump.deviceservice.event.DeviceChangedEvent;
+import com.insulinpump.deviceservice.metrics.DeviceMetrics;
+import com.insulinpump.deviceservice.projection.PatientProjection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+// Respuestas ya codificadas de GET /api/devices/{id} y /serial/{serialNo} (JSON y, si compensa, gzip), listas
+// para escribirse sin pasar por Jackson. LRU acotada por bytes con TTL; se invalida igual que DeviceCache.
+// Cada entrada recuerda la versión con la que se generó: la generación de invalidaciones al cargarla y el
+// paciente incrustado, que puede cambiar en la proyección sin que cambie el dispositivo.
+@Component
+public class DeviceResponseCache implements ChangeLogListener, MeterBinder {
+
+    private final DeviceResponseCacheProperties properties;
+    private final ObjectMapper objectMapper;
+    private final PatientProjection patientProjection;
+    private final DeviceMetrics deviceMetrics;
+    private final Clock clock;
+    // Orden de acceso: el primero es el menos usado recientemente
+    private final LinkedHashMap<Long, Entry> byId = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, Long> idBySerialNo = new HashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private long bytes;
+    private Counter hits;
+    private Counter misses;
+
+    @Autowired
+    public DeviceResponseCache(DeviceResponseCacheProperties properties, ObjectMapper objectMapper,
+                               PatientProjection patientProjection, DeviceMetrics deviceMetrics) {
+        this(properties, objectMapper, patientProjection, deviceMetrics, Clock.systemUTC());
+    }
+
+    DeviceResponseCache(DeviceResponseCacheProperties properties, ObjectMapper objectMapper,
+                        PatientProjection patientProjection, DeviceMetrics deviceMetrics, Clock clock) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.patientProjection = patientProjection;
+        this.deviceMetrics = deviceMetrics;
+        this.clock = clock;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("device.response-cache.size", this, DeviceResponseCache::size)
+                .description("Respuestas codificadas en la caché")
+                .register(registry);
+        Gauge.builder("device.response-cache.bytes", this, DeviceResponseCache::bytes)
+                .description("Bytes ocupados por las respuestas codificadas (JSON y gzip)")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("device.response-cache.hit-ratio", this, DeviceResponseCache::hitRatio)
+                .description("Proporción de lecturas servidas desde la caché de respuestas")
+                .register(registry);
+        hits = Counter.builder("device.response-cache.requests").tag("result", "hit").register(registry);
+        misses = Counter.builder("device.response-cache.requests").tag("result", "miss").register(registry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public Encoded getById(Long id, Supplier<Rendered> loader) {
+        Entry cached = lookup(id);
+        return cached != null ? hit(cached) : load(loader);
+    }
+
+    public Encoded getBySerialNo(String serialNo, Supplier<Rendered> loader) {
+        Long id;
+        synchronized (this) {
+            id = idBySerialNo.get(serialNo);
+        }
+        Entry cached = id != null ? lookup(id) : null;
+        return cached != null ? hit(cached) : load(loader);
+    }
+
+    // Escrituras de esta réplica: se invalida al confirmar, sin esperar al change-log
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        evict(event.deviceId(), event.serialNo(), event.previousSerialNo());
+    }
+
+    @Override
+    public void onChanges(List<DeviceChange> changes) {
+        for (DeviceChange change : changes) {
+            evict(change.deviceId(), change.serialNo(), change.previousSerialNo());
+        }
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+        invalidations.incrementAndGet();
+        byId.clear();
+        idBySerialNo.clear();
+        bytes = 0;
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    public double hitRatio() {
+        long hitTotal = hitCount.get();
+        long total = hitTotal + missCount.get();
+        return total == 0 ? 0.0 : (double) hitTotal / total;
+    }
+
+    private Entry lookup(Long id) {
+        Entry entry;
+        synchronized (this) {
+            entry = byId.get(id);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt().isBefore(clock.instant())) {
+                remove(id);
+                return null;
+            }
+        }
+        if (entry.patientId() == null) {
+            return entry;
+        }
+        // El paciente incrustado forma parte de la versión: si la proyección ha cambiado, se vuelve a generar
+        Optional<PatientDto> patient = patientProjection.find(entry.patientId());
+        return Objects.equals(patient.orElse(null), entry.patient()) ? entry : null;
+    }
+
+    private Encoded hit(Entry cached) {
+        hitCount.incrementAndGet();
+        increment(hits);
+        if (cached.patientId() != null && cached.patient() == null) {
+            // Igual que sin caché: cada respuesta sin paciente cuenta como fallo de la proyección
+            deviceMetrics.patientProjectionMiss();
+        }
+        return cached.encoded();
+    }
+
+    private Encoded load(Supplier<Rendered> loader) {
+        missCount.incrementAndGet();
+        increment(misses);
+        long stamp = invalidations.get();
+        Rendered rendered = loader.get();
+        Encoded encoded = encode(rendered.device());
+        put(rendered, encoded, stamp);
+        return encoded;
+    }
+
+    private Encoded encode(DeviceDetailsDto device) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(device);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el dispositivo " + device.getId(), e);
+        }
+        if (!properties.isGzip() || json.length < properties.getGzipMinSize().toBytes()) {
+            return new Encoded(json, null);
+        }
+        byte[] gzip = gzip(json);
+        // Solo se guarda la versión comprimida si de verdad ocupa menos
+        return new Encoded(json, gzip.length < json.length ? gzip : null);
+    }
+
+    private synchronized void put(Rendered rendered, Encoded encoded, long stamp) {
+        if (invalidations.get() != stamp) {
+            return;
+        }
+        DeviceDetailsDto device = rendered.device();
+        long maxBytes = properties.getMaxSize().toBytes();
+        if (encoded.size() > maxBytes) {
+            return;
+        }
+        remove(device.getId());
+        byId.put(device.getId(), new Entry(device.getSerialNo(), rendered.patientId(), device.getPatient(), encoded,
+                clock.instant().plus(properties.getTtl())));
+        idBySerialNo.put(device.getSerialNo(), device.getId());
+        bytes += encoded.size();
+        while (bytes > maxBytes) {
+            remove(byId.keySet().iterator().next());
+        }
+    }
+
+    private synchronized void evict(Long id, String serialNo, String previousSerialNo) {
+        invalidations.incrementAndGet();
+        if (id != null) {
+            remove(id);
+        }
+        if (serialNo != null) {
+            idBySerialNo.remove(serialNo);
+        }
+        if (previousSerialNo != null) {
+            idBySerialNo.remove(previousSerialNo);
+        }
+    }
+
+    private void remove(Long id) {
+        Entry entry = byId.remove(id);
+        if (entry != null) {
+            idBySerialNo.remove(entry.serialNo(), id);
+            bytes -= entry.encoded().size();
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    // Dispositivo ya convertido a DTO, con el id de paciente aunque la proyección no lo tuviera
+    public record Rendered(DeviceDetailsDto device, Long patientId) {
+    }
+
+    // gzip es null si está desactivado o no reduce el tamaño
+    public record Encoded(byte[] json, byte[] gzip) {
+
+        int size() {
+            return json.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+
+    private record Entry(String serialNo, Long patientId, PatientDto patient, Encoded encoded, Instant expiresAt) {
+    }
+}
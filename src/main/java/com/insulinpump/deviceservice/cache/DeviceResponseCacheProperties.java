@@ -0,0 +1,20 @@
+package com.insulinpump.deviceservice.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "device.response-cache")
+public class DeviceResponseCacheProperties {
+
+    private boolean enabled = true;
+    // Límite por bytes codificados (JSON más su versión gzip), no por número de entradas
+    private DataSize maxSize = DataSize.ofMegabytes(32);
+    private Duration ttl = Duration.ofMinutes(10);
+    private boolean gzip = true;
+    // Por debajo de este tamaño la cabecera gzip no compensa
+    private DataSize gzipMinSize = DataSize.ofBytes(256);
+}
@@ -0,0 +1,254 @@
+package com.insulinpump.deviceservice.changelog;
+
+import com.insulinpump.deviceservice.dto.DeviceChangesDto;
+import com.insulinpump.deviceservice.dto.DeviceDetailsDto;
+import com.insulinpump.deviceservice.event.DeviceChangeType;
+import com.insulinpump.deviceservice.event.DeviceChangedEvent;
+import com.insulinpump.deviceservice.service.DeviceService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+// Change-feed para sincronización incremental: lee cambios_dispositivos desde el cursor del cliente y devuelve
+// la versión actual de cada dispositivo modificado una sola vez (compactación). Un hueco en la secuencia puede ser
+// una transacción todavía sin confirmar: como en ChangeLogPoller, se anota cuándo se vio por primera vez y, hasta
+// que pasa gapTimeout, la página se corta antes de él; después se da por revertido. Con espera, la petición queda
+// aparcada hasta que una escritura local o el change-log de otra réplica traen cambios.
+@Component
+@Slf4j
+public class ChangeFeed implements ChangeLogListener, MeterBinder {
+
+    private final ChangeLogRepository repository;
+    private final DeviceService deviceService;
+    private final ChangeLogProperties changeLogProperties;
+    private final ChangeFeedProperties properties;
+    private final Clock clock;
+    private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+    // Secuencia que limita un hueco -> instante en que se vio por primera vez; compartido por todas las peticiones
+    private final Map<Long, Instant> gaps = new LinkedHashMap<>();
+    private final AtomicBoolean wakeScheduled = new AtomicBoolean();
+    private final ExecutorService notifier = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "device-change-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public ChangeFeed(ChangeLogRepository repository, DeviceService deviceService,
+                      ChangeLogProperties changeLogProperties, ChangeFeedProperties properties) {
+        this(repository, deviceService, changeLogProperties, properties, Clock.systemUTC());
+    }
+
+    ChangeFeed(ChangeLogRepository repository, DeviceService deviceService, ChangeLogProperties changeLogProperties,
+               ChangeFeedProperties properties, Clock clock) {
+        this.repository = repository;
+        this.deviceService = deviceService;
+        this.changeLogProperties = changeLogProperties;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    private record Waiter(long since, int limit, DeferredResult<DeviceChangesDto> result) {
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("device.change-feed.waiters", waiters, Set::size)
+                .description("Peticiones del change-feed esperando cambios")
+                .register(registry);
+    }
+
+    // Sin since devuelve solo el cursor actual: el cliente lo guarda, carga GET /api/devices y sigue desde él
+    public DeferredResult<DeviceChangesDto> changes(Long since, int limit, Duration wait) {
+        Duration timeout = wait.compareTo(properties.getMaxWait()) > 0 ? properties.getMaxWait() : wait;
+        DeferredResult<DeviceChangesDto> result = new DeferredResult<>(timeout.toMillis(),
+                () -> emptyPage(since));
+        if (since == null) {
+            result.setResult(emptyPage(repository.findMaxId().orElse(0L)));
+            return result;
+        }
+        if (timeout.isZero() || timeout.isNegative() || waiters.size() >= properties.getMaxWaiters()) {
+            result.setResult(read(since, limit));
+            return result;
+        }
+
+        // Se registra antes de leer para no perder un cambio confirmado entre la lectura y la espera
+        Waiter waiter = new Waiter(since, limit, result);
+        waiters.add(waiter);
+        result.onCompletion(() -> waiters.remove(waiter));
+        result.onTimeout(() -> waiters.remove(waiter));
+        DeviceChangesDto page = read(since, limit);
+        if (hasContent(page, since)) {
+            result.setResult(page);
+        }
+        return result;
+    }
+
+    DeviceChangesDto read(long since, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, properties.getMaxLimit()));
+        List<ChangeLogEntry> entries = repository.findByIdGreaterThanOrderByIdAsc(since, Limit.of(pageSize));
+        if (entries.isEmpty()) {
+            // El purgado conserva siempre la última entrada: con la tabla vacía o un cursor por encima del
+            // máximo, el cursor no sale de este change-log
+            if (since > 0 && repository.findMaxId().map(max -> since > max).orElse(true)) {
+                return resyncPage(since);
+            }
+            return emptyPage(since);
+        }
+        Instant now = clock.instant();
+        ChangeLogEntry first = entries.get(0);
+        if (first.getId() > since + 1 && repository.findMinId().map(first.getId()::equals).orElse(false)
+                && !isRecentGap(since + 1, first.getId() - 1, now)) {
+            // since está por debajo de la marca de purgado (la entrada más antigua conservada): lo que había entre
+            // ambos ya se ha eliminado
+            return resyncPage(since);
+        }
+
+        // Último tipo de cambio por dispositivo, en el orden de su cambio más reciente
+        Map<Long, DeviceChangeType> latest = new LinkedHashMap<>();
+        long cursor = since;
+        for (ChangeLogEntry entry : entries) {
+            if (entry.getId() > cursor + 1 && isRecentGap(cursor + 1, entry.getId() - 1, now)) {
+                break;
+            }
+            latest.remove(entry.getDeviceId());
+            latest.put(entry.getDeviceId(), entry.getChangeType());
+            cursor = entry.getId();
+        }
+        boolean hasMore = entries.size() == pageSize && cursor == entries.get(entries.size() - 1).getId();
+
+        List<Long> changedIds = new ArrayList<>();
+        List<Long> deletedIds = new ArrayList<>();
+        List<Long> archivedIds = new ArrayList<>();
+        latest.forEach((deviceId, type) -> (switch (type) {
+            case DELETED -> deletedIds;
+            case ARCHIVED -> archivedIds;
+            default -> changedIds;
+        }).add(deviceId));
+        List<DeviceDetailsDto> devices = changedIds.isEmpty() ? List.of() : deviceService.getDevicesByIds(changedIds);
+        if (devices.size() < changedIds.size()) {
+            // Borrado después de la última entrada leída: para el cliente ya no existe
+            Set<Long> found = devices.stream().map(DeviceDetailsDto::getId).collect(Collectors.toSet());
+            changedIds.stream().filter(id -> !found.contains(id)).forEach(deletedIds::add);
+        }
+        return new DeviceChangesDto(devices, deletedIds, archivedIds, cursor, hasMore, false);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        wakeWaiters();
+    }
+
+    @Override
+    public void onChanges(List<DeviceChange> changes) {
+        wakeWaiters();
+    }
+
+    @Override
+    public void invalidateAll() {
+        wakeWaiters();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        notifier.shutdownNow();
+    }
+
+    int waiting() {
+        return waiters.size();
+    }
+
+    // Varias escrituras seguidas comparten una única pasada por las peticiones en espera
+    private void wakeWaiters() {
+        if (waiters.isEmpty() || !wakeScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        notifier.execute(() -> {
+            wakeScheduled.set(false);
+            for (Waiter waiter : waiters) {
+                if (waiter.result().isSetOrExpired()) {
+                    waiters.remove(waiter);
+                    continue;
+                }
+                try {
+                    DeviceChangesDto page = read(waiter.since(), waiter.limit());
+                    if (hasContent(page, waiter.since())) {
+                        waiter.result().setResult(page);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("No se pudo leer el change-feed para una petición en espera: {}", e.getMessage());
+                    waiter.result().setErrorResult(e);
+                }
+            }
+        });
+    }
+
+    // Un hueco se identifica por sus extremos. Si se confirma una secuencia intermedia, los huecos que quedan
+    // tienen extremos nuevos y vuelven a esperar gapTimeout: se tarda más en saltarlos, nunca menos.
+    private boolean isRecentGap(long from, long to, Instant now) {
+        Duration gapTimeout = changeLogProperties.getGapTimeout();
+        synchronized (gaps) {
+            Instant fromSeen = gaps.computeIfAbsent(from, sequence -> now);
+            Instant toSeen = gaps.computeIfAbsent(to, sequence -> now);
+            Instant firstSeen = fromSeen.isAfter(toSeen) ? fromSeen : toSeen;
+            boolean recent = Duration.between(firstSeen, now).compareTo(gapTimeout) < 0;
+            forgetOldGaps(now.minus(properties.getRetention()));
+            return recent;
+        }
+    }
+
+    // Los huecos más antiguos que la retención del feed ya no pueden quedar delante de ningún cursor válido; si
+    // aun así se superan maxTrackedGaps, se olvidan los más antiguos (volverán a esperar gapTimeout si reaparecen)
+    private void forgetOldGaps(Instant cutoff) {
+        Iterator<Instant> seenAt = gaps.values().iterator();
+        int excess = gaps.size() - changeLogProperties.getMaxTrackedGaps();
+        while (seenAt.hasNext()) {
+            Instant seen = seenAt.next();
+            if (excess <= 0 && !seen.isBefore(cutoff)) {
+                return;
+            }
+            seenAt.remove();
+            excess--;
+        }
+    }
+
+    int trackedGaps() {
+        synchronized (gaps) {
+            return gaps.size();
+        }
+    }
+
+    private static boolean hasContent(DeviceChangesDto page, long since) {
+        return page.getCursor() != since || page.isResyncRequired();
+    }
+
+    private static DeviceChangesDto resyncPage(long cursor) {
+        return new DeviceChangesDto(List.of(), List.of(), List.of(), cursor, false, true);
+    }
+
+    private static DeviceChangesDto emptyPage(Long cursor) {
+        return new DeviceChangesDto(List.of(), List.of(), List.of(), cursor != null ? cursor : 0L, false, false);
+    }
+}
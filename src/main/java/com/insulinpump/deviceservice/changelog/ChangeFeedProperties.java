@@ -0,0 +1,20 @@
+package com.insulinpump.deviceservice.changelog;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "device.change-feed")
+public class ChangeFeedProperties {
+
+    // Entradas del change-log leídas por página, antes de compactar por dispositivo
+    private int maxLimit = 1_000;
+    private Duration maxWait = Duration.ofSeconds(30);
+    // Peticiones en espera como máximo; por encima se responde enseguida aunque no haya cambios
+    private int maxWaiters = 1_000;
+    // Antigüedad del cursor más viejo que se puede seguir sin volver a cargar la flota. El purgado del change-log
+    // conserva las entradas durante la mayor de esta y device.change-log.retention.
+    private Duration retention = Duration.ofDays(1);
+}
@@ -0,0 +1,24 @@
+package com.insulinpump.deviceservice.changelog;
+
+import com.insulinpump.deviceservice.event.DeviceChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+// Escribe cada cambio en cambios_dispositivos dentro de la misma transacción que la escritura del dispositivo
+@Component
+@RequiredArgsConstructor
+public class ChangeLogAppender {
+
+    private final ChangeLogRepository repository;
+    private final ChangeLogProperties properties;
+
+    @EventListener
+    public void append(DeviceChangedEvent event) {
+        if (properties.isEnabled()) {
+            repository.save(ChangeLogEntry.of(event, Instant.now()));
+        }
+    }
+}
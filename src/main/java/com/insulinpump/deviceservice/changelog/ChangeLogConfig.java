@@ -0,0 +1,9 @@
+package com.insulinpump.deviceservice.changelog;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({ChangeLogProperties.class, ChangeFeedProperties.class})
+public class ChangeLogConfig {
+}
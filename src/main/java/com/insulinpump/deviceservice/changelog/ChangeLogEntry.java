@@ -0,0 +1,41 @@
+package com.insulinpump.deviceservice.changelog;
+
+import com.insulinpump.deviceservice.event.DeviceChangeType;
+import com.insulinpump.deviceservice.event.DeviceChangedEvent;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "cambios_dispositivos")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeLogEntry {
+
+    // Secuencia creciente que sirve de cursor (high-water mark) a los lectores
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long deviceId;
+    private String serialNo;
+    private String previousSerialNo;
+
+    @Enumerated(EnumType.STRING)
+    private DeviceChangeType changeType;
+
+    private Instant createdAt;
+
+    static ChangeLogEntry of(DeviceChangedEvent event, Instant now) {
+        return new ChangeLogEntry(null, event.deviceId(), event.serialNo(), event.previousSerialNo(),
+                event.type(), now);
+    }
+
+    DeviceChange toChange() {
+        return new DeviceChange(id, deviceId, serialNo, previousSerialNo, changeType);
+    }
+}
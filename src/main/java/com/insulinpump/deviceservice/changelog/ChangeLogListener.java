@@ -0,0 +1,13 @@
+package com.insulinpump.deviceservice.changelog;
+
+import java.util.List;
+
+// Caché local que debe invalidarse con los cambios hechos por cualquier réplica
+public interface ChangeLogListener {
+
+    // Lote de cambios en orden de secuencia
+    void onChanges(List<DeviceChange> changes);
+
+    // No se puede garantizar que la caché esté al día (retraso excedido o hueco caducado)
+    void invalidateAll();
+}
@@ -0,0 +1,196 @@
+package com.insulinpump.deviceservice.changelog;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Lee cambios_dispositivos desde un cursor (high-water mark) y aplica las invalidaciones por lotes a las
+// cachés locales. Las secuencias IDENTITY se asignan al insertar pero se confirman en cualquier orden: una
+// secuencia saltada se vuelve a consultar hasta que aparece o caduca gapTimeout (transacción revertida);
+// al caducar se vacían las cachés porque ya no se puede garantizar que no falte un cambio.
+@Component
+@Slf4j
+public class ChangeLogPoller implements MeterBinder {
+
+    private static final long NOT_STARTED = -1;
+
+    private final ChangeLogRepository repository;
+    private final List<ChangeLogListener> listeners;
+    private final ChangeLogProperties properties;
+    private final ChangeFeedProperties feedProperties;
+    private final Clock clock;
+
+    private volatile long highWaterMark = NOT_STARTED;
+    private volatile Instant lastSuccessfulPoll;
+    // Secuencia pendiente -> instante en que se detectó el hueco
+    private final Map<Long, Instant> gaps = new LinkedHashMap<>();
+    private Counter applied;
+    private Counter flushes;
+
+    @Autowired
+    public ChangeLogPoller(ChangeLogRepository repository, List<ChangeLogListener> listeners,
+                           ChangeLogProperties properties, ChangeFeedProperties feedProperties) {
+        this(repository, listeners, properties, feedProperties, Clock.systemUTC());
+    }
+
+    ChangeLogPoller(ChangeLogRepository repository, List<ChangeLogListener> listeners,
+                    ChangeLogProperties properties, ChangeFeedProperties feedProperties, Clock clock) {
+        this.repository = repository;
+        this.listeners = listeners;
+        this.properties = properties;
+        this.feedProperties = feedProperties;
+        this.clock = clock;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("device.change-log.lag", this, poller -> poller.lag().toMillis() / 1000.0)
+                .description("Segundos desde la última lectura correcta del change-log")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("device.change-log.gaps", this, poller -> poller.pendingGaps())
+                .description("Secuencias saltadas pendientes de aparecer")
+                .register(registry);
+        applied = Counter.builder("device.change-log.applied")
+                .description("Cambios aplicados a las cachés locales")
+                .register(registry);
+        flushes = Counter.builder("device.change-log.flushes")
+                .description("Vaciados completos de las cachés locales")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${device.change-log.poll-interval:1s}")
+    public synchronized void poll() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Instant now = clock.instant();
+        try {
+            if (highWaterMark == NOT_STARTED) {
+                // Las cachés arrancan vacías: basta con empezar desde el último cambio existente
+                highWaterMark = repository.findMaxId().orElse(0L);
+                lastSuccessfulPoll = now;
+                return;
+            }
+            List<DeviceChange> changes = new ArrayList<>();
+            recheckGaps(changes);
+            boolean mustFlush = fetchNew(changes, now);
+            mustFlush |= expireGaps(now);
+
+            if (!changes.isEmpty()) {
+                changes.sort(Comparator.comparingLong(DeviceChange::sequence));
+                listeners.forEach(listener -> listener.onChanges(changes));
+                increment(applied, changes.size());
+            }
+            if (mustFlush) {
+                flushAll();
+            }
+            lastSuccessfulPoll = now;
+        } catch (Exception e) {
+            log.warn("No se pudo leer el change-log de dispositivos (retraso {} s): {}", lag().toSeconds(), e.getMessage());
+            if (lag().compareTo(properties.getMaxLag()) > 0) {
+                flushAll();
+            }
+        }
+    }
+
+    // El change-feed necesita más historia que las cachés: se conserva la mayor de las dos retenciones. La última
+    // entrada no se borra nunca, para que el feed distinga un cursor purgado de una tabla sin cambios.
+    @Scheduled(fixedDelayString = "${device.change-log.purge-interval:10m}")
+    public void purge() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Duration retention = properties.getRetention().compareTo(feedProperties.getRetention()) >= 0
+                ? properties.getRetention() : feedProperties.getRetention();
+        repository.findMaxId().ifPresent(maxId -> {
+            int deleted = repository.deleteCreatedBefore(clock.instant().minus(retention), maxId);
+            log.debug("Eliminadas {} entradas antiguas del change-log", deleted);
+        });
+    }
+
+    public Duration lag() {
+        Instant last = lastSuccessfulPoll;
+        return last == null ? Duration.ZERO : Duration.between(last, clock.instant());
+    }
+
+    long getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    synchronized int pendingGaps() {
+        return gaps.size();
+    }
+
+    private boolean fetchNew(List<DeviceChange> changes, Instant now) {
+        boolean overflow = false;
+        while (true) {
+            List<ChangeLogEntry> page = repository.findByIdGreaterThanOrderByIdAsc(highWaterMark,
+                    Limit.of(properties.getBatchSize()));
+            for (ChangeLogEntry entry : page) {
+                for (long missing = highWaterMark + 1; missing < entry.getId() && !overflow; missing++) {
+                    if (gaps.size() >= properties.getMaxTrackedGaps()) {
+                        overflow = true;
+                    } else {
+                        gaps.put(missing, now);
+                    }
+                }
+                highWaterMark = entry.getId();
+                changes.add(entry.toChange());
+            }
+            if (page.size() < properties.getBatchSize()) {
+                return overflow;
+            }
+        }
+    }
+
+    private void recheckGaps(List<DeviceChange> changes) {
+        if (gaps.isEmpty()) {
+            return;
+        }
+        for (ChangeLogEntry entry : repository.findAllById(List.copyOf(gaps.keySet()))) {
+            gaps.remove(entry.getId());
+            changes.add(entry.toChange());
+        }
+    }
+
+    private boolean expireGaps(Instant now) {
+        boolean expired = false;
+        Iterator<Instant> detectedAt = gaps.values().iterator();
+        while (detectedAt.hasNext()) {
+            if (Duration.between(detectedAt.next(), now).compareTo(properties.getGapTimeout()) >= 0) {
+                detectedAt.remove();
+                expired = true;
+            }
+        }
+        return expired;
+    }
+
+    private void flushAll() {
+        log.info("Vaciando cachés locales de dispositivos: no se puede garantizar que estén al día");
+        listeners.forEach(ChangeLogListener::invalidateAll);
+        increment(flushes, 1);
+    }
+
+    private static void increment(Counter counter, double amount) {
+        if (counter != null) {
+            counter.increment(amount);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.insulinpump.deviceservice.changelog;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "device.change-log")
+public class ChangeLogProperties {
+
+    private boolean enabled = true;
+    private Duration pollInterval = Duration.ofSeconds(1);
+    private int batchSize = 500;
+    // Tiempo que se espera a que aparezca una secuencia saltada (transacción aún sin confirmar)
+    private Duration gapTimeout = Duration.ofSeconds(10);
+    // Huecos pendientes como máximo; por encima se vacían las cachés en lugar de seguirlos uno a uno
+    private int maxTrackedGaps = 1_000;
+    // Si no se ha podido leer el change-log durante este tiempo, las cachés se vacían en cada intento
+    private Duration maxLag = Duration.ofSeconds(30);
+    private Duration retention = Duration.ofHours(1);
+}
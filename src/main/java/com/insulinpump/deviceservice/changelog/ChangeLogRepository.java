@@ -0,0 +1,29 @@
+package com.insulinpump.deviceservice.changelog;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+
+    List<ChangeLogEntry> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("select max(c.id) from ChangeLogEntry c")
+    Optional<Long> findMaxId();
+
+    @Query("select min(c.id) from ChangeLogEntry c")
+    Optional<Long> findMinId();
+
+    @Transactional
+    @Modifying
+    @Query("delete from ChangeLogEntry c where c.createdAt < :before and c.id < :keepFrom")
+    int deleteCreatedBefore(Instant before, Long keepFrom);
+}
@@ -0,0 +1,8 @@
+package com.insulinpump.deviceservice.changelog;
+
+import com.insulinpump.deviceservice.event.DeviceChangeType;
+
+// Cambio leído del change-log, tal como lo reciben las cachés locales
+public record DeviceChange(long sequence, Long deviceId, String serialNo, String previousSerialNo,
+                           DeviceChangeType type) {
+}
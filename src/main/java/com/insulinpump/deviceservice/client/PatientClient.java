@@ -1,10 +1,12 @@
 package com.insulinpump.deviceservice.client;
 
+import com.insulinpump.deviceservice.dto.PatientChangesDto;
 import com.insulinpump.deviceservice.dto.PatientDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 @FeignClient(name = "patient-service")
 public interface PatientClient {
@@ -17,4 +19,10 @@ public interface PatientClient {
 
     @PutMapping("/api/patients/{patientId}/device/{deviceId}")
     PatientDto assignDeviceToPatient(@PathVariable("patientId") Long patientId, @PathVariable("deviceId") Long deviceId);
+
+    @GetMapping("/api/patients/changes")
+    PatientChangesDto getPatientChanges(@RequestParam("since") long since, @RequestParam("limit") int limit);
+
+    @GetMapping("/api/patients/snapshot")
+    PatientChangesDto getPatientSnapshot();
 }
@@ -0,0 +1,112 @@
+package com.insulinpump.deviceservice.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Límite de peticiones en curso que se ajusta con la latencia observada (algoritmo de gradiente):
+// se compara cada muestra con la latencia de referencia de largo plazo de su prioridad y, si crece por
+// encima de la tolerancia, el límite baja en proporción; mientras la latencia se mantiene, sube con un margen de √límite.
+// Así, cuando MySQL o patient-service se degradan, el exceso se rechaza pronto en lugar de hacer cola.
+public class AdaptiveConcurrencyLimiter implements MeterBinder {
+
+    private final ConcurrencyLimitProperties properties;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<RequestPriority, Counter> shed = new EnumMap<>(RequestPriority.class);
+
+    private volatile double limit;
+    // Una referencia por prioridad: un listado tarda de por sí mucho más que una lectura por id, y con una
+    // sola referencia una ráfaga de listados parecería una degradación (o los enmascararía). Protegido por this.
+    private final double[] longRttNanos = new double[RequestPriority.values().length];
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+        this.properties = properties;
+        this.limit = properties.getInitialLimit();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("device.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Límite adaptativo de peticiones concurrentes")
+                .register(registry);
+        Gauge.builder("device.concurrency.inflight", inFlight, AtomicInteger::get)
+                .description("Peticiones en curso bajo el límite")
+                .register(registry);
+        for (RequestPriority priority : RequestPriority.values()) {
+            shed.put(priority, Counter.builder("device.concurrency.shed")
+                    .description("Peticiones rechazadas con 503 por el límite de concurrencia")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(registry));
+        }
+    }
+
+    // true si la petición entra; en ese caso debe llamarse a release al terminar
+    public boolean tryAcquire(RequestPriority priority) {
+        int allowed = allowedFor(priority);
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                Counter counter = shed.get(priority);
+                if (counter != null) {
+                    counter.increment();
+                }
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // priority debe ser la misma que se pasó a tryAcquire
+    public void release(RequestPriority priority, long rttNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        onSample(priority, rttNanos, inFlightBefore);
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    int allowedFor(RequestPriority priority) {
+        double share = switch (priority) {
+            case WRITE -> 1.0;
+            case READ -> properties.getReadShare();
+            case BULK -> properties.getBulkShare();
+        };
+        return Math.max(1, (int) (limit * share));
+    }
+
+    private synchronized void onSample(RequestPriority priority, long rttNanos, int inFlightBefore) {
+        double rtt = Math.max(1, rttNanos);
+        int index = priority.ordinal();
+        if (longRttNanos[index] == 0) {
+            longRttNanos[index] = rtt;
+        } else {
+            longRttNanos[index] += (rtt - longRttNanos[index]) / properties.getLongWindow();
+        }
+        // Si la latencia baja claramente, la referencia se acerca más rápido para no frenar la recuperación
+        if (longRttNanos[index] / rtt > 2) {
+            longRttNanos[index] *= 0.95;
+        }
+
+        double current = limit;
+        double gradient = Math.max(0.5, Math.min(1.0, properties.getRttTolerance() * longRttNanos[index] / rtt));
+        // Sin presión (menos de la mitad del límite en uso) no hay información para subirlo
+        if (gradient == 1.0 && inFlightBefore < current / 2) {
+            return;
+        }
+        double target = current * gradient + Math.sqrt(current);
+        double smoothed = current * (1 - properties.getSmoothing()) + target * properties.getSmoothing();
+        limit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), smoothed));
+    }
+}
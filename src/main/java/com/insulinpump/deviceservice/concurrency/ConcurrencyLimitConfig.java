@@ -0,0 +1,23 @@
+package com.insulinpump.deviceservice.concurrency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+        return new AdaptiveConcurrencyLimiter(properties);
+    }
+
+    @Bean
+    public ConcurrencyLimitFilter concurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter,
+                                                         ConcurrencyLimitProperties properties,
+                                                         ObjectMapper objectMapper) {
+        return new ConcurrencyLimitFilter(limiter, properties, objectMapper);
+    }
+}
@@ -0,0 +1,73 @@
+package com.insulinpump.deviceservice.concurrency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Envuelve las peticiones a DeviceController con el límite adaptativo y descarta el exceso con 503
+public class ConcurrencyLimitFilter extends OncePerRequestFilter implements Ordered {
+
+    // Dentro de la idempotencia: los duplicados que esperan un resultado no ocupan hueco,
+    // y un 503 libera la clave para que el reintento se ejecute
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 25;
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final ConcurrencyLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final RequestClassifier classifier;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter, ConcurrencyLimitProperties properties,
+                                  ObjectMapper objectMapper) {
+        this.limiter = limiter;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.classifier = new RequestClassifier(properties);
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || !classifier.isLimited(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestPriority priority = priorityOf(request);
+        if (!limiter.tryAcquire(priority)) {
+            reject(response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limiter.release(priority, System.nanoTime() - start);
+        }
+    }
+
+    RequestPriority priorityOf(HttpServletRequest request) {
+        return classifier.priorityOf(request.getMethod(), request.getRequestURI());
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), RequestClassifier.rejection());
+    }
+}
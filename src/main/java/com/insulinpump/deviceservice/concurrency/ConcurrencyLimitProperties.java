@@ -0,0 +1,29 @@
+package com.insulinpump.deviceservice.concurrency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "device.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+    private int initialLimit = 20;
+    private int minLimit = 4;
+    private int maxLimit = 200;
+    // Peso de cada muestra al mover el límite hacia el nuevo valor calculado
+    private double smoothing = 0.2;
+    // Latencia admitida sobre la de referencia antes de reducir el límite
+    private double rttTolerance = 1.5;
+    // Muestras que promedia la latencia de referencia (media exponencial)
+    private int longWindow = 600;
+    // Fracción del límite disponible para lecturas puntuales y para listados; las escrituras usan el 100 %
+    private double readShare = 0.8;
+    private double bulkShare = 0.5;
+    // Rutas limitadas y cuáles de ellas son listados
+    private List<String> paths = List.of("/api/devices", "/api/devices/**");
+    private List<String> bulkPaths = List.of("/api/devices", "/api/devices/status/**",
+            "/api/devices/search/**", "/api/devices/patient/**");
+}
@@ -0,0 +1,62 @@
+package com.insulinpump.deviceservice.concurrency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+// ConcurrencyLimitFilter para el servidor reactivo. Comparte el AdaptiveConcurrencyLimiter con la API servlet:
+// las dos APIs leen de la misma base de datos, así que el límite es uno solo. La petición ocupa hueco hasta
+// que termina de escribirse la respuesta (o el cliente cancela).
+public class ConcurrencyLimitWebFilter implements WebFilter {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final ConcurrencyLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final RequestClassifier classifier;
+
+    public ConcurrencyLimitWebFilter(AdaptiveConcurrencyLimiter limiter, ConcurrencyLimitProperties properties,
+                                     ObjectMapper objectMapper) {
+        this.limiter = limiter;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.classifier = new RequestClassifier(properties);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().value();
+        if (!properties.isEnabled() || !classifier.isLimited(path)) {
+            return chain.filter(exchange);
+        }
+        return Mono.defer(() -> {
+            RequestPriority priority = classifier.priorityOf(request.getMethod().name(), path);
+            if (!limiter.tryAcquire(priority)) {
+                return reject(exchange.getResponse());
+            }
+            long start = System.nanoTime();
+            return chain.filter(exchange)
+                    .doFinally(signal -> limiter.release(priority, System.nanoTime() - start));
+        });
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(RequestClassifier.rejection());
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.insulinpump.deviceservice.concurrency;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Rutas sujetas al límite y su prioridad, comunes a ConcurrencyLimitFilter y ConcurrencyLimitWebFilter
+class RequestClassifier {
+
+    private final List<PathPattern> paths;
+    private final List<PathPattern> bulkPaths;
+
+    RequestClassifier(ConcurrencyLimitProperties properties) {
+        this.paths = properties.getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+        this.bulkPaths = properties.getBulkPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+    }
+
+    boolean isLimited(String path) {
+        return matches(paths, PathContainer.parsePath(path));
+    }
+
+    RequestPriority priorityOf(String method, String path) {
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return RequestPriority.WRITE;
+        }
+        return matches(bulkPaths, PathContainer.parsePath(path)) ? RequestPriority.BULK : RequestPriority.READ;
+    }
+
+    static Map<String, Object> rejection() {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        body.put("error", "Servicio saturado");
+        body.put("message", "Demasiadas peticiones en curso; reintente en unos instantes");
+        return body;
+    }
+
+    private static boolean matches(List<PathPattern> patterns, PathContainer path) {
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,12 @@
+package com.insulinpump.deviceservice.concurrency;
+
+// Prioridad de una petición frente al límite de concurrencia: cada clase solo puede ocupar una fracción
+// del límite, de modo que las lecturas masivas se descartan antes que las escrituras
+public enum RequestPriority {
+    // Escrituras (updateDeviceStatus, assign, create...): pueden usar el límite completo
+    WRITE,
+    // Lecturas puntuales por id o número de serie
+    READ,
+    // Listados y búsquedas (getAllDevices, search, status)
+    BULK
+}
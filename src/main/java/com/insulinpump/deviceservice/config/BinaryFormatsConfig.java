@@ -0,0 +1,46 @@
+package com.insulinpump.deviceservice.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+// Codificaciones binarias (CBOR y Smile) para clientes que las pidan con Accept: application/cbor
+// o application/x-jackson-smile. Se añaden al final para que JSON siga siendo la respuesta por defecto.
+@Configuration
+public class BinaryFormatsConfig implements WebMvcConfigurer {
+
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    public BinaryFormatsConfig(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(binaryMapper(new CBORFactory())));
+        // Smile reutiliza además los valores repetidos (modelo, fabricante, firmware)
+        SmileFactory smileFactory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        converters.add(new MappingJackson2SmileHttpMessageConverter(binaryMapper(smileFactory)));
+    }
+
+    // Las fechas viajan como [año, mes, día] en lugar de cadenas ISO
+    private ObjectMapper binaryMapper(JsonFactory factory) {
+        return objectMapperBuilder.build().copyWith(factory)
+                .enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}
@@ -0,0 +1,24 @@
+package com.insulinpump.deviceservice.controller;
+
+import com.insulinpump.deviceservice.alert.Alert;
+import com.insulinpump.deviceservice.alert.RecentAlerts;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/devices")
+@RequiredArgsConstructor
+public class DeviceAlertController {
+
+    private final RecentAlerts recentAlerts;
+
+    // Últimas alertas de esta réplica, de la más reciente a la más antigua
+    @GetMapping("/alerts")
+    public ResponseEntity<List<Alert>> getAlerts(@RequestParam(required = false) String rule,
+                                                 @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(recentAlerts.recent(rule, Math.max(0, limit)));
+    }
+}
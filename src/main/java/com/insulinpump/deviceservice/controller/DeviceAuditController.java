@@ -0,0 +1,23 @@
+package com.insulinpump.deviceservice.controller;
+
+import com.insulinpump.deviceservice.audit.AuditService;
+import com.insulinpump.deviceservice.dto.AuditHistoryDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/devices")
+@RequiredArgsConstructor
+public class DeviceAuditController {
+
+    private final AuditService auditService;
+
+    @GetMapping("/{id}/history")
+    public ResponseEntity<AuditHistoryDto> getDeviceHistory(@PathVariable Long id,
+                                                            @RequestParam(required = false) Long before,
+                                                            @RequestParam(defaultValue = "20") int limit) {
+        AuditHistoryDto history = auditService.getHistory(id, before, limit);
+        return ResponseEntity.ok(history);
+    }
+}
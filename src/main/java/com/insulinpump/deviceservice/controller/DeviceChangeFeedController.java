@@ -0,0 +1,25 @@
+package com.insulinpump.deviceservice.controller;
+
+import com.insulinpump.deviceservice.changelog.ChangeFeed;
+import com.insulinpump.deviceservice.dto.DeviceChangesDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/devices")
+@RequiredArgsConstructor
+public class DeviceChangeFeedController {
+
+    private final ChangeFeed changeFeed;
+
+    // wait en segundos: sin cambios, la respuesta espera hasta que los haya o se agote el tiempo
+    @GetMapping("/changes")
+    public DeferredResult<DeviceChangesDto> getChanges(@RequestParam(required = false) Long since,
+                                                       @RequestParam(defaultValue = "500") int limit,
+                                                       @RequestParam(defaultValue = "0") long wait) {
+        return changeFeed.changes(since, limit, Duration.ofSeconds(wait));
+    }
+}
@@ -1,78 +1,154 @@
 package com.insulinpump.deviceservice.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.insulinpump.deviceservice.cache.DeviceResponseCache;
+import com.insulinpump.deviceservice.dto.BatchLookupRequestDto;
+import com.insulinpump.deviceservice.dto.BatchLookupResultDto;
 import com.insulinpump.deviceservice.dto.DeviceCreateDto;
 import com.insulinpump.deviceservice.dto.DeviceDetailsDto;
+import com.insulinpump.deviceservice.dto.FacetResultDto;
+import com.insulinpump.deviceservice.facet.FacetService;
+import com.insulinpump.deviceservice.fields.FieldSelection;
+import com.insulinpump.deviceservice.fields.SparseDevices;
 import com.insulinpump.deviceservice.model.DeviceStatus;
+import com.insulinpump.deviceservice.repository.DeviceSearch;
 import com.insulinpump.deviceservice.service.DeviceService;
+import com.insulinpump.deviceservice.snapshot.FleetSnapshot;
+import com.insulinpump.deviceservice.snapshot.FleetView;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/devices")
 @RequiredArgsConstructor
-@Slf4j
 public class DeviceController {
 
+    static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+
     private final DeviceService deviceService;
+    private final FleetSnapshot fleetSnapshot;
+    private final FacetService facetService;
+    private final DeviceResponseCache deviceResponseCache;
 
+    // Toda la flota se serializa directamente desde la instantánea columnar (mismo formato que la lista de DTOs).
+    // En las lecturas, fields=id,serialNo,status limita las columnas leídas y los campos de la respuesta.
     @GetMapping
-    public ResponseEntity<List<DeviceDetailsDto>> getAllDevices() {
-        log.info("GET /api/devices - Obteniendo todos los dispositivos");
-        List<DeviceDetailsDto> devices = deviceService.getAllDevices();
-        return ResponseEntity.ok(devices);
+    public ResponseEntity<?> getAllDevices(@RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields);
+        FleetView fleet = fleetSnapshot.isEnabled() ? fleetSnapshot.view(selection) : null;
+        if (fleet != null) {
+            return ResponseEntity.ok(fleet);
+        }
+        return devices(selection, DeviceSearch.all(), deviceService::getAllDevices);
     }
 
+    // includeArchived=true busca también en la tabla de archivo (sin caché de respuestas)
     @GetMapping("/{id}")
-    public ResponseEntity<DeviceDetailsDto> getDeviceById(@PathVariable Long id) {
-        log.info("GET /api/devices/{} - Obteniendo dispositivo por ID", id);
+    public ResponseEntity<?> getDeviceById(@PathVariable Long id, @RequestParam(required = false) String fields,
+                                           @RequestParam(defaultValue = "false") boolean includeArchived,
+                                           @RequestHeader HttpHeaders headers) {
+        FieldSelection selection = FieldSelection.parse(fields);
+        if (includeArchived) {
+            return device(deviceService.getDeviceIncludingArchived(id), selection);
+        }
+        if (!selection.isAll()) {
+            return ResponseEntity.ok(SparseDevices.of(deviceService.getDeviceById(id, selection), selection));
+        }
+        if (servesEncodedJson(headers)) {
+            return encoded(deviceService.getEncodedDeviceById(id), headers);
+        }
         DeviceDetailsDto device = deviceService.getDeviceById(id);
         return ResponseEntity.ok(device);
     }
 
     @GetMapping("/serial/{serialNo}")
-    public ResponseEntity<DeviceDetailsDto> getDeviceBySerialNo(@PathVariable String serialNo) {
-        log.info("GET /api/devices/serial/{} - Obteniendo dispositivo por número de serie", serialNo);
+    public ResponseEntity<?> getDeviceBySerialNo(@PathVariable String serialNo,
+                                                 @RequestParam(required = false) String fields,
+                                                 @RequestParam(defaultValue = "false") boolean includeArchived,
+                                                 @RequestHeader HttpHeaders headers) {
+        FieldSelection selection = FieldSelection.parse(fields);
+        if (includeArchived) {
+            return device(deviceService.getDeviceBySerialNoIncludingArchived(serialNo), selection);
+        }
+        if (!selection.isAll()) {
+            return ResponseEntity.ok(SparseDevices.of(deviceService.getDeviceBySerialNo(serialNo, selection), selection));
+        }
+        if (servesEncodedJson(headers)) {
+            return encoded(deviceService.getEncodedDeviceBySerialNo(serialNo), headers);
+        }
         DeviceDetailsDto device = deviceService.getDeviceBySerialNo(serialNo);
         return ResponseEntity.ok(device);
     }
 
+    // Consultas por lotes: una respuesta por clave en el orden pedido, con las no encontradas marcadas
+    @PostMapping("/batch")
+    public ResponseEntity<BatchLookupResultDto<Long>> getDevicesByIds(
+            @Valid @RequestBody BatchLookupRequestDto<Long> request) {
+        BatchLookupResultDto<Long> result = deviceService.lookupDevicesByIds(request.getKeys());
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/serial/batch")
+    public ResponseEntity<BatchLookupResultDto<String>> getDevicesBySerialNos(
+            @Valid @RequestBody BatchLookupRequestDto<String> request) {
+        BatchLookupResultDto<String> result = deviceService.lookupDevicesBySerialNos(request.getKeys());
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping("/patient/{patientId}")
-    public ResponseEntity<List<DeviceDetailsDto>> getDevicesByPatientId(@PathVariable Long patientId) {
-        log.info("GET /api/devices/patient/{} - Obteniendo dispositivos por paciente", patientId);
-        List<DeviceDetailsDto> devices = deviceService.getDevicesByPatientId(patientId);
-        return ResponseEntity.ok(devices);
+    public ResponseEntity<?> getDevicesByPatientId(@PathVariable Long patientId,
+                                                   @RequestParam(required = false) String fields,
+                                                   @RequestParam(defaultValue = "false") boolean includeArchived) {
+        if (includeArchived) {
+            FieldSelection selection = FieldSelection.parse(fields);
+            List<DeviceDetailsDto> devices = deviceService.getDevicesByPatientIdIncludingArchived(patientId);
+            return ResponseEntity.ok(selection.isAll() ? devices : SparseDevices.of(devices, selection));
+        }
+        return devices(FieldSelection.parse(fields), DeviceSearch.byPatientId(patientId),
+                () -> deviceService.getDevicesByPatientId(patientId));
     }
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<DeviceDetailsDto>> getDevicesByStatus(@PathVariable DeviceStatus status) {
-        log.info("GET /api/devices/status/{} - Obteniendo dispositivos por estado", status);
-        List<DeviceDetailsDto> devices = deviceService.getDevicesByStatus(status);
-        return ResponseEntity.ok(devices);
+    public ResponseEntity<?> getDevicesByStatus(@PathVariable DeviceStatus status,
+                                                @RequestParam(required = false) String fields) {
+        return devices(FieldSelection.parse(fields), DeviceSearch.byStatus(status),
+                () -> deviceService.getDevicesByStatus(status));
     }
 
     @GetMapping("/search/model")
-    public ResponseEntity<List<DeviceDetailsDto>> searchDevicesByModel(@RequestParam String model) {
-        log.info("GET /api/devices/search/model?model={} - Buscando dispositivos por modelo", model);
-        List<DeviceDetailsDto> devices = deviceService.searchDevicesByModel(model);
-        return ResponseEntity.ok(devices);
+    public ResponseEntity<?> searchDevicesByModel(@RequestParam String model,
+                                                  @RequestParam(required = false) String fields) {
+        return devices(FieldSelection.parse(fields), DeviceSearch.byModel(model),
+                () -> deviceService.searchDevicesByModel(model));
     }
 
     @GetMapping("/search/manufacturer")
-    public ResponseEntity<List<DeviceDetailsDto>> searchDevicesByManufacturer(@RequestParam String manufacturer) {
-        log.info("GET /api/devices/search/manufacturer?manufacturer={} - Buscando dispositivos por fabricante", manufacturer);
-        List<DeviceDetailsDto> devices = deviceService.searchDevicesByManufacturer(manufacturer);
-        return ResponseEntity.ok(devices);
+    public ResponseEntity<?> searchDevicesByManufacturer(@RequestParam String manufacturer,
+                                                         @RequestParam(required = false) String fields) {
+        return devices(FieldSelection.parse(fields), DeviceSearch.byManufacturer(manufacturer),
+                () -> deviceService.searchDevicesByManufacturer(manufacturer));
+    }
+
+    // Recuentos por faceta con filtros AND/OR/NOT; las filas solo se devuelven si limit > 0
+    @GetMapping("/facets")
+    public ResponseEntity<FacetResultDto> searchFacets(@RequestParam(required = false) String filter,
+                                                       @RequestParam(required = false) List<String> facets,
+                                                       @RequestParam(required = false) Long after,
+                                                       @RequestParam(defaultValue = "0") int limit) {
+        FacetResultDto result = facetService.search(filter, facets, after, limit);
+        return ResponseEntity.ok(result);
     }
 
     @PostMapping
     public ResponseEntity<DeviceDetailsDto> createDevice(@Valid @RequestBody DeviceCreateDto deviceCreateDto) {
-        log.info("POST /api/devices - Creando nuevo dispositivo");
         DeviceDetailsDto createdDevice = deviceService.createDevice(deviceCreateDto);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdDevice);
     }
@@ -80,15 +156,20 @@ public class DeviceController {
     @PutMapping("/{id}")
     public ResponseEntity<DeviceDetailsDto> updateDevice(@PathVariable Long id,
                                                          @Valid @RequestBody DeviceCreateDto deviceUpdateDto) {
-        log.info("PUT /api/devices/{} - Actualizando dispositivo", id);
         DeviceDetailsDto updatedDevice = deviceService.updateDevice(id, deviceUpdateDto);
         return ResponseEntity.ok(updatedDevice);
     }
 
+    // JSON Merge Patch (RFC 7396): solo los campos presentes se validan y se escriben; null borra el valor
+    @PatchMapping(value = "/{id}", consumes = MERGE_PATCH_JSON)
+    public ResponseEntity<DeviceDetailsDto> mergePatchDevice(@PathVariable Long id, @RequestBody JsonNode patch) {
+        DeviceDetailsDto updatedDevice = deviceService.mergePatchDevice(id, patch);
+        return ResponseEntity.ok(updatedDevice);
+    }
+
     @PatchMapping("/{id}/status")
     public ResponseEntity<DeviceDetailsDto> updateDeviceStatus(@PathVariable Long id,
                                                                @RequestParam DeviceStatus status) {
-        log.info("PATCH /api/devices/{}/status - Actualizando estado del dispositivo a {}", id, status);
         DeviceDetailsDto updatedDevice = deviceService.updateDeviceStatus(id, status);
         return ResponseEntity.ok(updatedDevice);
     }
@@ -96,15 +177,64 @@ public class DeviceController {
     @PutMapping("/{deviceId}/assign/{patientId}")
     public ResponseEntity<DeviceDetailsDto> assignDeviceToPatient(@PathVariable Long deviceId,
                                                                   @PathVariable Long patientId) {
-        log.info("PUT /api/devices/{}/assign/{} - Asignando dispositivo a paciente", deviceId, patientId);
         DeviceDetailsDto updatedDevice = deviceService.assignDeviceToPatient(deviceId, patientId);
         return ResponseEntity.ok(updatedDevice);
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteDevice(@PathVariable Long id) {
-        log.info("DELETE /api/devices/{} - Eliminando dispositivo", id);
         deviceService.deleteDevice(id);
         return ResponseEntity.noContent().build();
     }
+
+    // La caché de respuestas solo guarda JSON: CBOR, Smile y demás tipos concretos siguen con los conversores
+    private boolean servesEncodedJson(HttpHeaders headers) {
+        if (!deviceResponseCache.isEnabled()) {
+            return false;
+        }
+        List<MediaType> accept = headers.getAccept();
+        return accept.isEmpty()
+                || accept.stream().anyMatch(DeviceController::isJson)
+                && accept.stream().noneMatch(type -> type.isConcrete() && !isJson(type));
+    }
+
+    private static boolean isJson(MediaType type) {
+        return type.isCompatibleWith(MediaType.APPLICATION_JSON);
+    }
+
+    // Los bytes van tal cual a la respuesta; la versión gzip solo si el cliente la acepta
+    private static ResponseEntity<byte[]> encoded(DeviceResponseCache.Encoded encoded, HttpHeaders headers) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        if (encoded.gzip() == null) {
+            return response.body(encoded.json());
+        }
+        response.varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(headers)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(encoded.gzip());
+        }
+        return response.body(encoded.json());
+    }
+
+    private static boolean acceptsGzip(HttpHeaders headers) {
+        for (String value : headers.getValuesAsList(HttpHeaders.ACCEPT_ENCODING)) {
+            String[] parts = value.split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static ResponseEntity<?> device(DeviceDetailsDto device, FieldSelection selection) {
+        return ResponseEntity.ok(selection.isAll() ? device : SparseDevices.of(device, selection));
+    }
+
+    // Sin fields= (o con todos los campos) se mantiene la consulta y la respuesta completas
+    private ResponseEntity<?> devices(FieldSelection selection, DeviceSearch search,
+                                      Supplier<List<DeviceDetailsDto>> all) {
+        if (selection.isAll()) {
+            return ResponseEntity.ok(all.get());
+        }
+        return ResponseEntity.ok(SparseDevices.of(deviceService.getDevices(search, selection), selection));
+    }
 }
@@ -0,0 +1,34 @@
+package com.insulinpump.deviceservice.controller;
+
+import com.insulinpump.deviceservice.dto.PresenceDto;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import com.insulinpump.deviceservice.presence.PresenceService;
+import com.insulinpump.deviceservice.presence.PresenceState;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/devices")
+@RequiredArgsConstructor
+public class DevicePresenceController {
+
+    private final PresenceService presenceService;
+
+    // Solo actualiza la presencia en memoria: no escribe en la base de datos
+    @PostMapping("/serial/{serialNo}/check-in")
+    public ResponseEntity<Void> checkIn(@PathVariable String serialNo) {
+        presenceService.checkIn(serialNo);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Recuentos online/offline (opcionalmente de un estado); las filas del estado de presencia solo si limit > 0.
+    // Es la presencia de la réplica que responde (campo instance), no la de la flota: ver README.
+    @GetMapping("/presence")
+    public ResponseEntity<PresenceDto> getPresence(@RequestParam(defaultValue = "ONLINE") PresenceState state,
+                                                   @RequestParam(required = false) DeviceStatus status,
+                                                   @RequestParam(required = false) Long after,
+                                                   @RequestParam(defaultValue = "0") int limit) {
+        return ResponseEntity.ok(presenceService.presence(state, status, after, limit));
+    }
+}
@@ -0,0 +1,56 @@
+package com.insulinpump.deviceservice.controller;
+
+import com.insulinpump.deviceservice.dto.CampaignCreateDto;
+import com.insulinpump.deviceservice.dto.CampaignDto;
+import com.insulinpump.deviceservice.firmware.FirmwareRolloutService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/firmware/campaigns")
+@RequiredArgsConstructor
+public class FirmwareCampaignController {
+
+    private final FirmwareRolloutService rolloutService;
+
+    @PostMapping
+    public ResponseEntity<CampaignDto> createCampaign(@Valid @RequestBody CampaignCreateDto campaignCreateDto) {
+        CampaignDto campaign = rolloutService.createCampaign(campaignCreateDto);
+        return ResponseEntity.status(HttpStatus.CREATED).body(campaign);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<CampaignDto>> getCampaigns() {
+        List<CampaignDto> campaigns = rolloutService.getCampaigns();
+        return ResponseEntity.ok(campaigns);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<CampaignDto> getCampaign(@PathVariable Long id) {
+        CampaignDto campaign = rolloutService.getCampaign(id);
+        return ResponseEntity.ok(campaign);
+    }
+
+    @PostMapping("/{id}/pause")
+    public ResponseEntity<CampaignDto> pauseCampaign(@PathVariable Long id) {
+        CampaignDto campaign = rolloutService.pauseCampaign(id);
+        return ResponseEntity.ok(campaign);
+    }
+
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<CampaignDto> resumeCampaign(@PathVariable Long id) {
+        CampaignDto campaign = rolloutService.resumeCampaign(id);
+        return ResponseEntity.ok(campaign);
+    }
+
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<CampaignDto> cancelCampaign(@PathVariable Long id) {
+        CampaignDto campaign = rolloutService.cancelCampaign(id);
+        return ResponseEntity.ok(campaign);
+    }
+}
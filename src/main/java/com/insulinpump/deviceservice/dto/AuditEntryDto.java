@@ -0,0 +1,22 @@
+package com.insulinpump.deviceservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditEntryDto {
+    private Long id;
+    private Long deviceId;
+    private String serialNo;
+    private String action;
+    // Campo -> {"from": ..., "to": ...}, tal como se guardó
+    @JsonRawValue
+    private String changes;
+    private Instant changedAt;
+}
@@ -0,0 +1,17 @@
+package com.insulinpump.deviceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditHistoryDto {
+    // Del cambio más reciente al más antiguo
+    private List<AuditEntryDto> entries;
+    // Cursor para la página siguiente (parámetro before); null si no hay más
+    private Long nextBefore;
+}
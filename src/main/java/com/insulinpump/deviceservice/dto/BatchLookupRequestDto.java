@@ -0,0 +1,21 @@
+package com.insulinpump.deviceservice.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Ids o números de serie a consultar de una vez
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchLookupRequestDto<K> {
+
+    @NotEmpty(message = "Debe indicarse al menos una clave")
+    @Size(max = 1000, message = "No se pueden consultar más de 1000 claves por petición")
+    private List<@NotNull(message = "Las claves no pueden ser nulas") K> keys;
+}
@@ -0,0 +1,26 @@
+package com.insulinpump.deviceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchLookupResultDto<K> {
+    // Un resultado por clave pedida y en el mismo orden, repetidas incluidas
+    private List<Entry<K>> results;
+    // Claves sin dispositivo, sin repetir
+    private List<K> notFound;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry<K> {
+        private K key;
+        private boolean found;
+        private DeviceDetailsDto device;
+    }
+}
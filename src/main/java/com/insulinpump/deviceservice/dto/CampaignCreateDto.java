@@ -0,0 +1,29 @@
+package com.insulinpump.deviceservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class CampaignCreateDto {
+
+    @NotBlank(message = "El nombre de la campaña es obligatorio")
+    private String name;
+
+    private String model;
+    private String manufacturer;
+    // Versión actual mínima (incluida) y máxima (excluida) de los dispositivos afectados
+    private String minVersion;
+    private String maxVersion;
+
+    @NotBlank(message = "La versión de destino es obligatoria")
+    private String targetVersion;
+
+    @Positive(message = "El tamaño de lote debe ser positivo")
+    private Integer chunkSize;
+
+    @Positive(message = "El límite de dispositivos por segundo debe ser positivo")
+    private Integer maxDevicesPerSecond;
+}
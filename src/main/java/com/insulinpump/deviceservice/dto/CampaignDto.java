@@ -0,0 +1,29 @@
+package com.insulinpump.deviceservice.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+public class CampaignDto {
+    private Long id;
+    private String name;
+    private String model;
+    private String manufacturer;
+    private String minVersion;
+    private String maxVersion;
+    private String targetVersion;
+    private String status;
+    private int chunkSize;
+    private int maxDevicesPerSecond;
+    private long targeted;
+    private long lastProcessedId;
+    private long updated;
+    private long skipped;
+    private String lastError;
+    private Instant createdAt;
+    private Instant updatedAt;
+    private Instant finishedAt;
+}
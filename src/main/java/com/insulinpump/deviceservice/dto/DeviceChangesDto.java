@@ -0,0 +1,24 @@
+package com.insulinpump.deviceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Página del change-feed de dispositivos (mismo formato que los deltas de patient-service)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeviceChangesDto {
+    // Versión actual de cada dispositivo modificado, una sola vez aunque cambiara varias veces
+    private List<DeviceDetailsDto> devices = new ArrayList<>();
+    private List<Long> deletedIds = new ArrayList<>();
+    // Movidos al archivo: ya no están en la flota activa, pero se pueden leer con includeArchived=true
+    private List<Long> archivedIds = new ArrayList<>();
+    private long cursor;
+    private boolean hasMore;
+    // El cursor es anterior a las entradas conservadas: hay que recargar la flota completa
+    private boolean resyncRequired;
+}
@@ -1,6 +1,5 @@
 package com.insulinpump.deviceservice.dto;
 
-import com.insulinpump.deviceservice.model.Device;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -19,18 +18,7 @@ public class DeviceDetailsDto {
     private Float maxBasalRate;
     private Float maxBolusAmount;
     private Integer reservoirCapacity;
+    private String firmwareVersion;
+    private String batteryType;
     private PatientDto patient;
-
-    public DeviceDetailsDto(Device device) {
-        this.id = device.getId();
-        this.serialNo = device.getSerialNo();
-        this.model = device.getModel();
-        this.manufacturer = device.getManufacturer();
-        this.status = device.getStatus().toString();
-        this.manufactureDate = device.getManufactureDate();
-        this.lastMaintenanceDate = device.getLastMaintenanceDate();
-        this.maxBasalRate = device.getMaxBasalRate();
-        this.maxBolusAmount = device.getMaxBolusAmount();
-        this.reservoirCapacity = device.getReservoirCapacity();
-    }
-}
\ No newline at end of file
+}
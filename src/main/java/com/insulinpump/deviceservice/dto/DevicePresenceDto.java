@@ -0,0 +1,18 @@
+package com.insulinpump.deviceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DevicePresenceDto {
+    private Long id;
+    private String serialNo;
+    private String status;
+    // null si el dispositivo no ha hecho check-in en esta réplica
+    private Instant lastSeen;
+}
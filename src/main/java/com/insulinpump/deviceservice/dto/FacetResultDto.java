@@ -0,0 +1,22 @@
+package com.insulinpump.deviceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetResultDto {
+    // Dispositivos que cumplen el filtro
+    private long count;
+    // Campo -> valor -> dispositivos del resultado con ese valor
+    private Map<String, Map<String, Long>> facets;
+    // Solo si se piden filas (limit > 0)
+    private List<DeviceDetailsDto> devices;
+    // Cursor para la página siguiente (parámetro after); null si no hay más
+    private Long nextAfter;
+}
@@ -0,0 +1,21 @@
+package com.insulinpump.deviceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Página de cambios de patient-service a partir de un cursor (o instantánea completa)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientChangesDto {
+    private List<PatientDto> patients = new ArrayList<>();
+    private List<Long> deletedIds = new ArrayList<>();
+    private long cursor;
+    private boolean hasMore;
+    // El cursor es demasiado antiguo para servir deltas: hay que pedir una instantánea completa
+    private boolean resyncRequired;
+}
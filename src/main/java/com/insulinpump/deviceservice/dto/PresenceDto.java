@@ -0,0 +1,24 @@
+package com.insulinpump.deviceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceDto {
+    // Réplica que responde (pid@host). La presencia no es de la flota: solo cuenta los check-ins de esta réplica
+    private String instance;
+    // Dispositivos del filtro de estado con check-in en esta réplica dentro del plazo
+    private long online;
+    // Dispositivos del filtro de estado sin check-in en esta réplica dentro del plazo (incluye los que hacen
+    // check-in en otra)
+    private long offline;
+    // Solo si se piden filas (limit > 0) del estado de presencia indicado
+    private List<DevicePresenceDto> devices;
+    // Cursor para la página siguiente (parámetro after); null si no hay más
+    private Long nextAfter;
+}
@@ -0,0 +1,14 @@
+package com.insulinpump.deviceservice.event;
+
+public enum DeviceChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    // Movido a dispositivos_archivados: sale de la tabla activa pero sigue consultable con includeArchived
+    ARCHIVED;
+
+    // El dispositivo ya no está en la tabla activa
+    public boolean isRemoval() {
+        return this == DELETED || this == ARCHIVED;
+    }
+}
@@ -0,0 +1,23 @@
+package com.insulinpump.deviceservice.event;
+
+import com.insulinpump.deviceservice.model.Device;
+
+// Publicado por DeviceService dentro de la transacción de cada escritura. previous y current son copias
+// independientes del dispositivo (previous es null al crear, current es null al eliminar o archivar).
+public record DeviceChangedEvent(DeviceChangeType type, Device previous, Device current) {
+
+    public Long deviceId() {
+        return current != null ? current.getId() : previous.getId();
+    }
+
+    public String serialNo() {
+        return current != null ? current.getSerialNo() : previous.getSerialNo();
+    }
+
+    // Número de serie anterior solo si la escritura lo ha cambiado
+    public String previousSerialNo() {
+        return previous != null && current != null && !previous.getSerialNo().equals(current.getSerialNo())
+                ? previous.getSerialNo()
+                : null;
+    }
+}
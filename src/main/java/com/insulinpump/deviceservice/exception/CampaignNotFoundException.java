@@ -0,0 +1,8 @@
+package com.insulinpump.deviceservice.exception;
+
+public class CampaignNotFoundException extends RuntimeException {
+
+    public CampaignNotFoundException(Long id) {
+        super("Campaña de firmware no encontrada con ID: " + id);
+    }
+}
@@ -40,6 +40,54 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
     }
 
+    @ExceptionHandler(InvalidFacetFilterException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidFacetFilter(InvalidFacetFilterException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("status", HttpStatus.BAD_REQUEST.value());
+        error.put("error", "Filtro de facetas no válido");
+        error.put("message", ex.getMessage());
+
+        log.error("Invalid facet filter: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(InvalidFieldSelectionException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidFieldSelection(InvalidFieldSelectionException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("status", HttpStatus.BAD_REQUEST.value());
+        error.put("error", "Selección de campos no válida");
+        error.put("message", ex.getMessage());
+
+        log.error("Invalid field selection: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(CampaignNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleCampaignNotFound(CampaignNotFoundException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("status", HttpStatus.NOT_FOUND.value());
+        error.put("error", "Campaña no encontrada");
+        error.put("message", ex.getMessage());
+
+        log.error("Campaign not found: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+
+    @ExceptionHandler(InvalidCampaignException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidCampaign(InvalidCampaignException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("status", ex.getStatus().value());
+        error.put("error", "Operación de campaña no válida");
+        error.put("message", ex.getMessage());
+
+        log.error("Invalid campaign operation: {}", ex.getMessage());
+        return ResponseEntity.status(ex.getStatus()).body(error);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidationExceptions(MethodArgumentNotValidException ex) {
         Map<String, String> errors = new HashMap<>();
@@ -59,6 +107,19 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
+    // Mismo formato que los errores de validación de @Valid, con un mensaje por campo del documento
+    @ExceptionHandler(InvalidDevicePatchException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidDevicePatch(InvalidDevicePatchException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.BAD_REQUEST.value());
+        response.put("error", "Error de validación");
+        response.put("validationErrors", ex.getErrors());
+
+        log.error("Invalid merge patch: {}", ex.getErrors());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleGenericException(Exception ex) {
         Map<String, Object> error = new HashMap<>();
@@ -0,0 +1,18 @@
+package com.insulinpump.deviceservice.exception;
+
+import org.springframework.http.HttpStatus;
+
+// Versión mal formada (400) o transición no permitida desde el estado actual (409)
+public class InvalidCampaignException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    public InvalidCampaignException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
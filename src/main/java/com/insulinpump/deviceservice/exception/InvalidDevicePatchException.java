@@ -0,0 +1,17 @@
+package com.insulinpump.deviceservice.exception;
+
+import java.util.Map;
+
+public class InvalidDevicePatchException extends RuntimeException {
+
+    private final Map<String, String> errors;
+
+    public InvalidDevicePatchException(Map<String, String> errors) {
+        super("Documento merge-patch no válido: " + errors);
+        this.errors = Map.copyOf(errors);
+    }
+
+    public Map<String, String> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,8 @@
+package com.insulinpump.deviceservice.exception;
+
+public class InvalidFacetFilterException extends RuntimeException {
+
+    public InvalidFacetFilterException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.insulinpump.deviceservice.exception;
+
+public class InvalidFieldSelectionException extends RuntimeException {
+
+    public InvalidFieldSelectionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.insulinpump.deviceservice.facet;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(FacetProperties.class)
+public class FacetConfig {
+}
@@ -0,0 +1,49 @@
+package com.insulinpump.deviceservice.facet;
+
+import com.insulinpump.deviceservice.model.Device;
+
+import java.util.Locale;
+import java.util.function.Function;
+
+// Campos indexados con bitmaps; el nombre es el que se usa en el filtro y en el parámetro facets
+public enum FacetField {
+    STATUS("status", device -> device.getStatus() == null ? null : device.getStatus().name()),
+    MANUFACTURER("manufacturer", Device::getManufacturer),
+    MODEL("model", Device::getModel),
+    FIRMWARE_VERSION("firmwareVersion", Device::getFirmwareVersion),
+    ASSIGNED("assigned", device -> Boolean.toString(device.getPatientId() != null));
+
+    private final String fieldName;
+    private final Function<Device, String> extractor;
+
+    FacetField(String fieldName, Function<Device, String> extractor) {
+        this.fieldName = fieldName;
+        this.extractor = extractor;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public String valueOf(Device device) {
+        return extractor.apply(device);
+    }
+
+    // Los valores de estado y asignación no distinguen mayúsculas; fabricante, modelo y firmware sí
+    String normalize(String value) {
+        return switch (this) {
+            case STATUS -> value.toUpperCase(Locale.ROOT);
+            case ASSIGNED -> value.toLowerCase(Locale.ROOT);
+            default -> value;
+        };
+    }
+
+    public static FacetField fromName(String name) {
+        for (FacetField field : values()) {
+            if (field.fieldName.equalsIgnoreCase(name)) {
+                return field;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,56 @@
+package com.insulinpump.deviceservice.facet;
+
+import com.insulinpump.deviceservice.firmware.FirmwareVersion;
+
+import java.util.List;
+
+// Árbol de un filtro de facetas ya analizado (ver FacetFilterParser)
+public sealed interface FacetFilter {
+
+    record MatchAll() implements FacetFilter {
+    }
+
+    record Term(FacetField field, String value) implements FacetFilter {
+    }
+
+    // firmwareVersion < 2.1.0, >= 3, ...
+    record FirmwareRange(Comparison comparison, FirmwareVersion version) implements FacetFilter {
+    }
+
+    record And(List<FacetFilter> filters) implements FacetFilter {
+    }
+
+    record Or(List<FacetFilter> filters) implements FacetFilter {
+    }
+
+    record Not(FacetFilter filter) implements FacetFilter {
+    }
+
+    enum Comparison {
+        LT("<"), LTE("<="), GT(">"), GTE(">=");
+
+        private final String symbol;
+
+        Comparison(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public boolean matches(int compared) {
+            return switch (this) {
+                case LT -> compared < 0;
+                case LTE -> compared <= 0;
+                case GT -> compared > 0;
+                case GTE -> compared >= 0;
+            };
+        }
+
+        static Comparison fromSymbol(String symbol) {
+            for (Comparison comparison : values()) {
+                if (comparison.symbol.equals(symbol)) {
+                    return comparison;
+                }
+            }
+            return null;
+        }
+    }
+}
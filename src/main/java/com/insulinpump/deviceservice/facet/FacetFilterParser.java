@@ -0,0 +1,171 @@
+package com.insulinpump.deviceservice.facet;
+
+import com.insulinpump.deviceservice.exception.InvalidFacetFilterException;
+import com.insulinpump.deviceservice.firmware.FirmwareVersion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+// Analizador descendente recursivo de filtros de facetas:
+//
+//   filtro     := o
+//   o          := y ("OR" y)*
+//   y          := unario ("AND" unario)*
+//   unario     := "NOT" unario | "(" filtro ")" | condición
+//   condición  := campo (":" | "=") valor | "firmwareVersion" ("<" | "<=" | ">" | ">=") versión
+//   valor      := palabra | "texto entre comillas"
+//
+// Ejemplo: status:ACTIVE AND manufacturer:"Insulet" AND firmwareVersion<2.1.0 AND NOT assigned:true
+public final class FacetFilterParser {
+
+    // Anidamiento máximo de paréntesis y NOT; evita agotar la pila con filtros patológicos
+    static final int MAX_DEPTH = 32;
+
+    private final String input;
+    private int position;
+    private int depth;
+
+    private FacetFilterParser(String input) {
+        this.input = input;
+    }
+
+    public static FacetFilter parse(String filter) {
+        if (filter == null || filter.isBlank()) {
+            return new FacetFilter.MatchAll();
+        }
+        FacetFilterParser parser = new FacetFilterParser(filter);
+        FacetFilter parsed = parser.parseOr();
+        parser.skipWhitespace();
+        if (parser.position < parser.input.length()) {
+            throw parser.error("se esperaba AND, OR o el final del filtro");
+        }
+        return parsed;
+    }
+
+    private FacetFilter parseOr() {
+        List<FacetFilter> filters = new ArrayList<>(List.of(parseAnd()));
+        while (acceptKeyword("OR")) {
+            filters.add(parseAnd());
+        }
+        return filters.size() == 1 ? filters.get(0) : new FacetFilter.Or(List.copyOf(filters));
+    }
+
+    private FacetFilter parseAnd() {
+        List<FacetFilter> filters = new ArrayList<>(List.of(parseUnary()));
+        while (acceptKeyword("AND")) {
+            filters.add(parseUnary());
+        }
+        return filters.size() == 1 ? filters.get(0) : new FacetFilter.And(List.copyOf(filters));
+    }
+
+    private FacetFilter parseUnary() {
+        if (acceptKeyword("NOT")) {
+            enter();
+            FacetFilter negated = new FacetFilter.Not(parseUnary());
+            depth--;
+            return negated;
+        }
+        skipWhitespace();
+        if (accept('(')) {
+            enter();
+            FacetFilter inner = parseOr();
+            skipWhitespace();
+            if (!accept(')')) {
+                throw error("falta el paréntesis de cierre");
+            }
+            depth--;
+            return inner;
+        }
+        return parseCondition();
+    }
+
+    private void enter() {
+        if (++depth > MAX_DEPTH) {
+            throw error("el filtro supera el anidamiento máximo de " + MAX_DEPTH);
+        }
+    }
+
+    private FacetFilter parseCondition() {
+        int start = position;
+        String name = readWhile(c -> Character.isLetterOrDigit(c) || c == '_');
+        FacetField field = FacetField.fromName(name);
+        if (field == null) {
+            position = start;
+            throw error(name.isEmpty() ? "se esperaba un campo" : "campo desconocido '" + name + "'");
+        }
+        skipWhitespace();
+        String operator = readWhile(c -> c == ':' || c == '=' || c == '<' || c == '>');
+        skipWhitespace();
+        String value = readValue();
+        if (operator.equals(":") || operator.equals("=")) {
+            return new FacetFilter.Term(field, field.normalize(value));
+        }
+        FacetFilter.Comparison comparison = FacetFilter.Comparison.fromSymbol(operator);
+        if (comparison == null) {
+            throw error("operador no válido '" + operator + "'");
+        }
+        if (field != FacetField.FIRMWARE_VERSION) {
+            throw error("solo firmwareVersion admite comparaciones de orden");
+        }
+        FirmwareVersion version = FirmwareVersion.parseOrNull(value);
+        if (version == null) {
+            throw error("versión de firmware no válida '" + value + "'");
+        }
+        return new FacetFilter.FirmwareRange(comparison, version);
+    }
+
+    private String readValue() {
+        if (accept('"')) {
+            int end = input.indexOf('"', position);
+            if (end < 0) {
+                throw error("faltan las comillas de cierre");
+            }
+            String value = input.substring(position, end);
+            position = end + 1;
+            return value;
+        }
+        String value = readWhile(c -> !Character.isWhitespace(c) && c != '(' && c != ')');
+        if (value.isEmpty()) {
+            throw error("se esperaba un valor");
+        }
+        return value;
+    }
+
+    private boolean acceptKeyword(String keyword) {
+        skipWhitespace();
+        int end = position + keyword.length();
+        if (input.regionMatches(true, position, keyword, 0, keyword.length())
+                && (end == input.length() || Character.isWhitespace(input.charAt(end)) || input.charAt(end) == '(')) {
+            position = end;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean accept(char expected) {
+        if (position < input.length() && input.charAt(position) == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private String readWhile(IntPredicate predicate) {
+        int start = position;
+        while (position < input.length() && predicate.test(input.charAt(position))) {
+            position++;
+        }
+        return input.substring(start, position);
+    }
+
+    private void skipWhitespace() {
+        while (position < input.length() && Character.isWhitespace(input.charAt(position))) {
+            position++;
+        }
+    }
+
+    private InvalidFacetFilterException error(String message) {
+        return new InvalidFacetFilterException("Posición " + position + ": " + message);
+    }
+}
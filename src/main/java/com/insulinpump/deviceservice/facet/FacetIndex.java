@@ -0,0 +1,334 @@
+package com.insulinpump.deviceservice.facet;
+
+import com.insulinpump.deviceservice.changelog.ChangeLogListener;
+import com.insulinpump.deviceservice.changelog.DeviceChange;
+import com.insulinpump.deviceservice.event.DeviceChangedEvent;
+import com.insulinpump.deviceservice.firmware.FirmwareVersion;
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.repository.DeviceStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.PeekableLongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice invertido de la flota con un bitmap comprimido (Roaring) de ids por cada valor de estado, fabricante,
+// modelo, firmware y asignación. Los filtros se resuelven con AND/OR/ANDNOT entre bitmaps y los recuentos con
+// cardinalidades de intersección, sin tocar la base de datos. Se carga en la primera consulta y después se
+// mantiene con las escrituras de esta réplica (al confirmar) y con el change-log de las demás.
+@Component
+@Slf4j
+public class FacetIndex implements ChangeLogListener, MeterBinder {
+
+    private final DeviceStore deviceRepository;
+    // Las consultas duran microsegundos: un cerrojo de lectura/escritura basta frente a las escrituras
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<FacetField, Map<String, Roaring64Bitmap>> bitmaps = new EnumMap<>(FacetField.class);
+    // Versiones ya analizadas de cada valor de firmware, para los filtros por rango
+    private final Map<String, FirmwareVersion> firmwareVersions = new HashMap<>();
+    // Unión de los bitmaps de firmware de cada rango consultado; cualquier escritura la descarta
+    private final Map<FacetFilter.FirmwareRange, Roaring64Bitmap> firmwareRanges = new ConcurrentHashMap<>();
+    private final Roaring64Bitmap all = new Roaring64Bitmap();
+    private boolean loaded;
+    // Sube con cada escritura local, carga o invalidación; protegido por lock
+    private long version;
+
+    public FacetIndex(DeviceStore deviceRepository) {
+        this.deviceRepository = deviceRepository;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("device.facets.devices", this, index -> index.size())
+                .description("Dispositivos en el índice de facetas")
+                .register(registry);
+    }
+
+    // Bitmap nuevo con los ids que cumplen el filtro
+    public Roaring64Bitmap evaluate(FacetFilter filter) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Evaluated result = evaluateLocked(filter);
+            return result.shared() ? result.ids().clone() : result.ids();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Recuento por valor del campo dentro de los ids seleccionados, de mayor a menor
+    public Map<String, Long> counts(FacetField field, Roaring64Bitmap matches) {
+        ensureLoaded();
+        List<Map.Entry<String, Long>> counts = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            bitmaps.getOrDefault(field, Map.of()).forEach((value, ids) -> {
+                long count = Roaring64Bitmap.andCardinality(matches, ids);
+                if (count > 0) {
+                    counts.add(Map.entry(value, count));
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        counts.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        counts.forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+    // Hasta limit ids del resultado mayores que after, en orden ascendente
+    public static List<Long> page(Roaring64Bitmap matches, long after, int limit) {
+        List<Long> ids = new ArrayList<>(Math.min(limit, 1024));
+        PeekableLongIterator iterator = matches.getLongIteratorFrom(after + 1);
+        while (ids.size() < limit && iterator.hasNext()) {
+            ids.add(iterator.next());
+        }
+        return ids;
+    }
+
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return all.getLongCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                version++;
+                removeLocked(event.deviceId());
+                if (!event.type().isRemoval()) {
+                    addLocked(event.current());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Cambios de otras réplicas: el change-log solo trae ids, así que se releen los dispositivos afectados con
+    // una sola consulta antes de tomar el cerrojo. Si entretanto ha cambiado el índice (una escritura local
+    // puede ser más nueva que lo leído), se vuelven a leer ya con el cerrojo, como antes.
+    @Override
+    public void onChanges(List<DeviceChange> changes) {
+        List<Long> ids = changes.stream()
+                .filter(change -> change.deviceId() != null && !change.type().isRemoval())
+                .map(DeviceChange::deviceId)
+                .distinct()
+                .toList();
+        long versionBefore;
+        lock.readLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            versionBefore = version;
+        } finally {
+            lock.readLock().unlock();
+        }
+        Map<Long, Device> devices = findAll(ids);
+
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            if (version != versionBefore) {
+                devices = findAll(ids);
+            }
+            version++;
+            for (DeviceChange change : changes) {
+                if (change.deviceId() == null) {
+                    continue;
+                }
+                removeLocked(change.deviceId());
+                Device device = change.type().isRemoval() ? null : devices.get(change.deviceId());
+                if (device != null) {
+                    addLocked(device);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            version++;
+            clearLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        lock.readLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                clearLocked();
+                version++;
+                deviceRepository.findAll().forEach(this::addLocked);
+                bitmaps.values().forEach(values -> values.values().forEach(Roaring64Bitmap::runOptimize));
+                loaded = true;
+                log.debug("Índice de facetas cargado con {} dispositivos", all.getLongCardinality());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Map<Long, Device> findAll(List<Long> ids) {
+        Map<Long, Device> devices = new HashMap<>();
+        if (!ids.isEmpty()) {
+            deviceRepository.findAllById(ids).forEach(device -> devices.put(device.getId(), device));
+        }
+        return devices;
+    }
+
+    // Los términos devuelven los bitmaps del propio índice (shared) y solo se copia lo que se va a modificar:
+    // el primer AND/OR/ANDNOT produce un bitmap nuevo y los siguientes operan sobre él
+    private Evaluated evaluateLocked(FacetFilter filter) {
+        return switch (filter) {
+            case FacetFilter.MatchAll matchAll -> Evaluated.shared(all);
+            case FacetFilter.Term term -> {
+                Roaring64Bitmap ids = bitmaps.getOrDefault(term.field(), Map.of()).get(term.value());
+                yield ids == null ? Evaluated.owned(new Roaring64Bitmap()) : Evaluated.shared(ids);
+            }
+            case FacetFilter.FirmwareRange range -> Evaluated.shared(firmwareRanges.computeIfAbsent(range, this::firmwareUnion));
+            case FacetFilter.And and -> {
+                Evaluated result = evaluateLocked(and.filters().get(0));
+                for (int i = 1; i < and.filters().size() && !result.ids().isEmpty(); i++) {
+                    FacetFilter next = and.filters().get(i);
+                    // AND NOT x se resuelve como diferencia, sin materializar el complemento
+                    result = next instanceof FacetFilter.Not not
+                            ? result.andNot(evaluateLocked(not.filter()).ids())
+                            : result.and(evaluateLocked(next).ids());
+                }
+                yield result;
+            }
+            case FacetFilter.Or or -> {
+                Evaluated result = evaluateLocked(or.filters().get(0));
+                for (int i = 1; i < or.filters().size(); i++) {
+                    result = result.or(evaluateLocked(or.filters().get(i)).ids());
+                }
+                yield result;
+            }
+            case FacetFilter.Not not -> Evaluated.shared(all).andNot(evaluateLocked(not.filter()).ids());
+        };
+    }
+
+    private Roaring64Bitmap firmwareUnion(FacetFilter.FirmwareRange range) {
+        Roaring64Bitmap union = new Roaring64Bitmap();
+        bitmaps.getOrDefault(FacetField.FIRMWARE_VERSION, Map.of()).forEach((value, ids) -> {
+            FirmwareVersion version = firmwareVersions.get(value);
+            if (version != null && range.comparison().matches(version.compareTo(range.version()))) {
+                union.or(ids);
+            }
+        });
+        return union;
+    }
+
+    private void addLocked(Device device) {
+        firmwareRanges.clear();
+        long id = device.getId();
+        all.addLong(id);
+        for (FacetField field : FacetField.values()) {
+            String value = field.valueOf(device);
+            if (value != null) {
+                bitmaps.computeIfAbsent(field, f -> new HashMap<>())
+                        .computeIfAbsent(value, v -> new Roaring64Bitmap())
+                        .addLong(id);
+                if (field == FacetField.FIRMWARE_VERSION) {
+                    firmwareVersions.computeIfAbsent(value, FirmwareVersion::parseOrNull);
+                }
+            }
+        }
+    }
+
+    // Los campos indexados tienen pocos valores distintos: se quita el id de todos sus bitmaps
+    private void removeLocked(long id) {
+        if (!all.contains(id)) {
+            return;
+        }
+        all.removeLong(id);
+        firmwareRanges.clear();
+        for (Map<String, Roaring64Bitmap> values : bitmaps.values()) {
+            values.values().removeIf(ids -> {
+                ids.removeLong(id);
+                return ids.isEmpty();
+            });
+        }
+    }
+
+    private void clearLocked() {
+        all.clear();
+        bitmaps.clear();
+        firmwareVersions.clear();
+        firmwareRanges.clear();
+    }
+
+    private record Evaluated(Roaring64Bitmap ids, boolean shared) {
+
+        static Evaluated shared(Roaring64Bitmap ids) {
+            return new Evaluated(ids, true);
+        }
+
+        static Evaluated owned(Roaring64Bitmap ids) {
+            return new Evaluated(ids, false);
+        }
+
+        Evaluated and(Roaring64Bitmap other) {
+            if (shared) {
+                return owned(Roaring64Bitmap.and(ids, other));
+            }
+            ids.and(other);
+            return this;
+        }
+
+        Evaluated or(Roaring64Bitmap other) {
+            if (shared) {
+                return owned(Roaring64Bitmap.or(ids, other));
+            }
+            ids.or(other);
+            return this;
+        }
+
+        Evaluated andNot(Roaring64Bitmap other) {
+            if (shared) {
+                return owned(Roaring64Bitmap.andNot(ids, other));
+            }
+            ids.andNot(other);
+            return this;
+        }
+    }
+}
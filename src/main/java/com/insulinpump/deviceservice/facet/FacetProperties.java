@@ -0,0 +1,14 @@
+package com.insulinpump.deviceservice.facet;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "device.facets")
+public class FacetProperties {
+
+    // Filas como máximo por petición (parámetro limit)
+    private int maxLimit = 500;
+    // Ids por consulta al repositorio al materializar las filas pedidas
+    private int fetchBatchSize = 100;
+}
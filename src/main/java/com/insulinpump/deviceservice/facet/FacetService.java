@@ -0,0 +1,64 @@
+package com.insulinpump.deviceservice.facet;
+
+import com.insulinpump.deviceservice.dto.DeviceDetailsDto;
+import com.insulinpump.deviceservice.dto.FacetResultDto;
+import com.insulinpump.deviceservice.exception.InvalidFacetFilterException;
+import com.insulinpump.deviceservice.service.DeviceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FacetService {
+
+    private final FacetIndex facetIndex;
+    private final DeviceService deviceService;
+    private final FacetProperties properties;
+
+    // Recuentos desde los bitmaps; los dispositivos solo se leen si se piden filas y por lotes de ids
+    public FacetResultDto search(String filter, List<String> facets, Long after, int limit) {
+        log.debug("Consultando facetas con filtro: {}", filter);
+        if (limit < 0 || limit > properties.getMaxLimit()) {
+            throw new InvalidFacetFilterException("limit debe estar entre 0 y " + properties.getMaxLimit());
+        }
+        FacetFilter parsed = FacetFilterParser.parse(filter);
+        List<FacetField> fields = new ArrayList<>();
+        for (String name : facets == null ? List.<String>of() : facets) {
+            FacetField field = FacetField.fromName(name.strip());
+            if (field == null) {
+                throw new InvalidFacetFilterException("Faceta desconocida '" + name + "'");
+            }
+            fields.add(field);
+        }
+
+        Roaring64Bitmap matches = facetIndex.evaluate(parsed);
+        Map<String, Map<String, Long>> counts = new LinkedHashMap<>();
+        for (FacetField field : fields) {
+            counts.put(field.getFieldName(), facetIndex.counts(field, matches));
+        }
+
+        List<DeviceDetailsDto> devices = null;
+        Long nextAfter = null;
+        if (limit > 0) {
+            // Uno más para saber si hay página siguiente sin recorrer el resto del bitmap
+            List<Long> ids = FacetIndex.page(matches, after == null ? -1 : after, limit + 1);
+            boolean more = ids.size() > limit;
+            ids = ids.subList(0, Math.min(limit, ids.size()));
+            devices = new ArrayList<>(ids.size());
+            for (int from = 0; from < ids.size(); from += properties.getFetchBatchSize()) {
+                devices.addAll(deviceService.getDevicesByIds(
+                        ids.subList(from, Math.min(ids.size(), from + properties.getFetchBatchSize()))));
+            }
+            nextAfter = more && !ids.isEmpty() ? ids.get(ids.size() - 1) : null;
+        }
+        return new FacetResultDto(matches.getLongCardinality(), counts, devices, nextAfter);
+    }
+}
@@ -0,0 +1,103 @@
+package com.insulinpump.deviceservice.fields;
+
+import com.insulinpump.deviceservice.dto.DeviceDetailsDto;
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+
+import java.time.LocalDate;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+// Campos de DeviceDetailsDto que se pueden pedir con fields=, en el orden en que se escriben. Cada uno sabe
+// qué atributo y columna de dispositivos necesita y cómo leerlo de un Device o asignarlo a uno cargado parcialmente.
+public enum DeviceField {
+    ID("id", "id", "id", DeviceDetailsDto::getId, Device::getId, (device, value) -> device.setId((Long) value)),
+    SERIAL_NO("serialNo", "serialNo", "serial_no", DeviceDetailsDto::getSerialNo, Device::getSerialNo,
+            (device, value) -> device.setSerialNo((String) value)),
+    MODEL("model", "model", "model", DeviceDetailsDto::getModel, Device::getModel,
+            (device, value) -> device.setModel((String) value)),
+    MANUFACTURER("manufacturer", "manufacturer", "manufacturer", DeviceDetailsDto::getManufacturer,
+            Device::getManufacturer, (device, value) -> device.setManufacturer((String) value)),
+    STATUS("status", "status", "status", DeviceDetailsDto::getStatus, Device::getStatus,
+            (device, value) -> device.setStatus((DeviceStatus) value)),
+    MANUFACTURE_DATE("manufactureDate", "manufactureDate", "manufacture_date", DeviceDetailsDto::getManufactureDate,
+            Device::getManufactureDate, (device, value) -> device.setManufactureDate((LocalDate) value)),
+    LAST_MAINTENANCE_DATE("lastMaintenanceDate", "lastMaintenanceDate", "last_maintenance_date",
+            DeviceDetailsDto::getLastMaintenanceDate, Device::getLastMaintenanceDate,
+            (device, value) -> device.setLastMaintenanceDate((LocalDate) value)),
+    MAX_BASAL_RATE("maxBasalRate", "maxBasalRate", "max_basal_rate", DeviceDetailsDto::getMaxBasalRate,
+            Device::getMaxBasalRate, (device, value) -> device.setMaxBasalRate((Float) value)),
+    MAX_BOLUS_AMOUNT("maxBolusAmount", "maxBolusAmount", "max_bolus_amount", DeviceDetailsDto::getMaxBolusAmount,
+            Device::getMaxBolusAmount, (device, value) -> device.setMaxBolusAmount((Float) value)),
+    RESERVOIR_CAPACITY("reservoirCapacity", "reservoirCapacity", "reservoir_capacity",
+            DeviceDetailsDto::getReservoirCapacity, Device::getReservoirCapacity,
+            (device, value) -> device.setReservoirCapacity((Integer) value)),
+    FIRMWARE_VERSION("firmwareVersion", "firmwareVersion", "firmware_version", DeviceDetailsDto::getFirmwareVersion,
+            Device::getFirmwareVersion, (device, value) -> device.setFirmwareVersion((String) value)),
+    BATTERY_TYPE("batteryType", "batteryType", "battery_type", DeviceDetailsDto::getBatteryType,
+            Device::getBatteryType, (device, value) -> device.setBatteryType((String) value)),
+    // El paciente se resuelve a partir de patientId con la proyección local
+    PATIENT("patient", "patientId", "patient_id", DeviceDetailsDto::getPatient, Device::getPatientId,
+            (device, value) -> device.setPatientId((Long) value));
+
+    private final String fieldName;
+    private final String attribute;
+    private final String column;
+    private final Function<DeviceDetailsDto, Object> getter;
+    private final Function<Device, Object> reader;
+    private final BiConsumer<Device, Object> setter;
+
+    DeviceField(String fieldName, String attribute, String column, Function<DeviceDetailsDto, Object> getter,
+                Function<Device, Object> reader, BiConsumer<Device, Object> setter) {
+        this.fieldName = fieldName;
+        this.attribute = attribute;
+        this.column = column;
+        this.getter = getter;
+        this.reader = reader;
+        this.setter = setter;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    // Atributo JPA de Device
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public Object valueOf(DeviceDetailsDto dto) {
+        return getter.apply(dto);
+    }
+
+    public Object valueOf(Device device) {
+        return reader.apply(device);
+    }
+
+    public void assign(Device device, Object value) {
+        setter.accept(device, value);
+    }
+
+    // Por atributo de Device, que coincide con el nombre de la propiedad en DeviceCreateDto
+    public static DeviceField fromAttribute(String attribute) {
+        for (DeviceField field : values()) {
+            if (field.attribute.equals(attribute)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    public static DeviceField fromName(String name) {
+        for (DeviceField field : values()) {
+            if (field.fieldName.equalsIgnoreCase(name)) {
+                return field;
+            }
+        }
+        return null;
+    }
+}
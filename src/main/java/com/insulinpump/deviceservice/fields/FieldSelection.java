@@ -0,0 +1,60 @@
+package com.insulinpump.deviceservice.fields;
+
+import com.insulinpump.deviceservice.exception.InvalidFieldSelectionException;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+// Campos pedidos con fields=id,serialNo,status. El id se incluye siempre; sin el parámetro se devuelven todos.
+public final class FieldSelection {
+
+    public static final FieldSelection ALL = new FieldSelection(EnumSet.allOf(DeviceField.class));
+
+    private final Set<DeviceField> fields;
+
+    private FieldSelection(EnumSet<DeviceField> fields) {
+        this.fields = Collections.unmodifiableSet(fields);
+    }
+
+    public static FieldSelection of(DeviceField... fields) {
+        EnumSet<DeviceField> selected = EnumSet.of(DeviceField.ID, fields);
+        return selected.size() == DeviceField.values().length ? ALL : new FieldSelection(selected);
+    }
+
+    public static FieldSelection parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        EnumSet<DeviceField> selected = EnumSet.of(DeviceField.ID);
+        for (String name : fields.split(",")) {
+            if (name.isBlank()) {
+                continue;
+            }
+            DeviceField field = DeviceField.fromName(name.trim());
+            if (field == null) {
+                throw new InvalidFieldSelectionException("Campo desconocido '" + name.trim() + "'");
+            }
+            selected.add(field);
+        }
+        return selected.size() == DeviceField.values().length ? ALL : new FieldSelection(selected);
+    }
+
+    public boolean isAll() {
+        return this == ALL;
+    }
+
+    public boolean contains(DeviceField field) {
+        return fields.contains(field);
+    }
+
+    // En el orden de DeviceField, que es el de DeviceDetailsDto
+    public Set<DeviceField> fields() {
+        return fields;
+    }
+
+    @Override
+    public String toString() {
+        return fields.toString();
+    }
+}
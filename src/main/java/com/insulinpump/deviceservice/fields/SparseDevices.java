@@ -0,0 +1,67 @@
+package com.insulinpump.deviceservice.fields;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.insulinpump.deviceservice.dto.DeviceDetailsDto;
+
+import java.io.IOException;
+import java.util.List;
+
+// Uno o varios DeviceDetailsDto escritos solo con los campos seleccionados (los demás no aparecen, ni
+// siquiera como null). Cada valor pasa por el serializador configurado, así que fechas y formatos binarios
+// salen igual que en la respuesta completa.
+public final class SparseDevices implements JsonSerializable {
+
+    private final List<DeviceDetailsDto> devices;
+    private final boolean single;
+    private final FieldSelection selection;
+
+    private SparseDevices(List<DeviceDetailsDto> devices, boolean single, FieldSelection selection) {
+        this.devices = devices;
+        this.single = single;
+        this.selection = selection;
+    }
+
+    public static SparseDevices of(DeviceDetailsDto device, FieldSelection selection) {
+        return new SparseDevices(List.of(device), true, selection);
+    }
+
+    public static SparseDevices of(List<DeviceDetailsDto> devices, FieldSelection selection) {
+        return new SparseDevices(devices, false, selection);
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (single) {
+            writeDevice(gen, provider, devices.get(0));
+            return;
+        }
+        gen.writeStartArray(devices, devices.size());
+        for (DeviceDetailsDto device : devices) {
+            writeDevice(gen, provider, device);
+        }
+        gen.writeEndArray();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider provider, TypeSerializer typeSerializer)
+            throws IOException {
+        JsonToken shape = single ? JsonToken.START_OBJECT : JsonToken.START_ARRAY;
+        WritableTypeId typeId = typeSerializer.writeTypePrefix(gen, typeSerializer.typeId(this, shape));
+        serialize(gen, provider);
+        typeSerializer.writeTypeSuffix(gen, typeId);
+    }
+
+    private void writeDevice(JsonGenerator gen, SerializerProvider provider, DeviceDetailsDto device)
+            throws IOException {
+        gen.writeStartObject(device);
+        for (DeviceField field : selection.fields()) {
+            provider.defaultSerializeField(field.getFieldName(), field.valueOf(device), gen);
+        }
+        gen.writeEndObject();
+    }
+}
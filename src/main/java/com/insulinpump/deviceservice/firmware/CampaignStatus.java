@@ -0,0 +1,9 @@
+package com.insulinpump.deviceservice.firmware;
+
+public enum CampaignStatus {
+    RUNNING,
+    PAUSED,
+    CANCELLED,
+    COMPLETED,
+    FAILED
+}
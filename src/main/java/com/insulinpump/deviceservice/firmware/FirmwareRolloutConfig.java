@@ -0,0 +1,9 @@
+package com.insulinpump.deviceservice.firmware;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(FirmwareRolloutProperties.class)
+public class FirmwareRolloutConfig {
+}
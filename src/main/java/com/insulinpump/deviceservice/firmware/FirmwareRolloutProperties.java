@@ -0,0 +1,24 @@
+package com.insulinpump.deviceservice.firmware;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "device.firmware-rollout")
+public class FirmwareRolloutProperties {
+
+    private boolean enabled = true;
+    // Hilos que aplican lotes, compartidos por todas las campañas de la réplica
+    private int workers = 4;
+    // Campañas ejecutándose a la vez en esta réplica
+    private int maxConcurrentCampaigns = 2;
+    // Lotes de una campaña que se aplican en paralelo antes de cada checkpoint
+    private int parallelChunks = 4;
+    private int defaultChunkSize = 500;
+    private int defaultMaxDevicesPerSecond = 1_000;
+    // Si la réplica que ejecuta una campaña deja de renovar la reserva, otra la retoma desde el checkpoint
+    private Duration leaseDuration = Duration.ofSeconds(60);
+    private Duration pollInterval = Duration.ofSeconds(5);
+}
@@ -0,0 +1,100 @@
+package com.insulinpump.deviceservice.firmware;
+
+import com.insulinpump.deviceservice.dto.CampaignCreateDto;
+import com.insulinpump.deviceservice.dto.CampaignDto;
+import com.insulinpump.deviceservice.exception.CampaignNotFoundException;
+import com.insulinpump.deviceservice.exception.InvalidCampaignException;
+import com.insulinpump.deviceservice.facet.FacetIndex;
+import com.insulinpump.deviceservice.mapper.CampaignMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Alta y control de campañas. La ejecución la hace RolloutWorker en la réplica que reserva cada campaña;
+// pausar, reanudar y cancelar solo cambian el estado y el worker lo comprueba antes de cada ventana de lotes.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FirmwareRolloutService {
+
+    private final RolloutCampaignRepository repository;
+    private final CampaignMapper campaignMapper;
+    private final FacetIndex facetIndex;
+    private final FirmwareRolloutProperties properties;
+
+    public CampaignDto createCampaign(CampaignCreateDto dto) {
+        log.debug("Creando campaña de firmware {} hacia {}", dto.getName(), dto.getTargetVersion());
+        FirmwareVersion min = parseVersion("minVersion", dto.getMinVersion());
+        FirmwareVersion max = parseVersion("maxVersion", dto.getMaxVersion());
+        parseVersion("targetVersion", dto.getTargetVersion());
+        if (min != null && max != null && !min.isBefore(max)) {
+            throw new InvalidCampaignException(HttpStatus.BAD_REQUEST, "minVersion debe ser anterior a maxVersion");
+        }
+
+        RolloutCampaign campaign = campaignMapper.toEntity(dto);
+        campaign.setStatus(CampaignStatus.RUNNING);
+        campaign.setChunkSize(dto.getChunkSize() != null ? dto.getChunkSize() : properties.getDefaultChunkSize());
+        campaign.setMaxDevicesPerSecond(dto.getMaxDevicesPerSecond() != null
+                ? dto.getMaxDevicesPerSecond() : properties.getDefaultMaxDevicesPerSecond());
+        // Estimación con el índice de facetas; el progreso real lo dan updated y skipped
+        campaign.setTargeted(facetIndex.evaluate(RolloutTarget.of(campaign).toFilter()).getLongCardinality());
+        Instant now = Instant.now();
+        campaign.setCreatedAt(now);
+        campaign.setUpdatedAt(now);
+
+        RolloutCampaign saved = repository.save(campaign);
+        log.info("Campaña de firmware {} creada: {} dispositivos estimados", saved.getId(), saved.getTargeted());
+        return campaignMapper.toDto(saved);
+    }
+
+    public CampaignDto getCampaign(Long id) {
+        return campaignMapper.toDto(repository.findById(id).orElseThrow(() -> new CampaignNotFoundException(id)));
+    }
+
+    public List<CampaignDto> getCampaigns() {
+        return repository.findAllByOrderByIdDesc().stream()
+                .map(campaignMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    public CampaignDto pauseCampaign(Long id) {
+        return transition(id, Set.of(CampaignStatus.RUNNING), CampaignStatus.PAUSED);
+    }
+
+    // También relanza una campaña fallida desde su último checkpoint
+    public CampaignDto resumeCampaign(Long id) {
+        return transition(id, Set.of(CampaignStatus.PAUSED, CampaignStatus.FAILED), CampaignStatus.RUNNING);
+    }
+
+    public CampaignDto cancelCampaign(Long id) {
+        return transition(id, Set.of(CampaignStatus.RUNNING, CampaignStatus.PAUSED, CampaignStatus.FAILED),
+                CampaignStatus.CANCELLED);
+    }
+
+    private CampaignDto transition(Long id, Set<CampaignStatus> from, CampaignStatus to) {
+        log.debug("Cambiando campaña {} a {}", id, to);
+        if (repository.transition(id, from, to, Instant.now()) == 0) {
+            CampaignStatus current = repository.findStatusById(id).orElseThrow(() -> new CampaignNotFoundException(id));
+            throw new InvalidCampaignException(HttpStatus.CONFLICT,
+                    "La campaña " + id + " no puede pasar de " + current + " a " + to);
+        }
+        return getCampaign(id);
+    }
+
+    private static FirmwareVersion parseVersion(String field, String value) {
+        if (value == null) {
+            return null;
+        }
+        FirmwareVersion version = FirmwareVersion.parseOrNull(value);
+        if (version == null) {
+            throw new InvalidCampaignException(HttpStatus.BAD_REQUEST, field + " no es una versión válida: " + value);
+        }
+        return version;
+    }
+}
@@ -0,0 +1,150 @@
+package com.insulinpump.deviceservice.firmware;
+
+import java.util.Arrays;
+
+// Versión de firmware comparable por componentes numéricos ("2.10.0" > "2.9.1"). Admite prefijo "v",
+// componentes ausentes como 0 ("2.1" == "2.1.0") y calificador tras "-" ("2.1.0-beta" < "2.1.0"). El calificador
+// se compara como en semver, identificador a identificador separados por "." ("rc.9" < "rc.10"); lo que sigue
+// a "+" (metadatos de compilación) no interviene en la comparación.
+public final class FirmwareVersion implements Comparable<FirmwareVersion> {
+
+    private final String value;
+    private final int[] numbers;
+    // Identificadores del calificador; null sin calificador
+    private final String[] qualifier;
+
+    private FirmwareVersion(String value, int[] numbers, String[] qualifier) {
+        this.value = value;
+        this.numbers = numbers;
+        this.qualifier = qualifier;
+    }
+
+    public static FirmwareVersion parse(String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Versión de firmware vacía");
+        }
+        String version = value.strip();
+        if (version.startsWith("v") || version.startsWith("V")) {
+            version = version.substring(1);
+        }
+        int metadata = version.indexOf('+');
+        if (metadata >= 0) {
+            version = version.substring(0, metadata);
+        }
+        String qualifier = null;
+        int dash = version.indexOf('-');
+        if (dash >= 0) {
+            qualifier = version.substring(dash + 1);
+            version = version.substring(0, dash);
+        }
+        String[] parts = version.split("\\.");
+        int[] numbers = new int[parts.length];
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                numbers[i] = Integer.parseInt(parts[i]);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Versión de firmware no válida: " + value);
+        }
+        return new FirmwareVersion(value.strip(), numbers,
+                qualifier == null || qualifier.isEmpty() ? null : identifiers(qualifier));
+    }
+
+    // null si el valor no es una versión reconocible (se excluye de las comparaciones)
+    public static FirmwareVersion parseOrNull(String value) {
+        try {
+            return parse(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public int compareTo(FirmwareVersion other) {
+        int length = Math.max(numbers.length, other.numbers.length);
+        for (int i = 0; i < length; i++) {
+            int compared = Integer.compare(component(i), other.component(i));
+            if (compared != 0) {
+                return compared;
+            }
+        }
+        if (qualifier == null || other.qualifier == null) {
+            // Una versión sin calificador es posterior a cualquiera de sus prerreleases
+            return qualifier == null ? (other.qualifier == null ? 0 : 1) : -1;
+        }
+        int identifiers = Math.min(qualifier.length, other.qualifier.length);
+        for (int i = 0; i < identifiers; i++) {
+            int compared = compareIdentifiers(qualifier[i], other.qualifier[i]);
+            if (compared != 0) {
+                return compared;
+            }
+        }
+        // Con el mismo prefijo, más identificadores es posterior ("rc" < "rc.1")
+        return Integer.compare(qualifier.length, other.qualifier.length);
+    }
+
+    public boolean isBefore(FirmwareVersion other) {
+        return compareTo(other) < 0;
+    }
+
+    // Los numéricos se guardan sin ceros a la izquierda para que "rc.01" y "rc.1" sean iguales
+    private static String[] identifiers(String qualifier) {
+        String[] identifiers = qualifier.split("\\.");
+        for (int i = 0; i < identifiers.length; i++) {
+            if (isNumeric(identifiers[i])) {
+                String stripped = identifiers[i].replaceFirst("^0+", "");
+                identifiers[i] = stripped.isEmpty() ? "0" : stripped;
+            }
+        }
+        return identifiers;
+    }
+
+    // Numéricos por valor (sin límite de tamaño: más cifras es mayor) y antes que los alfanuméricos, que se
+    // comparan como texto
+    private static int compareIdentifiers(String a, String b) {
+        boolean numericA = isNumeric(a);
+        boolean numericB = isNumeric(b);
+        if (numericA && numericB) {
+            return a.length() != b.length() ? Integer.compare(a.length(), b.length()) : a.compareTo(b);
+        }
+        if (numericA || numericB) {
+            return numericA ? -1 : 1;
+        }
+        return a.compareTo(b);
+    }
+
+    private static boolean isNumeric(String identifier) {
+        if (identifier.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < identifier.length(); i++) {
+            if (!Character.isDigit(identifier.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int component(int index) {
+        return index < numbers.length ? numbers[index] : 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof FirmwareVersion other && compareTo(other) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int length = numbers.length;
+        while (length > 0 && numbers[length - 1] == 0) {
+            length--;
+        }
+        return 31 * Arrays.hashCode(Arrays.copyOf(numbers, length)) + Arrays.hashCode(qualifier);
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
@@ -0,0 +1,50 @@
+package com.insulinpump.deviceservice.firmware;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "campanas_firmware")
+@Data
+@NoArgsConstructor
+public class RolloutCampaign {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String name;
+
+    // Criterio de selección: los campos nulos no filtran
+    private String model;
+    private String manufacturer;
+    // Rango de versiones actuales [minVersion, maxVersion)
+    private String minVersion;
+    private String maxVersion;
+
+    private String targetVersion;
+
+    @Enumerated(EnumType.STRING)
+    private CampaignStatus status;
+
+    private int chunkSize;
+    private int maxDevicesPerSecond;
+
+    // Progreso: estimación inicial de dispositivos afectados y último id procesado (checkpoint)
+    private long targeted;
+    private long lastProcessedId;
+    private long updated;
+    private long skipped;
+    private String lastError;
+
+    // Réplica que está ejecutando la campaña y hasta cuándo la reserva
+    private String owner;
+    private Instant leaseExpiresAt;
+
+    private Instant createdAt;
+    private Instant updatedAt;
+    private Instant finishedAt;
+}
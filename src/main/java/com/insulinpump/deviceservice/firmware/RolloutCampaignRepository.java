@@ -0,0 +1,62 @@
+package com.insulinpump.deviceservice.firmware;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Todas las transiciones son UPDATE condicionales: la API y las réplicas que ejecutan campañas nunca se pisan
+@Repository
+public interface RolloutCampaignRepository extends JpaRepository<RolloutCampaign, Long> {
+
+    List<RolloutCampaign> findByStatus(CampaignStatus status);
+
+    List<RolloutCampaign> findAllByOrderByIdDesc();
+
+    @Query("select c.status from RolloutCampaign c where c.id = :id")
+    Optional<CampaignStatus> findStatusById(Long id);
+
+    // Reserva una campaña en curso sin dueño, con la reserva caducada (réplica caída) o ya propia
+    @Transactional
+    @Modifying
+    @Query("update RolloutCampaign c set c.owner = :owner, c.leaseExpiresAt = :until "
+            + "where c.id = :id and c.status = :running "
+            + "and (c.owner is null or c.owner = :owner or c.leaseExpiresAt < :now)")
+    int claim(Long id, String owner, Instant now, Instant until, CampaignStatus running);
+
+    // Checkpoint tras cada ventana de lotes; 0 si otra réplica ha tomado la campaña
+    @Transactional
+    @Modifying
+    @Query("update RolloutCampaign c set c.lastProcessedId = :cursor, c.updated = c.updated + :updated, "
+            + "c.skipped = c.skipped + :skipped, c.leaseExpiresAt = :until, c.updatedAt = :now "
+            + "where c.id = :id and c.owner = :owner")
+    int recordProgress(Long id, String owner, long cursor, long updated, long skipped, Instant now, Instant until);
+
+    // Renovación mientras una ventana sigue aplicándose; 0 si otra réplica ha tomado la campaña
+    @Transactional
+    @Modifying
+    @Query("update RolloutCampaign c set c.leaseExpiresAt = :until where c.id = :id and c.owner = :owner")
+    int renewLease(Long id, String owner, Instant until);
+
+    @Transactional
+    @Modifying
+    @Query("update RolloutCampaign c set c.status = :to, c.updatedAt = :now where c.id = :id and c.status in :from")
+    int transition(Long id, Collection<CampaignStatus> from, CampaignStatus to, Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("update RolloutCampaign c set c.status = :to, c.lastError = :error, c.owner = null, "
+            + "c.finishedAt = :now, c.updatedAt = :now where c.id = :id and c.owner = :owner and c.status = :running")
+    int finish(Long id, String owner, CampaignStatus to, String error, Instant now, CampaignStatus running);
+
+    @Transactional
+    @Modifying
+    @Query("update RolloutCampaign c set c.owner = null where c.id = :id and c.owner = :owner")
+    int release(Long id, String owner);
+}
@@ -0,0 +1,69 @@
+package com.insulinpump.deviceservice.firmware;
+
+import com.insulinpump.deviceservice.facet.FacetField;
+import com.insulinpump.deviceservice.facet.FacetFilter;
+import com.insulinpump.deviceservice.model.Device;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Dispositivos a los que se aplica una campaña. El filtro de facetas preselecciona candidatos en el índice
+// en memoria; needsUpgrade se vuelve a comprobar sobre la fila leída dentro de la transacción de cada lote.
+public record RolloutTarget(String model, String manufacturer, FirmwareVersion minVersion,
+                            FirmwareVersion maxVersion, String targetVersion) {
+
+    public static RolloutTarget of(RolloutCampaign campaign) {
+        return new RolloutTarget(campaign.getModel(), campaign.getManufacturer(),
+                campaign.getMinVersion() == null ? null : FirmwareVersion.parse(campaign.getMinVersion()),
+                campaign.getMaxVersion() == null ? null : FirmwareVersion.parse(campaign.getMaxVersion()),
+                campaign.getTargetVersion());
+    }
+
+    public FacetFilter toFilter() {
+        List<FacetFilter> filters = new ArrayList<>();
+        if (model != null) {
+            filters.add(new FacetFilter.Term(FacetField.MODEL, model));
+        }
+        if (manufacturer != null) {
+            filters.add(new FacetFilter.Term(FacetField.MANUFACTURER, manufacturer));
+        }
+        if (minVersion != null) {
+            filters.add(new FacetFilter.FirmwareRange(FacetFilter.Comparison.GTE, minVersion));
+        }
+        if (maxVersion != null) {
+            filters.add(new FacetFilter.FirmwareRange(FacetFilter.Comparison.LT, maxVersion));
+        }
+        if (filters.isEmpty()) {
+            filters.add(new FacetFilter.MatchAll());
+        }
+        // Los dispositivos ya actualizados no se vuelven a tocar (reanudar tras una caída es idempotente)
+        filters.add(new FacetFilter.Not(new FacetFilter.Term(FacetField.FIRMWARE_VERSION, targetVersion)));
+        return new FacetFilter.And(List.copyOf(filters));
+    }
+
+    // La versión destino se compara como versión ("2.1" == "2.1.0"); el filtro de facetas solo descarta la cadena
+    // exacta, así que el resto de escrituras equivalentes se descartan aquí
+    public boolean needsUpgrade(Device device) {
+        if (model != null && !model.equals(device.getModel())
+                || manufacturer != null && !manufacturer.equals(device.getManufacturer())
+                || isTargetVersion(device.getFirmwareVersion())) {
+            return false;
+        }
+        if (minVersion == null && maxVersion == null) {
+            return true;
+        }
+        FirmwareVersion current = FirmwareVersion.parseOrNull(device.getFirmwareVersion());
+        return current != null
+                && (minVersion == null || current.compareTo(minVersion) >= 0)
+                && (maxVersion == null || current.isBefore(maxVersion));
+    }
+
+    private boolean isTargetVersion(String firmwareVersion) {
+        if (targetVersion.equals(firmwareVersion)) {
+            return true;
+        }
+        FirmwareVersion target = FirmwareVersion.parseOrNull(targetVersion);
+        FirmwareVersion current = FirmwareVersion.parseOrNull(firmwareVersion);
+        return target != null && current != null && current.compareTo(target) == 0;
+    }
+}
@@ -0,0 +1,222 @@
+package com.insulinpump.deviceservice.firmware;
+
+import com.insulinpump.deviceservice.facet.FacetFilter;
+import com.insulinpump.deviceservice.facet.FacetIndex;
+import com.insulinpump.deviceservice.service.DeviceService;
+import com.insulinpump.deviceservice.util.Throttle;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Ejecuta las campañas en curso. Cada pocos segundos reserva las campañas RUNNING sin dueño (o cuyo dueño dejó de
+// renovar la reserva) y las procesa por ventanas: toma del índice de facetas los siguientes ids candidatos tras el
+// checkpoint, los reparte en lotes que se aplican en paralelo en un pool acotado, guarda el checkpoint y limita
+// el ritmo a maxDevicesPerSecond. Antes de cada ventana comprueba si la campaña se ha pausado o cancelado.
+// Reanudar tras una caída repite como mucho la última ventana, y los dispositivos ya actualizados se saltan.
+// La reserva se renueva en cada checkpoint y, mientras la ventana se aplica, cada tercio de leaseDuration; la
+// ventana se recorta para que la espera del throttle no pase de ese tercio.
+@Component
+@Slf4j
+public class RolloutWorker implements MeterBinder {
+
+    private final RolloutCampaignRepository repository;
+    private final FacetIndex facetIndex;
+    private final DeviceService deviceService;
+    private final FirmwareRolloutProperties properties;
+    private final Clock clock;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+    private final ExecutorService campaignExecutor;
+    private final ExecutorService chunkExecutor;
+    private Counter updatedDevices;
+
+    @Autowired
+    public RolloutWorker(RolloutCampaignRepository repository, FacetIndex facetIndex, DeviceService deviceService,
+                         FirmwareRolloutProperties properties) {
+        this(repository, facetIndex, deviceService, properties, Clock.systemUTC());
+    }
+
+    RolloutWorker(RolloutCampaignRepository repository, FacetIndex facetIndex, DeviceService deviceService,
+                  FirmwareRolloutProperties properties, Clock clock) {
+        this.repository = repository;
+        this.facetIndex = facetIndex;
+        this.deviceService = deviceService;
+        this.properties = properties;
+        this.clock = clock;
+        this.campaignExecutor = Executors.newFixedThreadPool(properties.getMaxConcurrentCampaigns(),
+                namedThreads("firmware-campaign-"));
+        this.chunkExecutor = Executors.newFixedThreadPool(properties.getWorkers(), namedThreads("firmware-rollout-"));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("device.firmware-rollout.running", running, Set::size)
+                .description("Campañas de firmware ejecutándose en esta réplica")
+                .register(registry);
+        updatedDevices = Counter.builder("device.firmware-rollout.updated")
+                .description("Dispositivos actualizados por campañas de firmware")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${device.firmware-rollout.poll-interval:5s}")
+    public void claimCampaigns() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        for (RolloutCampaign campaign : repository.findByStatus(CampaignStatus.RUNNING)) {
+            if (running.size() >= properties.getMaxConcurrentCampaigns()) {
+                return;
+            }
+            if (!running.contains(campaign.getId()) && claim(campaign.getId())) {
+                running.add(campaign.getId());
+                campaignExecutor.execute(() -> {
+                    try {
+                        run(campaign.getId());
+                    } finally {
+                        running.remove(campaign.getId());
+                    }
+                });
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        campaignExecutor.shutdownNow();
+        chunkExecutor.shutdownNow();
+    }
+
+    boolean claim(Long campaignId) {
+        Instant now = clock.instant();
+        return repository.claim(campaignId, instanceId, now, now.plus(properties.getLeaseDuration()),
+                CampaignStatus.RUNNING) == 1;
+    }
+
+    // Procesa la campaña hasta terminarla, hasta que deje de estar RUNNING o hasta perder la reserva
+    void run(Long campaignId) {
+        RolloutCampaign campaign = repository.findById(campaignId).orElse(null);
+        if (campaign == null) {
+            return;
+        }
+        RolloutTarget target = RolloutTarget.of(campaign);
+        FacetFilter filter = target.toFilter();
+        int chunkSize = campaign.getChunkSize();
+        int windowSize = windowSize(chunkSize, campaign.getMaxDevicesPerSecond());
+        long cursor = campaign.getLastProcessedId();
+        log.info("Ejecutando campaña de firmware {} desde el dispositivo {}", campaignId, cursor);
+
+        try {
+            while (true) {
+                if (repository.findStatusById(campaignId).orElse(null) != CampaignStatus.RUNNING) {
+                    log.info("Campaña de firmware {} detenida en el dispositivo {}", campaignId, cursor);
+                    repository.release(campaignId, instanceId);
+                    return;
+                }
+                // Se vuelve a evaluar en cada ventana para tener en cuenta las escrituras concurrentes
+                List<Long> ids = FacetIndex.page(facetIndex.evaluate(filter), cursor, windowSize);
+                if (ids.isEmpty()) {
+                    repository.finish(campaignId, instanceId, CampaignStatus.COMPLETED, null, clock.instant(),
+                            CampaignStatus.RUNNING);
+                    log.info("Campaña de firmware {} completada", campaignId);
+                    return;
+                }
+
+                long startedAt = System.nanoTime();
+                int updated = applyWindow(campaignId, ids, chunkSize, target);
+                cursor = ids.get(ids.size() - 1);
+                if (updatedDevices != null) {
+                    updatedDevices.increment(updated);
+                }
+                Throttle.pace(ids.size(), campaign.getMaxDevicesPerSecond(), startedAt);
+
+                Instant now = clock.instant();
+                if (repository.recordProgress(campaignId, instanceId, cursor, updated, ids.size() - updated, now,
+                        now.plus(properties.getLeaseDuration())) == 0) {
+                    log.warn("Campaña de firmware {} reservada por otra réplica; se abandona", campaignId);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            repository.release(campaignId, instanceId);
+        } catch (LeaseLostException e) {
+            log.warn("Campaña de firmware {} reservada por otra réplica durante una ventana; se abandona", campaignId);
+        } catch (Exception e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            log.error("Campaña de firmware {} fallida en el dispositivo {}: {}", campaignId, cursor, cause.getMessage());
+            repository.finish(campaignId, instanceId, CampaignStatus.FAILED, String.valueOf(cause.getMessage()),
+                    clock.instant(), CampaignStatus.RUNNING);
+        }
+    }
+
+    // Dispositivos por ventana: parallelChunks lotes, sin que el throttle espere más de un tercio de la reserva
+    int windowSize(int chunkSize, int maxDevicesPerSecond) {
+        long leaseBudget = properties.getLeaseDuration().toSeconds() * maxDevicesPerSecond / 3;
+        return (int) Math.max(1, Math.min((long) chunkSize * properties.getParallelChunks(), leaseBudget));
+    }
+
+    // Cada lote es una transacción de DeviceService; la ventana termina cuando han terminado todos sus lotes
+    private int applyWindow(Long campaignId, List<Long> ids, int chunkSize, RolloutTarget target)
+            throws InterruptedException, ExecutionException, LeaseLostException {
+        List<Future<Integer>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = List.copyOf(ids.subList(from, Math.min(ids.size(), from + chunkSize)));
+            chunks.add(chunkExecutor.submit(() ->
+                    deviceService.updateFirmwareVersion(chunk, target::needsUpgrade, target.targetVersion())));
+        }
+        long renewEveryNanos = properties.getLeaseDuration().toNanos() / 3;
+        int updated = 0;
+        for (Future<Integer> chunk : chunks) {
+            while (true) {
+                try {
+                    updated += chunk.get(renewEveryNanos, TimeUnit.NANOSECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    renewLease(campaignId);
+                }
+            }
+        }
+        return updated;
+    }
+
+    private void renewLease(Long campaignId) throws LeaseLostException {
+        if (repository.renewLease(campaignId, instanceId, clock.instant().plus(properties.getLeaseDuration())) == 0) {
+            throw new LeaseLostException();
+        }
+    }
+
+    // Otra réplica ha tomado la campaña: los lotes ya lanzados terminan (son idempotentes) y no se guarda nada más
+    private static final class LeaseLostException extends Exception {
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package com.insulinpump.deviceservice.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyStore idempotencyStore(IdempotencyProperties properties) {
+        return new IdempotencyStore(properties);
+    }
+
+    @Bean
+    public IdempotencyFilter idempotencyFilter(IdempotencyStore store, IdempotencyProperties properties,
+                                               ObjectMapper objectMapper) {
+        return new IdempotencyFilter(store, properties, objectMapper);
+    }
+}
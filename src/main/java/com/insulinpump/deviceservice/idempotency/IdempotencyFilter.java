@@ -0,0 +1,253 @@
+package com.insulinpump.deviceservice.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Escrituras con cabecera Idempotency-Key: la primera respuesta se guarda y los reintentos la reciben
+// sin volver a ejecutar DeviceService. Los duplicados concurrentes esperan al resultado en curso.
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter implements Ordered {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    // Dentro del log de acceso, para que los reintentos servidos desde el almacén también queden registrados
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 20;
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH");
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final IdempotencyProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public IdempotencyFilter(IdempotencyStore store, IdempotencyProperties properties, ObjectMapper objectMapper) {
+        this.store = store;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled()
+                || !WRITE_METHODS.contains(request.getMethod())
+                || request.getHeader(HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Idempotency-Key inválida",
+                    "La clave debe tener entre 1 y " + MAX_KEY_LENGTH + " caracteres");
+            return;
+        }
+
+        long maxRequestSize = properties.getMaxRequestSize().toBytes();
+        byte[] body = request.getContentLengthLong() > maxRequestSize
+                ? null : readBody(request.getInputStream(), maxRequestSize);
+        if (body == null) {
+            writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, "Petición demasiado grande",
+                    "El cuerpo supera el máximo de " + properties.getMaxRequestSize() + " para peticiones con "
+                            + HEADER);
+            return;
+        }
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, body);
+        String fingerprint = fingerprint(cachedRequest);
+        String scopedKey = clientOf(request) + ' ' + key;
+
+        while (true) {
+            IdempotencyStore.Reservation reservation = store.reserve(scopedKey, fingerprint);
+            IdempotencyStore.Entry entry = reservation.entry();
+            if (reservation.owner()) {
+                execute(cachedRequest, response, filterChain, entry);
+                return;
+            }
+            if (!entry.fingerprint().equals(fingerprint)) {
+                writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key reutilizada",
+                        "La clave ya se usó con otra petición");
+                return;
+            }
+
+            StoredResponse stored;
+            try {
+                stored = entry.response().get(properties.getInFlightWait().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                writeError(response, HttpStatus.CONFLICT, "Petición en curso",
+                        "La petición original con esta clave todavía no ha terminado");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(e);
+            } catch (ExecutionException e) {
+                throw new ServletException(e.getCause());
+            }
+
+            if (stored != null) {
+                replay(stored, response);
+                return;
+            }
+            // La petición original falló sin respuesta reutilizable: se vuelve a competir por la clave
+        }
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String client = request.getHeader(properties.getClientHeader());
+        return client != null && !client.isBlank() ? "key:" + client : "ip:" + request.getRemoteAddr();
+    }
+
+    // null si el cuerpo supera limit; se lee como mucho un byte de más para detectarlo
+    private static byte[] readBody(InputStream input, long limit) throws IOException {
+        byte[] body = input.readNBytes((int) Math.min(limit + 1, Integer.MAX_VALUE));
+        return body.length > limit ? null : body;
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                         IdempotencyStore.Entry entry) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(request, wrapper);
+            // Los 5xx son transitorios: el cliente debe poder reintentarlos de verdad
+            if (wrapper.getStatus() < 500 && wrapper.getContentSize() <= properties.getMaxResponseSize().toBytes()) {
+                store.complete(entry, new StoredResponse(wrapper.getStatus(), wrapper.getContentType(),
+                        wrapper.getContentAsByteArray()));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                store.release(entry);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        log.debug("Reintento servido desde el almacén de idempotencia");
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String error, String message)
+            throws IOException {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", status.value());
+        body.put("error", error);
+        body.put("message", message);
+
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    // Misma clave con otro método, ruta o cuerpo se rechaza en lugar de devolver una respuesta ajena
+    private static String fingerprint(CachedBodyRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + ' ' + request.getRequestURI() + '?' + request.getQueryString())
+                    .getBytes(StandardCharsets.UTF_8));
+            digest.update(request.body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Cuerpo leído por adelantado para calcular la huella y poder leerlo de nuevo en el controlador
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // El cuerpo ya está en memoria: todo está disponible desde el principio
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException | RuntimeException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.insulinpump.deviceservice.idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "device.idempotency")
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+    // Tiempo durante el que un reintento con la misma clave recibe la respuesta guardada
+    private Duration ttl = Duration.ofHours(24);
+    // Máximo de claves en memoria; al superarlo se descartan las más antiguas
+    private int maxEntries = 10_000;
+    // Respuestas mayores no se guardan (el reintento se vuelve a ejecutar)
+    private DataSize maxResponseSize = DataSize.ofKilobytes(64);
+    // Cuerpos de petición mayores se rechazan con 413: el filtro los guarda en memoria para la huella
+    private DataSize maxRequestSize = DataSize.ofKilobytes(64);
+    // Las claves se guardan por cliente (esta cabecera o, sin ella, la IP remota): la misma clave de dos
+    // clientes distintos no comparte respuesta
+    private String clientHeader = "X-API-Key";
+    // Espera máxima de un duplicado concurrente a que termine la petición original
+    private Duration inFlightWait = Duration.ofSeconds(10);
+}
@@ -0,0 +1,92 @@
+package com.insulinpump.deviceservice.idempotency;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+
+// Almacén acotado de claves Idempotency-Key. Cada clave apunta a un futuro que se completa con la
+// respuesta original, o con null si la petición falló y puede reintentarse. Las claves caducan tras el TTL
+// y, al superar maxEntries, se descartan por orden de llegada saltando las que siguen en curso: un duplicado
+// que llegara después ejecutaría la petición otra vez. Como mucho hay una en curso por petición, así que el
+// exceso sobre maxEntries está acotado por la concurrencia del servidor.
+public class IdempotencyStore {
+
+    private final IdempotencyProperties properties;
+    private final Clock clock;
+    // Orden de inserción = orden de caducidad, así la purga solo mira la cabeza
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    public IdempotencyStore(IdempotencyProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    IdempotencyStore(IdempotencyProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    // El primero en reservar una clave es su propietario y ejecuta la petición; el resto recibe su entrada
+    public synchronized Reservation reserve(String key, String fingerprint) {
+        Instant now = clock.instant();
+        purgeExpired(now);
+        Entry existing = entries.get(key);
+        if (existing != null) {
+            return new Reservation(existing, false);
+        }
+        Entry entry = new Entry(key, fingerprint, now.plus(properties.getTtl()), new CompletableFuture<>());
+        entries.put(key, entry);
+        if (entries.size() > properties.getMaxEntries()) {
+            evictEldestCompleted();
+        }
+        return new Reservation(entry, true);
+    }
+
+    public void complete(Entry entry, StoredResponse response) {
+        entry.response().complete(response);
+    }
+
+    // La petición original no produjo una respuesta reutilizable: se libera la clave y se despierta a los que esperan
+    public void release(Entry entry) {
+        synchronized (this) {
+            entries.remove(entry.key(), entry);
+        }
+        entry.response().complete(null);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void purgeExpired(Instant now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.expiresAt().isAfter(now)) {
+                return;
+            }
+            iterator.remove();
+        }
+    }
+
+    private void evictEldestCompleted() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isCompleted()) {
+                iterator.remove();
+                return;
+            }
+        }
+    }
+
+    public record Reservation(Entry entry, boolean owner) {
+    }
+
+    public record Entry(String key, String fingerprint, Instant expiresAt, CompletableFuture<StoredResponse> response) {
+
+        boolean isCompleted() {
+            return response.isDone();
+        }
+    }
+}
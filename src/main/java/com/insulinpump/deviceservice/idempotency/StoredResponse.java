@@ -0,0 +1,5 @@
+package com.insulinpump.deviceservice.idempotency;
+
+// Respuesta original que se devuelve tal cual a los reintentos
+public record StoredResponse(int status, String contentType, byte[] body) {
+}
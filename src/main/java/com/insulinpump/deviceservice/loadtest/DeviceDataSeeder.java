@@ -0,0 +1,78 @@
+package com.insulinpump.deviceservice.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Siembra la base de datos embebida con un parque de dispositivos sintético y reproducible
+@Slf4j
+@RequiredArgsConstructor
+public class DeviceDataSeeder implements ApplicationRunner {
+
+    static final String[] MODELS = {"T-Slim X2", "Omnipod 5", "MiniMed 780G", "Ypsopump", "Dana-i"};
+    static final String[] MANUFACTURERS = {"Tandem", "Insulet", "Medtronic", "Ypsomed", "SOOIL"};
+    static final String[] FIRMWARE_VERSIONS = {"1.0.0", "1.2.3", "2.0.0", "2.1.4", "3.0.1"};
+    static final String[] STATUSES = {"ACTIVE", "ACTIVE", "ACTIVE", "INACTIVE", "MAINTENANCE", "DEFECTIVE"};
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final String INSERT_SQL = "INSERT INTO dispositivos (serial_no, model, manufacturer, status, "
+            + "patient_id, manufacture_date, last_maintenance_date, max_basal_rate, max_bolus_amount, "
+            + "reservoir_capacity, firmware_version, battery_type) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LoadTestProperties properties;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int total = properties.getSeedDevices();
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDate today = LocalDate.now();
+        long start = System.nanoTime();
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= total; i++) {
+            int variant = random.nextInt(MODELS.length);
+            Long patientId = random.nextDouble() < properties.getAssignedRatio()
+                    ? (long) random.nextInt(1, properties.getSeedPatients() + 1)
+                    : null;
+            batch.add(new Object[]{
+                    serialNo(i),
+                    MODELS[variant],
+                    MANUFACTURERS[variant],
+                    STATUSES[random.nextInt(STATUSES.length)],
+                    patientId,
+                    Date.valueOf(today.minusDays(random.nextInt(30, 1_500))),
+                    Date.valueOf(today.minusDays(random.nextInt(1, 365))),
+                    1.0f + random.nextInt(40) / 10.0f,
+                    5.0f + random.nextInt(20),
+                    200 + 100 * random.nextInt(2),
+                    FIRMWARE_VERSIONS[random.nextInt(FIRMWARE_VERSIONS.length)],
+                    random.nextBoolean() ? "AAA" : "Lithium"
+            });
+            if (batch.size() == BATCH_SIZE || i == total) {
+                insert(batch);
+                batch.clear();
+            }
+        }
+        log.info("Sembrados {} dispositivos en {} ms", total, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    static String serialNo(long index) {
+        return String.format("LT-%08d", index);
+    }
+
+    private void insert(List<Object[]> batch) {
+        int[] types = {Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.BIGINT, Types.DATE,
+                Types.DATE, Types.FLOAT, Types.FLOAT, Types.INTEGER, Types.VARCHAR, Types.VARCHAR};
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, types);
+    }
+}
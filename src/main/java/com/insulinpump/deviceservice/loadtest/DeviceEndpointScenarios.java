@@ -0,0 +1,96 @@
+package com.insulinpump.deviceservice.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Escenarios para cada mapping de DeviceController sobre el parque sembrado por DeviceDataSeeder
+public final class DeviceEndpointScenarios {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    // Los que también sirve el servidor reactivo
+    private static final Set<String> READS = Set.of("getAllDevices", "getDeviceById", "getDeviceBySerialNo",
+            "getDevicesByPatientId", "getDevicesByStatus", "searchDevicesByModel", "searchDevicesByManufacturer");
+
+    private DeviceEndpointScenarios() {
+    }
+
+    public static List<EndpointScenario> all(String baseUrl, int seedDevices, int seedPatients) {
+        String devices = baseUrl + "/api/devices";
+        // Las lecturas usan la primera mitad del parque; el borrado consume la segunda desde el final
+        int readable = Math.max(1, seedDevices / 2);
+        return List.of(
+                new EndpointScenario("getAllDevices", n -> get(devices)),
+                new EndpointScenario("getDeviceById", n -> get(devices + "/" + randomId(readable))),
+                new EndpointScenario("getDeviceBySerialNo",
+                        n -> get(devices + "/serial/" + DeviceDataSeeder.serialNo(randomId(readable)))),
+                new EndpointScenario("getDevicesByPatientId",
+                        n -> get(devices + "/patient/" + ThreadLocalRandom.current().nextInt(1, seedPatients + 1))),
+                new EndpointScenario("getDevicesByStatus", n -> get(devices + "/status/" + randomOf(DeviceDataSeeder.STATUSES))),
+                new EndpointScenario("searchDevicesByModel",
+                        n -> get(devices + "/search/model?model=" + encode(randomOf(DeviceDataSeeder.MODELS)))),
+                new EndpointScenario("searchDevicesByManufacturer",
+                        n -> get(devices + "/search/manufacturer?manufacturer=" + encode(randomOf(DeviceDataSeeder.MANUFACTURERS)))),
+                new EndpointScenario("createDevice",
+                        n -> json(devices, "POST", deviceJson("LT-NEW-" + System.nanoTime() + "-" + n))),
+                new EndpointScenario("updateDevice", n -> {
+                    long id = randomId(readable);
+                    return json(devices + "/" + id, "PUT", deviceJson(DeviceDataSeeder.serialNo(id)));
+                }),
+                new EndpointScenario("updateDeviceStatus",
+                        n -> json(devices + "/" + randomId(readable) + "/status?status=" + randomOf(DeviceDataSeeder.STATUSES), "PATCH", "")),
+                new EndpointScenario("assignDeviceToPatient",
+                        n -> json(devices + "/" + randomId(readable) + "/assign/" + ThreadLocalRandom.current().nextInt(1, seedPatients + 1), "PUT", "")),
+                new EndpointScenario("deleteDevice", n -> HttpRequest.newBuilder(URI.create(devices + "/" + (seedDevices - n)))
+                        .timeout(REQUEST_TIMEOUT)
+                        .DELETE()
+                        .build())
+        );
+    }
+
+    public static List<EndpointScenario> reads(String baseUrl, int seedDevices, int seedPatients) {
+        return all(baseUrl, seedDevices, seedPatients).stream()
+                .filter(scenario -> READS.contains(scenario.name()))
+                .toList();
+    }
+
+    private static long randomId(int bound) {
+        return ThreadLocalRandom.current().nextLong(1, bound + 1);
+    }
+
+    private static String randomOf(String[] values) {
+        return values[ThreadLocalRandom.current().nextInt(values.length)];
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+    }
+
+    private static HttpRequest json(String url, String method, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .method(method, body.isEmpty() ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String deviceJson(String serialNo) {
+        return "{\"serialNo\":\"" + serialNo + "\",\"model\":\"" + randomOf(DeviceDataSeeder.MODELS) + "\","
+                + "\"manufacturer\":\"" + randomOf(DeviceDataSeeder.MANUFACTURERS) + "\",\"status\":\"ACTIVE\","
+                + "\"maxBasalRate\":2.5,\"maxBolusAmount\":15.0,\"reservoirCapacity\":300,"
+                + "\"firmwareVersion\":\"" + randomOf(DeviceDataSeeder.FIRMWARE_VERSIONS) + "\",\"batteryType\":\"AAA\"}";
+    }
+}
@@ -0,0 +1,18 @@
+package com.insulinpump.deviceservice.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+
+// Resultado de medir un endpoint; la latencia se registra en microsegundos
+public record EndpointResult(String endpoint, LoadMode mode, long requests, long errors, Duration elapsed,
+                             Histogram latencyMicros) {
+
+    public double throughput() {
+        return elapsed.isZero() ? 0 : requests * 1_000_000_000.0 / elapsed.toNanos();
+    }
+
+    public double percentileMillis(double percentile) {
+        return latencyMicros.getValueAtPercentile(percentile) / 1_000.0;
+    }
+}
@@ -0,0 +1,12 @@
+package com.insulinpump.deviceservice.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.function.LongFunction;
+
+// Un endpoint a medir: construye la petición n-ésima de la prueba
+public record EndpointScenario(String name, LongFunction<HttpRequest> requestFactory) {
+
+    public HttpRequest request(long sequence) {
+        return requestFactory.apply(sequence);
+    }
+}
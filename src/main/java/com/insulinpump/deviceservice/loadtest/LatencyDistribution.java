@@ -0,0 +1,33 @@
+package com.insulinpump.deviceservice.loadtest;
+
+import java.util.random.RandomGenerator;
+
+public enum LatencyDistribution {
+    FIXED {
+        @Override
+        long sample(long meanMs, RandomGenerator random) {
+            return meanMs;
+        }
+    },
+    UNIFORM {
+        @Override
+        long sample(long meanMs, RandomGenerator random) {
+            return random.nextLong(2 * meanMs + 1);
+        }
+    },
+    EXPONENTIAL {
+        @Override
+        long sample(long meanMs, RandomGenerator random) {
+            return Math.round(-meanMs * Math.log(1.0 - random.nextDouble()));
+        }
+    };
+
+    abstract long sample(long meanMs, RandomGenerator random);
+
+    public long sampleMillis(long meanMs, long maxMs, RandomGenerator random) {
+        if (meanMs <= 0) {
+            return 0;
+        }
+        return Math.min(sample(meanMs, random), maxMs);
+    }
+}
@@ -0,0 +1,108 @@
+package com.insulinpump.deviceservice.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Generador de carga en bucle cerrado (N clientes) o abierto (tasa fija, sin omisión coordinada)
+@Slf4j
+public class LoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final HttpClient httpClient;
+    private final LoadTestProperties.Generator config;
+
+    public LoadGenerator(HttpClient httpClient, LoadTestProperties.Generator config) {
+        this.httpClient = httpClient;
+        this.config = config;
+    }
+
+    public List<EndpointResult> runAll(List<EndpointScenario> scenarios) {
+        List<EndpointResult> results = new ArrayList<>();
+        for (EndpointScenario scenario : scenarios) {
+            if (config.getEndpoints().isEmpty() || config.getEndpoints().contains(scenario.name())) {
+                results.add(run(scenario));
+            }
+        }
+        return results;
+    }
+
+    public EndpointResult run(EndpointScenario scenario) {
+        log.info("Midiendo {} en modo {} durante {}", scenario.name(), config.getMode(), config.getDuration());
+        AtomicLong sequence = new AtomicLong();
+        // El calentamiento usa contadores propios y se descarta
+        execute(scenario, sequence, config.getWarmup(), new Recorder(HIGHEST_TRACKABLE_MICROS, 3), new LongAdder());
+
+        Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        LongAdder errors = new LongAdder();
+        long start = System.nanoTime();
+        execute(scenario, sequence, config.getDuration(), recorder, errors);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        Histogram histogram = recorder.getIntervalHistogram();
+        return new EndpointResult(scenario.name(), config.getMode(), histogram.getTotalCount(), errors.sum(),
+                elapsed, histogram);
+    }
+
+    private void execute(EndpointScenario scenario, AtomicLong sequence, Duration duration,
+                         Recorder recorder, LongAdder errors) {
+        if (duration.isZero() || duration.isNegative()) {
+            return;
+        }
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long deadline = System.nanoTime() + duration.toNanos();
+            if (config.getMode() == LoadMode.CLOSED) {
+                for (int i = 0; i < config.getConcurrency(); i++) {
+                    executor.execute(() -> {
+                        while (System.nanoTime() < deadline) {
+                            send(scenario, sequence.getAndIncrement(), System.nanoTime(), recorder, errors);
+                        }
+                    });
+                }
+            } else {
+                long interval = TimeUnit.SECONDS.toNanos(1) / Math.max(1, config.getRatePerSecond());
+                long origin = System.nanoTime();
+                for (long i = 0; ; i++) {
+                    long intendedStart = origin + i * interval;
+                    if (intendedStart >= deadline) {
+                        break;
+                    }
+                    long wait = intendedStart - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    executor.execute(() -> send(scenario, sequence.getAndIncrement(), intendedStart, recorder, errors));
+                }
+            }
+        }
+    }
+
+    private void send(EndpointScenario scenario, long sequence, long intendedStart, Recorder recorder, LongAdder errors) {
+        try {
+            HttpResponse<Void> response = httpClient.send(scenario.request(sequence), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 400) {
+                errors.increment();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            errors.increment();
+        }
+        long micros = (System.nanoTime() - intendedStart) / 1_000;
+        recorder.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+    }
+}
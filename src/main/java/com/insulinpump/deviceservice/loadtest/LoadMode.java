@@ -0,0 +1,8 @@
+package com.insulinpump.deviceservice.loadtest;
+
+public enum LoadMode {
+    // Número fijo de clientes que esperan cada respuesta antes de enviar la siguiente
+    CLOSED,
+    // Tasa de llegada fija; la latencia se mide desde el instante previsto de envío
+    OPEN
+}
@@ -0,0 +1,28 @@
+package com.insulinpump.deviceservice.loadtest;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+@Profile("loadtest")
+@EnableConfigurationProperties(LoadTestProperties.class)
+public class LoadTestConfig {
+
+    @Bean
+    public PatientServiceStub patientServiceStub(LoadTestProperties properties) {
+        return new PatientServiceStub(properties.getStub(), properties.getSeedPatients());
+    }
+
+    @Bean
+    public DeviceDataSeeder deviceDataSeeder(JdbcTemplate jdbcTemplate, LoadTestProperties properties) {
+        return new DeviceDataSeeder(jdbcTemplate, properties);
+    }
+
+    @Bean
+    public LoadTestRunner loadTestRunner(LoadTestProperties properties) {
+        return new LoadTestRunner(properties);
+    }
+}
@@ -0,0 +1,48 @@
+package com.insulinpump.deviceservice.loadtest;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "loadtest")
+public class LoadTestProperties {
+
+    private int seedDevices = 10_000;
+    private int seedPatients = 1_000;
+    // Fracción de dispositivos sembrados con paciente asignado
+    private double assignedRatio = 0.7;
+
+    private final Stub stub = new Stub();
+    private final Generator generator = new Generator();
+
+    @Data
+    public static class Stub {
+        private int port = 18081;
+        private LatencyDistribution latency = LatencyDistribution.EXPONENTIAL;
+        private long meanLatencyMs = 20;
+        private long maxLatencyMs = 500;
+        private double errorRate = 0.01;
+        private int errorStatus = 503;
+    }
+
+    @Data
+    public static class Generator {
+        private boolean enabled = false;
+        private LoadMode mode = LoadMode.CLOSED;
+        // Modo cerrado: número de clientes concurrentes
+        private int concurrency = 32;
+        // Modo abierto: peticiones por segundo, independientes de la latencia
+        private int ratePerSecond = 200;
+        private Duration warmup = Duration.ofSeconds(5);
+        private Duration duration = Duration.ofSeconds(30);
+        // Vacío = todos los endpoints de DeviceController
+        private List<String> endpoints = new ArrayList<>();
+        private boolean exitOnFinish = false;
+        // Lecturas contra el servidor reactivo (device.reactive.port) en lugar de la API servlet
+        private boolean reactive = false;
+    }
+}
@@ -0,0 +1,29 @@
+package com.insulinpump.deviceservice.loadtest;
+
+import java.util.List;
+
+public final class LoadTestReport {
+
+    private LoadTestReport() {
+    }
+
+    public static String format(List<EndpointResult> results) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%n%-30s %-6s %9s %7s %10s %9s %9s %9s %9s %9s%n",
+                "endpoint", "modo", "peticiones", "errores", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (EndpointResult result : results) {
+            report.append(String.format("%-30s %-6s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    result.endpoint(),
+                    result.mode(),
+                    result.requests(),
+                    result.errors(),
+                    result.throughput(),
+                    result.percentileMillis(50),
+                    result.percentileMillis(90),
+                    result.percentileMillis(99),
+                    result.percentileMillis(99.9),
+                    result.latencyMicros().getMaxValue() / 1_000.0));
+        }
+        return report.toString();
+    }
+}
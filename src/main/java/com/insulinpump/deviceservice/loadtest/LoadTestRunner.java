@@ -0,0 +1,46 @@
+package com.insulinpump.deviceservice.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+
+// Lanza el generador contra la propia instancia una vez que está lista para recibir peticiones
+@Slf4j
+@RequiredArgsConstructor
+public class LoadTestRunner implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final LoadTestProperties properties;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!properties.getGenerator().isEnabled()) {
+            return;
+        }
+        ConfigurableApplicationContext context = event.getApplicationContext();
+        boolean reactive = properties.getGenerator().isReactive();
+        String baseUrl = "http://localhost:" + context.getEnvironment()
+                .getProperty(reactive ? "device.reactive.port" : "local.server.port");
+
+        Thread.ofPlatform().name("load-generator").start(() -> {
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            List<EndpointScenario> scenarios = reactive
+                    ? DeviceEndpointScenarios.reads(baseUrl, properties.getSeedDevices(), properties.getSeedPatients())
+                    : DeviceEndpointScenarios.all(baseUrl, properties.getSeedDevices(), properties.getSeedPatients());
+            List<EndpointResult> results = new LoadGenerator(httpClient, properties.getGenerator()).runAll(scenarios);
+            log.info("Resultados de la prueba de carga:{}", LoadTestReport.format(results));
+
+            if (properties.getGenerator().isExitOnFinish()) {
+                System.exit(SpringApplication.exit(context));
+            }
+        });
+    }
+}
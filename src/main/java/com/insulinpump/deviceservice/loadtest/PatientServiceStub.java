@@ -0,0 +1,151 @@
+package com.insulinpump.deviceservice.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Sustituto en proceso de patient-service con latencia y errores configurables
+@Slf4j
+public class PatientServiceStub implements SmartLifecycle {
+
+    private static final String PATIENTS_PATH = "/api/patients/";
+    private static final String BY_DEVICE_PATH = "/api/patients/device/";
+    private static final String SNAPSHOT_PATH = "/api/patients/snapshot";
+    private static final String CHANGES_PATH = "/api/patients/changes";
+    // El stub no cambia sus pacientes: los deltas siempre vuelven vacíos con este cursor
+    private static final long CURSOR = 1;
+
+    private final LoadTestProperties.Stub config;
+    private final int patients;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public PatientServiceStub(LoadTestProperties.Stub config, int patients) {
+        this.config = config;
+        this.patients = patients;
+    }
+
+    @Override
+    public void start() {
+        try {
+            server = HttpServer.create(new InetSocketAddress("localhost", config.getPort()), 1024);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo arrancar el stub de patient-service", e);
+        }
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext(PATIENTS_PATH, this::handle);
+        server.start();
+        log.info("Stub de patient-service escuchando en el puerto {} (latencia {} media {} ms, errores {})",
+                getPort(), config.getLatency(), config.getMeanLatencyMs(), config.getErrorRate());
+    }
+
+    @Override
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long delay = config.getLatency().sampleMillis(config.getMeanLatencyMs(), config.getMaxLatencyMs(), random);
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+            if (random.nextDouble() < config.getErrorRate()) {
+                exchange.sendResponseHeaders(config.getErrorStatus(), -1);
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals(SNAPSHOT_PATH) || path.equals(CHANGES_PATH)) {
+                send(exchange, changesJson(path.equals(SNAPSHOT_PATH) ? patients : 0));
+                return;
+            }
+
+            Long patientId;
+            Long deviceId = null;
+            if (path.startsWith(BY_DEVICE_PATH)) {
+                deviceId = parseId(path.substring(BY_DEVICE_PATH.length()));
+                patientId = deviceId;
+            } else {
+                // /api/patients/{id} o /api/patients/{patientId}/device/{deviceId}
+                String[] parts = path.substring(PATIENTS_PATH.length()).split("/");
+                patientId = parseId(parts[0]);
+                if (parts.length == 3 && "device".equals(parts[1])) {
+                    deviceId = parseId(parts[2]);
+                }
+            }
+            if (patientId == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            send(exchange, patientJson(patientId, deviceId));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void send(HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Long parseId(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String changesJson(int count) {
+        StringBuilder json = new StringBuilder("{\"patients\":[");
+        for (long id = 1; id <= count; id++) {
+            if (id > 1) {
+                json.append(',');
+            }
+            json.append(patientJson(id, null));
+        }
+        return json.append("],\"deletedIds\":[],\"cursor\":").append(CURSOR)
+                .append(",\"hasMore\":false,\"resyncRequired\":false}")
+                .toString();
+    }
+
+    private static String patientJson(long patientId, Long deviceId) {
+        return "{\"id\":" + patientId
+                + ",\"name\":\"Paciente " + patientId + "\""
+                + ",\"age\":" + (18 + patientId % 60)
+                + ",\"medicalId\":\"MED" + patientId + "\""
+                + ",\"deviceId\":" + deviceId
+                + ",\"diabetesType\":\"" + (patientId % 3 == 0 ? "TYPE_2" : "TYPE_1") + "\"}";
+    }
+}
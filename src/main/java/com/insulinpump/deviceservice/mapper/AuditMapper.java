@@ -0,0 +1,14 @@
+package com.insulinpump.deviceservice.mapper;
+
+import com.insulinpump.deviceservice.audit.AuditEntry;
+import com.insulinpump.deviceservice.dto.AuditEntryDto;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+
+@Mapper(componentModel = "spring",
+        unmappedTargetPolicy = ReportingPolicy.ERROR,
+        unmappedSourcePolicy = ReportingPolicy.ERROR)
+public interface AuditMapper {
+
+    AuditEntryDto toDto(AuditEntry entry);
+}
@@ -0,0 +1,37 @@
+package com.insulinpump.deviceservice.mapper;
+
+import com.insulinpump.deviceservice.dto.CampaignCreateDto;
+import com.insulinpump.deviceservice.dto.CampaignDto;
+import com.insulinpump.deviceservice.firmware.RolloutCampaign;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+@Mapper(componentModel = "spring",
+        unmappedTargetPolicy = ReportingPolicy.ERROR,
+        unmappedSourcePolicy = ReportingPolicy.ERROR)
+public interface CampaignMapper {
+
+    // El estado, el progreso y las fechas los asigna FirmwareRolloutService
+    @BeanMapping(ignoreUnmappedSourceProperties = {"chunkSize", "maxDevicesPerSecond"})
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "status", ignore = true)
+    @Mapping(target = "chunkSize", ignore = true)
+    @Mapping(target = "maxDevicesPerSecond", ignore = true)
+    @Mapping(target = "targeted", ignore = true)
+    @Mapping(target = "lastProcessedId", ignore = true)
+    @Mapping(target = "updated", ignore = true)
+    @Mapping(target = "skipped", ignore = true)
+    @Mapping(target = "lastError", ignore = true)
+    @Mapping(target = "owner", ignore = true)
+    @Mapping(target = "leaseExpiresAt", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "finishedAt", ignore = true)
+    RolloutCampaign toEntity(CampaignCreateDto dto);
+
+    // La reserva entre réplicas es un detalle interno
+    @BeanMapping(ignoreUnmappedSourceProperties = {"owner", "leaseExpiresAt"})
+    CampaignDto toDto(RolloutCampaign campaign);
+}
@@ -0,0 +1,47 @@
+package com.insulinpump.deviceservice.mapper;
+
+import com.insulinpump.deviceservice.archive.ArchivedDevice;
+import com.insulinpump.deviceservice.dto.DeviceCreateDto;
+import com.insulinpump.deviceservice.dto.DeviceDetailsDto;
+import com.insulinpump.deviceservice.model.Device;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
+import org.mapstruct.ReportingPolicy;
+
+// Mapeo generado en tiempo de compilación (sin reflexión). Cualquier campo nuevo
+// en Device o en los DTOs que no quede mapeado rompe la compilación.
+@Mapper(componentModel = "spring",
+        unmappedTargetPolicy = ReportingPolicy.ERROR,
+        unmappedSourcePolicy = ReportingPolicy.ERROR)
+public interface DeviceMapper {
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "statusChangedAt", ignore = true)
+    Device toEntity(DeviceCreateDto dto);
+
+    // Actualización completa: los valores nulos del DTO sobrescriben los del dispositivo
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "statusChangedAt", ignore = true)
+    void updateEntity(DeviceCreateDto dto, @MappingTarget Device device);
+
+    // Actualización parcial: solo se copian los campos presentes en el DTO
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "statusChangedAt", ignore = true)
+    void patchEntity(DeviceCreateDto dto, @MappingTarget Device device);
+
+    // Copia independiente, para cachés y eventos que no deben ver cambios posteriores de la entidad
+    Device copy(Device device);
+
+    // Dispositivo archivado con la forma de uno activo, para responder igual en las consultas con includeArchived
+    @BeanMapping(ignoreUnmappedSourceProperties = "archivedAt")
+    Device fromArchive(ArchivedDevice archivedDevice);
+
+    // La información del paciente se completa en el servicio
+    @BeanMapping(ignoreUnmappedSourceProperties = {"patientId", "statusChangedAt"})
+    @Mapping(target = "patient", ignore = true)
+    DeviceDetailsDto toDetailsDto(Device device);
+}
@@ -0,0 +1,24 @@
+package com.insulinpump.deviceservice.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+// Métricas de negocio del servicio de dispositivos
+@Component
+public class DeviceMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public DeviceMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Dispositivos con paciente asignado que no está (todavía) en la proyección local
+    public void patientProjectionMiss() {
+        Counter.builder("device.patient.enrichment.misses")
+                .description("Dispositivos devueltos sin paciente por no estar en la proyección local")
+                .register(meterRegistry)
+                .increment();
+    }
+}
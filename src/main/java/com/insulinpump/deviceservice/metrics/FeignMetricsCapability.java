@@ -0,0 +1,62 @@
+package com.insulinpump.deviceservice.metrics;
+
+import feign.Capability;
+import feign.FeignException;
+import feign.InvocationHandlerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.lang.reflect.InvocationHandler;
+
+// Temporiza cada llamada de los clientes Feign, etiquetada por cliente, método y resultado
+public class FeignMetricsCapability implements Capability {
+
+    static final String METRIC_NAME = "feign.client.requests";
+
+    private final MeterRegistry meterRegistry;
+
+    public FeignMetricsCapability(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public InvocationHandlerFactory enrich(InvocationHandlerFactory invocationHandlerFactory) {
+        return (target, dispatch) -> {
+            InvocationHandler delegate = invocationHandlerFactory.create(target, dispatch);
+            return (proxy, method, args) -> {
+                if (method.getDeclaringClass() == Object.class) {
+                    return delegate.invoke(proxy, method, args);
+                }
+                Timer.Sample sample = Timer.start(meterRegistry);
+                String outcome = "SUCCESS";
+                try {
+                    return delegate.invoke(proxy, method, args);
+                } catch (FeignException e) {
+                    outcome = outcome(e.status());
+                    throw e;
+                } catch (Throwable t) {
+                    outcome = "UNKNOWN";
+                    throw t;
+                } finally {
+                    sample.stop(Timer.builder(METRIC_NAME)
+                            .description("Llamadas a servicios remotos mediante Feign")
+                            .tag("client", target.name())
+                            .tag("method", method.getName())
+                            .tag("outcome", outcome)
+                            .register(meterRegistry));
+                }
+            };
+        };
+    }
+
+    private static String outcome(int status) {
+        if (status >= 500) {
+            return "SERVER_ERROR";
+        }
+        if (status >= 400) {
+            return "CLIENT_ERROR";
+        }
+        // Sin respuesta HTTP: timeout o fallo de conexión
+        return "UNKNOWN";
+    }
+}
@@ -0,0 +1,52 @@
+package com.insulinpump.deviceservice.metrics;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public FeignMetricsCapability feignMetricsCapability(MeterRegistry meterRegistry) {
+        return new FeignMetricsCapability(meterRegistry);
+    }
+
+    // Saturación del pool (activas / máximo); las esperas ya se publican como hikaricp.connections.pending
+    @Bean
+    public MeterBinder hikariSaturationMetrics(DataSource dataSource) {
+        return registry -> {
+            HikariDataSource hikari = unwrapHikari(dataSource);
+            if (hikari == null) {
+                return;
+            }
+            Gauge.builder("hikaricp.connections.saturation", hikari, MetricsConfig::saturation)
+                    .description("Conexiones activas sobre el tamaño máximo del pool")
+                    .tag("pool", String.valueOf(hikari.getPoolName()))
+                    .register(registry);
+        };
+    }
+
+    private static double saturation(HikariDataSource hikari) {
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool == null || hikari.getMaximumPoolSize() <= 0) {
+            return 0;
+        }
+        return (double) pool.getActiveConnections() / hikari.getMaximumPoolSize();
+    }
+
+    private static HikariDataSource unwrapHikari(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
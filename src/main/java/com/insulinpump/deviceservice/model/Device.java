@@ -7,10 +7,12 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "dispositivos")
+// El índice por estado y fecha de cambio sirve a findByStatus y a la selección de candidatos del archivado
+@Table(name = "dispositivos", indexes = @Index(name = "idx_dispositivos_estado", columnList = "status, statusChangedAt"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -46,4 +48,7 @@ public class Device {
     private Integer reservoirCapacity;
     private String firmwareVersion;
     private String batteryType;
+
+    // Último cambio de estado: de él cuenta el plazo de retención antes de archivar (no se expone en la API)
+    private Instant statusChangedAt;
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.insulinpump.deviceservice.patch;
+
+import com.insulinpump.deviceservice.fields.DeviceField;
+import com.insulinpump.deviceservice.model.Device;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+// Documento application/merge-patch+json (RFC 7396) ya validado: solo los campos presentes, con null para
+// borrar el valor. Los valores tienen el tipo del atributo de Device.
+public final class DeviceMergePatch {
+
+    private final Map<DeviceField, Object> changes;
+
+    public DeviceMergePatch(Map<DeviceField, Object> changes) {
+        Map<DeviceField, Object> copy = new EnumMap<>(DeviceField.class);
+        copy.putAll(changes);
+        this.changes = Collections.unmodifiableMap(copy);
+    }
+
+    public Map<DeviceField, Object> changes() {
+        return changes;
+    }
+
+    public boolean contains(DeviceField field) {
+        return changes.containsKey(field);
+    }
+
+    public Object valueOf(DeviceField field) {
+        return changes.get(field);
+    }
+
+    // Solo los campos cuyo valor cambia respecto al dispositivo: son las únicas columnas que se escriben
+    public Map<DeviceField, Object> changesFrom(Device device) {
+        Map<DeviceField, Object> effective = new EnumMap<>(DeviceField.class);
+        changes.forEach((field, value) -> {
+            if (!Objects.equals(field.valueOf(device), value)) {
+                effective.put(field, value);
+            }
+        });
+        return effective;
+    }
+
+    public void applyTo(Device device) {
+        changes.forEach((field, value) -> field.assign(device, value));
+    }
+}
@@ -0,0 +1,71 @@
+package com.insulinpump.deviceservice.patch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.insulinpump.deviceservice.dto.DeviceCreateDto;
+import com.insulinpump.deviceservice.exception.InvalidDevicePatchException;
+import com.insulinpump.deviceservice.fields.DeviceField;
+import com.insulinpump.deviceservice.mapper.DeviceMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Convierte y valida un documento merge-patch campo a campo, con las mismas reglas de DeviceCreateDto pero
+// solo para los campos presentes. Los nombres son los del cuerpo de PUT; el id no se puede modificar.
+@Component
+public class DeviceMergePatchReader {
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final DeviceMapper deviceMapper;
+
+    public DeviceMergePatchReader(ObjectMapper objectMapper, Validator validator, DeviceMapper deviceMapper) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.deviceMapper = deviceMapper;
+    }
+
+    public DeviceMergePatch read(JsonNode document) {
+        if (document == null || !document.isObject()) {
+            throw new InvalidDevicePatchException(Map.of("$", "El documento debe ser un objeto JSON"));
+        }
+        Map<DeviceField, Object> changes = new EnumMap<>(DeviceField.class);
+        Map<String, String> errors = new TreeMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = document.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> entry = fields.next();
+            String name = entry.getKey();
+            DeviceField field = DeviceField.fromAttribute(name);
+            if (field == null || field == DeviceField.ID) {
+                errors.put(name, "Campo desconocido o no modificable");
+                continue;
+            }
+            DeviceCreateDto single;
+            try {
+                ObjectNode node = objectMapper.createObjectNode().set(name, entry.getValue());
+                single = objectMapper.treeToValue(node, DeviceCreateDto.class);
+            } catch (IOException e) {
+                errors.put(name, "Valor no válido");
+                continue;
+            }
+            Set<ConstraintViolation<DeviceCreateDto>> violations = validator.validateProperty(single, name);
+            if (!violations.isEmpty()) {
+                errors.put(name, violations.iterator().next().getMessage());
+                continue;
+            }
+            changes.put(field, field.valueOf(deviceMapper.toEntity(single)));
+        }
+        if (!errors.isEmpty()) {
+            throw new InvalidDevicePatchException(errors);
+        }
+        return new DeviceMergePatch(changes);
+    }
+}
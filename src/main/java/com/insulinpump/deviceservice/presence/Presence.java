@@ -0,0 +1,41 @@
+package com.insulinpump.deviceservice.presence;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+// Entrada de un dispositivo en PresenceTracker. Un check-in solo escribe lastSeen (sin reservar memoria ni
+// tocar la rueda); el estado online cambia con CAS. next y remainingRounds son del hilo de la rueda.
+final class Presence {
+
+    private static final AtomicIntegerFieldUpdater<Presence> ONLINE =
+            AtomicIntegerFieldUpdater.newUpdater(Presence.class, "online");
+
+    final String serialNo;
+    final long deviceId;
+    // Epoch en milisegundos del último check-in
+    volatile long lastSeen;
+    private volatile int online;
+    // Dispositivo borrado o con otro número de serie: la rueda lo descarta al encontrarlo
+    volatile boolean removed;
+
+    Presence next;
+    long remainingRounds;
+
+    Presence(String serialNo, long deviceId, long lastSeen) {
+        this.serialNo = serialNo;
+        this.deviceId = deviceId;
+        this.lastSeen = lastSeen;
+    }
+
+    boolean isOnline() {
+        return online == 1;
+    }
+
+    // true solo para quien hace la transición
+    boolean goOnline() {
+        return ONLINE.compareAndSet(this, 0, 1);
+    }
+
+    boolean goOffline() {
+        return ONLINE.compareAndSet(this, 1, 0);
+    }
+}
@@ -0,0 +1,9 @@
+package com.insulinpump.deviceservice.presence;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(PresenceProperties.class)
+public class PresenceConfig {
+}
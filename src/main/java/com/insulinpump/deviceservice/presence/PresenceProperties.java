@@ -0,0 +1,20 @@
+package com.insulinpump.deviceservice.presence;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "device.presence")
+public class PresenceProperties {
+
+    // Sin check-in durante este tiempo el dispositivo pasa a offline
+    private Duration timeout = Duration.ofMinutes(2);
+    // Resolución de la expiración: un dispositivo pasa a offline como mucho un tick después de su plazo
+    private Duration tick = Duration.ofSeconds(1);
+    // Ranuras de la rueda (se redondea a potencia de dos); con timeout <= tick * wheelSize no hay vueltas extra
+    private int wheelSize = 512;
+    // Filas como máximo por petición (parámetro limit)
+    private int maxLimit = 500;
+}
@@ -0,0 +1,66 @@
+package com.insulinpump.deviceservice.presence;
+
+import com.insulinpump.deviceservice.dto.DeviceDetailsDto;
+import com.insulinpump.deviceservice.dto.DevicePresenceDto;
+import com.insulinpump.deviceservice.dto.PresenceDto;
+import com.insulinpump.deviceservice.exception.InvalidFacetFilterException;
+import com.insulinpump.deviceservice.facet.FacetField;
+import com.insulinpump.deviceservice.facet.FacetFilter;
+import com.insulinpump.deviceservice.facet.FacetIndex;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import com.insulinpump.deviceservice.service.DeviceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PresenceService {
+
+    private final PresenceTracker presenceTracker;
+    private final FacetIndex facetIndex;
+    private final DeviceService deviceService;
+    private final PresenceProperties properties;
+
+    public void checkIn(String serialNo) {
+        presenceTracker.checkIn(serialNo);
+    }
+
+    // Recuentos con los bitmaps de FacetIndex y el de dispositivos online; las filas se leen por lotes de ids.
+    // Solo ve los check-ins de esta réplica: offline incluye los dispositivos que hacen check-in en otra.
+    public PresenceDto presence(PresenceState state, DeviceStatus status, Long after, int limit) {
+        log.debug("Consultando presencia: estado {}, status {}", state, status);
+        if (limit < 0 || limit > properties.getMaxLimit()) {
+            throw new InvalidFacetFilterException("limit debe estar entre 0 y " + properties.getMaxLimit());
+        }
+        Roaring64Bitmap fleet = facetIndex.evaluate(status == null
+                ? new FacetFilter.MatchAll()
+                : new FacetFilter.Term(FacetField.STATUS, status.name()));
+        Roaring64Bitmap online = presenceTracker.onlineIds();
+        online.and(fleet);
+        fleet.andNot(online);
+        Roaring64Bitmap offline = fleet;
+
+        List<DevicePresenceDto> devices = null;
+        Long nextAfter = null;
+        if (limit > 0) {
+            Roaring64Bitmap matches = state == PresenceState.OFFLINE ? offline : online;
+            // Uno más para saber si hay página siguiente
+            List<Long> ids = FacetIndex.page(matches, after == null ? -1 : after, limit + 1);
+            boolean more = ids.size() > limit;
+            ids = ids.subList(0, Math.min(limit, ids.size()));
+            devices = new ArrayList<>(ids.size());
+            for (DeviceDetailsDto device : deviceService.getDevicesByIds(ids)) {
+                devices.add(new DevicePresenceDto(device.getId(), device.getSerialNo(), device.getStatus(),
+                        presenceTracker.lastSeen(device.getId())));
+            }
+            nextAfter = more && !ids.isEmpty() ? ids.get(ids.size() - 1) : null;
+        }
+        return new PresenceDto(presenceTracker.instance(), online.getLongCardinality(), offline.getLongCardinality(), devices, nextAfter);
+    }
+}
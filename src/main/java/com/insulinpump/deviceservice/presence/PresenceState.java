@@ -0,0 +1,6 @@
+package com.insulinpump.deviceservice.presence;
+
+public enum PresenceState {
+    ONLINE,
+    OFFLINE
+}
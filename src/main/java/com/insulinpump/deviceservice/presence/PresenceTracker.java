@@ -0,0 +1,219 @@
+package com.insulinpump.deviceservice.presence;
+
+import com.insulinpump.deviceservice.changelog.ChangeLogListener;
+import com.insulinpump.deviceservice.changelog.DeviceChange;
+import com.insulinpump.deviceservice.event.DeviceChangeType;
+import com.insulinpump.deviceservice.event.DeviceChangedEvent;
+import com.insulinpump.deviceservice.service.DeviceService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+// Presencia de los dispositivos en memoria, sin escribir en dispositivos. Un check-in es una búsqueda en un mapa
+// concurrente y una escritura volátil de lastSeen: no bloquea ni reserva memoria salvo la primera vez que se ve el
+// dispositivo (se resuelve su id) o cuando vuelve a estar online (se encola para la rueda). Un único hilo avanza
+// la rueda cada tick: las entradas vencidas cuyo lastSeen ha avanzado se reprograman y el resto pasa a offline.
+// Los ids online se guardan en un bitmap para cruzarlos con los de FacetIndex; se actualiza en el tick, así que
+// los recuentos pueden ir un tick por detrás. Cada réplica solo conoce los check-ins que recibe.
+@Component
+public class PresenceTracker implements ChangeLogListener, MeterBinder {
+
+    private final DeviceService deviceService;
+    private final Clock clock;
+    private final String instance = ManagementFactory.getRuntimeMXBean().getName();
+    private final long timeoutMillis;
+    private final Map<String, Presence> bySerialNo = new ConcurrentHashMap<>();
+    private final Map<Long, Presence> byId = new ConcurrentHashMap<>();
+    // Transiciones a online pendientes de entrar en la rueda
+    private final Queue<Presence> wentOnline = new ConcurrentLinkedQueue<>();
+    private final Consumer<Presence> onExpired = this::expire;
+    // Solo el hilo del tick usa la rueda; el bitmap se protege con el monitor de la instancia
+    private final TimingWheel wheel;
+    private final Roaring64Bitmap online = new Roaring64Bitmap();
+    private long now;
+    private Counter checkIns;
+    private Counter expirations;
+
+    @Autowired
+    public PresenceTracker(DeviceService deviceService, PresenceProperties properties) {
+        this(deviceService, properties, Clock.systemUTC());
+    }
+
+    PresenceTracker(DeviceService deviceService, PresenceProperties properties, Clock clock) {
+        this.deviceService = deviceService;
+        this.clock = clock;
+        this.timeoutMillis = properties.getTimeout().toMillis();
+        this.wheel = new TimingWheel(properties.getWheelSize(), properties.getTick().toMillis(), clock.millis());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("device.presence.online", this, PresenceTracker::onlineCount)
+                .description("Dispositivos con check-in dentro del plazo")
+                .register(registry);
+        Gauge.builder("device.presence.tracked", bySerialNo, Map::size)
+                .description("Dispositivos con algún check-in en esta réplica")
+                .register(registry);
+        checkIns = Counter.builder("device.presence.check-ins")
+                .description("Check-ins recibidos")
+                .register(registry);
+        expirations = Counter.builder("device.presence.expired")
+                .description("Dispositivos que han pasado a offline por falta de check-in")
+                .register(registry);
+    }
+
+    // DeviceNotFoundException si el número de serie no existe (solo se comprueba la primera vez)
+    public void checkIn(String serialNo) {
+        long seenAt = clock.millis();
+        Presence presence = bySerialNo.get(serialNo);
+        if (presence == null) {
+            presence = register(serialNo, seenAt);
+        }
+        presence.lastSeen = seenAt;
+        // Después de escribir lastSeen: si la rueda lo estaba pasando a offline, o ve el nuevo valor o lo vemos aquí
+        if (!presence.isOnline() && presence.goOnline()) {
+            wentOnline.add(presence);
+        }
+        if (checkIns != null) {
+            checkIns.increment();
+        }
+    }
+
+    @Scheduled(fixedRateString = "${device.presence.tick:1s}")
+    public void tick() {
+        advance(clock.millis());
+    }
+
+    // Solo desde un hilo a la vez (el del tick)
+    synchronized void advance(long nowMillis) {
+        now = nowMillis;
+        Presence presence;
+        while ((presence = wentOnline.poll()) != null) {
+            if (!presence.removed) {
+                online.addLong(presence.deviceId);
+                wheel.schedule(presence, presence.lastSeen + timeoutMillis);
+            }
+        }
+        wheel.advance(nowMillis, onExpired);
+    }
+
+    public synchronized long onlineCount() {
+        return online.getLongCardinality();
+    }
+
+    // Copia de los ids online en el último tick
+    public synchronized Roaring64Bitmap onlineIds() {
+        return online.clone();
+    }
+
+    // null si el dispositivo no ha hecho check-in en esta réplica
+    public Instant lastSeen(long deviceId) {
+        Presence presence = byId.get(deviceId);
+        return presence != null ? Instant.ofEpochMilli(presence.lastSeen) : null;
+    }
+
+    // Identifica la réplica cuyos check-ins se cuentan
+    public String instance() {
+        return instance;
+    }
+
+    public int trackedCount() {
+        return bySerialNo.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        forget(event.type(), event.serialNo(), event.previousSerialNo());
+    }
+
+    @Override
+    public void onChanges(List<DeviceChange> changes) {
+        for (DeviceChange change : changes) {
+            forget(change.type(), change.serialNo(), change.previousSerialNo());
+        }
+    }
+
+    // La presencia no sale de la base de datos: no hay nada que recargar. Los dispositivos borrados cuyo cambio se
+    // haya perdido desaparecen de las consultas filtradas (se cruzan con FacetIndex) y caducan en timeout.
+    @Override
+    public void invalidateAll() {
+    }
+
+    private Presence register(String serialNo, long seenAt) {
+        long deviceId = deviceService.getDeviceIdBySerialNo(serialNo);
+        Presence registered = bySerialNo.computeIfAbsent(serialNo, key -> new Presence(key, deviceId, seenAt));
+        byId.put(registered.deviceId, registered);
+        return registered;
+    }
+
+    // Un borrado, un archivado o un cambio de número de serie invalida la entrada: el siguiente check-in vuelve a resolver el id
+    private void forget(DeviceChangeType type, String serialNo, String previousSerialNo) {
+        if (type.isRemoval()) {
+            remove(serialNo);
+        } else if (previousSerialNo != null && !Objects.equals(previousSerialNo, serialNo)) {
+            remove(previousSerialNo);
+        }
+    }
+
+    private void remove(String serialNo) {
+        if (serialNo == null) {
+            return;
+        }
+        Presence presence = bySerialNo.remove(serialNo);
+        if (presence != null) {
+            presence.removed = true;
+            byId.remove(presence.deviceId, presence);
+            synchronized (this) {
+                online.removeLong(presence.deviceId);
+            }
+        }
+    }
+
+    // Entrada cuyo plazo ha llegado según la rueda; se llama dentro de advance
+    private void expire(Presence presence) {
+        if (presence.removed) {
+            return;
+        }
+        long deadline = presence.lastSeen + timeoutMillis;
+        if (deadline > now) {
+            wheel.schedule(presence, deadline);
+            return;
+        }
+        if (!presence.goOffline()) {
+            return;
+        }
+        // Un check-in entre la lectura de lastSeen y el CAS ha visto el estado online y no se ha encolado
+        deadline = presence.lastSeen + timeoutMillis;
+        if (deadline > now) {
+            if (presence.goOnline()) {
+                wheel.schedule(presence, deadline);
+            }
+            return;
+        }
+        online.removeLong(presence.deviceId);
+        if (expirations != null) {
+            expirations.increment();
+        }
+    }
+
+    int scheduled() {
+        return wheel.size();
+    }
+}
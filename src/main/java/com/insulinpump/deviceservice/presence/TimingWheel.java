@@ -0,0 +1,67 @@
+package com.insulinpump.deviceservice.presence;
+
+import java.util.function.Consumer;
+
+// Rueda de tiempos con hash (Varghese y Lauck): cada ranura cubre un tick y guarda una lista enlazada intrusiva
+// de entradas (sin nodos aparte). Programar y expirar son O(1) por entrada; un plazo más allá de una vuelta
+// completa se cuenta en remainingRounds. Solo la usa el hilo que avanza la rueda: no hay sincronización.
+final class TimingWheel {
+
+    private final Presence[] slots;
+    private final int mask;
+    private final long tickMillis;
+    // Último tick procesado, en ticks desde epoch
+    private long tick;
+    private int size;
+
+    TimingWheel(int wheelSize, long tickMillis, long nowMillis) {
+        int capacity = Integer.highestOneBit(Math.max(2, wheelSize) - 1) << 1;
+        this.slots = new Presence[capacity];
+        this.mask = capacity - 1;
+        this.tickMillis = tickMillis;
+        this.tick = Math.floorDiv(nowMillis, tickMillis);
+    }
+
+    // La entrada no debe estar ya en la rueda
+    void schedule(Presence presence, long deadlineMillis) {
+        long deadlineTick = Math.max(Math.ceilDiv(deadlineMillis, tickMillis), tick + 1);
+        presence.remainingRounds = (deadlineTick - tick - 1) / slots.length;
+        int slot = (int) (deadlineTick & mask);
+        presence.next = slots[slot];
+        slots[slot] = presence;
+        size++;
+    }
+
+    // Procesa los ticks pendientes hasta nowMillis y entrega las entradas cuyo plazo ha llegado; quien las recibe
+    // puede volver a programarlas
+    void advance(long nowMillis, Consumer<Presence> expired) {
+        long target = Math.floorDiv(nowMillis, tickMillis);
+        while (tick < target) {
+            tick++;
+            int slot = (int) (tick & mask);
+            Presence presence = slots[slot];
+            slots[slot] = null;
+            while (presence != null) {
+                Presence next = presence.next;
+                presence.next = null;
+                if (presence.remainingRounds > 0) {
+                    presence.remainingRounds--;
+                    presence.next = slots[slot];
+                    slots[slot] = presence;
+                } else {
+                    size--;
+                    expired.accept(presence);
+                }
+                presence = next;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+}
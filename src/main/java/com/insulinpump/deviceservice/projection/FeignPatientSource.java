@@ -0,0 +1,23 @@
+package com.insulinpump.deviceservice.projection;
+
+import com.insulinpump.deviceservice.client.PatientClient;
+import com.insulinpump.deviceservice.dto.PatientChangesDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class FeignPatientSource implements PatientSource {
+
+    private final PatientClient patientClient;
+
+    @Override
+    public PatientChangesDto fetchChangesSince(long cursor, int limit) {
+        return patientClient.getPatientChanges(cursor, limit);
+    }
+
+    @Override
+    public PatientChangesDto fetchSnapshot() {
+        return patientClient.getPatientSnapshot();
+    }
+}
@@ -0,0 +1,60 @@
+package com.insulinpump.deviceservice.projection;
+
+import com.insulinpump.deviceservice.dto.PatientDto;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Copia local de los datos de pacientes que se incrustan en DeviceDetailsDto.
+// Las lecturas nunca salen del proceso; PatientProjectionSynchronizer la mantiene al día.
+@Component
+public class PatientProjection {
+
+    private volatile Map<Long, PatientEntry> patients = new ConcurrentHashMap<>();
+
+    public Optional<PatientDto> find(Long patientId) {
+        PatientEntry entry = patients.get(patientId);
+        return entry == null ? Optional.empty() : Optional.of(entry.toDto());
+    }
+
+    public void upsert(PatientDto patient) {
+        if (patient != null && patient.getId() != null) {
+            patients.put(patient.getId(), PatientEntry.of(patient));
+        }
+    }
+
+    public void remove(Long patientId) {
+        patients.remove(patientId);
+    }
+
+    // Resincronización completa: se sustituye el mapa entero para que los lectores nunca vean un estado a medias
+    public void replaceAll(Collection<PatientDto> snapshot) {
+        Map<Long, PatientEntry> replacement = new ConcurrentHashMap<>(Math.max(16, snapshot.size() * 4 / 3 + 1));
+        for (PatientDto patient : snapshot) {
+            if (patient.getId() != null) {
+                replacement.put(patient.getId(), PatientEntry.of(patient));
+            }
+        }
+        patients = replacement;
+    }
+
+    public int size() {
+        return patients.size();
+    }
+
+    // Solo los campos que se exponen en DeviceDetailsDto, inmutables
+    record PatientEntry(Long id, String name, Integer age, String medicalId, Long deviceId, String diabetesType) {
+
+        static PatientEntry of(PatientDto dto) {
+            return new PatientEntry(dto.getId(), dto.getName(), dto.getAge(), dto.getMedicalId(),
+                    dto.getDeviceId(), dto.getDiabetesType());
+        }
+
+        PatientDto toDto() {
+            return new PatientDto(id, name, age, medicalId, deviceId, diabetesType);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.insulinpump.deviceservice.projection;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(PatientProjectionProperties.class)
+public class PatientProjectionConfig {
+}
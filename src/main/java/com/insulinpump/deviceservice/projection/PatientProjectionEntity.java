@@ -0,0 +1,37 @@
+package com.insulinpump.deviceservice.projection;
+
+import com.insulinpump.deviceservice.dto.PatientDto;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "pacientes_proyeccion")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientProjectionEntity {
+
+    @Id
+    private Long id;
+    private String name;
+    private Integer age;
+    private String medicalId;
+    private Long deviceId;
+    private String diabetesType;
+
+    // Cursor de sincronización con el que se escribió la fila; el máximo es el cursor a reanudar
+    private Long syncCursor;
+
+    static PatientProjectionEntity of(PatientDto patient, long cursor) {
+        return new PatientProjectionEntity(patient.getId(), patient.getName(), patient.getAge(),
+                patient.getMedicalId(), patient.getDeviceId(), patient.getDiabetesType(), cursor);
+    }
+
+    PatientDto toDto() {
+        return new PatientDto(id, name, age, medicalId, deviceId, diabetesType);
+    }
+}
@@ -0,0 +1,20 @@
+package com.insulinpump.deviceservice.projection;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "device.patient-projection")
+public class PatientProjectionProperties {
+
+    private boolean enabled = true;
+    private Duration syncInterval = Duration.ofSeconds(30);
+    // Aunque los deltas funcionen, cada cierto tiempo se rehace la proyección completa
+    private Duration fullResyncInterval = Duration.ofHours(6);
+    private int batchSize = 500;
+    private int maxPagesPerSync = 100;
+    // Guarda también la proyección en la tabla pacientes_proyeccion para arrancar en caliente
+    private boolean persistent = false;
+}
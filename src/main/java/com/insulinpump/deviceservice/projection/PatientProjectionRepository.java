@@ -0,0 +1,14 @@
+package com.insulinpump.deviceservice.projection;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PatientProjectionRepository extends JpaRepository<PatientProjectionEntity, Long> {
+
+    @Query("select max(p.syncCursor) from PatientProjectionEntity p")
+    Optional<Long> findMaxSyncCursor();
+}
@@ -0,0 +1,48 @@
+package com.insulinpump.deviceservice.projection;
+
+import com.insulinpump.deviceservice.dto.PatientDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.OptionalLong;
+
+// Persistencia opcional de la proyección en la tabla local pacientes_proyeccion
+@Component
+@RequiredArgsConstructor
+public class PatientProjectionStore {
+
+    private final PatientProjectionRepository repository;
+
+    @Transactional(readOnly = true)
+    public List<PatientDto> loadAll() {
+        return repository.findAll().stream()
+                .map(PatientProjectionEntity::toDto)
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public OptionalLong loadCursor() {
+        return repository.findMaxSyncCursor()
+                .map(OptionalLong::of)
+                .orElseGet(OptionalLong::empty);
+    }
+
+    @Transactional
+    public void apply(Collection<PatientDto> upserts, Collection<Long> deletedIds, long cursor) {
+        repository.deleteAllByIdInBatch(deletedIds);
+        repository.saveAll(upserts.stream()
+                .map(patient -> PatientProjectionEntity.of(patient, cursor))
+                .toList());
+    }
+
+    @Transactional
+    public void replaceAll(Collection<PatientDto> snapshot, long cursor) {
+        repository.deleteAllInBatch();
+        repository.saveAll(snapshot.stream()
+                .map(patient -> PatientProjectionEntity.of(patient, cursor))
+                .toList());
+    }
+}
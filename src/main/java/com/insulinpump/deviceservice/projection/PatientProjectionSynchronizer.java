@@ -0,0 +1,168 @@
+package com.insulinpump.deviceservice.projection;
+
+import com.insulinpump.deviceservice.dto.PatientChangesDto;
+import com.insulinpump.deviceservice.dto.PatientDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.OptionalLong;
+
+// Mantiene PatientProjection al día con deltas periódicos desde un cursor y resincronización completa
+// cuando el origen lo pide, cuando vence fullResyncInterval o cuando todavía no hay cursor.
+@Component
+@Slf4j
+public class PatientProjectionSynchronizer implements MeterBinder {
+
+    private static final long NO_CURSOR = -1;
+
+    private final PatientProjection projection;
+    private final PatientSource source;
+    private final PatientProjectionStore store;
+    private final PatientProjectionProperties properties;
+    private final Clock clock;
+    private final Instant startedAt;
+
+    private volatile long cursor = NO_CURSOR;
+    private volatile Instant lastSuccessfulSync;
+    private volatile Instant lastFullResync;
+    private Counter deltaSyncs;
+    private Counter fullSyncs;
+    private Counter failedSyncs;
+
+    @Autowired
+    public PatientProjectionSynchronizer(PatientProjection projection, PatientSource source,
+                                         PatientProjectionStore store, PatientProjectionProperties properties) {
+        this(projection, source, store, properties, Clock.systemUTC());
+    }
+
+    PatientProjectionSynchronizer(PatientProjection projection, PatientSource source, PatientProjectionStore store,
+                                  PatientProjectionProperties properties, Clock clock) {
+        this.projection = projection;
+        this.source = source;
+        this.store = store;
+        this.properties = properties;
+        this.clock = clock;
+        this.startedAt = clock.instant();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("patient.projection.size", projection, PatientProjection::size)
+                .description("Pacientes en la proyección local")
+                .register(registry);
+        Gauge.builder("patient.projection.staleness", this, sync -> sync.staleness().toMillis() / 1000.0)
+                .description("Segundos desde la última sincronización correcta (desde el arranque si aún no hay ninguna)")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("patient.projection.cursor", this, sync -> sync.cursor)
+                .description("Cursor de cambios de patient-service aplicado")
+                .register(registry);
+        deltaSyncs = Counter.builder("patient.projection.syncs").tag("type", "delta").register(registry);
+        fullSyncs = Counter.builder("patient.projection.syncs").tag("type", "full").register(registry);
+        failedSyncs = Counter.builder("patient.projection.syncs").tag("type", "failed").register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${device.patient-projection.sync-interval:30s}")
+    public void sync() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            if (cursor == NO_CURSOR) {
+                warmStart();
+            }
+            if (cursor == NO_CURSOR || fullResyncDue()) {
+                fullResync();
+            } else {
+                deltaSync();
+            }
+            lastSuccessfulSync = clock.instant();
+        } catch (Exception e) {
+            increment(failedSyncs);
+            log.warn("No se pudo sincronizar la proyección de pacientes (desactualizada {} s): {}",
+                    staleness().toSeconds(), e.getMessage());
+        }
+    }
+
+    // Hasta la primera sincronización correcta la proyección está vacía (o viene de la tabla local) y su
+    // antigüedad cuenta desde el arranque: un patient-service caído desde el inicio no sale como al día
+    public Duration staleness() {
+        Instant last = lastSuccessfulSync;
+        return Duration.between(last != null ? last : startedAt, clock.instant());
+    }
+
+    long getCursor() {
+        return cursor;
+    }
+
+    private void deltaSync() {
+        for (int page = 0; page < properties.getMaxPagesPerSync(); page++) {
+            PatientChangesDto changes = source.fetchChangesSince(cursor, properties.getBatchSize());
+            if (changes.isResyncRequired()) {
+                log.info("patient-service no puede servir deltas desde el cursor {}; resincronizando", cursor);
+                fullResync();
+                return;
+            }
+            for (PatientDto patient : changes.getPatients()) {
+                projection.upsert(patient);
+            }
+            for (Long deletedId : changes.getDeletedIds()) {
+                projection.remove(deletedId);
+            }
+            if (properties.isPersistent()) {
+                store.apply(changes.getPatients(), changes.getDeletedIds(), changes.getCursor());
+            }
+            cursor = changes.getCursor();
+            increment(deltaSyncs);
+            if (!changes.isHasMore()) {
+                return;
+            }
+        }
+    }
+
+    private void fullResync() {
+        PatientChangesDto snapshot = source.fetchSnapshot();
+        projection.replaceAll(snapshot.getPatients());
+        if (properties.isPersistent()) {
+            store.replaceAll(snapshot.getPatients(), snapshot.getCursor());
+        }
+        cursor = snapshot.getCursor();
+        lastFullResync = clock.instant();
+        increment(fullSyncs);
+        log.info("Proyección de pacientes resincronizada: {} pacientes, cursor {}", projection.size(), cursor);
+    }
+
+    // Con persistencia activada se parte de la tabla local y se continúa con deltas desde su cursor
+    private void warmStart() {
+        if (!properties.isPersistent()) {
+            return;
+        }
+        OptionalLong storedCursor = store.loadCursor();
+        if (storedCursor.isPresent()) {
+            projection.replaceAll(store.loadAll());
+            cursor = storedCursor.getAsLong();
+            lastFullResync = clock.instant();
+            log.info("Proyección de pacientes cargada de la tabla local: {} pacientes, cursor {}", projection.size(), cursor);
+        }
+    }
+
+    private boolean fullResyncDue() {
+        return lastFullResync == null
+                || Duration.between(lastFullResync, clock.instant()).compareTo(properties.getFullResyncInterval()) >= 0;
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+}
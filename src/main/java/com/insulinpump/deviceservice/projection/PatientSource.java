@@ -0,0 +1,11 @@
+package com.insulinpump.deviceservice.projection;
+
+import com.insulinpump.deviceservice.dto.PatientChangesDto;
+
+// Origen de los datos de pacientes que alimenta la proyección local
+public interface PatientSource {
+
+    PatientChangesDto fetchChangesSince(long cursor, int limit);
+
+    PatientChangesDto fetchSnapshot();
+}
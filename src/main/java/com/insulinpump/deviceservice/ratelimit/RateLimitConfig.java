@@ -0,0 +1,22 @@
+package com.insulinpump.deviceservice.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    @Bean
+    public RateLimiter rateLimiter(RateLimitProperties properties) {
+        return new RateLimiter(properties);
+    }
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(RateLimiter rateLimiter, RateLimitProperties properties,
+                                           ObjectMapper objectMapper) {
+        return new RateLimitFilter(rateLimiter, properties, objectMapper);
+    }
+}
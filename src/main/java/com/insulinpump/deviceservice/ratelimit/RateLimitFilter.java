@@ -0,0 +1,91 @@
+package com.insulinpump.deviceservice.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Limita por cliente cada grupo de endpoints de DeviceController; responde 429 con Retry-After
+public class RateLimitFilter extends OncePerRequestFilter implements Ordered {
+
+    // Antes de la idempotencia: un cliente limitado no debe ocupar claves ni esperar resultados
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 15;
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(RateLimiter rateLimiter, RateLimitProperties properties, ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RateLimiter.EndpointGroup group = rateLimiter.groupFor(request.getMethod(), request.getRequestURI());
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long waitNanos = rateLimiter.tryAcquire(group, clientOf(request));
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        rateLimiter.recordRejection(group);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds(waitNanos)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), rejection(group));
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        return clientOf(request.getHeader(properties.getClientHeader()), request.getRemoteAddr(),
+                properties.getApiKeys());
+    }
+
+    // Compartidos con RateLimitWebFilter
+    static String clientOf(String apiKey, String remoteAddress, Set<String> apiKeys) {
+        return apiKey != null && apiKeys.contains(apiKey) ? "key:" + apiKey : "ip:" + remoteAddress;
+    }
+
+    static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (long) Math.ceil(waitNanos / (double) TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    static Map<String, Object> rejection(RateLimiter.EndpointGroup group) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        body.put("error", "Demasiadas peticiones");
+        body.put("message", "Límite de peticiones superado para el grupo " + group.name());
+        return body;
+    }
+}
@@ -0,0 +1,53 @@
+package com.insulinpump.deviceservice.ratelimit;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "device.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    // Identidad del cliente; sin cabecera se usa la IP remota
+    private String clientHeader = "X-API-Key";
+    // Claves admitidas como identidad propia. Cualquier otro valor de la cabecera se limita por IP remota, para
+    // que un cliente no pueda estrenar bucket (y saltarse el límite) cambiando de clave en cada petición
+    private Set<String> apiKeys = Set.of();
+    // Buckets distintos que se mantienen en memoria; por encima se purgan los inactivos
+    private int maxClients = 100_000;
+    // Intervalo mínimo entre purgas de buckets inactivos
+    private Duration sweepInterval = Duration.ofSeconds(1);
+    // Grupos de endpoints, evaluados en orden: gana el primero que coincide
+    private Map<String, Group> groups = defaultGroups();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Group {
+        // Patrones de ruta estilo Ant (/api/devices/search/**)
+        private List<String> paths = List.of();
+        // Métodos HTTP del grupo; vacío = todos
+        private Set<String> methods = Set.of();
+        // Ráfaga máxima admitida
+        private int capacity = 50;
+        // Tokens repuestos por segundo
+        private double refillPerSecond = 25;
+    }
+
+    private static Map<String, Group> defaultGroups() {
+        Map<String, Group> groups = new LinkedHashMap<>();
+        groups.put("search", new Group(List.of("/api/devices/search/**"), Set.of(), 20, 10));
+        groups.put("writes", new Group(List.of("/api/devices/**", "/api/devices"),
+                Set.of("POST", "PUT", "PATCH", "DELETE"), 30, 15));
+        groups.put("reads", new Group(List.of("/api/devices/**", "/api/devices"), Set.of(), 100, 50));
+        return groups;
+    }
+}
@@ -0,0 +1,66 @@
+package com.insulinpump.deviceservice.ratelimit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+// RateLimitFilter para el servidor reactivo. Usa el mismo RateLimiter, así que un cliente tiene un único
+// presupuesto por grupo aunque reparta las peticiones entre los dos puertos.
+public class RateLimitWebFilter implements WebFilter {
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitWebFilter(RateLimiter rateLimiter, RateLimitProperties properties, ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        RateLimiter.EndpointGroup group = rateLimiter.groupFor(request.getMethod().name(), request.getPath().value());
+        if (group == null) {
+            return chain.filter(exchange);
+        }
+
+        long waitNanos = rateLimiter.tryAcquire(group, clientOf(request));
+        if (waitNanos == 0) {
+            return chain.filter(exchange);
+        }
+
+        rateLimiter.recordRejection(group);
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER,
+                String.valueOf(RateLimitFilter.retryAfterSeconds(waitNanos)));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(RateLimitFilter.rejection(group));
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+    }
+
+    private String clientOf(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return RateLimitFilter.clientOf(request.getHeaders().getFirst(properties.getClientHeader()),
+                remoteAddress != null ? remoteAddress.getHostString() : null, properties.getApiKeys());
+    }
+}
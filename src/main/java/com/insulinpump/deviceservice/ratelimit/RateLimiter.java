@@ -0,0 +1,128 @@
+package com.insulinpump.deviceservice.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Un token bucket por cliente y grupo de endpoints. La memoria se acota purgando los buckets llenos
+// (inactivos) cuando se supera maxClients; si aun así no hay sitio, los clientes nuevos comparten un
+// bucket de desbordamiento por grupo en lugar de quedar sin límite.
+@Slf4j
+public class RateLimiter implements MeterBinder {
+
+    private static final String OVERFLOW_CLIENT = "__overflow__";
+
+    private final List<EndpointGroup> groups = new ArrayList<>();
+    private final Map<BucketKey, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final int maxClients;
+    private final long sweepIntervalNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong lastSweep;
+    private final Map<String, Counter> rejected = new ConcurrentHashMap<>();
+
+    public RateLimiter(RateLimitProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    RateLimiter(RateLimitProperties properties, LongSupplier nanoClock) {
+        this.maxClients = properties.getMaxClients();
+        this.sweepIntervalNanos = properties.getSweepInterval().toNanos();
+        this.nanoClock = nanoClock;
+        this.lastSweep = new AtomicLong(nanoClock.getAsLong());
+        properties.getGroups().forEach((name, group) -> groups.add(new EndpointGroup(name,
+                group.getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList(),
+                group.getMethods(), group.getCapacity(),
+                Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / group.getRefillPerSecond())))));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("device.rate-limit.clients", buckets, Map::size)
+                .description("Buckets de rate limiting en memoria")
+                .register(registry);
+        for (EndpointGroup group : groups) {
+            rejected.put(group.name(), Counter.builder("device.rate-limit.rejected")
+                    .description("Peticiones rechazadas con 429")
+                    .tag("group", group.name())
+                    .register(registry));
+        }
+    }
+
+    // null si la petición no pertenece a ningún grupo limitado
+    public EndpointGroup groupFor(String method, String path) {
+        PathContainer container = PathContainer.parsePath(path);
+        for (EndpointGroup group : groups) {
+            if (group.methods().isEmpty() || group.methods().contains(method)) {
+                for (PathPattern pattern : group.paths()) {
+                    if (pattern.matches(container)) {
+                        return group;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    // 0 si se admite la petición; en otro caso, nanosegundos que el cliente debería esperar
+    public long tryAcquire(EndpointGroup group, String client) {
+        long now = nanoClock.getAsLong();
+        return bucket(group, client, now).tryAcquire(now);
+    }
+
+    public void recordRejection(EndpointGroup group) {
+        Counter counter = rejected.get(group.name());
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    int trackedBuckets() {
+        return buckets.size();
+    }
+
+    private TokenBucket bucket(EndpointGroup group, String client, long now) {
+        BucketKey key = new BucketKey(group.name(), client);
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxClients) {
+            sweep(now);
+            if (buckets.size() >= maxClients) {
+                key = new BucketKey(group.name(), OVERFLOW_CLIENT);
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(group.intervalNanos(), group.capacity(), now));
+    }
+
+    private void sweep(long now) {
+        long last = lastSweep.get();
+        if (now - last < sweepIntervalNanos || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+        log.debug("Purgados {} buckets de rate limiting inactivos", before - buckets.size());
+    }
+
+    public record EndpointGroup(String name, List<PathPattern> paths, Set<String> methods, int capacity,
+                                long intervalNanos) {
+    }
+
+    private record BucketKey(String group, String client) {
+    }
+}
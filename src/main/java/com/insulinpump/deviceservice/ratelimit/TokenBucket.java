@@ -0,0 +1,39 @@
+package com.insulinpump.deviceservice.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket sin bloqueos con recarga perezosa. El estado es un único long (instante teórico en el que
+// el bucket vuelve a estar lleno, formulación GCRA), así que cada petición es una lectura y un CAS y
+// nunca hace falta un hilo que reponga tokens.
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    TokenBucket(long intervalNanos, int capacity, long nowNanos) {
+        this.intervalNanos = intervalNanos;
+        this.burstNanos = intervalNanos * capacity;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    // 0 si se consume un token; en otro caso, nanosegundos hasta que haya uno disponible
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            long wait = next - nowNanos - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Un bucket lleno equivale a uno nuevo: se puede descartar sin cambiar el comportamiento
+    boolean isFull(long nowNanos) {
+        return fullAt.get() - nowNanos <= 0;
+    }
+}
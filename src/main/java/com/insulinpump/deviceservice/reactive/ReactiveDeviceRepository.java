@@ -0,0 +1,120 @@
+package com.insulinpump.deviceservice.reactive;
+
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import com.insulinpump.deviceservice.util.LikePatterns;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+// Lecturas de la tabla dispositivos con R2DBC: las filas se emiten según se leen y solo se piden más
+// cuando el suscriptor las consume
+public class ReactiveDeviceRepository {
+
+    private static final String COLUMNS = "SELECT id, serial_no, model, manufacturer, status, patient_id, "
+            + "manufacture_date, last_maintenance_date, max_basal_rate, max_bolus_amount, reservoir_capacity, "
+            + "firmware_version, battery_type ";
+    private static final String SELECT = COLUMNS + "FROM dispositivos ";
+    // dispositivos_archivados tiene las mismas columnas (ver ArchivedDevice)
+    private static final String SELECT_ARCHIVED = COLUMNS + "FROM dispositivos_archivados ";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveDeviceRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Device> findById(Long id) {
+        return databaseClient.sql(SELECT + "WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveDeviceRepository::mapRow)
+                .one();
+    }
+
+    public Mono<Device> findBySerialNo(String serialNo) {
+        return databaseClient.sql(SELECT + "WHERE serial_no = :serialNo")
+                .bind("serialNo", serialNo)
+                .map(ReactiveDeviceRepository::mapRow)
+                .one();
+    }
+
+    public Mono<Device> findArchivedById(Long id) {
+        return databaseClient.sql(SELECT_ARCHIVED + "WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveDeviceRepository::mapRow)
+                .one();
+    }
+
+    public Mono<Device> findArchivedBySerialNo(String serialNo) {
+        return databaseClient.sql(SELECT_ARCHIVED + "WHERE serial_no = :serialNo")
+                .bind("serialNo", serialNo)
+                .map(ReactiveDeviceRepository::mapRow)
+                .one();
+    }
+
+    public Flux<Device> findAll() {
+        return databaseClient.sql(SELECT + "ORDER BY id")
+                .map(ReactiveDeviceRepository::mapRow)
+                .all();
+    }
+
+    public Flux<Device> findByPatientId(Long patientId) {
+        return databaseClient.sql(SELECT + "WHERE patient_id = :patientId ORDER BY id")
+                .bind("patientId", patientId)
+                .map(ReactiveDeviceRepository::mapRow)
+                .all();
+    }
+
+    // Activos y archivados del paciente en una sola consulta ordenada por id (un id está solo en una de las tablas)
+    public Flux<Device> findByPatientIdIncludingArchived(Long patientId) {
+        return databaseClient.sql("SELECT * FROM (" + SELECT + "WHERE patient_id = :patientId UNION ALL "
+                        + SELECT_ARCHIVED + "WHERE patient_id = :patientId) d ORDER BY id")
+                .bind("patientId", patientId)
+                .map(ReactiveDeviceRepository::mapRow)
+                .all();
+    }
+
+    // El estado va como literal (es una constante de DeviceStatus): r2dbc-h2 enlaza las cadenas como CLOB y
+    // H2 no las compara con la columna ENUM que genera Hibernate
+    public Flux<Device> findByStatus(DeviceStatus status) {
+        return databaseClient.sql(SELECT + "WHERE status = '" + status.name() + "' ORDER BY id")
+                .map(ReactiveDeviceRepository::mapRow)
+                .all();
+    }
+
+    public Flux<Device> findByModelContaining(String model) {
+        return databaseClient.sql(SELECT + "WHERE model LIKE :pattern ESCAPE '\\' ORDER BY id")
+                .bind("pattern", LikePatterns.containing(model))
+                .map(ReactiveDeviceRepository::mapRow)
+                .all();
+    }
+
+    public Flux<Device> findByManufacturerContaining(String manufacturer) {
+        return databaseClient.sql(SELECT + "WHERE manufacturer LIKE :pattern ESCAPE '\\' ORDER BY id")
+                .bind("pattern", LikePatterns.containing(manufacturer))
+                .map(ReactiveDeviceRepository::mapRow)
+                .all();
+    }
+
+    private static Device mapRow(Readable row) {
+        Device device = new Device();
+        device.setId(row.get("id", Long.class));
+        device.setSerialNo(row.get("serial_no", String.class));
+        device.setModel(row.get("model", String.class));
+        device.setManufacturer(row.get("manufacturer", String.class));
+        String status = row.get("status", String.class);
+        device.setStatus(status != null ? DeviceStatus.valueOf(status) : null);
+        device.setPatientId(row.get("patient_id", Long.class));
+        device.setManufactureDate(row.get("manufacture_date", LocalDate.class));
+        device.setLastMaintenanceDate(row.get("last_maintenance_date", LocalDate.class));
+        device.setMaxBasalRate(row.get("max_basal_rate", Float.class));
+        device.setMaxBolusAmount(row.get("max_bolus_amount", Float.class));
+        device.setReservoirCapacity(row.get("reservoir_capacity", Integer.class));
+        device.setFirmwareVersion(row.get("firmware_version", String.class));
+        device.setBatteryType(row.get("battery_type", String.class));
+        return device;
+    }
+}
@@ -0,0 +1,127 @@
+package com.insulinpump.deviceservice.reactive;
+
+import com.insulinpump.deviceservice.dto.DeviceDetailsDto;
+import com.insulinpump.deviceservice.exception.DeviceNotFoundException;
+import com.insulinpump.deviceservice.exception.InvalidFieldSelectionException;
+import com.insulinpump.deviceservice.fields.FieldSelection;
+import com.insulinpump.deviceservice.fields.SparseDevices;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+// Endpoints de lectura de DeviceController con las mismas rutas, parámetros (fields=, includeArchived) y
+// respuestas. Los listados se escriben según llegan de la base de datos: como array JSON o, con
+// Accept: application/x-ndjson, un dispositivo por línea.
+@Slf4j
+public class ReactiveDeviceRoutes {
+
+    private final ReactiveDeviceService deviceService;
+
+    public ReactiveDeviceRoutes(ReactiveDeviceService deviceService) {
+        this.deviceService = deviceService;
+    }
+
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+                .path("/api/devices", builder -> builder
+                        .GET("", request -> list(request, selection -> deviceService.getAllDevices(selection)))
+                        .GET("/serial/{serialNo}", request -> single(request, selection -> {
+                            String serialNo = request.pathVariable("serialNo");
+                            return includeArchived(request)
+                                    ? deviceService.getDeviceBySerialNoIncludingArchived(serialNo, selection)
+                                    : deviceService.getDeviceBySerialNo(serialNo, selection);
+                        }))
+                        .GET("/patient/{patientId}", request -> list(request, selection -> {
+                            Long patientId = Long.valueOf(request.pathVariable("patientId"));
+                            return includeArchived(request)
+                                    ? deviceService.getDevicesByPatientIdIncludingArchived(patientId, selection)
+                                    : deviceService.getDevicesByPatientId(patientId, selection);
+                        }))
+                        .GET("/status/{status}", request -> list(request, selection ->
+                                deviceService.getDevicesByStatus(DeviceStatus.valueOf(request.pathVariable("status")), selection)))
+                        .GET("/search/model", request -> list(request, selection ->
+                                deviceService.searchDevicesByModel(requiredParam(request, "model"), selection)))
+                        .GET("/search/manufacturer", request -> list(request, selection ->
+                                deviceService.searchDevicesByManufacturer(requiredParam(request, "manufacturer"), selection)))
+                        .GET("/{id}", request -> single(request, selection -> {
+                            Long id = Long.valueOf(request.pathVariable("id"));
+                            return includeArchived(request)
+                                    ? deviceService.getDeviceIncludingArchived(id, selection)
+                                    : deviceService.getDeviceById(id, selection);
+                        })))
+                .onError(e -> true, (e, request) -> handleError(e))
+                .build();
+    }
+
+    private static Mono<ServerResponse> handleError(Throwable e) {
+        if (e instanceof DeviceNotFoundException) {
+            log.error("Device not found: {}", e.getMessage());
+            return error(HttpStatus.NOT_FOUND, "Dispositivo no encontrado", e.getMessage());
+        }
+        if (e instanceof InvalidFieldSelectionException) {
+            log.error("Invalid field selection: {}", e.getMessage());
+            return error(HttpStatus.BAD_REQUEST, "Selección de campos no válida", e.getMessage());
+        }
+        if (e instanceof IllegalArgumentException) {
+            log.error("Invalid request parameter: {}", e.getMessage());
+            return error(HttpStatus.BAD_REQUEST, "Parámetro no válido", e.getMessage());
+        }
+        log.error("Unexpected error: ", e);
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, "Error interno del servidor", "Ha ocurrido un error inesperado");
+    }
+
+    // Las consultas se crean dentro del Mono para que un id, estado o fields= no válido llegue a onError como 400
+    private static Mono<ServerResponse> single(ServerRequest request,
+                                               Function<FieldSelection, Mono<DeviceDetailsDto>> device) {
+        return Mono.fromSupplier(() -> FieldSelection.parse(request.queryParam("fields").orElse(null)))
+                .flatMap(selection -> device.apply(selection)
+                        .flatMap(dto -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue(selection.isAll() ? dto : SparseDevices.of(dto, selection))));
+    }
+
+    // Con fields= cada elemento se escribe con SparseDevices según llega, sin reunir la lista
+    private static Mono<ServerResponse> list(ServerRequest request,
+                                             Function<FieldSelection, Flux<DeviceDetailsDto>> devices) {
+        MediaType contentType = request.headers().accept().contains(MediaType.APPLICATION_NDJSON)
+                ? MediaType.APPLICATION_NDJSON
+                : MediaType.APPLICATION_JSON;
+        return Mono.fromSupplier(() -> FieldSelection.parse(request.queryParam("fields").orElse(null)))
+                .flatMap(selection -> {
+                    Flux<DeviceDetailsDto> flux = devices.apply(selection);
+                    ServerResponse.BodyBuilder response = ServerResponse.ok().contentType(contentType);
+                    return selection.isAll()
+                            ? response.body(flux, DeviceDetailsDto.class)
+                            : response.body(flux.map(dto -> SparseDevices.of(dto, selection)), SparseDevices.class);
+                });
+    }
+
+    private static boolean includeArchived(ServerRequest request) {
+        return request.queryParam("includeArchived").map(Boolean::parseBoolean).orElse(false);
+    }
+
+    private static String requiredParam(ServerRequest request, String name) {
+        return request.queryParam(name)
+                .orElseThrow(() -> new IllegalArgumentException("Falta el parámetro obligatorio '" + name + "'"));
+    }
+
+    private static Mono<ServerResponse> error(HttpStatus status, String error, String message) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", status.value());
+        body.put("error", error);
+        body.put("message", message);
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).bodyValue(body);
+    }
+}
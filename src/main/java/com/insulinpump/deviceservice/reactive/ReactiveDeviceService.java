@@ -0,0 +1,140 @@
+package com.insulinpump.deviceservice.reactive;
+
+import com.insulinpump.deviceservice.dto.DeviceDetailsDto;
+import com.insulinpump.deviceservice.dto.PatientDto;
+import com.insulinpump.deviceservice.exception.DeviceNotFoundException;
+import com.insulinpump.deviceservice.fields.DeviceField;
+import com.insulinpump.deviceservice.fields.FieldSelection;
+import com.insulinpump.deviceservice.mapper.DeviceMapper;
+import com.insulinpump.deviceservice.metrics.DeviceMetrics;
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import com.insulinpump.deviceservice.projection.PatientProjection;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Mismas lecturas que DeviceService sin bloquear ningún hilo. El paciente sale de la proyección local y,
+// si no está, de patient-service con WebClient (cada paciente una sola vez por respuesta). Los listados
+// conservan el orden por id y no piden más filas a la base de datos de las que el cliente va consumiendo.
+@Slf4j
+public class ReactiveDeviceService {
+
+    private final ReactiveDeviceRepository deviceRepository;
+    private final ReactivePatientClient patientClient;
+    private final DeviceMapper deviceMapper;
+    private final DeviceMetrics deviceMetrics;
+    private final PatientProjection patientProjection;
+    private final ReactiveReadProperties properties;
+
+    public ReactiveDeviceService(ReactiveDeviceRepository deviceRepository, ReactivePatientClient patientClient,
+                                 DeviceMapper deviceMapper, DeviceMetrics deviceMetrics,
+                                 PatientProjection patientProjection, ReactiveReadProperties properties) {
+        this.deviceRepository = deviceRepository;
+        this.patientClient = patientClient;
+        this.deviceMapper = deviceMapper;
+        this.deviceMetrics = deviceMetrics;
+        this.patientProjection = patientProjection;
+        this.properties = properties;
+    }
+
+    public Mono<DeviceDetailsDto> getDeviceById(Long id, FieldSelection selection) {
+        log.debug("Obteniendo dispositivo con ID: {} y campos {} (reactivo)", id, selection);
+        return deviceRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new DeviceNotFoundException(id)))
+                .flatMap(device -> toDetailsDto(device, selection, new ConcurrentHashMap<>()));
+    }
+
+    public Mono<DeviceDetailsDto> getDeviceIncludingArchived(Long id, FieldSelection selection) {
+        log.debug("Obteniendo dispositivo con ID: {} (incluidos archivados, reactivo)", id);
+        return deviceRepository.findById(id)
+                .switchIfEmpty(Mono.defer(() -> deviceRepository.findArchivedById(id)))
+                .switchIfEmpty(Mono.error(() -> new DeviceNotFoundException(id)))
+                .flatMap(device -> toDetailsDto(device, selection, new ConcurrentHashMap<>()));
+    }
+
+    public Mono<DeviceDetailsDto> getDeviceBySerialNo(String serialNo, FieldSelection selection) {
+        log.debug("Obteniendo dispositivo con número de serie: {} y campos {} (reactivo)", serialNo, selection);
+        return deviceRepository.findBySerialNo(serialNo)
+                .switchIfEmpty(Mono.error(() -> new DeviceNotFoundException("número de serie", serialNo)))
+                .flatMap(device -> toDetailsDto(device, selection, new ConcurrentHashMap<>()));
+    }
+
+    public Mono<DeviceDetailsDto> getDeviceBySerialNoIncludingArchived(String serialNo, FieldSelection selection) {
+        log.debug("Obteniendo dispositivo con número de serie: {} (incluidos archivados, reactivo)", serialNo);
+        return deviceRepository.findBySerialNo(serialNo)
+                .switchIfEmpty(Mono.defer(() -> deviceRepository.findArchivedBySerialNo(serialNo)))
+                .switchIfEmpty(Mono.error(() -> new DeviceNotFoundException("número de serie", serialNo)))
+                .flatMap(device -> toDetailsDto(device, selection, new ConcurrentHashMap<>()));
+    }
+
+    public Flux<DeviceDetailsDto> getAllDevices(FieldSelection selection) {
+        log.debug("Obteniendo todos los dispositivos con campos {} (reactivo)", selection);
+        return toDetailsDtos(deviceRepository.findAll(), selection);
+    }
+
+    public Flux<DeviceDetailsDto> getDevicesByPatientId(Long patientId, FieldSelection selection) {
+        log.debug("Obteniendo dispositivos del paciente con ID: {} (reactivo)", patientId);
+        return toDetailsDtos(deviceRepository.findByPatientId(patientId), selection);
+    }
+
+    public Flux<DeviceDetailsDto> getDevicesByPatientIdIncludingArchived(Long patientId, FieldSelection selection) {
+        log.debug("Obteniendo dispositivos del paciente con ID: {} (incluidos archivados, reactivo)", patientId);
+        return toDetailsDtos(deviceRepository.findByPatientIdIncludingArchived(patientId), selection);
+    }
+
+    public Flux<DeviceDetailsDto> getDevicesByStatus(DeviceStatus status, FieldSelection selection) {
+        log.debug("Obteniendo dispositivos con estado: {} (reactivo)", status);
+        return toDetailsDtos(deviceRepository.findByStatus(status), selection);
+    }
+
+    public Flux<DeviceDetailsDto> searchDevicesByModel(String model, FieldSelection selection) {
+        log.debug("Buscando dispositivos por modelo: {} (reactivo)", model);
+        return toDetailsDtos(deviceRepository.findByModelContaining(model), selection);
+    }
+
+    public Flux<DeviceDetailsDto> searchDevicesByManufacturer(String manufacturer, FieldSelection selection) {
+        log.debug("Buscando dispositivos por fabricante: {} (reactivo)", manufacturer);
+        return toDetailsDtos(deviceRepository.findByManufacturerContaining(manufacturer), selection);
+    }
+
+    // flatMapSequential: como mucho patients.concurrency consultas a patient-service en vuelo y el
+    // resultado en el orden de la consulta
+    private Flux<DeviceDetailsDto> toDetailsDtos(Flux<Device> devices, FieldSelection selection) {
+        Map<Long, Mono<Optional<PatientDto>>> patients = new ConcurrentHashMap<>();
+        return devices
+                .limitRate(properties.getPrefetch())
+                .flatMapSequential(device -> toDetailsDto(device, selection, patients),
+                        properties.getPatients().getConcurrency(), properties.getPrefetch());
+    }
+
+    // Con fields= sin patient no se consulta ni la proyección ni patient-service
+    private Mono<DeviceDetailsDto> toDetailsDto(Device device, FieldSelection selection,
+                                                Map<Long, Mono<Optional<PatientDto>>> patients) {
+        DeviceDetailsDto dto = deviceMapper.toDetailsDto(device);
+        if (device.getPatientId() == null || !selection.contains(DeviceField.PATIENT)) {
+            return Mono.just(dto);
+        }
+        return patients.computeIfAbsent(device.getPatientId(), this::findPatient)
+                .map(patient -> {
+                    patient.ifPresentOrElse(dto::setPatient, deviceMetrics::patientProjectionMiss);
+                    return dto;
+                });
+    }
+
+    private Mono<Optional<PatientDto>> findPatient(Long patientId) {
+        Optional<PatientDto> projected = patientProjection.find(patientId);
+        if (projected.isPresent()) {
+            return Mono.just(projected);
+        }
+        return patientClient.getPatientById(patientId)
+                .doOnNext(patientProjection::upsert)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .cache();
+    }
+}
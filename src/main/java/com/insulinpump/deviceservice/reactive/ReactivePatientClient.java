@@ -0,0 +1,34 @@
+package com.insulinpump.deviceservice.reactive;
+
+import com.insulinpump.deviceservice.dto.PatientDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+// GET /api/patients/{id} de patient-service sin bloquear. Un paciente que no llega a tiempo o falla se
+// devuelve vacío: el dispositivo sale sin paciente, igual que con un fallo de la proyección.
+@Slf4j
+public class ReactivePatientClient {
+
+    private final WebClient webClient;
+    private final Duration timeout;
+
+    public ReactivePatientClient(WebClient webClient, Duration timeout) {
+        this.webClient = webClient;
+        this.timeout = timeout;
+    }
+
+    public Mono<PatientDto> getPatientById(Long id) {
+        return webClient.get()
+                .uri("/api/patients/{id}", id)
+                .retrieve()
+                .bodyToMono(PatientDto.class)
+                .timeout(timeout)
+                .onErrorResume(e -> {
+                    log.debug("No se ha podido obtener el paciente {}: {}", id, e.toString());
+                    return Mono.empty();
+                });
+    }
+}
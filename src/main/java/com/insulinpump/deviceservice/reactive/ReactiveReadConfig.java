@@ -0,0 +1,97 @@
+package com.insulinpump.deviceservice.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insulinpump.deviceservice.accesslog.AccessLogProperties;
+import com.insulinpump.deviceservice.accesslog.AccessLogWebFilter;
+import com.insulinpump.deviceservice.concurrency.AdaptiveConcurrencyLimiter;
+import com.insulinpump.deviceservice.concurrency.ConcurrencyLimitProperties;
+import com.insulinpump.deviceservice.concurrency.ConcurrencyLimitWebFilter;
+import com.insulinpump.deviceservice.mapper.DeviceMapper;
+import com.insulinpump.deviceservice.metrics.DeviceMetrics;
+import com.insulinpump.deviceservice.projection.PatientProjection;
+import com.insulinpump.deviceservice.ratelimit.RateLimitProperties;
+import com.insulinpump.deviceservice.ratelimit.RateLimitWebFilter;
+import com.insulinpump.deviceservice.ratelimit.RateLimiter;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.reactive.DeferringLoadBalancerExchangeFilterFunction;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+// Con device.reactive.enabled=true las lecturas de dispositivos se sirven también en device.reactive.port
+// con WebFlux, R2DBC y WebClient. El pool R2DBC no es un bean ConnectionFactory para no activar la
+// autoconfiguración R2DBC de Spring Boot junto a JPA (su gestor de transacciones sustituiría al de JPA).
+@Configuration
+@EnableConfigurationProperties(ReactiveReadProperties.class)
+@ConditionalOnProperty(prefix = "device.reactive", name = "enabled", havingValue = "true")
+public class ReactiveReadConfig {
+
+    @Bean
+    public ReactiveReadServer reactiveReadServer(ReactiveReadProperties properties, DeviceMapper deviceMapper,
+                                                 DeviceMetrics deviceMetrics, PatientProjection patientProjection,
+                                                 WebClient.Builder webClientBuilder,
+                                                 ObjectProvider<CodecCustomizer> codecCustomizers,
+                                                 ObjectProvider<DeferringLoadBalancerExchangeFilterFunction<?>> loadBalancer,
+                                                 AccessLogProperties accessLogProperties, RateLimiter rateLimiter,
+                                                 RateLimitProperties rateLimitProperties,
+                                                 AdaptiveConcurrencyLimiter concurrencyLimiter,
+                                                 ConcurrencyLimitProperties concurrencyLimitProperties,
+                                                 ObjectMapper objectMapper, Environment environment) {
+        // R2DBC lee la tabla del DataSource principal; con sharding las filas están repartidas en otras bases
+        if (environment.getProperty("device.sharding.enabled", Boolean.class, false)) {
+            throw new IllegalStateException("device.reactive.enabled no es compatible con device.sharding.enabled");
+        }
+
+        ConnectionPool connectionPool = connectionPool(properties.getR2dbc());
+        ReactiveDeviceService deviceService = new ReactiveDeviceService(
+                new ReactiveDeviceRepository(DatabaseClient.create(connectionPool)),
+                new ReactivePatientClient(patientWebClient(properties.getPatients(), webClientBuilder, loadBalancer),
+                        properties.getPatients().getTimeout()),
+                deviceMapper, deviceMetrics, patientProjection, properties);
+
+        // Mismo ObjectMapper que la API servlet (fechas ISO, módulos registrados). Los filtros, en el mismo orden
+        // que los de la API servlet, comparten limitadores con ella: los límites valen para los dos puertos.
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(configurer -> codecCustomizers.orderedStream().forEach(customizer -> customizer.customize(configurer)))
+                .webFilter(new AccessLogWebFilter(accessLogProperties))
+                .webFilter(new RateLimitWebFilter(rateLimiter, rateLimitProperties, objectMapper))
+                .webFilter(new ConcurrencyLimitWebFilter(concurrencyLimiter, concurrencyLimitProperties, objectMapper))
+                .build();
+        return new ReactiveReadServer(
+                RouterFunctions.toHttpHandler(new ReactiveDeviceRoutes(deviceService).routes(), strategies),
+                connectionPool, properties.getPort());
+    }
+
+    private static ConnectionPool connectionPool(ReactiveReadProperties.R2dbc config) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(config.getUrl()).mutate()
+                .option(ConnectionFactoryOptions.USER, config.getUsername())
+                .option(ConnectionFactoryOptions.PASSWORD, config.getPassword())
+                .build();
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("reactive-reads")
+                .initialSize(config.getInitialSize())
+                .maxSize(config.getMaxSize())
+                .maxIdleTime(config.getMaxIdleTime())
+                .build());
+    }
+
+    private static WebClient patientWebClient(ReactiveReadProperties.Patients config, WebClient.Builder builder,
+                                              ObjectProvider<DeferringLoadBalancerExchangeFilterFunction<?>> loadBalancer) {
+        builder.baseUrl(config.getUrl());
+        if (config.isLoadBalanced()) {
+            builder.filter(loadBalancer.getObject());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.insulinpump.deviceservice.reactive;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "device.reactive")
+public class ReactiveReadProperties {
+
+    private boolean enabled = false;
+    // Puerto propio: la API servlet sigue en server.port
+    private int port = 8092;
+
+    private final R2dbc r2dbc = new R2dbc();
+    private final Patients patients = new Patients();
+
+    // Filas pedidas a R2DBC por cada lote: el resto de la consulta espera a que el cliente consuma
+    private int prefetch = 256;
+
+    @Data
+    public static class R2dbc {
+        private String url = "r2dbc:mysql://localhost:3306/dispositivos";
+        private String username = "root";
+        private String password = "1234";
+        private int initialSize = 4;
+        private int maxSize = 32;
+        private Duration maxIdleTime = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Patients {
+        // Con load-balanced=true el host es el nombre del servicio en Eureka
+        private String url = "http://patient-service";
+        private boolean loadBalanced = true;
+        private Duration timeout = Duration.ofSeconds(2);
+        // Pacientes que faltan en la proyección pedidos a la vez por cada listado
+        private int concurrency = 16;
+    }
+}
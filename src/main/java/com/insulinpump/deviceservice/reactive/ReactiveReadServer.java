@@ -0,0 +1,53 @@
+package com.insulinpump.deviceservice.reactive;
+
+import io.r2dbc.pool.ConnectionPool;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+// Servidor Netty con las rutas de ReactiveDeviceRoutes, junto al Tomcat de la API servlet. Al pararse
+// cierra también el pool R2DBC.
+@Slf4j
+public class ReactiveReadServer implements SmartLifecycle {
+
+    private final HttpHandler httpHandler;
+    private final ConnectionPool connectionPool;
+    private final int port;
+    private volatile DisposableServer server;
+
+    public ReactiveReadServer(HttpHandler httpHandler, ConnectionPool connectionPool, int port) {
+        this.httpHandler = httpHandler;
+        this.connectionPool = connectionPool;
+        this.port = port;
+    }
+
+    @Override
+    public void start() {
+        server = HttpServer.create()
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+        log.info("Lecturas reactivas escuchando en el puerto {}", getPort());
+    }
+
+    @Override
+    public void stop() {
+        if (server != null) {
+            server.disposeNow();
+            server = null;
+        }
+        connectionPool.dispose();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    public int getPort() {
+        return server.port();
+    }
+}
@@ -0,0 +1,30 @@
+package com.insulinpump.deviceservice.repository;
+
+import com.insulinpump.deviceservice.fields.DeviceField;
+import com.insulinpump.deviceservice.model.Device;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+// UPDATE de solo las columnas cambiadas, sin cargar ni gestionar la entidad. Devuelven las filas actualizadas.
+// Si changes incluye STATUS, también se escribe statusChangedAt = changedAt.
+public interface DevicePatchRepository {
+
+    // Las columnas FLOAT se guardan en precisión simple y MySQL las compara en doble con el parámetro: 0.1f no es
+    // igual a 0.1 y la guarda no coincidiría nunca. Los ritmos y bolos se configuran en centésimas, así que una
+    // diferencia menor que esta tolerancia es la misma configuración.
+    float FLOAT_TOLERANCE = 1e-4f;
+
+    // Fila actual leída de la base de datos (no del contexto de persistencia) y bloqueada hasta el final de la
+    // transacción, para actualizarla sin guarda cuando la copia de partida estaba desactualizada
+    Optional<Device> findForUpdate(Long id);
+
+    // current aporta el id (y en modo sharding el número de serie vigente, para el directorio)
+    int updateColumns(Device current, Map<DeviceField, Object> changes, Instant changedAt);
+
+    // Solo actualiza si la fila sigue teniendo los valores de expected (todas las columnas; las FLOAT con
+    // FLOAT_TOLERANCE):
+    // permite partir de una copia en caché sin leer antes la fila. 0 si ha cambiado o no existe.
+    int updateColumnsIfUnchanged(Device expected, Map<DeviceField, Object> changes, Instant changedAt);
+}
@@ -0,0 +1,79 @@
+package com.insulinpump.deviceservice.repository;
+
+import com.insulinpump.deviceservice.fields.DeviceField;
+import com.insulinpump.deviceservice.model.Device;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// CriteriaUpdate con un SET por columna cambiada: Hibernate no carga la entidad ni reescribe la fila entera
+class DevicePatchRepositoryImpl implements DevicePatchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Device> findForUpdate(Long id) {
+        Device device = entityManager.find(Device.class, id);
+        if (device == null) {
+            return Optional.empty();
+        }
+        // Si ya estaba en el contexto de persistencia puede ser anterior a otro UPDATE: se vuelve a leer
+        entityManager.refresh(device, LockModeType.PESSIMISTIC_WRITE);
+        return Optional.of(device);
+    }
+
+    @Override
+    public int updateColumns(Device current, Map<DeviceField, Object> changes, Instant changedAt) {
+        return update(current, changes, changedAt, false);
+    }
+
+    @Override
+    public int updateColumnsIfUnchanged(Device expected, Map<DeviceField, Object> changes, Instant changedAt) {
+        return update(expected, changes, changedAt, true);
+    }
+
+    private int update(Device device, Map<DeviceField, Object> changes, Instant changedAt, boolean guarded) {
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Device> update = cb.createCriteriaUpdate(Device.class);
+        Root<Device> root = update.from(Device.class);
+        changes.forEach((field, value) -> update.set(root.get(field.getAttribute()), value));
+        if (changes.containsKey(DeviceField.STATUS)) {
+            update.set(root.get("statusChangedAt"), changedAt);
+        }
+
+        List<Predicate> where = new ArrayList<>();
+        where.add(cb.equal(root.get("id"), device.getId()));
+        if (guarded) {
+            for (DeviceField field : DeviceField.values()) {
+                if (field != DeviceField.ID) {
+                    Object value = field.valueOf(device);
+                    if (value == null) {
+                        where.add(cb.isNull(root.get(field.getAttribute())));
+                    } else if (value instanceof Float expected) {
+                        Expression<Float> difference = cb.diff(root.<Float>get(field.getAttribute()), expected);
+                        where.add(cb.le(cb.abs(difference), FLOAT_TOLERANCE));
+                    } else {
+                        where.add(cb.equal(root.get(field.getAttribute()), value));
+                    }
+                }
+            }
+        }
+        update.where(where.toArray(Predicate[]::new));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
@@ -1,19 +1,32 @@
 package com.insulinpump.deviceservice.repository;
 
 import com.insulinpump.deviceservice.model.Device;
-import com.insulinpump.deviceservice.model.DeviceStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 
+// Los fragmentos (DeviceSelectionRepository, DevicePatchRepository) se repiten aquí porque Spring Data solo busca
+// sus implementaciones entre las interfaces que el repositorio extiende directamente
 @Repository
-public interface DeviceRepository extends JpaRepository<Device, Long> {
-    Optional<Device> findBySerialNo(String serialNo);
-    List<Device> findByPatientId(Long patientId);
-    List<Device> findByStatus(DeviceStatus status);
-    List<Device> findByModelContaining(String model);
-    List<Device> findByManufacturerContaining(String manufacturer);
-    boolean existsBySerialNo(String serialNo);
-}
\ No newline at end of file
+public interface DeviceRepository extends JpaRepository<Device, Long>, DeviceStore, DeviceSelectionRepository,
+        DevicePatchRepository {
+
+    // Declarados en JpaRepository y en DeviceStore: se redeclaran para que la llamada no sea ambigua.
+    // Spring Data los sigue resolviendo con su implementación base.
+    @Override
+    Optional<Device> findById(Long id);
+
+    @Override
+    List<Device> findAll();
+
+    @Override
+    List<Device> findAllById(Iterable<Long> ids);
+
+    @Override
+    <S extends Device> S save(S device);
+
+    @Override
+    void delete(Device device);
+}
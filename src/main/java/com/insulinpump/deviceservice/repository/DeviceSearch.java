@@ -0,0 +1,27 @@
+package com.insulinpump.deviceservice.repository;
+
+import com.insulinpump.deviceservice.model.DeviceStatus;
+
+// Criterio de los listados de DeviceController; null en todos los campos equivale a toda la flota
+public record DeviceSearch(DeviceStatus status, Long patientId, String modelContaining, String manufacturerContaining) {
+
+    public static DeviceSearch all() {
+        return new DeviceSearch(null, null, null, null);
+    }
+
+    public static DeviceSearch byStatus(DeviceStatus status) {
+        return new DeviceSearch(status, null, null, null);
+    }
+
+    public static DeviceSearch byPatientId(Long patientId) {
+        return new DeviceSearch(null, patientId, null, null);
+    }
+
+    public static DeviceSearch byModel(String model) {
+        return new DeviceSearch(null, null, model, null);
+    }
+
+    public static DeviceSearch byManufacturer(String manufacturer) {
+        return new DeviceSearch(null, null, null, manufacturer);
+    }
+}
@@ -0,0 +1,13 @@
+package com.insulinpump.deviceservice.repository;
+
+import com.insulinpump.deviceservice.fields.FieldSelection;
+import com.insulinpump.deviceservice.model.Device;
+
+import java.util.List;
+
+// Listados que solo leen las columnas pedidas con fields=. Los Device devueltos están incompletos: sirven
+// para construir la respuesta, nunca para guardarlos.
+public interface DeviceSelectionRepository {
+
+    List<Device> findSelected(FieldSelection selection, DeviceSearch search);
+}
@@ -0,0 +1,64 @@
+package com.insulinpump.deviceservice.repository;
+
+import com.insulinpump.deviceservice.fields.DeviceField;
+import com.insulinpump.deviceservice.fields.FieldSelection;
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.util.LikePatterns;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// SELECT con solo las columnas seleccionadas, en tuplas: Hibernate no construye ni gestiona entidades
+class DeviceSelectionRepositoryImpl implements DeviceSelectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Device> findSelected(FieldSelection selection, DeviceSearch search) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Device> device = query.from(Device.class);
+
+        List<DeviceField> fields = List.copyOf(selection.fields());
+        query.multiselect(fields.stream()
+                .<Selection<?>>map(field -> device.get(field.getAttribute()))
+                .toList());
+
+        List<Predicate> where = new ArrayList<>();
+        if (search.status() != null) {
+            where.add(cb.equal(device.get("status"), search.status()));
+        }
+        if (search.patientId() != null) {
+            where.add(cb.equal(device.get("patientId"), search.patientId()));
+        }
+        if (search.modelContaining() != null) {
+            where.add(cb.like(device.get("model"), LikePatterns.containing(search.modelContaining()),
+                    LikePatterns.ESCAPE));
+        }
+        if (search.manufacturerContaining() != null) {
+            where.add(cb.like(device.get("manufacturer"), LikePatterns.containing(search.manufacturerContaining()),
+                    LikePatterns.ESCAPE));
+        }
+        query.where(where.toArray(Predicate[]::new)).orderBy(cb.asc(device.get("id")));
+
+        List<Tuple> rows = entityManager.createQuery(query).getResultList();
+        List<Device> devices = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Device partial = new Device();
+            for (int i = 0; i < fields.size(); i++) {
+                fields.get(i).assign(partial, row.get(i));
+            }
+            devices.add(partial);
+        }
+        return devices;
+    }
+}
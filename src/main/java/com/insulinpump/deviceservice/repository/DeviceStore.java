@@ -0,0 +1,27 @@
+package com.insulinpump.deviceservice.repository;
+
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Operaciones sobre la tabla de dispositivos que usan DeviceService, FleetSnapshot y FacetIndex. La implementan
+// el repositorio JPA (DeviceRepository) y, con device.sharding.enabled=true, ShardedDeviceRepository.
+public interface DeviceStore extends DeviceSelectionRepository, DevicePatchRepository {
+
+    Optional<Device> findById(Long id);
+    Optional<Device> findBySerialNo(String serialNo);
+    List<Device> findAll();
+    List<Device> findAllById(Iterable<Long> ids);
+    List<Device> findBySerialNoIn(Collection<String> serialNos);
+    List<Device> findByPatientId(Long patientId);
+    List<Device> findByStatus(DeviceStatus status);
+    List<Device> findByModelContaining(String model);
+    List<Device> findByManufacturerContaining(String manufacturer);
+    boolean existsBySerialNo(String serialNo);
+
+    <S extends Device> S save(S device);
+    void delete(Device device);
+}
@@ -1,137 +1,335 @@
 package com.insulinpump.deviceservice.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.insulinpump.deviceservice.archive.ArchivedDeviceRepository;
+import com.insulinpump.deviceservice.cache.DeviceCache;
+import com.insulinpump.deviceservice.cache.DeviceResponseCache;
 import com.insulinpump.deviceservice.client.PatientClient;
+import com.insulinpump.deviceservice.dto.BatchLookupResultDto;
 import com.insulinpump.deviceservice.dto.DeviceCreateDto;
 import com.insulinpump.deviceservice.dto.DeviceDetailsDto;
 import com.insulinpump.deviceservice.dto.PatientDto;
+import com.insulinpump.deviceservice.event.DeviceChangeType;
+import com.insulinpump.deviceservice.event.DeviceChangedEvent;
 import com.insulinpump.deviceservice.exception.DeviceAlreadyExistsException;
 import com.insulinpump.deviceservice.exception.DeviceNotFoundException;
+import com.insulinpump.deviceservice.fields.DeviceField;
+import com.insulinpump.deviceservice.fields.FieldSelection;
+import com.insulinpump.deviceservice.mapper.DeviceMapper;
+import com.insulinpump.deviceservice.metrics.DeviceMetrics;
 import com.insulinpump.deviceservice.model.Device;
 import com.insulinpump.deviceservice.model.DeviceStatus;
-import com.insulinpump.deviceservice.repository.DeviceRepository;
+import com.insulinpump.deviceservice.patch.DeviceMergePatch;
+import com.insulinpump.deviceservice.patch.DeviceMergePatchReader;
+import com.insulinpump.deviceservice.projection.PatientProjection;
+import com.insulinpump.deviceservice.repository.DeviceSearch;
+import com.insulinpump.deviceservice.repository.DeviceStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+// Las lecturas por id o número de serie pasan primero por DeviceCache y DeviceResponseCache: van con SUPPORTS para
+// que un acierto no abra transacción ni ocupe una conexión del pool; en un fallo el repositorio usa la suya.
 @Service
 @RequiredArgsConstructor
 @Slf4j
 @Transactional
 public class DeviceService {
 
-    private final DeviceRepository deviceRepository;
+    // Parámetros por consulta IN, por debajo del límite de cualquier base de datos soportada
+    static final int IN_CLAUSE_CHUNK = 500;
+
+    private final DeviceStore deviceRepository;
+    private final ArchivedDeviceRepository archivedDeviceRepository;
     private final PatientClient patientClient;
+    private final DeviceMapper deviceMapper;
+    private final DeviceMetrics deviceMetrics;
+    private final PatientProjection patientProjection;
+    private final DeviceCache deviceCache;
+    private final DeviceResponseCache deviceResponseCache;
+    private final DeviceMergePatchReader deviceMergePatchReader;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<DeviceDetailsDto> getAllDevices() {
-        log.info("Obteniendo todos los dispositivos");
+        log.debug("Obteniendo todos los dispositivos");
         return deviceRepository.findAll().stream()
                 .map(this::convertToDeviceDetailsDto)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public DeviceDetailsDto getDeviceById(Long id) {
-        log.info("Obteniendo dispositivo con ID: {}", id);
-        Device device = deviceRepository.findById(id)
+        log.debug("Obteniendo dispositivo con ID: {}", id);
+        Device device = deviceCache.getById(id, () -> deviceRepository.findById(id))
                 .orElseThrow(() -> new DeviceNotFoundException(id));
         return convertToDeviceDetailsDto(device);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public DeviceDetailsDto getDeviceBySerialNo(String serialNo) {
-        log.info("Obteniendo dispositivo con número de serie: {}", serialNo);
-        Device device = deviceRepository.findBySerialNo(serialNo)
+        log.debug("Obteniendo dispositivo con número de serie: {}", serialNo);
+        Device device = deviceCache.getBySerialNo(serialNo, () -> deviceRepository.findBySerialNo(serialNo))
+                .orElseThrow(() -> new DeviceNotFoundException("número de serie", serialNo));
+        return convertToDeviceDetailsDto(device);
+    }
+
+    // Solo el id, sin convertir el dispositivo ni resolver el paciente
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Long getDeviceIdBySerialNo(String serialNo) {
+        return deviceCache.getBySerialNo(serialNo, () -> deviceRepository.findBySerialNo(serialNo))
+                .map(Device::getId)
+                .orElseThrow(() -> new DeviceNotFoundException("número de serie", serialNo));
+    }
+
+    // Respuestas ya codificadas: en un acierto no se convierte ni se serializa nada
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public DeviceResponseCache.Encoded getEncodedDeviceById(Long id) {
+        log.debug("Obteniendo respuesta codificada del dispositivo con ID: {}", id);
+        return deviceResponseCache.getById(id, () -> render(
+                deviceCache.getById(id, () -> deviceRepository.findById(id))
+                        .orElseThrow(() -> new DeviceNotFoundException(id))));
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public DeviceResponseCache.Encoded getEncodedDeviceBySerialNo(String serialNo) {
+        log.debug("Obteniendo respuesta codificada del dispositivo con número de serie: {}", serialNo);
+        return deviceResponseCache.getBySerialNo(serialNo, () -> render(
+                deviceCache.getBySerialNo(serialNo, () -> deviceRepository.findBySerialNo(serialNo))
+                        .orElseThrow(() -> new DeviceNotFoundException("número de serie", serialNo))));
+    }
+
+    // includeArchived=true: si no está en la tabla activa se busca en el archivo (sin caché, es una consulta
+    // explícita y poco frecuente)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public DeviceDetailsDto getDeviceIncludingArchived(Long id) {
+        log.debug("Obteniendo dispositivo con ID: {} (incluidos archivados)", id);
+        Device device = deviceCache.getById(id, () -> deviceRepository.findById(id))
+                .or(() -> archivedDeviceRepository.findById(id).map(deviceMapper::fromArchive))
+                .orElseThrow(() -> new DeviceNotFoundException(id));
+        return convertToDeviceDetailsDto(device);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public DeviceDetailsDto getDeviceBySerialNoIncludingArchived(String serialNo) {
+        log.debug("Obteniendo dispositivo con número de serie: {} (incluidos archivados)", serialNo);
+        Device device = deviceCache.getBySerialNo(serialNo, () -> deviceRepository.findBySerialNo(serialNo))
+                .or(() -> archivedDeviceRepository.findBySerialNo(serialNo).map(deviceMapper::fromArchive))
                 .orElseThrow(() -> new DeviceNotFoundException("número de serie", serialNo));
         return convertToDeviceDetailsDto(device);
     }
 
+    // Variantes con fields=: los listados solo leen las columnas seleccionadas y el paciente solo se resuelve si
+    // se ha pedido. Los DTO devueltos están incompletos y se serializan con SparseDevices.
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public DeviceDetailsDto getDeviceById(Long id, FieldSelection selection) {
+        log.debug("Obteniendo dispositivo con ID: {} y campos {}", id, selection);
+        Device device = deviceCache.getById(id, () -> deviceRepository.findById(id))
+                .orElseThrow(() -> new DeviceNotFoundException(id));
+        return convertToDeviceDetailsDto(device, selection, new HashMap<>());
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public DeviceDetailsDto getDeviceBySerialNo(String serialNo, FieldSelection selection) {
+        log.debug("Obteniendo dispositivo con número de serie: {} y campos {}", serialNo, selection);
+        Device device = deviceCache.getBySerialNo(serialNo, () -> deviceRepository.findBySerialNo(serialNo))
+                .orElseThrow(() -> new DeviceNotFoundException("número de serie", serialNo));
+        return convertToDeviceDetailsDto(device, selection, new HashMap<>());
+    }
+
+    public List<DeviceDetailsDto> getDevices(DeviceSearch search, FieldSelection selection) {
+        log.debug("Obteniendo dispositivos con {} y campos {}", search, selection);
+        Map<Long, Optional<PatientDto>> patients = new HashMap<>();
+        return deviceRepository.findSelected(selection, search).stream()
+                .map(device -> convertToDeviceDetailsDto(device, selection, patients))
+                .collect(Collectors.toList());
+    }
+
+    // En el orden de los ids pedidos; los que no existen se omiten
+    public List<DeviceDetailsDto> getDevicesByIds(List<Long> ids) {
+        log.debug("Obteniendo {} dispositivos por ID", ids.size());
+        Map<Long, DeviceDetailsDto> devices = findInChunks(ids, deviceRepository::findAllById, Device::getId);
+        return ids.stream()
+                .map(devices::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    public BatchLookupResultDto<Long> lookupDevicesByIds(List<Long> ids) {
+        log.debug("Consultando {} dispositivos por ID", ids.size());
+        return toLookupResult(ids, findInChunks(ids, deviceRepository::findAllById, Device::getId));
+    }
+
+    public BatchLookupResultDto<String> lookupDevicesBySerialNos(List<String> serialNos) {
+        log.debug("Consultando {} dispositivos por número de serie", serialNos.size());
+        return toLookupResult(serialNos,
+                findInChunks(serialNos, deviceRepository::findBySerialNoIn, Device::getSerialNo));
+    }
+
     public List<DeviceDetailsDto> getDevicesByPatientId(Long patientId) {
-        log.info("Obteniendo dispositivos del paciente con ID: {}", patientId);
+        log.debug("Obteniendo dispositivos del paciente con ID: {}", patientId);
         return deviceRepository.findByPatientId(patientId).stream()
                 .map(this::convertToDeviceDetailsDto)
                 .collect(Collectors.toList());
     }
 
+    // Activos y archivados mezclados por id
+    public List<DeviceDetailsDto> getDevicesByPatientIdIncludingArchived(Long patientId) {
+        log.debug("Obteniendo dispositivos del paciente con ID: {} (incluidos archivados)", patientId);
+        List<Device> devices = new ArrayList<>(deviceRepository.findByPatientId(patientId));
+        archivedDeviceRepository.findByPatientIdOrderById(patientId).stream()
+                .map(deviceMapper::fromArchive)
+                .forEach(devices::add);
+        return devices.stream()
+                .sorted(Comparator.comparing(Device::getId))
+                .map(this::convertToDeviceDetailsDto)
+                .collect(Collectors.toList());
+    }
+
     public List<DeviceDetailsDto> getDevicesByStatus(DeviceStatus status) {
-        log.info("Obteniendo dispositivos con estado: {}", status);
+        log.debug("Obteniendo dispositivos con estado: {}", status);
         return deviceRepository.findByStatus(status).stream()
                 .map(this::convertToDeviceDetailsDto)
                 .collect(Collectors.toList());
     }
 
     public List<DeviceDetailsDto> searchDevicesByModel(String model) {
-        log.info("Buscando dispositivos por modelo: {}", model);
+        log.debug("Buscando dispositivos por modelo: {}", model);
         return deviceRepository.findByModelContaining(model).stream()
                 .map(this::convertToDeviceDetailsDto)
                 .collect(Collectors.toList());
     }
 
     public List<DeviceDetailsDto> searchDevicesByManufacturer(String manufacturer) {
-        log.info("Buscando dispositivos por fabricante: {}", manufacturer);
+        log.debug("Buscando dispositivos por fabricante: {}", manufacturer);
         return deviceRepository.findByManufacturerContaining(manufacturer).stream()
                 .map(this::convertToDeviceDetailsDto)
                 .collect(Collectors.toList());
     }
 
     public DeviceDetailsDto createDevice(DeviceCreateDto deviceCreateDto) {
-        log.info("Creando nuevo dispositivo con número de serie: {}", deviceCreateDto.getSerialNo());
+        log.debug("Creando nuevo dispositivo con número de serie: {}", deviceCreateDto.getSerialNo());
 
-        if (deviceRepository.existsBySerialNo(deviceCreateDto.getSerialNo())) {
+        if (serialNoInUse(deviceCreateDto.getSerialNo())) {
             throw new DeviceAlreadyExistsException(deviceCreateDto.getSerialNo());
         }
 
-        Device device = new Device();
-        BeanUtils.copyProperties(deviceCreateDto, device);
+        Device device = deviceMapper.toEntity(deviceCreateDto);
+        device.setStatusChangedAt(Instant.now());
 
         Device savedDevice = deviceRepository.save(device);
-        log.info("Dispositivo creado exitosamente con ID: {}", savedDevice.getId());
+        publishChange(DeviceChangeType.CREATED, null, savedDevice);
+        log.debug("Dispositivo creado exitosamente con ID: {}", savedDevice.getId());
 
         return convertToDeviceDetailsDto(savedDevice);
     }
 
     public DeviceDetailsDto updateDevice(Long id, DeviceCreateDto deviceUpdateDto) {
-        log.info("Actualizando dispositivo con ID: {}", id);
+        log.debug("Actualizando dispositivo con ID: {}", id);
 
         Device existingDevice = deviceRepository.findById(id)
                 .orElseThrow(() -> new DeviceNotFoundException(id));
 
         // Verificar si el número de serie ya existe (excepto para el dispositivo actual)
         if (!existingDevice.getSerialNo().equals(deviceUpdateDto.getSerialNo()) &&
-                deviceRepository.existsBySerialNo(deviceUpdateDto.getSerialNo())) {
+                serialNoInUse(deviceUpdateDto.getSerialNo())) {
             throw new DeviceAlreadyExistsException(deviceUpdateDto.getSerialNo());
         }
 
-        BeanUtils.copyProperties(deviceUpdateDto, existingDevice, "id");
+        Device previous = deviceMapper.copy(existingDevice);
+        deviceMapper.updateEntity(deviceUpdateDto, existingDevice);
+        if (existingDevice.getStatus() != previous.getStatus()) {
+            existingDevice.setStatusChangedAt(Instant.now());
+        }
 
         Device updatedDevice = deviceRepository.save(existingDevice);
-        log.info("Dispositivo actualizado exitosamente con ID: {}", updatedDevice.getId());
+        publishChange(DeviceChangeType.UPDATED, previous, updatedDevice);
+        log.debug("Dispositivo actualizado exitosamente con ID: {}", updatedDevice.getId());
+
+        return convertToDeviceDetailsDto(updatedDevice);
+    }
+
+    // JSON Merge Patch: solo se validan los campos presentes y el UPDATE solo escribe las columnas que cambian.
+    // Se parte de la copia en caché si la hay, con un UPDATE que comprueba que la fila sigue igual; solo si no
+    // coincide se lee la fila actual. Un patch que no cambia nada no escribe ni publica ningún cambio.
+    public DeviceDetailsDto mergePatchDevice(Long id, JsonNode document) {
+        log.debug("Aplicando merge-patch al dispositivo con ID: {}", id);
+        DeviceMergePatch patch = deviceMergePatchReader.read(document);
+
+        Device previous = deviceCache.getById(id, () -> deviceRepository.findById(id))
+                .orElseThrow(() -> new DeviceNotFoundException(id));
+        Map<DeviceField, Object> changes = patch.changesFrom(previous);
+        if (changes.isEmpty()) {
+            return convertToDeviceDetailsDto(previous);
+        }
+        checkSerialNoAvailable(changes);
+
+        Instant changedAt = Instant.now();
+        if (deviceRepository.updateColumnsIfUnchanged(previous, changes, changedAt) == 0) {
+            log.debug("La copia del dispositivo {} estaba desactualizada, se lee la fila actual", id);
+            previous = deviceRepository.findForUpdate(id)
+                    .orElseThrow(() -> new DeviceNotFoundException(id));
+            changes = patch.changesFrom(previous);
+            if (changes.isEmpty()) {
+                return convertToDeviceDetailsDto(previous);
+            }
+            checkSerialNoAvailable(changes);
+            deviceRepository.updateColumns(previous, changes, changedAt);
+        }
+
+        // Copia: la entidad gestionada (si se ha leído) no debe cambiar o Hibernate reescribiría la fila entera
+        Device updatedDevice = deviceMapper.copy(previous);
+        patch.applyTo(updatedDevice);
+        if (changes.containsKey(DeviceField.STATUS)) {
+            updatedDevice.setStatusChangedAt(changedAt);
+        }
+        publishChange(DeviceChangeType.UPDATED, previous, updatedDevice);
+        log.debug("Merge-patch aplicado al dispositivo {}: {}", id, changes.keySet());
 
         return convertToDeviceDetailsDto(updatedDevice);
     }
 
     public DeviceDetailsDto updateDeviceStatus(Long id, DeviceStatus status) {
-        log.info("Actualizando estado del dispositivo con ID: {} a {}", id, status);
+        log.debug("Actualizando estado del dispositivo con ID: {} a {}", id, status);
 
         Device device = deviceRepository.findById(id)
                 .orElseThrow(() -> new DeviceNotFoundException(id));
 
+        Device previous = deviceMapper.copy(device);
+        if (device.getStatus() != status) {
+            device.setStatusChangedAt(Instant.now());
+        }
         device.setStatus(status);
         if (status == DeviceStatus.MAINTENANCE) {
             device.setLastMaintenanceDate(LocalDate.now());
         }
 
         Device updatedDevice = deviceRepository.save(device);
-        log.info("Estado del dispositivo actualizado exitosamente");
+        publishChange(DeviceChangeType.UPDATED, previous, updatedDevice);
+        log.debug("Estado del dispositivo actualizado exitosamente");
 
         return convertToDeviceDetailsDto(updatedDevice);
     }
 
     public DeviceDetailsDto assignDeviceToPatient(Long deviceId, Long patientId) {
-        log.info("Asignando dispositivo {} al paciente {}", deviceId, patientId);
+        log.debug("Asignando dispositivo {} al paciente {}", deviceId, patientId);
 
         Device device = deviceRepository.findById(deviceId)
                 .orElseThrow(() -> new DeviceNotFoundException(deviceId));
@@ -139,37 +337,134 @@ public class DeviceService {
         // Verificar que el paciente existe
         PatientDto patient = patientClient.getPatientById(patientId);
 
+        Device previous = deviceMapper.copy(device);
         device.setPatientId(patientId);
         Device updatedDevice = deviceRepository.save(device);
+        publishChange(DeviceChangeType.UPDATED, previous, updatedDevice);
 
         // Actualizar la asignación en el servicio de pacientes
-        patientClient.assignDeviceToPatient(patientId, deviceId);
+        PatientDto assignedPatient = patientClient.assignDeviceToPatient(patientId, deviceId);
+        patientProjection.upsert(assignedPatient != null ? assignedPatient : patient);
 
-        log.info("Dispositivo asignado exitosamente al paciente");
+        log.debug("Dispositivo asignado exitosamente al paciente");
         return convertToDeviceDetailsDto(updatedDevice);
     }
 
+    // Actualización de firmware por lotes (campañas): solo se modifican los dispositivos que siguen cumpliendo el
+    // criterio al leerlos en esta transacción. Devuelve cuántos se han actualizado.
+    public int updateFirmwareVersion(List<Long> ids, Predicate<Device> eligible, String firmwareVersion) {
+        log.debug("Actualizando firmware de {} dispositivos a {}", ids.size(), firmwareVersion);
+        int updated = 0;
+        for (Device device : deviceRepository.findAllById(ids)) {
+            if (eligible.test(device)) {
+                Device previous = deviceMapper.copy(device);
+                device.setFirmwareVersion(firmwareVersion);
+                publishChange(DeviceChangeType.UPDATED, previous, deviceRepository.save(device));
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    // Un lote del archivado: los dispositivos elegidos quedan bloqueados, se copian al archivo y se borran de la
+    // tabla activa en esta transacción. Cachés e índices lo tratan como un borrado; change-feed y auditoría lo
+    // distinguen (ARCHIVED).
+    public int archiveDevices(Map<DeviceStatus, Instant> retiredBefore, int limit) {
+        List<Device> devices = archivedDeviceRepository.findArchivable(retiredBefore, limit);
+        if (devices.isEmpty()) {
+            return 0;
+        }
+        archivedDeviceRepository.moveToArchive(devices.stream().map(Device::getId).toList(), Instant.now());
+        devices.forEach(device -> publishChange(DeviceChangeType.ARCHIVED, device, null));
+        log.debug("Archivados {} dispositivos", devices.size());
+        return devices.size();
+    }
+
     public void deleteDevice(Long id) {
-        log.info("Eliminando dispositivo con ID: {}", id);
+        log.debug("Eliminando dispositivo con ID: {}", id);
 
         Device device = deviceRepository.findById(id)
                 .orElseThrow(() -> new DeviceNotFoundException(id));
 
         deviceRepository.delete(device);
-        log.info("Dispositivo eliminado exitosamente");
+        publishChange(DeviceChangeType.DELETED, device, null);
+        log.debug("Dispositivo eliminado exitosamente");
+    }
+
+    private void checkSerialNoAvailable(Map<DeviceField, Object> changes) {
+        String serialNo = (String) changes.get(DeviceField.SERIAL_NO);
+        if (serialNo != null && serialNoInUse(serialNo)) {
+            throw new DeviceAlreadyExistsException(serialNo);
+        }
+    }
+
+    // Un dispositivo archivado conserva su número de serie: sigue siendo consultable por él
+    private boolean serialNoInUse(String serialNo) {
+        return deviceRepository.existsBySerialNo(serialNo) || archivedDeviceRepository.existsBySerialNo(serialNo);
+    }
+
+    // Dentro de la transacción: el change-log se escribe con ella y las cachés se invalidan al confirmar
+    private void publishChange(DeviceChangeType type, Device previous, Device current) {
+        eventPublisher.publishEvent(new DeviceChangedEvent(type,
+                previous != null ? deviceMapper.copy(previous) : null,
+                current != null ? deviceMapper.copy(current) : null));
+    }
+
+    // Claves distintas en consultas IN de como mucho IN_CLAUSE_CHUNK parámetros; el paciente de cada
+    // dispositivo se busca una sola vez aunque lo compartan varios
+    private <K> Map<K, DeviceDetailsDto> findInChunks(List<K> keys, Function<List<K>, List<Device>> query,
+                                                      Function<Device, K> keyOf) {
+        List<K> distinct = List.copyOf(new LinkedHashSet<>(keys));
+        Map<K, DeviceDetailsDto> devices = new HashMap<>();
+        Map<Long, Optional<PatientDto>> patients = new HashMap<>();
+        for (int from = 0; from < distinct.size(); from += IN_CLAUSE_CHUNK) {
+            for (Device device : query.apply(distinct.subList(from, Math.min(distinct.size(), from + IN_CLAUSE_CHUNK)))) {
+                DeviceDetailsDto dto = deviceMapper.toDetailsDto(device);
+                if (device.getPatientId() != null) {
+                    patients.computeIfAbsent(device.getPatientId(), patientProjection::find)
+                            .ifPresentOrElse(dto::setPatient, deviceMetrics::patientProjectionMiss);
+                }
+                devices.put(keyOf.apply(device), dto);
+            }
+        }
+        return devices;
+    }
+
+    private static <K> BatchLookupResultDto<K> toLookupResult(List<K> keys, Map<K, DeviceDetailsDto> devices) {
+        List<BatchLookupResultDto.Entry<K>> results = new ArrayList<>(keys.size());
+        Set<K> notFound = new LinkedHashSet<>();
+        for (K key : keys) {
+            DeviceDetailsDto device = devices.get(key);
+            results.add(new BatchLookupResultDto.Entry<>(key, device != null, device));
+            if (device == null) {
+                notFound.add(key);
+            }
+        }
+        return new BatchLookupResultDto<>(results, List.copyOf(notFound));
+    }
+
+    // Cada paciente se busca una sola vez por respuesta, y ninguna si el campo patient no se ha pedido
+    private DeviceDetailsDto convertToDeviceDetailsDto(Device device, FieldSelection selection,
+                                                       Map<Long, Optional<PatientDto>> patients) {
+        DeviceDetailsDto dto = deviceMapper.toDetailsDto(device);
+        if (selection.contains(DeviceField.PATIENT) && device.getPatientId() != null) {
+            patients.computeIfAbsent(device.getPatientId(), patientProjection::find)
+                    .ifPresentOrElse(dto::setPatient, deviceMetrics::patientProjectionMiss);
+        }
+        return dto;
+    }
+
+    private DeviceResponseCache.Rendered render(Device device) {
+        return new DeviceResponseCache.Rendered(convertToDeviceDetailsDto(device), device.getPatientId());
     }
 
     private DeviceDetailsDto convertToDeviceDetailsDto(Device device) {
-        DeviceDetailsDto dto = new DeviceDetailsDto(device);
+        DeviceDetailsDto dto = deviceMapper.toDetailsDto(device);
 
-        // Obtener información del paciente si está asignado
+        // La información del paciente sale de la proyección local, nunca de una llamada remota
         if (device.getPatientId() != null) {
-            try {
-                PatientDto patient = patientClient.getPatientById(device.getPatientId());
-                dto.setPatient(patient);
-            } catch (Exception e) {
-                log.warn("No se pudo obtener información del paciente con ID: {}", device.getPatientId());
-            }
+            patientProjection.find(device.getPatientId())
+                    .ifPresentOrElse(dto::setPatient, deviceMetrics::patientProjectionMiss);
         }
 
         return dto;
@@ -0,0 +1,80 @@
+package com.insulinpump.deviceservice.sharding;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+// Lanza la misma consulta en todos los shards en paralelo y mezcla los resultados, ya ordenados
+// en cada shard, con un merge de k vías que respeta el orden global y corta en el límite pedido
+public class ScatterGather {
+
+    private final ExecutorService executor;
+    private final Duration timeout;
+
+    public ScatterGather(ExecutorService executor, Duration timeout) {
+        this.executor = executor;
+        this.timeout = timeout;
+    }
+
+    public <T> List<T> query(List<Shard> shards, Function<Shard, List<T>> perShard, Comparator<T> order, int limit) {
+        List<CompletableFuture<List<T>>> futures = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> perShard.apply(shard), executor))
+                .toList();
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                    .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Consulta sobre los shards interrumpida", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Los shards no respondieron en " + timeout, e);
+        }
+        return merge(futures.stream().map(CompletableFuture::join).toList(), order, limit);
+    }
+
+    public long sum(List<Shard> shards, Function<Shard, Long> perShard) {
+        return query(shards, shard -> List.of(perShard.apply(shard)), Comparator.<Long>naturalOrder(), Integer.MAX_VALUE)
+                .stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    static <T> List<T> merge(List<List<T>> sortedLists, Comparator<T> order, int limit) {
+        PriorityQueue<Cursor<T>> heads = new PriorityQueue<>(Math.max(1, sortedLists.size()),
+                (a, b) -> order.compare(a.current(), b.current()));
+        int total = 0;
+        for (List<T> list : sortedLists) {
+            if (!list.isEmpty()) {
+                heads.add(new Cursor<>(list, 0));
+                total += list.size();
+            }
+        }
+        List<T> merged = new ArrayList<>(Math.min(total, limit));
+        while (!heads.isEmpty() && merged.size() < limit) {
+            Cursor<T> head = heads.poll();
+            merged.add(head.current());
+            if (head.position() + 1 < head.list().size()) {
+                heads.add(new Cursor<>(head.list(), head.position() + 1));
+            }
+        }
+        return merged;
+    }
+
+    private record Cursor<T>(List<T> list, int position) {
+        T current() {
+            return list.get(position);
+        }
+    }
+}
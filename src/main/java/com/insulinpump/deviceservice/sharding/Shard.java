@@ -0,0 +1,16 @@
+package com.insulinpump.deviceservice.sharding;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+// Un shard: su DataSource y las plantillas JDBC/transaccionales que lo usan
+public record Shard(int index, DataSource dataSource, NamedParameterJdbcTemplate jdbc, TransactionTemplate tx) {
+
+    public static Shard of(int index, DataSource dataSource) {
+        return new Shard(index, dataSource, new NamedParameterJdbcTemplate(dataSource),
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+    }
+}
@@ -0,0 +1,46 @@
+package com.insulinpump.deviceservice.sharding;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+import java.util.List;
+
+// Asignación hi/lo de ids: cada réplica reserva bloques en la tabla secuencia_dispositivos del shard,
+// de modo que varias instancias no colisionan y no hace falta un viaje a la base de datos por inserción
+public class ShardIdAllocator {
+
+    private final List<Shard> shards;
+    private final int blockSize;
+    private final long[] next;
+    private final long[] limit;
+
+    public ShardIdAllocator(List<Shard> shards, int blockSize) {
+        this.shards = shards;
+        this.blockSize = blockSize;
+        this.next = new long[shards.size()];
+        this.limit = new long[shards.size()];
+    }
+
+    public long nextId(int shardIndex) {
+        synchronized (shards.get(shardIndex)) {
+            if (next[shardIndex] >= limit[shardIndex]) {
+                long end = reserveBlock(shards.get(shardIndex));
+                next[shardIndex] = end - blockSize;
+                limit[shardIndex] = end;
+            }
+            return next[shardIndex]++;
+        }
+    }
+
+    private long reserveBlock(Shard shard) {
+        MapSqlParameterSource params = new MapSqlParameterSource("block", blockSize);
+        Long end = shard.tx().execute(status -> {
+            shard.jdbc().update("UPDATE secuencia_dispositivos SET siguiente = siguiente + :block WHERE id = 1", params);
+            return shard.jdbc().queryForObject("SELECT siguiente FROM secuencia_dispositivos WHERE id = 1",
+                    params, Long.class);
+        });
+        if (end == null) {
+            throw new IllegalStateException("El shard " + shard.index() + " no tiene secuencia de ids");
+        }
+        return end;
+    }
+}
@@ -0,0 +1,50 @@
+package com.insulinpump.deviceservice.sharding;
+
+import java.util.Optional;
+
+// Decide el shard de cada dispositivo. Los nuevos se colocan por hash del número de serie (clave de shard);
+// los ids se reparten por rangos, así que buscar por id no necesita directorio. Como las búsquedas por serie
+// pasan por el directorio y las de id por el rango, añadir shards solo cambia dónde caen los nuevos.
+public class ShardRouter {
+
+    private final int shardCount;
+    private final long idRangeSize;
+
+    public ShardRouter(int shardCount, long idRangeSize) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Se necesita al menos un shard");
+        }
+        this.shardCount = shardCount;
+        this.idRangeSize = idRangeSize;
+    }
+
+    public int shardForSerialNo(String serialNo) {
+        return Math.floorMod(mix(serialNo.hashCode()), shardCount);
+    }
+
+    // Vacío si el id queda fuera de los rangos: ningún dispositivo puede tenerlo
+    public Optional<Integer> shardOfId(long id) {
+        if (id < 1 || (id - 1) / idRangeSize >= shardCount) {
+            return Optional.empty();
+        }
+        return Optional.of((int) ((id - 1) / idRangeSize));
+    }
+
+    public long firstIdOf(int shard) {
+        return shard * idRangeSize + 1;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    // Finalizador de MurmurHash3: reparte bien series consecutivas (LT-00000001, LT-00000002...)
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
@@ -0,0 +1,30 @@
+package com.insulinpump.deviceservice.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.List;
+
+// Crea las tablas de cada shard y arranca su secuencia al principio de su rango de ids
+@Slf4j
+public final class ShardSchemaInitializer {
+
+    private ShardSchemaInitializer() {
+    }
+
+    public static void initialize(List<Shard> shards, ShardRouter router) {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("sharding/schema.sql"));
+        for (Shard shard : shards) {
+            populator.execute(shard.dataSource());
+            MapSqlParameterSource params = new MapSqlParameterSource("first", router.firstIdOf(shard.index()));
+            Integer sequences = shard.jdbc().queryForObject(
+                    "SELECT COUNT(*) FROM secuencia_dispositivos WHERE id = 1", params, Integer.class);
+            if (sequences == null || sequences == 0) {
+                shard.jdbc().update("INSERT INTO secuencia_dispositivos (id, siguiente) VALUES (1, :first)", params);
+            }
+            log.info("Esquema del shard {} inicializado", shard.index());
+        }
+    }
+}
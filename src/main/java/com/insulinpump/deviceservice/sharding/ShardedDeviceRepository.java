@@ -0,0 +1,440 @@
+package com.insulinpump.deviceservice.sharding;
+
+import com.insulinpump.deviceservice.fields.DeviceField;
+import com.insulinpump.deviceservice.fields.FieldSelection;
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import com.insulinpump.deviceservice.repository.DeviceSearch;
+import com.insulinpump.deviceservice.repository.DeviceStore;
+import com.insulinpump.deviceservice.util.LikePatterns;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+// DeviceStore repartido entre varias bases de datos. Lecturas por id y por número de serie van a un
+// único shard (rango de id / directorio); listados y búsquedas se lanzan en todos los shards a la vez y se
+// mezclan ordenados por id. Las escrituras que tocan directorio y shard no son atómicas entre ambos: el
+// directorio se reserva primero (garantiza la unicidad global del serie) y se compensa si falla el shard.
+// Un id fuera de los rangos de los shards se trata como un dispositivo que no existe.
+public class ShardedDeviceRepository implements DeviceStore {
+
+    private static final Comparator<Device> BY_ID = Comparator.comparing(Device::getId);
+    private static final String COLUMNS = "id, serial_no, model, manufacturer, status, patient_id, manufacture_date, "
+            + "last_maintenance_date, max_basal_rate, max_bolus_amount, reservoir_capacity, firmware_version, battery_type";
+    private static final String SELECT = "SELECT " + COLUMNS + " FROM dispositivos ";
+    private static final RowMapper<Device> ROW_MAPPER = ShardedDeviceRepository::mapRow;
+
+    private final List<Shard> shards;
+    private final Shard directory;
+    private final ShardRouter router;
+    private final ShardIdAllocator idAllocator;
+    private final ScatterGather scatterGather;
+
+    public ShardedDeviceRepository(List<Shard> shards, ShardRouter router, ShardIdAllocator idAllocator,
+                                   ScatterGather scatterGather) {
+        this.shards = shards;
+        this.directory = shards.get(0);
+        this.router = router;
+        this.idAllocator = idAllocator;
+        this.scatterGather = scatterGather;
+    }
+
+    // --- Lecturas dirigidas a un shard ---
+
+    @Override
+    public Optional<Device> findById(Long id) {
+        return shardOfId(id).flatMap(shard -> queryOne(shard, SELECT + "WHERE id = :id",
+                new MapSqlParameterSource("id", id)));
+    }
+
+    public boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+
+    @Override
+    public Optional<Device> findBySerialNo(String serialNo) {
+        return shardOfSerialNo(serialNo)
+                .flatMap(shard -> queryOne(shards.get(shard), SELECT + "WHERE serial_no = :serialNo",
+                        new MapSqlParameterSource("serialNo", serialNo)));
+    }
+
+    @Override
+    public boolean existsBySerialNo(String serialNo) {
+        return shardOfSerialNo(serialNo).isPresent();
+    }
+
+    // --- Listados y búsquedas: scatter-gather ordenado por id ---
+
+    @Override
+    public List<Device> findAll() {
+        return scatter(SELECT + "ORDER BY id", new MapSqlParameterSource());
+    }
+
+    // Un IN por shard con los ids que le corresponden, en paralelo. Los ids fuera de los rangos se omiten: quedan
+    // como no encontrados igual que los que no existen
+    @Override
+    public List<Device> findAllById(Iterable<Long> ids) {
+        Map<Integer, List<Long>> idsByShard = new HashMap<>();
+        ids.forEach(id -> router.shardOfId(id)
+                .ifPresent(shardIndex -> idsByShard.computeIfAbsent(shardIndex, shard -> new ArrayList<>()).add(id)));
+        return inShards(idsByShard, "id", "ids");
+    }
+
+    // El directorio resuelve el shard de todos los números de serie en una sola consulta
+    @Override
+    public List<Device> findBySerialNoIn(Collection<String> serialNos) {
+        if (serialNos.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, List<String>> serialNosByShard = new HashMap<>();
+        directory.jdbc().query("SELECT serial_no, shard FROM directorio_dispositivos WHERE serial_no IN (:serialNos)",
+                new MapSqlParameterSource("serialNos", serialNos),
+                rs -> {
+                    serialNosByShard.computeIfAbsent(rs.getInt("shard"), shard -> new ArrayList<>())
+                            .add(rs.getString("serial_no"));
+                });
+        return inShards(serialNosByShard, "serial_no", "serialNos");
+    }
+
+    @Override
+    public List<Device> findByPatientId(Long patientId) {
+        return scatter(SELECT + "WHERE patient_id = :patientId ORDER BY id",
+                new MapSqlParameterSource("patientId", patientId));
+    }
+
+    @Override
+    public List<Device> findByStatus(DeviceStatus status) {
+        return scatter(SELECT + "WHERE status = :status ORDER BY id",
+                new MapSqlParameterSource("status", status.name()));
+    }
+
+    @Override
+    public List<Device> findByModelContaining(String model) {
+        return scatter(SELECT + "WHERE model LIKE :pattern ESCAPE '\\' ORDER BY id",
+                new MapSqlParameterSource("pattern", LikePatterns.containing(model)));
+    }
+
+    @Override
+    public List<Device> findByManufacturerContaining(String manufacturer) {
+        return scatter(SELECT + "WHERE manufacturer LIKE :pattern ESCAPE '\\' ORDER BY id",
+                new MapSqlParameterSource("pattern", LikePatterns.containing(manufacturer)));
+    }
+
+    // Solo las columnas pedidas con fields=, en todos los shards
+    @Override
+    public List<Device> findSelected(FieldSelection selection, DeviceSearch search) {
+        List<String> where = new ArrayList<>();
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (search.status() != null) {
+            where.add("status = :status");
+            params.addValue("status", search.status().name());
+        }
+        if (search.patientId() != null) {
+            where.add("patient_id = :patientId");
+            params.addValue("patientId", search.patientId());
+        }
+        if (search.modelContaining() != null) {
+            where.add("model LIKE :model ESCAPE '\\'");
+            params.addValue("model", LikePatterns.containing(search.modelContaining()));
+        }
+        if (search.manufacturerContaining() != null) {
+            where.add("manufacturer LIKE :manufacturer ESCAPE '\\'");
+            params.addValue("manufacturer", LikePatterns.containing(search.manufacturerContaining()));
+        }
+        String sql = "SELECT " + selection.fields().stream().map(DeviceField::getColumn).collect(Collectors.joining(", "))
+                + " FROM dispositivos " + (where.isEmpty() ? "" : "WHERE " + String.join(" AND ", where) + " ")
+                + "ORDER BY id";
+        RowMapper<Device> rowMapper = (rs, rowNum) -> mapSelected(rs, selection);
+        return scatterGather.query(shards, shard -> shard.jdbc().query(sql, params, rowMapper), BY_ID, Integer.MAX_VALUE);
+    }
+
+    // Paginación por keyset: cada shard devuelve como mucho `limit` filas tras el cursor y se mezclan;
+    // el id del último elemento es el cursor de la página siguiente
+    public List<Device> findAllAfter(long afterId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("afterId", afterId).addValue("limit", limit);
+        return scatterGather.query(shards,
+                shard -> shard.jdbc().query(SELECT + "WHERE id > :afterId ORDER BY id LIMIT :limit", params, ROW_MAPPER),
+                BY_ID, limit);
+    }
+
+    public long count() {
+        return scatterGather.sum(shards,
+                shard -> shard.jdbc().queryForObject("SELECT COUNT(*) FROM dispositivos",
+                        new MapSqlParameterSource(), Long.class));
+    }
+
+    // --- Escrituras ---
+
+    @Override
+    public <S extends Device> S save(S device) {
+        if (device.getId() == null) {
+            insert(device);
+        } else {
+            update(device);
+        }
+        return device;
+    }
+
+    @Override
+    public void delete(Device device) {
+        deleteById(device.getId());
+    }
+
+    public void deleteById(Long id) {
+        shardOfId(id).ifPresent(shard -> findById(id).ifPresent(device -> {
+            shard.jdbc().update("DELETE FROM dispositivos WHERE id = :id", new MapSqlParameterSource("id", id));
+            releaseSerialNo(device.getSerialNo());
+        }));
+    }
+
+    private void insert(Device device) {
+        int shardIndex = router.shardForSerialNo(device.getSerialNo());
+        claimSerialNo(device.getSerialNo(), shardIndex);
+        try {
+            device.setId(idAllocator.nextId(shardIndex));
+            shards.get(shardIndex).jdbc().update("INSERT INTO dispositivos (" + COLUMNS + ") VALUES (:id, :serialNo, "
+                    + ":model, :manufacturer, :status, :patientId, :manufactureDate, :lastMaintenanceDate, "
+                    + ":maxBasalRate, :maxBolusAmount, :reservoirCapacity, :firmwareVersion, :batteryType)",
+                    parameters(device));
+        } catch (RuntimeException e) {
+            device.setId(null);
+            releaseSerialNo(device.getSerialNo());
+            throw e;
+        }
+    }
+
+    private void update(Device device) {
+        Shard shard = shardOfId(device.getId()).orElseThrow(() -> new DataIntegrityViolationException(
+                "El dispositivo " + device.getId() + " no pertenece a ningún shard"));
+        String previousSerialNo = queryOne(shard, SELECT + "WHERE id = :id", new MapSqlParameterSource("id", device.getId()))
+                .map(Device::getSerialNo)
+                .orElseThrow(() -> new DataIntegrityViolationException(
+                        "El dispositivo " + device.getId() + " no existe en el shard " + shard.index()));
+
+        // El dispositivo no cambia de shard aunque cambie su número de serie: el directorio apunta al actual
+        boolean serialChanged = !previousSerialNo.equals(device.getSerialNo());
+        if (serialChanged) {
+            claimSerialNo(device.getSerialNo(), shard.index());
+        }
+        try {
+            shard.jdbc().update("UPDATE dispositivos SET serial_no = :serialNo, model = :model, "
+                    + "manufacturer = :manufacturer, status = :status, patient_id = :patientId, "
+                    + "manufacture_date = :manufactureDate, last_maintenance_date = :lastMaintenanceDate, "
+                    + "max_basal_rate = :maxBasalRate, max_bolus_amount = :maxBolusAmount, "
+                    + "reservoir_capacity = :reservoirCapacity, firmware_version = :firmwareVersion, "
+                    + "battery_type = :batteryType WHERE id = :id", parameters(device));
+        } catch (RuntimeException e) {
+            if (serialChanged) {
+                releaseSerialNo(device.getSerialNo());
+            }
+            throw e;
+        }
+        if (serialChanged) {
+            releaseSerialNo(previousSerialNo);
+        }
+    }
+
+    // Merge-patch: solo las columnas cambiadas, sin leer antes la fila. Un cambio de número de serie se reserva
+    // en el directorio igual que en update(). Los shards no guardan statusChangedAt (no hay archivado con sharding).
+    // Sin contexto de persistencia, la lectura normal ya devuelve la fila actual
+    @Override
+    public Optional<Device> findForUpdate(Long id) {
+        return findById(id);
+    }
+
+    @Override
+    public int updateColumns(Device current, Map<DeviceField, Object> changes, Instant changedAt) {
+        return patch(current, changes, false);
+    }
+
+    @Override
+    public int updateColumnsIfUnchanged(Device expected, Map<DeviceField, Object> changes, Instant changedAt) {
+        return patch(expected, changes, true);
+    }
+
+    private int patch(Device device, Map<DeviceField, Object> changes, boolean guarded) {
+        Optional<Shard> target = shardOfId(device.getId());
+        if (changes.isEmpty() || target.isEmpty()) {
+            return 0;
+        }
+        Shard shard = target.get();
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = patchSql(device, changes, guarded, params);
+
+        String serialNo = (String) changes.get(DeviceField.SERIAL_NO);
+        boolean serialChanged = serialNo != null && !serialNo.equals(device.getSerialNo());
+        if (serialChanged) {
+            claimSerialNo(serialNo, shard.index());
+        }
+        int updated;
+        try {
+            updated = shard.jdbc().update(sql, params);
+        } catch (RuntimeException e) {
+            if (serialChanged) {
+                releaseSerialNo(serialNo);
+            }
+            throw e;
+        }
+        if (serialChanged) {
+            releaseSerialNo(updated > 0 ? device.getSerialNo() : serialNo);
+        }
+        return updated;
+    }
+
+    static String patchSql(Device device, Map<DeviceField, Object> changes, boolean guarded,
+                           MapSqlParameterSource params) {
+        List<String> set = new ArrayList<>();
+        changes.forEach((field, value) -> {
+            set.add(field.getColumn() + " = :" + field.getAttribute());
+            params.addValue(field.getAttribute(), columnValue(value));
+        });
+        List<String> where = new ArrayList<>(List.of("id = :id"));
+        params.addValue("id", device.getId());
+        if (guarded) {
+            for (DeviceField field : DeviceField.values()) {
+                if (field == DeviceField.ID) {
+                    continue;
+                }
+                Object value = field.valueOf(device);
+                if (value == null) {
+                    where.add(field.getColumn() + " IS NULL");
+                } else if (value instanceof Float) {
+                    where.add("ABS(" + field.getColumn() + " - :expected_" + field.getAttribute() + ") <= :floatTolerance");
+                    params.addValue("expected_" + field.getAttribute(), value);
+                    params.addValue("floatTolerance", FLOAT_TOLERANCE);
+                } else {
+                    where.add(field.getColumn() + " = :expected_" + field.getAttribute());
+                    params.addValue("expected_" + field.getAttribute(), columnValue(value));
+                }
+            }
+        }
+        return "UPDATE dispositivos SET " + String.join(", ", set) + " WHERE " + String.join(" AND ", where);
+    }
+
+    private static Object columnValue(Object value) {
+        return value instanceof DeviceStatus status ? status.name() : value;
+    }
+
+    // --- Directorio global serie -> shard ---
+
+    private Optional<Integer> shardOfSerialNo(String serialNo) {
+        List<Integer> shard = directory.jdbc().queryForList(
+                "SELECT shard FROM directorio_dispositivos WHERE serial_no = :serialNo",
+                new MapSqlParameterSource("serialNo", serialNo), Integer.class);
+        return shard.stream().findFirst();
+    }
+
+    private void claimSerialNo(String serialNo, int shardIndex) {
+        try {
+            directory.jdbc().update("INSERT INTO directorio_dispositivos (serial_no, shard) VALUES (:serialNo, :shard)",
+                    new MapSqlParameterSource("serialNo", serialNo).addValue("shard", shardIndex));
+        } catch (DuplicateKeyException e) {
+            throw new DataIntegrityViolationException("El número de serie " + serialNo + " ya existe", e);
+        }
+    }
+
+    private void releaseSerialNo(String serialNo) {
+        directory.jdbc().update("DELETE FROM directorio_dispositivos WHERE serial_no = :serialNo",
+                new MapSqlParameterSource("serialNo", serialNo));
+    }
+
+    // --- Utilidades ---
+
+    private Optional<Shard> shardOfId(Long id) {
+        return router.shardOfId(id).map(shards::get);
+    }
+
+    private <K> List<Device> inShards(Map<Integer, List<K>> keysByShard, String column, String parameter) {
+        if (keysByShard.isEmpty()) {
+            return List.of();
+        }
+        List<Shard> targets = keysByShard.keySet().stream().sorted().map(shards::get).toList();
+        return scatterGather.query(targets,
+                shard -> shard.jdbc().query(SELECT + "WHERE " + column + " IN (:" + parameter + ") ORDER BY id",
+                        new MapSqlParameterSource(parameter, keysByShard.get(shard.index())), ROW_MAPPER),
+                BY_ID, Integer.MAX_VALUE);
+    }
+
+    private List<Device> scatter(String sql, MapSqlParameterSource params) {
+        return scatterGather.query(shards, shard -> shard.jdbc().query(sql, params, ROW_MAPPER), BY_ID, Integer.MAX_VALUE);
+    }
+
+    private static Optional<Device> queryOne(Shard shard, String sql, MapSqlParameterSource params) {
+        return shard.jdbc().query(sql, params, ROW_MAPPER).stream().findFirst();
+    }
+
+    private static MapSqlParameterSource parameters(Device device) {
+        return new MapSqlParameterSource()
+                .addValue("id", device.getId())
+                .addValue("serialNo", device.getSerialNo())
+                .addValue("model", device.getModel())
+                .addValue("manufacturer", device.getManufacturer())
+                .addValue("status", device.getStatus() != null ? device.getStatus().name() : null)
+                .addValue("patientId", device.getPatientId())
+                .addValue("manufactureDate", device.getManufactureDate())
+                .addValue("lastMaintenanceDate", device.getLastMaintenanceDate())
+                .addValue("maxBasalRate", device.getMaxBasalRate())
+                .addValue("maxBolusAmount", device.getMaxBolusAmount())
+                .addValue("reservoirCapacity", device.getReservoirCapacity())
+                .addValue("firmwareVersion", device.getFirmwareVersion())
+                .addValue("batteryType", device.getBatteryType());
+    }
+
+    private static Device mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Device device = new Device();
+        device.setId(rs.getLong("id"));
+        device.setSerialNo(rs.getString("serial_no"));
+        device.setModel(rs.getString("model"));
+        device.setManufacturer(rs.getString("manufacturer"));
+        String status = rs.getString("status");
+        device.setStatus(status != null ? DeviceStatus.valueOf(status) : null);
+        device.setPatientId(rs.getObject("patient_id", Long.class));
+        device.setManufactureDate(toLocalDate(rs.getDate("manufacture_date")));
+        device.setLastMaintenanceDate(toLocalDate(rs.getDate("last_maintenance_date")));
+        device.setMaxBasalRate(rs.getObject("max_basal_rate", Float.class));
+        device.setMaxBolusAmount(rs.getObject("max_bolus_amount", Float.class));
+        device.setReservoirCapacity(rs.getObject("reservoir_capacity", Integer.class));
+        device.setFirmwareVersion(rs.getString("firmware_version"));
+        device.setBatteryType(rs.getString("battery_type"));
+        return device;
+    }
+
+    private static Device mapSelected(ResultSet rs, FieldSelection selection) throws SQLException {
+        Device device = new Device();
+        for (DeviceField field : selection.fields()) {
+            String column = field.getColumn();
+            Object value = switch (field) {
+                case ID, PATIENT -> rs.getObject(column, Long.class);
+                case STATUS -> {
+                    String status = rs.getString(column);
+                    yield status != null ? DeviceStatus.valueOf(status) : null;
+                }
+                case MANUFACTURE_DATE, LAST_MAINTENANCE_DATE -> toLocalDate(rs.getDate(column));
+                case MAX_BASAL_RATE, MAX_BOLUS_AMOUNT -> rs.getObject(column, Float.class);
+                case RESERVOIR_CAPACITY -> rs.getObject(column, Integer.class);
+                default -> rs.getString(column);
+            };
+            field.assign(device, value);
+        }
+        return device;
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date != null ? date.toLocalDate() : null;
+    }
+}
@@ -0,0 +1,66 @@
+package com.insulinpump.deviceservice.sharding;
+
+import com.insulinpump.deviceservice.repository.DeviceStore;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Con device.sharding.enabled=true, DeviceService, FleetSnapshot y FacetIndex pasan a usar
+// ShardedDeviceRepository como DeviceStore en lugar del repositorio JPA. Los pools de cada shard no son beans DataSource para no interferir con el DataSource
+// principal de Spring Boot, que sigue sirviendo a JPA y al resto de tablas.
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@ConditionalOnProperty(prefix = "device.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ShardCluster shardCluster(ShardingProperties properties) {
+        List<Shard> shards = new ArrayList<>();
+        for (int i = 0; i < properties.getShards().size(); i++) {
+            ShardingProperties.Shard config = properties.getShards().get(i);
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("shard-" + i);
+            dataSource.setJdbcUrl(config.getUrl());
+            dataSource.setUsername(config.getUsername());
+            dataSource.setPassword(config.getPassword());
+            dataSource.setMaximumPoolSize(config.getMaximumPoolSize());
+            shards.add(Shard.of(i, dataSource));
+        }
+        ShardCluster cluster = new ShardCluster(List.copyOf(shards),
+                new ShardRouter(shards.size(), properties.getIdRangeSize()));
+        if (properties.isInitializeSchema()) {
+            ShardSchemaInitializer.initialize(cluster.shards(), cluster.router());
+        }
+        return cluster;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ExecutorService shardQueryExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @Bean
+    @Primary
+    public DeviceStore shardedDeviceRepository(ShardCluster shardCluster, ShardingProperties properties,
+                                               ExecutorService shardQueryExecutor) {
+        return new ShardedDeviceRepository(shardCluster.shards(), shardCluster.router(),
+                new ShardIdAllocator(shardCluster.shards(), properties.getIdBlockSize()),
+                new ScatterGather(shardQueryExecutor, properties.getQueryTimeout()));
+    }
+
+    // Shards configurados y su enrutador; cierra los pools al parar el contexto
+    public record ShardCluster(List<Shard> shards, ShardRouter router) implements AutoCloseable {
+        @Override
+        public void close() {
+            shards.forEach(shard -> ((HikariDataSource) shard.dataSource()).close());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.insulinpump.deviceservice.sharding;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "device.sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+    // Una entrada por shard, en orden; el shard 0 aloja además el directorio global de números de serie
+    private List<Shard> shards = new ArrayList<>();
+    // Cada shard asigna ids en su propio rango [i * idRangeSize + 1, (i + 1) * idRangeSize]
+    private long idRangeSize = 1_000_000_000_000L;
+    // Ids reservados de una vez en la secuencia del shard
+    private int idBlockSize = 50;
+    // Tiempo máximo de una consulta scatter-gather sobre todos los shards
+    private Duration queryTimeout = Duration.ofSeconds(10);
+    // Crea las tablas en los shards al arrancar (entornos de prueba)
+    private boolean initializeSchema = false;
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,163 @@
+package com.insulinpump.deviceservice.snapshot;
+
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+
+// Generación inmutable de la instantánea de la flota: una columna de tipo primitivo por campo, ordenada por id.
+// Los nulos se codifican con centinelas (NO_PATIENT, NO_DATE, NaN, NO_VALUE, NULL_CODE) en lugar de objetos.
+// Cada lote de escrituras produce una generación nueva (copy-on-write): los lectores nunca bloquean ni ven filas
+// a medias.
+final class FleetColumns {
+
+    static final long NO_PATIENT = Long.MIN_VALUE;
+    static final int NO_DATE = Integer.MIN_VALUE;
+    static final int NO_VALUE = Integer.MIN_VALUE;
+    static final byte NO_STATUS = -1;
+
+    private static final DeviceStatus[] STATUSES = DeviceStatus.values();
+
+    final int size;
+    final long[] ids;
+    final String[] serialNos;
+    final char[] models;
+    final char[] manufacturers;
+    final byte[] statuses;
+    final long[] patientIds;
+    final int[] manufactureDates;
+    final int[] lastMaintenanceDates;
+    final float[] maxBasalRates;
+    final float[] maxBolusAmounts;
+    final int[] reservoirCapacities;
+    final char[] firmwareVersions;
+    final char[] batteryTypes;
+    final StringDictionary dictionary;
+
+    private FleetColumns(int size, StringDictionary dictionary) {
+        this.size = size;
+        this.dictionary = dictionary;
+        ids = new long[size];
+        serialNos = new String[size];
+        models = new char[size];
+        manufacturers = new char[size];
+        statuses = new byte[size];
+        patientIds = new long[size];
+        manufactureDates = new int[size];
+        lastMaintenanceDates = new int[size];
+        maxBasalRates = new float[size];
+        maxBolusAmounts = new float[size];
+        reservoirCapacities = new int[size];
+        firmwareVersions = new char[size];
+        batteryTypes = new char[size];
+    }
+
+    // Carga completa: diccionario nuevo, así que los valores que ya no usa ningún dispositivo desaparecen
+    static FleetColumns of(Collection<Device> devices) {
+        Device[] sorted = devices.stream()
+                .filter(device -> device.getId() != null)
+                .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+                .toArray(Device[]::new);
+        FleetColumns columns = new FleetColumns(sorted.length, new StringDictionary());
+        for (int row = 0; row < sorted.length; row++) {
+            columns.set(row, sorted[row]);
+        }
+        return columns;
+    }
+
+    // Generación con un lote de cambios aplicado en una sola pasada: id -> dispositivo nuevo, o null si se ha
+    // borrado. Las filas entre cambios se copian por tramos, así que el coste es O(flota) por lote, no por cambio.
+    FleetColumns apply(NavigableMap<Long, Device> changes) {
+        int nextSize = size;
+        for (Map.Entry<Long, Device> change : changes.entrySet()) {
+            boolean present = indexOf(change.getKey()) >= 0;
+            if (present && change.getValue() == null) {
+                nextSize--;
+            } else if (!present && change.getValue() != null) {
+                nextSize++;
+            }
+        }
+        FleetColumns next = new FleetColumns(nextSize, dictionary);
+        int from = 0;
+        int to = 0;
+        for (Map.Entry<Long, Device> change : changes.entrySet()) {
+            int row = indexOf(change.getKey());
+            int insertAt = row >= 0 ? row : -row - 1;
+            next.copyRows(this, from, to, insertAt - from);
+            to += insertAt - from;
+            from = row >= 0 ? row + 1 : insertAt;
+            if (change.getValue() != null) {
+                next.set(to++, change.getValue());
+            }
+        }
+        next.copyRows(this, from, to, size - from);
+        return next;
+    }
+
+    int indexOf(long id) {
+        return Arrays.binarySearch(ids, 0, size, id);
+    }
+
+    String model(int row) {
+        return dictionary.decode(models[row]);
+    }
+
+    String manufacturer(int row) {
+        return dictionary.decode(manufacturers[row]);
+    }
+
+    String firmwareVersion(int row) {
+        return dictionary.decode(firmwareVersions[row]);
+    }
+
+    String batteryType(int row) {
+        return dictionary.decode(batteryTypes[row]);
+    }
+
+    DeviceStatus status(int row) {
+        return statuses[row] == NO_STATUS ? null : STATUSES[statuses[row]];
+    }
+
+    private void set(int row, Device device) {
+        ids[row] = device.getId();
+        serialNos[row] = device.getSerialNo();
+        models[row] = dictionary.encode(device.getModel());
+        manufacturers[row] = dictionary.encode(device.getManufacturer());
+        statuses[row] = device.getStatus() == null ? NO_STATUS : (byte) device.getStatus().ordinal();
+        patientIds[row] = device.getPatientId() == null ? NO_PATIENT : device.getPatientId();
+        manufactureDates[row] = epochDay(device.getManufactureDate());
+        lastMaintenanceDates[row] = epochDay(device.getLastMaintenanceDate());
+        maxBasalRates[row] = device.getMaxBasalRate() == null ? Float.NaN : device.getMaxBasalRate();
+        maxBolusAmounts[row] = device.getMaxBolusAmount() == null ? Float.NaN : device.getMaxBolusAmount();
+        reservoirCapacities[row] = device.getReservoirCapacity() == null ? NO_VALUE : device.getReservoirCapacity();
+        firmwareVersions[row] = dictionary.encode(device.getFirmwareVersion());
+        batteryTypes[row] = dictionary.encode(device.getBatteryType());
+    }
+
+    private void copyRows(FleetColumns source, int from, int to, int length) {
+        if (length == 0) {
+            return;
+        }
+        System.arraycopy(source.ids, from, ids, to, length);
+        System.arraycopy(source.serialNos, from, serialNos, to, length);
+        System.arraycopy(source.models, from, models, to, length);
+        System.arraycopy(source.manufacturers, from, manufacturers, to, length);
+        System.arraycopy(source.statuses, from, statuses, to, length);
+        System.arraycopy(source.patientIds, from, patientIds, to, length);
+        System.arraycopy(source.manufactureDates, from, manufactureDates, to, length);
+        System.arraycopy(source.lastMaintenanceDates, from, lastMaintenanceDates, to, length);
+        System.arraycopy(source.maxBasalRates, from, maxBasalRates, to, length);
+        System.arraycopy(source.maxBolusAmounts, from, maxBolusAmounts, to, length);
+        System.arraycopy(source.reservoirCapacities, from, reservoirCapacities, to, length);
+        System.arraycopy(source.firmwareVersions, from, firmwareVersions, to, length);
+        System.arraycopy(source.batteryTypes, from, batteryTypes, to, length);
+    }
+
+    private static int epochDay(LocalDate date) {
+        return date == null ? NO_DATE : Math.toIntExact(date.toEpochDay());
+    }
+}
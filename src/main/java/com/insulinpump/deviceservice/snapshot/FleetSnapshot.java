@@ -0,0 +1,232 @@
+package com.insulinpump.deviceservice.snapshot;
+
+import com.insulinpump.deviceservice.changelog.ChangeLogListener;
+import com.insulinpump.deviceservice.changelog.DeviceChange;
+import com.insulinpump.deviceservice.event.DeviceChangedEvent;
+import com.insulinpump.deviceservice.fields.FieldSelection;
+import com.insulinpump.deviceservice.metrics.DeviceMetrics;
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.projection.PatientProjection;
+import com.insulinpump.deviceservice.repository.DeviceStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Instantánea columnar de toda la flota para las lecturas completas (GET /api/devices). Se carga entera en la
+// primera lectura y después se mantiene con las escrituras de esta réplica (al confirmar) y con las de las demás
+// (change-log). Las escrituras solo se anotan como pendientes (O(1)); la siguiente lectura las aplica todas en una
+// sola copia de las columnas, así que un lote de N dispositivos cuesta una copia y no N. Con más de
+// maxPendingChanges pendientes se descarta la instantánea y la siguiente lectura la recarga. La carga completa se
+// hace fuera del monitor: las escrituras que confirman mientras tanto se siguen anotando y se aplican al publicarla.
+@Component
+@Slf4j
+public class FleetSnapshot implements ChangeLogListener, MeterBinder {
+
+    private final DeviceStore deviceRepository;
+    private final PatientProjection patientProjection;
+    private final DeviceMetrics deviceMetrics;
+    private final FleetSnapshotProperties properties;
+
+    // null = sin cargar o invalidada; se vuelve a cargar en la siguiente lectura
+    private volatile FleetColumns columns;
+    // id -> dispositivo escrito, o null si se ha borrado; protegido por el monitor de la instancia
+    private final TreeMap<Long, Device> pending = new TreeMap<>();
+    private volatile boolean hasPending;
+    // Serializa las cargas completas entre lectores sin bloquear a las escrituras, que usan el monitor
+    private final Object loadLock = new Object();
+    // Carga completa en curso; las escrituras se anotan aunque aún no haya columnas. Protegido por el monitor
+    private boolean loading;
+    // Cambia con cada invalidación: una carga empezada antes se descarta al terminar
+    private long epoch;
+    // La última carga superó los 65535 valores distintos del diccionario; hasta el siguiente cambio las lecturas
+    // van a la base de datos
+    private volatile boolean oversized;
+    private Counter rebuilds;
+    private Counter dictionaryOverflows;
+
+    public FleetSnapshot(DeviceStore deviceRepository, PatientProjection patientProjection,
+                         DeviceMetrics deviceMetrics, FleetSnapshotProperties properties) {
+        this.deviceRepository = deviceRepository;
+        this.patientProjection = patientProjection;
+        this.deviceMetrics = deviceMetrics;
+        this.properties = properties;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("device.fleet-snapshot.size", this, snapshot -> snapshot.size())
+                .description("Dispositivos en la instantánea columnar de la flota")
+                .register(registry);
+        rebuilds = Counter.builder("device.fleet-snapshot.rebuilds")
+                .description("Cargas completas de la instantánea de la flota")
+                .register(registry);
+        dictionaryOverflows = Counter.builder("device.fleet-snapshot.dictionary-overflows")
+                .description("Instantáneas descartadas por superar 65535 valores distintos en el diccionario")
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public FleetView view() {
+        return view(FieldSelection.ALL);
+    }
+
+    // null si la flota no cabe en la instantánea (más de 65535 valores distintos entre modelo, fabricante,
+    // firmware y batería): el llamador debe leer de la base de datos
+    public FleetView view(FieldSelection selection) {
+        FleetColumns current = columns;
+        if (current == null || hasPending) {
+            if (oversized) {
+                return null;
+            }
+            current = refresh();
+            if (current == null) {
+                return null;
+            }
+        }
+        return new FleetView(current, selection, patientProjection, deviceMetrics);
+    }
+
+    public int size() {
+        FleetColumns current = columns;
+        return current == null ? 0 : current.size;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onDeviceChanged(DeviceChangedEvent event) {
+        oversized = false;
+        if (columns == null && !loading) {
+            return;
+        }
+        enqueue(event.deviceId(), event.type().isRemoval() ? null : event.current());
+    }
+
+    // Cambios de otras réplicas: el change-log solo trae ids, así que se releen las filas afectadas en una consulta
+    @Override
+    public synchronized void onChanges(List<DeviceChange> changes) {
+        oversized = false;
+        if (columns == null && !loading) {
+            return;
+        }
+        Set<Long> changed = new LinkedHashSet<>();
+        for (DeviceChange change : changes) {
+            if (change.deviceId() != null) {
+                changed.add(change.deviceId());
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        Map<Long, Device> current = new HashMap<>();
+        for (Device device : deviceRepository.findAllById(changed)) {
+            current.put(device.getId(), device);
+        }
+        for (Long id : changed) {
+            if (columns == null && !loading) {
+                return;
+            }
+            enqueue(id, current.get(id));
+        }
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+        columns = null;
+        pending.clear();
+        hasPending = false;
+        oversized = false;
+        epoch++;
+    }
+
+    private void enqueue(Long id, Device device) {
+        pending.put(id, device);
+        hasPending = true;
+        if (pending.size() > properties.getMaxPendingChanges()) {
+            log.debug("Más de {} cambios pendientes en la instantánea de la flota: se recargará",
+                    properties.getMaxPendingChanges());
+            invalidateAll();
+        }
+    }
+
+    // Aplica los pendientes en el monitor (una copia de las columnas) y, si no hay columnas, las carga fuera de él.
+    // Los cambios anotados durante la carga ya pueden estar en ella: aplicarlos otra vez deja la misma fila.
+    private FleetColumns refresh() {
+        synchronized (loadLock) {
+            while (true) {
+                long loadEpoch;
+                synchronized (this) {
+                    FleetColumns current = applyPending();
+                    if (current != null) {
+                        return current;
+                    }
+                    loadEpoch = epoch;
+                    loading = true;
+                }
+                FleetColumns loaded;
+                try {
+                    loaded = FleetColumns.of(deviceRepository.findAll());
+                } catch (StringDictionary.DictionaryFullException e) {
+                    log.warn("La flota tiene más de 65535 valores distintos entre modelo, fabricante, firmware y "
+                            + "batería: GET /api/devices se sirve desde la base de datos hasta el siguiente cambio");
+                    countDictionaryOverflow();
+                    oversized = true;
+                    loaded = null;
+                } finally {
+                    synchronized (this) {
+                        loading = false;
+                    }
+                }
+                if (loaded == null) {
+                    return null;
+                }
+                synchronized (this) {
+                    // Invalidada durante la carga: puede faltarle lo que provocó la invalidación, se vuelve a cargar
+                    if (epoch == loadEpoch) {
+                        columns = loaded;
+                        if (rebuilds != null) {
+                            rebuilds.increment();
+                        }
+                        log.debug("Instantánea de la flota cargada con {} dispositivos", loaded.size);
+                    }
+                }
+            }
+        }
+    }
+
+    // null si no hay columnas (sin cargar, invalidadas o diccionario lleno) y hay que cargarlas; los pendientes
+    // anotados hasta aquí los cubre la carga, que empieza después
+    private FleetColumns applyPending() {
+        if (columns != null && !pending.isEmpty()) {
+            try {
+                columns = columns.apply(pending);
+            } catch (StringDictionary.DictionaryFullException e) {
+                // El diccionario solo crece: se recarga con uno nuevo que solo tiene los valores en uso
+                log.warn("Diccionario de la instantánea de la flota lleno: se recarga completa");
+                countDictionaryOverflow();
+                columns = null;
+            }
+        }
+        pending.clear();
+        hasPending = false;
+        return columns;
+    }
+
+    private void countDictionaryOverflow() {
+        if (dictionaryOverflows != null) {
+            dictionaryOverflows.increment();
+        }
+    }
+}
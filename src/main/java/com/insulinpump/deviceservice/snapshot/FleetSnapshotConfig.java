@@ -0,0 +1,9 @@
+package com.insulinpump.deviceservice.snapshot;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(FleetSnapshotProperties.class)
+public class FleetSnapshotConfig {
+}
@@ -0,0 +1,14 @@
+package com.insulinpump.deviceservice.snapshot;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "device.fleet-snapshot")
+public class FleetSnapshotProperties {
+
+    // Desactivado: GET /api/devices vuelve a materializar una entidad y un DTO por dispositivo
+    private boolean enabled = true;
+    // Escrituras anotadas sin ninguna lectura que las aplique; por encima se descarta la instantánea
+    private int maxPendingChanges = 10_000;
+}
@@ -0,0 +1,146 @@
+package com.insulinpump.deviceservice.snapshot;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.insulinpump.deviceservice.dto.PatientDto;
+import com.insulinpump.deviceservice.fields.FieldSelection;
+import com.insulinpump.deviceservice.metrics.DeviceMetrics;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import com.insulinpump.deviceservice.projection.PatientProjection;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static com.fasterxml.jackson.core.JsonToken.START_ARRAY;
+import static com.insulinpump.deviceservice.fields.DeviceField.*;
+
+// Respuesta de GET /api/devices escrita directamente desde las columnas, sin Device ni DeviceDetailsDto
+// intermedios. Produce los mismos campos y en el mismo orden que una lista de DeviceDetailsDto y respeta
+// el formato de fechas del conversor (cadena ISO en JSON, [año, mes, día] en CBOR y Smile). Con fields= solo
+// se escriben las columnas seleccionadas y la proyección de pacientes no se consulta si no se pide.
+public final class FleetView implements JsonSerializable {
+
+    private final FleetColumns columns;
+    private final FieldSelection selection;
+    private final PatientProjection patientProjection;
+    private final DeviceMetrics deviceMetrics;
+
+    FleetView(FleetColumns columns, FieldSelection selection, PatientProjection patientProjection,
+              DeviceMetrics deviceMetrics) {
+        this.columns = columns;
+        this.selection = selection;
+        this.patientProjection = patientProjection;
+        this.deviceMetrics = deviceMetrics;
+    }
+
+    public int size() {
+        return columns.size;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider provider) throws IOException {
+        boolean datesAsArrays = provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        FleetColumns c = columns;
+        FieldSelection f = selection;
+        gen.writeStartArray(this, c.size);
+        for (int row = 0; row < c.size; row++) {
+            gen.writeStartObject();
+            gen.writeNumberField("id", c.ids[row]);
+            if (f.contains(SERIAL_NO)) {
+                gen.writeStringField("serialNo", c.serialNos[row]);
+            }
+            if (f.contains(MODEL)) {
+                gen.writeStringField("model", c.model(row));
+            }
+            if (f.contains(MANUFACTURER)) {
+                gen.writeStringField("manufacturer", c.manufacturer(row));
+            }
+            if (f.contains(STATUS)) {
+                DeviceStatus status = c.status(row);
+                gen.writeStringField("status", status == null ? null : status.name());
+            }
+            if (f.contains(MANUFACTURE_DATE)) {
+                writeDate(gen, "manufactureDate", c.manufactureDates[row], datesAsArrays);
+            }
+            if (f.contains(LAST_MAINTENANCE_DATE)) {
+                writeDate(gen, "lastMaintenanceDate", c.lastMaintenanceDates[row], datesAsArrays);
+            }
+            if (f.contains(MAX_BASAL_RATE)) {
+                writeFloat(gen, "maxBasalRate", c.maxBasalRates[row]);
+            }
+            if (f.contains(MAX_BOLUS_AMOUNT)) {
+                writeFloat(gen, "maxBolusAmount", c.maxBolusAmounts[row]);
+            }
+            if (f.contains(RESERVOIR_CAPACITY)) {
+                if (c.reservoirCapacities[row] == FleetColumns.NO_VALUE) {
+                    gen.writeNullField("reservoirCapacity");
+                } else {
+                    gen.writeNumberField("reservoirCapacity", c.reservoirCapacities[row]);
+                }
+            }
+            if (f.contains(FIRMWARE_VERSION)) {
+                gen.writeStringField("firmwareVersion", c.firmwareVersion(row));
+            }
+            if (f.contains(BATTERY_TYPE)) {
+                gen.writeStringField("batteryType", c.batteryType(row));
+            }
+            if (f.contains(PATIENT)) {
+                writePatient(gen, provider, c.patientIds[row]);
+            }
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider provider, TypeSerializer typeSerializer)
+            throws IOException {
+        WritableTypeId typeId = typeSerializer.writeTypePrefix(gen, typeSerializer.typeId(this, START_ARRAY));
+        serialize(gen, provider);
+        typeSerializer.writeTypeSuffix(gen, typeId);
+    }
+
+    private void writePatient(JsonGenerator gen, SerializerProvider provider, long patientId) throws IOException {
+        if (patientId == FleetColumns.NO_PATIENT) {
+            gen.writeNullField("patient");
+            return;
+        }
+        // Igual que en DeviceService: la información del paciente sale de la proyección local
+        Optional<PatientDto> patient = patientProjection.find(patientId);
+        if (patient.isEmpty()) {
+            deviceMetrics.patientProjectionMiss();
+        }
+        provider.defaultSerializeField("patient", patient.orElse(null), gen);
+    }
+
+    private static void writeDate(JsonGenerator gen, String name, int epochDay, boolean asArray) throws IOException {
+        if (epochDay == FleetColumns.NO_DATE) {
+            gen.writeNullField(name);
+            return;
+        }
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        gen.writeFieldName(name);
+        if (asArray) {
+            gen.writeStartArray();
+            gen.writeNumber(date.getYear());
+            gen.writeNumber(date.getMonthValue());
+            gen.writeNumber(date.getDayOfMonth());
+            gen.writeEndArray();
+        } else {
+            gen.writeString(date.toString());
+        }
+    }
+
+    private static void writeFloat(JsonGenerator gen, String name, float value) throws IOException {
+        if (Float.isNaN(value)) {
+            gen.writeNullField(name);
+        } else {
+            gen.writeNumberField(name, value);
+        }
+    }
+}
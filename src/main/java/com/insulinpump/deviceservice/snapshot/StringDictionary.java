@@ -0,0 +1,54 @@
+package com.insulinpump.deviceservice.snapshot;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Diccionario de solo inserción para las columnas de baja cardinalidad (modelo, fabricante, firmware, batería).
+// Cada valor distinto se guarda una vez y las filas almacenan su código de 2 bytes. Los valores que ya no usa
+// ningún dispositivo solo desaparecen al recargar la instantánea, que empieza un diccionario nuevo.
+final class StringDictionary {
+
+    static final char NULL_CODE = Character.MAX_VALUE;
+
+    private final Map<String, Character> codes = new HashMap<>();
+    // Los lectores solo decodifican códigos publicados antes que la generación de columnas que leen
+    private volatile String[] values = new String[16];
+    private int size;
+
+    synchronized char encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Character code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        if (size == NULL_CODE) {
+            throw new DictionaryFullException();
+        }
+        String[] current = values;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, Math.min(current.length * 2, NULL_CODE));
+        }
+        current[size] = value;
+        values = current;
+        codes.put(value, (char) size);
+        return (char) size++;
+    }
+
+    String decode(char code) {
+        return code == NULL_CODE ? null : values[code];
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    static final class DictionaryFullException extends IllegalStateException {
+
+        DictionaryFullException() {
+            super("Demasiados valores distintos para una columna de diccionario");
+        }
+    }
+}
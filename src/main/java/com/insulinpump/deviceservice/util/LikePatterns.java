@@ -0,0 +1,23 @@
+package com.insulinpump.deviceservice.util;
+
+// Patrones LIKE construidos a partir de texto del cliente; las consultas que los usan declaran ESCAPE '\'
+public final class LikePatterns {
+
+    public static final char ESCAPE = '\\';
+
+    private LikePatterns() {
+    }
+
+    // "%texto%" con \, % y _ escapados para que se busquen literalmente ("a_b" no encuentra "axb")
+    public static String containing(String text) {
+        StringBuilder pattern = new StringBuilder(text.length() + 2).append('%');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ESCAPE || c == '%' || c == '_') {
+                pattern.append(ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+}
@@ -0,0 +1,20 @@
+package com.insulinpump.deviceservice.util;
+
+import java.util.concurrent.TimeUnit;
+
+// Ritmo máximo de los trabajos por lotes (archivado, campañas de firmware)
+public final class Throttle {
+
+    private Throttle() {
+    }
+
+    // Espera lo que falte para que procesar devices dispositivos desde startedAt (System.nanoTime) no supere
+    // maxDevicesPerSecond
+    public static void pace(int devices, int maxDevicesPerSecond, long startedAt) throws InterruptedException {
+        long minimumNanos = TimeUnit.SECONDS.toNanos(devices) / maxDevicesPerSecond;
+        long remaining = minimumNanos - (System.nanoTime() - startedAt);
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+-- Esquema de cada shard (válido en MySQL y en H2); el directorio solo se usa en el shard 0
+CREATE TABLE IF NOT EXISTS dispositivos (
+    id BIGINT NOT NULL PRIMARY KEY,
+    serial_no VARCHAR(255) NOT NULL UNIQUE,
+    model VARCHAR(255),
+    manufacturer VARCHAR(255),
+    status VARCHAR(32),
+    patient_id BIGINT,
+    manufacture_date DATE,
+    last_maintenance_date DATE,
+    max_basal_rate FLOAT,
+    max_bolus_amount FLOAT,
+    reservoir_capacity INT,
+    firmware_version VARCHAR(255),
+    battery_type VARCHAR(255)
+);
+
+CREATE INDEX IF NOT EXISTS idx_dispositivos_status ON dispositivos (status, id);
+CREATE INDEX IF NOT EXISTS idx_dispositivos_patient ON dispositivos (patient_id, id);
+
+CREATE TABLE IF NOT EXISTS secuencia_dispositivos (
+    id INT NOT NULL PRIMARY KEY,
+    siguiente BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS directorio_dispositivos (
+    serial_no VARCHAR(255) NOT NULL PRIMARY KEY,
+    shard INT NOT NULL
+);
@@ -0,0 +1,126 @@
+package com.insulinpump.deviceservice.accesslog;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessLogFilterTest {
+
+    private AccessLogProperties properties;
+    private AccessLogFilter filter;
+    private ListAppender<ILoggingEvent> appender;
+    private Logger accessLogger;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AccessLogProperties();
+        filter = new AccessLogFilter(properties);
+        appender = new ListAppender<>();
+        appender.start();
+        accessLogger = (Logger) LoggerFactory.getLogger(AccessLogFilter.LOGGER_NAME);
+        accessLogger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        accessLogger.detachAppender(appender);
+    }
+
+    @Test
+    void should_log_one_structured_event_per_request() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/devices/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/devices/{id}");
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // Then
+        assertThat(appender.list).hasSize(1);
+        Map<String, Object> fields = keyValues(appender.list.get(0));
+        assertThat(fields).containsEntry("method", "GET")
+                .containsEntry("route", "/api/devices/{id}")
+                .containsEntry("path", "/api/devices/1")
+                .containsEntry("status", 200)
+                .containsKey("durationMs");
+    }
+
+    @Test
+    void should_skip_successful_reads_when_sample_rate_is_zero() throws Exception {
+        // Given
+        properties.setSuccessReadSampleRate(0);
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/devices"), new MockHttpServletResponse(),
+                new MockFilterChain());
+
+        // Then
+        assertThat(appender.list).isEmpty();
+    }
+
+    @Test
+    void should_always_log_writes_errors_and_slow_requests() {
+        // Given
+        properties.setSuccessReadSampleRate(0);
+        properties.setSlowThreshold(Duration.ofMillis(100));
+
+        // Then
+        assertThat(filter.shouldLog("POST", 201, 0)).isTrue();
+        assertThat(filter.shouldLog("GET", 404, 0)).isTrue();
+        assertThat(filter.shouldLog("GET", 200, Duration.ofMillis(150).toNanos())).isTrue();
+        assertThat(filter.shouldLog("GET", 200, Duration.ofMillis(10).toNanos())).isFalse();
+    }
+
+    @Test
+    void should_log_long_poll_once_when_async_dispatch_completes() throws Exception {
+        // Given - GET /api/devices/changes devuelve un DeferredResult que se resuelve más tarde
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/devices/changes");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> req.startAsync());
+
+        // When
+        Thread.sleep(50);
+        request.setAsyncStarted(false);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/devices/changes");
+        filter.doFilter(request, response, (req, res) -> ((HttpServletResponse) res).setStatus(204));
+
+        // Then
+        assertThat(appender.list).hasSize(1);
+        Map<String, Object> fields = keyValues(appender.list.get(0));
+        assertThat(fields).containsEntry("route", "/api/devices/changes").containsEntry("status", 204);
+        assertThat((double) fields.get("durationMs")).isGreaterThanOrEqualTo(50.0);
+    }
+
+    @Test
+    void should_not_log_actuator_requests() throws Exception {
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/prometheus"), new MockHttpServletResponse(),
+                new MockFilterChain());
+
+        // Then
+        assertThat(appender.list).isEmpty();
+    }
+
+    private Map<String, Object> keyValues(ILoggingEvent event) {
+        return event.getKeyValuePairs().stream()
+                .collect(Collectors.toMap(pair -> pair.key, pair -> pair.value));
+    }
+}
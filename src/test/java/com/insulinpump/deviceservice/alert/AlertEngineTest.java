@@ -0,0 +1,244 @@
+package com.insulinpump.deviceservice.alert;
+
+import com.insulinpump.deviceservice.event.DeviceChangeType;
+import com.insulinpump.deviceservice.event.DeviceChangedEvent;
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.insulinpump.deviceservice.alert.AlertRuleCompilerTest.device;
+import static com.insulinpump.deviceservice.alert.AlertRuleCompilerTest.rule;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AlertEngineTest {
+
+    private static final Instant START = Instant.parse("2025-06-01T00:00:00Z");
+
+    private final List<Alert> delivered = new ArrayList<>();
+    private MutableClock clock;
+    private AlertProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(START);
+        properties = new AlertProperties();
+    }
+
+    @Test
+    void should_alert_when_device_enters_condition_and_not_while_it_stays() {
+        // Given
+        properties.setRules(List.of(rule("defective-assigned", "status:DEFECTIVE AND assigned:true")));
+        AlertEngine engine = engine();
+        Device active = device(DeviceStatus.ACTIVE, 10L, "Omni", "2.0.0");
+        Device defective = device(DeviceStatus.DEFECTIVE, 10L, "Omni", "2.0.0");
+        Device defectiveUpdated = device(DeviceStatus.DEFECTIVE, 10L, "Omni", "2.1.0");
+
+        // When
+        engine.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.UPDATED, active, defective));
+        engine.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.UPDATED, defective, defectiveUpdated));
+        engine.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.DELETED, defectiveUpdated, null));
+
+        // Then
+        assertThat(delivered).singleElement().satisfies(alert -> {
+            assertThat(alert.rule()).isEqualTo("defective-assigned");
+            assertThat(alert.deviceId()).isEqualTo(1L);
+            assertThat(alert.serialNo()).isEqualTo("SN1");
+            assertThat(alert.firedAt()).isEqualTo(START);
+        });
+    }
+
+    @Test
+    void should_alert_on_created_device_matching_condition() {
+        // Given
+        properties.setRules(List.of(rule("old-firmware", "firmwareVersion<2.1")));
+        AlertEngine engine = engine();
+
+        // When
+        engine.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.CREATED, null,
+                device(DeviceStatus.ACTIVE, null, "Omni", "1.9.3")));
+        engine.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.CREATED, null,
+                device(DeviceStatus.ACTIVE, null, "Omni", "2.4.0")));
+
+        // Then
+        assertThat(delivered).extracting(Alert::rule).containsExactly("old-firmware");
+    }
+
+    @Test
+    void should_alert_when_threshold_is_reached_within_sliding_window_per_key() {
+        // Given
+        AlertProperties.Rule burst = rule("maintenance-burst", "status:MAINTENANCE");
+        burst.setGroupBy("model");
+        burst.setThreshold(3);
+        burst.setWindow(Duration.ofHours(1));
+        properties.setRules(List.of(burst));
+        AlertEngine engine = engine();
+
+        // When - Omni: 2 transiciones, la primera sale de la ventana, y 2 más; T-Slim: 2
+        toMaintenance(engine, "Omni");
+        clock.advance(Duration.ofMinutes(40));
+        toMaintenance(engine, "Omni");
+        toMaintenance(engine, "T-Slim");
+        clock.advance(Duration.ofMinutes(30));
+        toMaintenance(engine, "Omni");
+        toMaintenance(engine, "T-Slim");
+        List<Alert> beforeThird = List.copyOf(delivered);
+        toMaintenance(engine, "Omni");
+
+        // Then
+        assertThat(beforeThird).isEmpty();
+        assertThat(delivered).singleElement().satisfies(alert -> {
+            assertThat(alert.key()).isEqualTo("Omni");
+            assertThat(alert.count()).isEqualTo(3);
+            assertThat(alert.window()).isEqualTo(Duration.ofHours(1));
+        });
+    }
+
+    @Test
+    void should_start_counting_again_after_alerting() {
+        // Given
+        AlertProperties.Rule burst = rule("maintenance-burst", "status:MAINTENANCE");
+        burst.setThreshold(2);
+        burst.setWindow(Duration.ofHours(1));
+        properties.setRules(List.of(burst));
+        AlertEngine engine = engine();
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            toMaintenance(engine, "Omni");
+        }
+
+        // Then
+        assertThat(delivered).hasSize(2);
+        assertThat(delivered.get(0).key()).isNull();
+    }
+
+    @Test
+    void should_evaluate_indexed_and_unindexed_rules() {
+        // Given
+        properties.setRules(List.of(
+                rule("omni-defective", "model:Omni AND status:DEFECTIVE"),
+                rule("tslim-defective", "model:\"T-Slim\" AND status:DEFECTIVE"),
+                rule("any-defective", "status:DEFECTIVE OR status:MAINTENANCE"),
+                rule("not-active", "NOT status:ACTIVE")));
+        AlertEngine engine = engine();
+
+        // When
+        engine.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.UPDATED,
+                device(DeviceStatus.ACTIVE, null, "Omni", "2.0.0"), device(DeviceStatus.DEFECTIVE, null, "Omni", "2.0.0")));
+
+        // Then
+        assertThat(delivered).extracting(Alert::rule)
+                .containsExactlyInAnyOrder("omni-defective", "any-defective", "not-active");
+    }
+
+    @Test
+    void should_keep_delivering_when_a_sink_fails() {
+        // Given
+        properties.setRules(List.of(rule("defective", "status:DEFECTIVE")));
+        AlertSink failing = alert -> {
+            throw new IllegalStateException("sink caído");
+        };
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AlertEngine engine = new AlertEngine(properties, List.of(failing, delivered::add), clock);
+        engine.bindTo(registry);
+
+        // When
+        engine.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.UPDATED,
+                device(DeviceStatus.ACTIVE, null, "Omni", "2.0.0"), device(DeviceStatus.DEFECTIVE, null, "Omni", "2.0.0")));
+
+        // Then
+        assertThat(delivered).hasSize(1);
+        assertThat(registry.get("device.alerts.fired").counter().count()).isEqualTo(1);
+        assertThat(registry.get("device.alerts.rules").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void should_keep_most_recent_alerts_first() {
+        // Given
+        AlertProperties recentProperties = new AlertProperties();
+        recentProperties.setRecentAlerts(2);
+        RecentAlerts recent = new RecentAlerts(recentProperties);
+
+        // When
+        recent.deliver(new Alert("a", null, 1L, "SN1", 1, null, START));
+        recent.deliver(new Alert("b", null, 2L, "SN2", 1, null, START));
+        recent.deliver(new Alert("a", null, 3L, "SN3", 1, null, START));
+
+        // Then
+        assertThat(recent.recent(null, 10)).extracting(Alert::deviceId).containsExactly(3L, 2L);
+        assertThat(recent.recent("a", 10)).extracting(Alert::deviceId).containsExactly(3L);
+    }
+
+    @Test
+    void should_evict_windows_without_transitions_inside_window() {
+        // Given
+        AlertProperties.Rule burst = rule("maintenance-burst", "status:MAINTENANCE");
+        burst.setGroupBy("model");
+        burst.setThreshold(3);
+        burst.setWindow(Duration.ofHours(1));
+        properties.setRules(List.of(burst));
+        AlertEngine engine = engine();
+        toMaintenance(engine, "Omni");
+        clock.advance(Duration.ofMinutes(30));
+        toMaintenance(engine, "T-Slim");
+
+        // When - a los 60 min solo Omni lleva una hora sin transiciones
+        clock.advance(Duration.ofMinutes(30));
+        engine.evictIdleWindows();
+        int afterFirstSweep = engine.windowCount();
+        clock.advance(Duration.ofMinutes(30));
+        engine.evictIdleWindows();
+
+        // Then
+        assertThat(afterFirstSweep).isEqualTo(1);
+        assertThat(engine.windowCount()).isZero();
+    }
+
+    // Métodos helper
+    private AlertEngine engine() {
+        return new AlertEngine(properties, List.of(delivered::add), clock);
+    }
+
+    private void toMaintenance(AlertEngine engine, String model) {
+        engine.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.UPDATED,
+                device(DeviceStatus.ACTIVE, 10L, model, "2.0.0"), device(DeviceStatus.MAINTENANCE, 10L, model, "2.0.0")));
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
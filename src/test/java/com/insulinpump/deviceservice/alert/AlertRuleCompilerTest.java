@@ -0,0 +1,101 @@
+package com.insulinpump.deviceservice.alert;
+
+import com.insulinpump.deviceservice.facet.FacetField;
+import com.insulinpump.deviceservice.facet.FacetFilter;
+import com.insulinpump.deviceservice.facet.FacetFilterParser;
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AlertRuleCompilerTest {
+
+    private final AlertRuleCompiler compiler = new AlertRuleCompiler();
+
+    @Test
+    void should_compile_condition_into_device_predicate() {
+        // Given
+        CompiledRule rule = compiler.compile(rule("defective-assigned",
+                "status:DEFECTIVE AND assigned:true AND (model:\"Omni\" OR firmwareVersion<2.1)"));
+
+        // Then
+        assertThat(rule.condition.test(device(DeviceStatus.DEFECTIVE, 10L, "Omni", "3.0.0"))).isTrue();
+        assertThat(rule.condition.test(device(DeviceStatus.DEFECTIVE, 10L, "T-Slim", "2.0.5"))).isTrue();
+        assertThat(rule.condition.test(device(DeviceStatus.DEFECTIVE, 10L, "T-Slim", "2.1.0"))).isFalse();
+        assertThat(rule.condition.test(device(DeviceStatus.DEFECTIVE, null, "Omni", "3.0.0"))).isFalse();
+        assertThat(rule.condition.test(device(DeviceStatus.ACTIVE, 10L, "Omni", "3.0.0"))).isFalse();
+    }
+
+    @Test
+    void should_index_rule_by_most_selective_required_term() {
+        assertThat(AlertRuleCompiler.indexTerm(FacetFilterParser.parse("status:DEFECTIVE AND assigned:true")))
+                .isEqualTo(new FacetFilter.Term(FacetField.STATUS, "DEFECTIVE"));
+        assertThat(AlertRuleCompiler.indexTerm(FacetFilterParser.parse("firmwareVersion<2.1 AND status:MAINTENANCE AND model:Omni")))
+                .isEqualTo(new FacetFilter.Term(FacetField.MODEL, "Omni"));
+        assertThat(AlertRuleCompiler.indexTerm(FacetFilterParser.parse("assigned:TRUE")))
+                .isEqualTo(new FacetFilter.Term(FacetField.ASSIGNED, "true"));
+        assertThat(AlertRuleCompiler.indexTerm(FacetFilterParser.parse("status:DEFECTIVE OR status:MAINTENANCE"))).isNull();
+        assertThat(AlertRuleCompiler.indexTerm(FacetFilterParser.parse("NOT status:ACTIVE"))).isNull();
+        assertThat(AlertRuleCompiler.indexTerm(FacetFilterParser.parse("firmwareVersion<2.1"))).isNull();
+    }
+
+    @Test
+    void should_reject_invalid_rules_with_rule_name() {
+        AlertProperties.Rule noWindow = rule("maintenance-burst", "status:MAINTENANCE");
+        noWindow.setThreshold(5);
+        AlertProperties.Rule badGroupBy = rule("bad-group", "status:MAINTENANCE");
+        badGroupBy.setGroupBy("colour");
+
+        assertThatThrownBy(() -> compiler.compile(noWindow))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("'maintenance-burst'");
+        assertThatThrownBy(() -> compiler.compile(badGroupBy))
+                .hasMessageContaining("groupBy desconocido 'colour'");
+        assertThatThrownBy(() -> compiler.compile(rule("bad-status", "status:BROKEN")))
+                .hasMessageContaining("estado desconocido 'BROKEN'");
+        assertThatThrownBy(() -> compiler.compile(rule("bad-syntax", "status:ACTIVE AND")))
+                .hasMessageContaining("'bad-syntax'");
+        assertThatThrownBy(() -> compiler.compile(List.of(rule("dup", "status:ACTIVE"), rule("dup", "status:DEFECTIVE"))))
+                .hasMessageContaining("nombre repetido");
+    }
+
+    @Test
+    void should_keep_window_only_for_thresholds_above_one() {
+        // Given
+        AlertProperties.Rule single = rule("single", "status:DEFECTIVE");
+        single.setWindow(Duration.ofHours(1));
+
+        // When
+        CompiledRule compiled = compiler.compile(single);
+
+        // Then
+        Alert alert = compiled.evaluate(null, device(DeviceStatus.DEFECTIVE, null, "Omni", "1.0.0"), 0);
+        assertThat(alert.window()).isNull();
+        assertThat(alert.count()).isEqualTo(1);
+    }
+
+    // Métodos helper
+    static AlertProperties.Rule rule(String name, String condition) {
+        AlertProperties.Rule rule = new AlertProperties.Rule();
+        rule.setName(name);
+        rule.setCondition(condition);
+        return rule;
+    }
+
+    static Device device(DeviceStatus status, Long patientId, String model, String firmwareVersion) {
+        Device device = new Device();
+        device.setId(1L);
+        device.setSerialNo("SN1");
+        device.setModel(model);
+        device.setManufacturer("Insulet");
+        device.setStatus(status);
+        device.setPatientId(patientId);
+        device.setFirmwareVersion(firmwareVersion);
+        return device;
+    }
+}
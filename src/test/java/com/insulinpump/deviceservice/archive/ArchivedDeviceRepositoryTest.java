@@ -0,0 +1,111 @@
+package com.insulinpump.deviceservice.archive;
+
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class ArchivedDeviceRepositoryTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T00:00:00Z");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ArchivedDeviceRepository archivedDeviceRepository;
+
+    @Test
+    void should_select_retired_devices_by_policy_in_id_order_up_to_limit() {
+        // Given
+        Device defective = persist("SN1", DeviceStatus.DEFECTIVE, NOW.minusSeconds(40 * 86_400L));
+        persist("SN2", DeviceStatus.DEFECTIVE, NOW.minusSeconds(86_400L));
+        persist("SN3", DeviceStatus.ACTIVE, NOW.minusSeconds(400 * 86_400L));
+        Device inactive = persist("SN4", DeviceStatus.INACTIVE, NOW.minusSeconds(400 * 86_400L));
+        persist("SN5", DeviceStatus.INACTIVE, null);
+        Device lastInactive = persist("SN6", DeviceStatus.INACTIVE, NOW.minusSeconds(500 * 86_400L));
+        Map<DeviceStatus, Instant> retiredBefore = Map.of(
+                DeviceStatus.DEFECTIVE, NOW.minusSeconds(30 * 86_400L),
+                DeviceStatus.INACTIVE, NOW.minusSeconds(365 * 86_400L));
+
+        // When
+        List<Device> all = archivedDeviceRepository.findArchivable(retiredBefore, 10);
+        List<Device> firstChunk = archivedDeviceRepository.findArchivable(retiredBefore, 2);
+
+        // Then
+        assertThat(all).extracting(Device::getId)
+                .containsExactly(defective.getId(), inactive.getId(), lastInactive.getId());
+        assertThat(firstChunk).extracting(Device::getId).containsExactly(defective.getId(), inactive.getId());
+    }
+
+    @Test
+    void should_move_rows_to_archive_keeping_id_and_values() {
+        // Given
+        Device device = persist("SN1", DeviceStatus.DEFECTIVE, NOW.minusSeconds(86_400L));
+        Device kept = persist("SN2", DeviceStatus.DEFECTIVE, NOW);
+
+        // When
+        archivedDeviceRepository.moveToArchive(List.of(device.getId()), NOW);
+        entityManager.clear();
+
+        // Then
+        assertThat(entityManager.find(Device.class, device.getId())).isNull();
+        assertThat(entityManager.find(Device.class, kept.getId())).isNotNull();
+        ArchivedDevice archived = archivedDeviceRepository.findBySerialNo("SN1").orElseThrow();
+        assertThat(archived.getId()).isEqualTo(device.getId());
+        assertThat(archived.getStatus()).isEqualTo(DeviceStatus.DEFECTIVE);
+        assertThat(archived.getPatientId()).isEqualTo(100L);
+        assertThat(archived.getMaxBasalRate()).isEqualTo(2.0f);
+        assertThat(archived.getStatusChangedAt()).isEqualTo(NOW.minusSeconds(86_400L));
+        assertThat(archived.getArchivedAt()).isEqualTo(NOW);
+        assertThat(archivedDeviceRepository.findByPatientIdOrderById(100L)).hasSize(1);
+        assertThat(archivedDeviceRepository.existsBySerialNo("SN2")).isFalse();
+    }
+
+    @Test
+    void should_start_retention_clock_only_for_undated_policy_statuses() {
+        // Given
+        Device undated = persist("SN1", DeviceStatus.INACTIVE, null);
+        Device dated = persist("SN2", DeviceStatus.INACTIVE, NOW.minusSeconds(86_400L));
+        Device active = persist("SN3", DeviceStatus.ACTIVE, null);
+
+        // When
+        int started = archivedDeviceRepository.startRetentionClock(Set.of(DeviceStatus.INACTIVE, DeviceStatus.DEFECTIVE), NOW);
+        entityManager.clear();
+
+        // Then
+        assertThat(started).isEqualTo(1);
+        assertThat(entityManager.find(Device.class, undated.getId()).getStatusChangedAt()).isEqualTo(NOW);
+        assertThat(entityManager.find(Device.class, dated.getId()).getStatusChangedAt()).isEqualTo(NOW.minusSeconds(86_400L));
+        assertThat(entityManager.find(Device.class, active.getId()).getStatusChangedAt()).isNull();
+    }
+
+    // Métodos helper
+    private Device persist(String serialNo, DeviceStatus status, Instant statusChangedAt) {
+        Device device = new Device();
+        device.setSerialNo(serialNo);
+        device.setModel("Model X");
+        device.setManufacturer("Manufacturer A");
+        device.setStatus(status);
+        device.setStatusChangedAt(statusChangedAt);
+        device.setPatientId(100L);
+        device.setManufactureDate(LocalDate.of(2023, 1, 1));
+        device.setMaxBasalRate(2.0f);
+        device.setMaxBolusAmount(10.0f);
+        device.setReservoirCapacity(300);
+        device.setFirmwareVersion("1.0.0");
+        device.setBatteryType("Lithium");
+        return entityManager.persistAndFlush(device);
+    }
+}
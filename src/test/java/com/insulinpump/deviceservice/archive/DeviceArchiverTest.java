@@ -0,0 +1,104 @@
+package com.insulinpump.deviceservice.archive;
+
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import com.insulinpump.deviceservice.service.DeviceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeviceArchiverTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T00:00:00Z");
+
+    @Mock
+    private DeviceService deviceService;
+
+    @Mock
+    private ArchivedDeviceRepository archivedDeviceRepository;
+
+    private ArchiveProperties properties;
+    private DeviceArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ArchiveProperties();
+        properties.setChunkSize(100);
+        properties.setMaxDevicesPerSecond(1_000_000);
+        archiver = new DeviceArchiver(deviceService, archivedDeviceRepository, properties,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void should_archive_in_chunks_until_a_chunk_comes_back_short() throws InterruptedException {
+        // Given
+        when(deviceService.archiveDevices(anyMap(), anyInt())).thenReturn(100, 100, 40);
+
+        // When
+        int archived = archiver.archiveRetired();
+
+        // Then
+        assertThat(archived).isEqualTo(240);
+        verify(archivedDeviceRepository).startRetentionClock(properties.getRetireAfter().keySet(), NOW);
+        verify(deviceService, times(3)).archiveDevices(eq(Map.of(
+                DeviceStatus.DEFECTIVE, NOW.minus(Duration.ofDays(30)),
+                DeviceStatus.INACTIVE, NOW.minus(Duration.ofDays(365)))), eq(100));
+    }
+
+    @Test
+    void should_stop_at_max_devices_per_run() throws InterruptedException {
+        // Given
+        properties.setMaxDevicesPerRun(250);
+        when(deviceService.archiveDevices(anyMap(), anyInt()))
+                .thenAnswer(invocation -> invocation.<Integer>getArgument(1));
+
+        // When
+        int archived = archiver.archiveRetired();
+
+        // Then
+        assertThat(archived).isEqualTo(250);
+        verify(deviceService, times(2)).archiveDevices(anyMap(), eq(100));
+        verify(deviceService).archiveDevices(anyMap(), eq(50));
+    }
+
+    @Test
+    void should_throttle_between_chunks() throws InterruptedException {
+        // Given
+        properties.setMaxDevicesPerSecond(1_000);
+        when(deviceService.archiveDevices(anyMap(), anyInt())).thenReturn(100, 0);
+
+        // When
+        long startedAt = System.nanoTime();
+        archiver.archiveRetired();
+
+        // Then - 100 dispositivos a 1.000/s son al menos 100 ms
+        assertThat(Duration.ofNanos(System.nanoTime() - startedAt)).isGreaterThanOrEqualTo(Duration.ofMillis(100));
+    }
+
+    @Test
+    void should_do_nothing_without_retirement_policy() throws InterruptedException {
+        // Given
+        properties.setRetireAfter(Map.of());
+
+        // When
+        int archived = archiver.archiveRetired();
+
+        // Then
+        assertThat(archived).isZero();
+        verifyNoInteractions(deviceService, archivedDeviceRepository);
+    }
+}
@@ -0,0 +1,148 @@
+package com.insulinpump.deviceservice.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insulinpump.deviceservice.event.DeviceChangeType;
+import com.insulinpump.deviceservice.event.DeviceChangedEvent;
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditRecorderTest {
+
+    @Mock
+    private AuditWriter writer;
+
+    private AuditProperties properties;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AuditProperties();
+        properties.setFlushInterval(Duration.ofMillis(10));
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void should_write_queued_changes_as_one_batch_with_diffs() throws InterruptedException {
+        // Given
+        AuditRecorder recorder = recorder();
+        Device created = device(DeviceStatus.ACTIVE, null);
+        Device maintenance = device(DeviceStatus.MAINTENANCE, null);
+        Device assigned = device(DeviceStatus.MAINTENANCE, 100L);
+        recorder.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.CREATED, null, created));
+        recorder.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.UPDATED, created, maintenance));
+        recorder.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.UPDATED, maintenance, assigned));
+
+        // When
+        int flushed = recorder.flush();
+
+        // Then
+        assertThat(flushed).isEqualTo(3);
+        List<AuditRecord> records = captureWrites(1).get(0);
+        assertThat(records).extracting(AuditRecord::action)
+                .containsExactly(AuditAction.CREATED, AuditAction.STATUS_CHANGED, AuditAction.ASSIGNED);
+        assertThat(records.get(0).changes()).contains("\"serialNo\":{\"from\":null,\"to\":\"SN1\"}");
+        assertThat(records.get(1).changes()).isEqualTo("{\"status\":{\"from\":\"ACTIVE\",\"to\":\"MAINTENANCE\"}}");
+        assertThat(records.get(2).changedAt()).isEqualTo(Instant.parse("2025-01-01T00:00:00Z"));
+        assertThat(registry.get("device.audit.written").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void should_close_batches_at_batch_size_and_skip_changes_without_diff() throws InterruptedException {
+        // Given
+        properties.setBatchSize(2);
+        AuditRecorder recorder = recorder();
+        Device active = device(DeviceStatus.ACTIVE, null);
+        recorder.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.UPDATED, active, active));
+        recorder.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.DELETED, active, null));
+        recorder.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.CREATED, null, active));
+
+        // When
+        recorder.flush();
+        recorder.flush();
+
+        // Then
+        List<List<AuditRecord>> batches = captureWrites(2);
+        assertThat(batches.get(0)).extracting(AuditRecord::action).containsExactly(AuditAction.DELETED);
+        assertThat(batches.get(1)).extracting(AuditRecord::action).containsExactly(AuditAction.CREATED);
+        assertThat(recorder.pending()).isZero();
+    }
+
+    @Test
+    void should_write_inline_when_queue_is_full() {
+        // Given
+        properties.setQueueCapacity(1);
+        AuditRecorder recorder = recorder();
+        Device active = device(DeviceStatus.ACTIVE, null);
+
+        // When
+        recorder.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.CREATED, null, active));
+        recorder.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.DELETED, active, null));
+
+        // Then
+        assertThat(recorder.pending()).isEqualTo(1);
+        assertThat(captureWrites(1).get(0)).extracting(AuditRecord::action).containsExactly(AuditAction.DELETED);
+        assertThat(registry.get("device.audit.overflows").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_retry_failed_batch() throws InterruptedException {
+        // Given
+        AuditRecorder recorder = recorder();
+        doThrow(new DataAccessResourceFailureException("Conexión perdida")).doNothing().when(writer).write(anyList());
+        recorder.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.CREATED, null, device(DeviceStatus.ACTIVE, null)));
+
+        // When
+        recorder.flush();
+
+        // Then
+        verify(writer, times(2)).write(anyList());
+        assertThat(registry.get("device.audit.written").counter().count()).isEqualTo(1);
+        assertThat(registry.get("device.audit.failed").counter().count()).isZero();
+    }
+
+    // Métodos helper
+    private AuditRecorder recorder() {
+        Clock clock = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+        AuditRecorder recorder = new AuditRecorder(writer, properties, new ObjectMapper().findAndRegisterModules(), clock);
+        recorder.bindTo(registry);
+        return recorder;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<AuditRecord>> captureWrites(int times) {
+        ArgumentCaptor<List<AuditRecord>> captor = ArgumentCaptor.forClass(List.class);
+        verify(writer, times(times)).write(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private static Device device(DeviceStatus status, Long patientId) {
+        Device device = new Device();
+        device.setId(1L);
+        device.setSerialNo("SN1");
+        device.setModel("Modelo X");
+        device.setManufacturer("Insulet");
+        device.setStatus(status);
+        device.setPatientId(patientId);
+        device.setFirmwareVersion("1.0.0");
+        return device;
+    }
+}
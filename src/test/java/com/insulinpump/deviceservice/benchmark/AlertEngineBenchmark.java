@@ -0,0 +1,108 @@
+package com.insulinpump.deviceservice.benchmark;
+
+import com.insulinpump.deviceservice.alert.AlertEngine;
+import com.insulinpump.deviceservice.alert.AlertProperties;
+import com.insulinpump.deviceservice.alert.AlertSink;
+import com.insulinpump.deviceservice.event.DeviceChangeType;
+import com.insulinpump.deviceservice.event.DeviceChangedEvent;
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Eventos de cambio por segundo que evalúa AlertEngine con miles de reglas. Con rules=indexed cada regla exige un
+// modelo (el índice descarta las de los demás); con rules=unindexed son de firmware y estado con OR, sin término
+// que indexar, y se evalúan todas en cada evento. Una de cada 4 reglas usa ventana deslizante por modelo y
+// solo 1 de cada 64 eventos baja el firmware, para medir la evaluación y no la entrega de alertas.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AlertEngineBenchmark {
+
+    private static final String[] MODELS = {"Omni", "T-Slim", "MiniMed", "Dana", "Ypso", "Kaleido", "Accu", "Eros"};
+    private static final int EVENTS = 4_096;
+
+    @Param({"1000", "5000"})
+    public int ruleCount;
+
+    @Param({"indexed", "unindexed"})
+    public String rules;
+
+    private AlertEngine engine;
+    private DeviceChangedEvent[] events;
+    private final LongAdder alerts = new LongAdder();
+    private int next;
+
+    @Setup
+    public void setUp() {
+        AlertProperties properties = new AlertProperties();
+        List<AlertProperties.Rule> configured = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            AlertProperties.Rule rule = new AlertProperties.Rule();
+            rule.setName("rule-" + i);
+            String model = MODELS[i % MODELS.length] + "-" + (i % 100);
+            String status = DeviceStatus.values()[i % 4].name();
+            rule.setCondition("indexed".equals(rules)
+                    ? "status:" + status + " AND model:\"" + model + "\" AND assigned:true"
+                    : "firmwareVersion<1." + (1 + i % 9) + " AND (status:" + status + " OR status:DEFECTIVE)");
+            if (i % 4 == 0) {
+                rule.setGroupBy("model");
+                rule.setThreshold(5);
+                rule.setWindow(Duration.ofHours(1));
+            }
+            configured.add(rule);
+        }
+        properties.setRules(configured);
+        AlertSink counting = alert -> alerts.increment();
+        engine = new AlertEngine(properties, List.of(counting));
+
+        events = new DeviceChangedEvent[EVENTS];
+        DeviceStatus[] statuses = DeviceStatus.values();
+        for (int i = 0; i < EVENTS; i++) {
+            String model = MODELS[i % MODELS.length] + "-" + (i % 100);
+            String firmware = (2 + i % 2) + "." + (i % 7) + ".0";
+            events[i] = new DeviceChangedEvent(DeviceChangeType.UPDATED,
+                    device(i, statuses[(i + 3) % 4], model, firmware),
+                    device(i, statuses[i % 4], model, i % 64 == 0 ? "1.0.0" : firmware));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%n%d alertas%n", alerts.sum());
+    }
+
+    @Benchmark
+    public void evaluate() {
+        engine.onDeviceChanged(events[next++ & (EVENTS - 1)]);
+    }
+
+    private static Device device(long id, DeviceStatus status, String model, String firmwareVersion) {
+        Device device = new Device();
+        device.setId(id);
+        device.setSerialNo("SN-" + id);
+        device.setModel(model);
+        device.setManufacturer("Insulet");
+        device.setStatus(status);
+        device.setPatientId(id % 3 == 0 ? null : id);
+        device.setFirmwareVersion(firmwareVersion);
+        return device;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AlertEngineBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,111 @@
+package com.insulinpump.deviceservice.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.insulinpump.deviceservice.dto.DeviceDetailsDto;
+import com.insulinpump.deviceservice.dto.PatientDto;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Tamaño y coste de codificar/decodificar una lista de DeviceDetailsDto en JSON, CBOR y Smile.
+// El tamaño de cada formato se imprime en el setup.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeviceListEncodingBenchmark {
+
+    private static final TypeReference<List<DeviceDetailsDto>> DEVICE_LIST = new TypeReference<>() {
+    };
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    public String format;
+
+    @Param({"10000"})
+    public int devices;
+
+    private ObjectMapper mapper;
+    private List<DeviceDetailsDto> payload;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = mapper(format);
+        payload = fleet(devices);
+        encoded = mapper.writeValueAsBytes(payload);
+        System.out.printf("%n%s: %d dispositivos -> %d bytes (%.1f bytes/dispositivo)%n",
+                format, devices, encoded.length, (double) encoded.length / devices);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public List<DeviceDetailsDto> decode() throws IOException {
+        return mapper.readValue(encoded, DEVICE_LIST);
+    }
+
+    // Misma configuración que el servidor: JSON con fechas ISO, binarios con fechas numéricas
+    static ObjectMapper mapper(String format) {
+        JsonFactory factory = switch (format) {
+            case "CBOR" -> new CBORFactory();
+            case "SMILE" -> SmileFactory.builder().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES).build();
+            default -> new JsonFactory();
+        };
+        ObjectMapper mapper = new ObjectMapper(factory).registerModule(new JavaTimeModule());
+        if ("JSON".equals(format)) {
+            mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        }
+        return mapper;
+    }
+
+    static List<DeviceDetailsDto> fleet(int size) {
+        String[] models = {"T-Slim X2", "Omnipod 5", "MiniMed 780G"};
+        String[] manufacturers = {"Tandem", "Insulet", "Medtronic"};
+        List<DeviceDetailsDto> fleet = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            DeviceDetailsDto dto = new DeviceDetailsDto();
+            dto.setId((long) i);
+            dto.setSerialNo(String.format("SN-%08d", i));
+            dto.setModel(models[i % models.length]);
+            dto.setManufacturer(manufacturers[i % manufacturers.length]);
+            dto.setStatus("ACTIVE");
+            dto.setManufactureDate(LocalDate.of(2023, 1, 1).plusDays(i % 700));
+            dto.setLastMaintenanceDate(LocalDate.of(2025, 1, 1).plusDays(i % 300));
+            dto.setMaxBasalRate(2.5f);
+            dto.setMaxBolusAmount(15.0f);
+            dto.setReservoirCapacity(300);
+            dto.setFirmwareVersion("2.1." + (i % 5));
+            dto.setBatteryType("Lithium");
+            if (i % 3 != 0) {
+                dto.setPatient(new PatientDto((long) i, "Paciente " + i, 40, "MED" + i, (long) i, "TYPE_1"));
+            }
+            fleet.add(dto);
+        }
+        return fleet;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DeviceListEncodingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
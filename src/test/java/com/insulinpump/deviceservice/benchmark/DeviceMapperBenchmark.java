@@ -0,0 +1,67 @@
+package com.insulinpump.deviceservice.benchmark;
+
+import com.insulinpump.deviceservice.dto.DeviceCreateDto;
+import com.insulinpump.deviceservice.mapper.DeviceMapper;
+import com.insulinpump.deviceservice.mapper.DeviceMapperImpl;
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.BeanUtils;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// Compara el coste por llamada de BeanUtils.copyProperties frente al mapper generado.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DeviceMapperBenchmark {
+
+    private final DeviceMapper deviceMapper = new DeviceMapperImpl();
+    private DeviceCreateDto dto;
+    private Device existingDevice;
+
+    @Setup
+    public void setUp() {
+        dto = new DeviceCreateDto("ABC123", "Model X", "Manufacturer A", DeviceStatus.ACTIVE, 100L,
+                LocalDate.of(2024, 1, 15), LocalDate.of(2024, 6, 1), 2.0f, 10.0f, 300, "1.0.0", "Lithium");
+        existingDevice = new Device();
+        existingDevice.setId(1L);
+    }
+
+    @Benchmark
+    public Device createWithBeanUtils() {
+        Device device = new Device();
+        BeanUtils.copyProperties(dto, device);
+        return device;
+    }
+
+    @Benchmark
+    public Device createWithMapper() {
+        return deviceMapper.toEntity(dto);
+    }
+
+    @Benchmark
+    public Device updateWithBeanUtils() {
+        BeanUtils.copyProperties(dto, existingDevice, "id");
+        return existingDevice;
+    }
+
+    @Benchmark
+    public Device updateWithMapper() {
+        deviceMapper.updateEntity(dto, existingDevice);
+        return existingDevice;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DeviceMapperBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,100 @@
+package com.insulinpump.deviceservice.benchmark;
+
+import com.insulinpump.deviceservice.facet.FacetField;
+import com.insulinpump.deviceservice.facet.FacetFilter;
+import com.insulinpump.deviceservice.facet.FacetFilterParser;
+import com.insulinpump.deviceservice.facet.FacetIndex;
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import com.insulinpump.deviceservice.repository.DeviceStore;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Filtro de facetas con recuentos sobre el índice de bitmaps: lo que responde GET /api/devices/facets
+// sin pedir filas. La referencia es el recorrido de la lista de entidades que haría falta sin índice.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FacetIndexBenchmark {
+
+    private static final String FILTER = "status:ACTIVE AND manufacturer:Insulet AND firmwareVersion<2.1 AND NOT assigned:false";
+
+    @Param({"100000"})
+    public int devices;
+
+    private List<Device> fleet;
+    private FacetIndex index;
+    private FacetFilter filter;
+
+    @Setup
+    public void setUp() {
+        fleet = fleet(devices);
+        DeviceStore repository = mock(DeviceStore.class);
+        when(repository.findAll()).thenReturn(fleet);
+        index = new FacetIndex(repository);
+        filter = FacetFilterParser.parse(FILTER);
+        System.out.printf("%n%s -> %d dispositivos%n", FILTER, index.evaluate(filter).getLongCardinality());
+    }
+
+    @Benchmark
+    public Map<String, Long> bitmapIndex() {
+        Roaring64Bitmap matches = index.evaluate(filter);
+        return index.counts(FacetField.MODEL, matches);
+    }
+
+    @Benchmark
+    public long parseAndCount() {
+        return index.evaluate(FacetFilterParser.parse(FILTER)).getLongCardinality();
+    }
+
+    @Benchmark
+    public int fullScan() {
+        int count = 0;
+        for (Device device : fleet) {
+            if (device.getStatus() == DeviceStatus.ACTIVE && "Insulet".equals(device.getManufacturer())
+                    && device.getPatientId() != null && device.getFirmwareVersion().compareTo("2.1") < 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    static List<Device> fleet(int size) {
+        String[] models = {"T-Slim X2", "Omnipod 5", "MiniMed 780G", "Omnipod DASH"};
+        String[] manufacturers = {"Tandem", "Insulet", "Medtronic", "Insulet"};
+        DeviceStatus[] statuses = DeviceStatus.values();
+        List<Device> fleet = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Device device = new Device();
+            device.setId((long) i + 1);
+            device.setSerialNo(String.format("SN-%08d", i));
+            device.setModel(models[i % models.length]);
+            device.setManufacturer(manufacturers[i % manufacturers.length]);
+            device.setStatus(i % 10 < 7 ? DeviceStatus.ACTIVE : statuses[i % statuses.length]);
+            device.setFirmwareVersion("1." + (i % 4) + "." + (i % 3));
+            device.setPatientId(i % 5 != 0 ? (long) i : null);
+            fleet.add(device);
+        }
+        return fleet;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FacetIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,128 @@
+package com.insulinpump.deviceservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insulinpump.deviceservice.dto.DeviceDetailsDto;
+import com.insulinpump.deviceservice.dto.PatientDto;
+import com.insulinpump.deviceservice.mapper.DeviceMapper;
+import com.insulinpump.deviceservice.mapper.DeviceMapperImpl;
+import com.insulinpump.deviceservice.metrics.DeviceMetrics;
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import com.insulinpump.deviceservice.projection.PatientProjection;
+import com.insulinpump.deviceservice.repository.DeviceStore;
+import com.insulinpump.deviceservice.snapshot.FleetSnapshot;
+import com.insulinpump.deviceservice.snapshot.FleetSnapshotProperties;
+import com.insulinpump.deviceservice.snapshot.FleetView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jol.info.GraphLayout;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// GET /api/devices por el camino de entidades (Device + DeviceDetailsDto por fila) frente a la instantánea
+// columnar. En el setup se imprime el heap por dispositivo medido con JOL. Las cadenas de baja cardinalidad
+// se crean por fila, como las devuelve el driver JDBC. El camino de entidades no incluye la copia del estado
+// cargado que además guarda Hibernate en el contexto de persistencia, así que es una cota inferior.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FleetSnapshotBenchmark {
+
+    @Param({"10000"})
+    public int devices;
+
+    private ObjectMapper objectMapper;
+    private DeviceMapper deviceMapper;
+    private PatientProjection patientProjection;
+    private List<Device> entities;
+    private FleetView view;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        deviceMapper = new DeviceMapperImpl();
+        patientProjection = new PatientProjection();
+        entities = fleet(devices);
+        for (Device device : entities) {
+            if (device.getPatientId() != null) {
+                patientProjection.upsert(new PatientDto(device.getPatientId(), "Paciente " + device.getPatientId(),
+                        40, "MED" + device.getPatientId(), device.getId(), "TYPE_1"));
+            }
+        }
+        DeviceStore repository = mock(DeviceStore.class);
+        when(repository.findAll()).thenReturn(entities);
+        DeviceMetrics metrics = new DeviceMetrics(new SimpleMeterRegistry());
+        view = new FleetSnapshot(repository, patientProjection, metrics, new FleetSnapshotProperties()).view();
+
+        long entityBytes = GraphLayout.parseInstance(entities).totalSize();
+        // Incluye las copias de PatientDto que PatientProjection.find crea para cada DTO
+        long dtoBytes = GraphLayout.parseInstance(toDtos()).totalSize();
+        // Con una proyección vacía, para contar solo las columnas y el diccionario
+        PatientProjection emptyProjection = new PatientProjection();
+        FleetView columnsOnly = new FleetSnapshot(repository, emptyProjection, metrics, new FleetSnapshotProperties())
+                .view();
+        long snapshotBytes = GraphLayout.parseInstance(columnsOnly)
+                .subtract(GraphLayout.parseInstance(emptyProjection, metrics))
+                .totalSize();
+        System.out.printf("%nHeap por dispositivo: entidades %.1f B, entidades + DTOs %.1f B, instantánea %.1f B%n",
+                (double) entityBytes / devices, (double) (entityBytes + dtoBytes) / devices,
+                (double) snapshotBytes / devices);
+    }
+
+    @Benchmark
+    public byte[] entityPath() throws IOException {
+        return objectMapper.writeValueAsBytes(toDtos());
+    }
+
+    @Benchmark
+    public byte[] snapshotPath() throws IOException {
+        return objectMapper.writeValueAsBytes(view);
+    }
+
+    // Lo mismo que DeviceService.getAllDevices sobre las entidades ya cargadas
+    private List<DeviceDetailsDto> toDtos() {
+        List<DeviceDetailsDto> dtos = new ArrayList<>(entities.size());
+        for (Device device : entities) {
+            DeviceDetailsDto dto = deviceMapper.toDetailsDto(device);
+            if (device.getPatientId() != null) {
+                patientProjection.find(device.getPatientId()).ifPresent(dto::setPatient);
+            }
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    static List<Device> fleet(int size) {
+        String[] models = {"T-Slim X2", "Omnipod 5", "MiniMed 780G"};
+        String[] manufacturers = {"Tandem", "Insulet", "Medtronic"};
+        List<Device> fleet = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            fleet.add(new Device((long) i, String.format("SN-%08d", i),
+                    new String(models[i % models.length]), new String(manufacturers[i % manufacturers.length]),
+                    DeviceStatus.ACTIVE, i % 3 != 0 ? (long) i : null,
+                    LocalDate.of(2023, 1, 1).plusDays(i % 700), LocalDate.of(2025, 1, 1).plusDays(i % 300),
+                    2.5f, 15.0f, 300, "2.1." + (i % 5), new String("Lithium"), null));
+        }
+        return fleet;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FleetSnapshotBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,71 @@
+package com.insulinpump.deviceservice.benchmark;
+
+import com.insulinpump.deviceservice.presence.PresenceProperties;
+import com.insulinpump.deviceservice.presence.PresenceTracker;
+import com.insulinpump.deviceservice.service.DeviceService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+// Check-in de 1.000.000 dispositivos ya conocidos con 8 hilos: lo que cuesta POST /serial/{sn}/check-in sin la
+// capa HTTP. La referencia es un mapa de Instant, que reserva uno por check-in. Con -prof gc se ve la basura.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class PresenceBenchmark {
+
+    @Param({"1000000"})
+    public int devices;
+
+    private String[] serialNos;
+    private PresenceTracker tracker;
+    private final Map<String, Instant> lastSeen = new ConcurrentHashMap<>();
+
+    @Setup
+    public void setUp() {
+        DeviceService deviceService = mock(DeviceService.class, withSettings().stubOnly());
+        when(deviceService.getDeviceIdBySerialNo(anyString()))
+                .thenAnswer(invocation -> Long.parseLong(invocation.<String>getArgument(0).substring(2)));
+        tracker = new PresenceTracker(deviceService, new PresenceProperties());
+        serialNos = new String[devices];
+        for (int i = 0; i < devices; i++) {
+            serialNos[i] = "SN" + i;
+            tracker.checkIn(serialNos[i]);
+            lastSeen.put(serialNos[i], Instant.now());
+        }
+        tracker.tick();
+        System.out.printf("%n%d dispositivos online%n", tracker.onlineCount());
+    }
+
+    @Benchmark
+    public void checkIn() {
+        tracker.checkIn(serialNos[ThreadLocalRandom.current().nextInt(devices)]);
+    }
+
+    @Benchmark
+    public Instant instantMap() {
+        return lastSeen.put(serialNos[ThreadLocalRandom.current().nextInt(devices)], Instant.now());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PresenceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,98 @@
+package com.insulinpump.deviceservice.benchmark;
+
+import com.insulinpump.deviceservice.ratelimit.RateLimitProperties;
+import com.insulinpump.deviceservice.ratelimit.RateLimiter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Coste por petición del rate limiter con 8 hilos: todos contra el mismo bucket (peor caso de CAS),
+// contra 10.000 clientes distintos, y un bucket equivalente con synchronized como referencia.
+// Los límites son tan altos que nunca se rechaza: se mide solo la sobrecarga.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    private static final int CLIENTS = 10_000;
+
+    private RateLimiter rateLimiter;
+    private RateLimiter.EndpointGroup group;
+    private String[] clients;
+    private final SynchronizedBucket synchronizedBucket = new SynchronizedBucket(1_000_000_000, 1_000_000_000);
+
+    @Setup
+    public void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setGroups(Map.of("search", new RateLimitProperties.Group(
+                List.of("/api/devices/search/**"), Set.of(), 1_000_000_000, 1_000_000_000)));
+        rateLimiter = new RateLimiter(properties);
+        group = rateLimiter.groupFor("GET", "/api/devices/search/model");
+        clients = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i] = "client-" + i;
+        }
+    }
+
+    @Benchmark
+    public long sharedClient() {
+        return rateLimiter.tryAcquire(group, "hot-client");
+    }
+
+    @Benchmark
+    public long distinctClients() {
+        return rateLimiter.tryAcquire(group, clients[ThreadLocalRandom.current().nextInt(CLIENTS)]);
+    }
+
+    @Benchmark
+    public long sharedClientSynchronized() {
+        return synchronizedBucket.tryAcquire(System.nanoTime());
+    }
+
+    @Benchmark
+    public RateLimiter.EndpointGroup groupResolution() {
+        return rateLimiter.groupFor("GET", "/api/devices/search/model");
+    }
+
+    // Token bucket clásico con recarga explícita bajo un monitor
+    static final class SynchronizedBucket {
+
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        SynchronizedBucket(double capacity, double tokensPerSecond) {
+            this.capacity = capacity;
+            this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.tokens = capacity;
+        }
+
+        synchronized long tryAcquire(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) ((1 - tokens) / tokensPerNano);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RateLimiterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
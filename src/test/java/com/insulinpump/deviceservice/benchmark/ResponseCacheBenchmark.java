@@ -0,0 +1,72 @@
+package com.insulinpump.deviceservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insulinpump.deviceservice.cache.DeviceResponseCache;
+import com.insulinpump.deviceservice.cache.DeviceResponseCacheProperties;
+import com.insulinpump.deviceservice.dto.DeviceDetailsDto;
+import com.insulinpump.deviceservice.metrics.DeviceMetrics;
+import com.insulinpump.deviceservice.projection.PatientProjection;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Coste por petición de GET /api/devices/{id} una vez cargado el dispositivo: serializar el DTO con Jackson
+// (con y sin gzip, como haría la compresión del servidor) frente a un acierto en DeviceResponseCache, que
+// además comprueba el paciente incrustado contra la proyección. Los tamaños se imprimen en el setup.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseCacheBenchmark {
+
+    private ObjectMapper mapper;
+    private DeviceDetailsDto device;
+    private DeviceResponseCache cache;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = DeviceListEncodingBenchmark.mapper("JSON");
+        device = DeviceListEncodingBenchmark.fleet(2).get(1);
+        PatientProjection projection = new PatientProjection();
+        projection.upsert(device.getPatient());
+        cache = new DeviceResponseCache(new DeviceResponseCacheProperties(), mapper, projection,
+                new DeviceMetrics(new SimpleMeterRegistry()));
+        DeviceResponseCache.Encoded encoded = cached();
+        System.out.printf("%nJSON %d bytes, gzip %d bytes%n", encoded.json().length,
+                encoded.gzip() != null ? encoded.gzip().length : 0);
+    }
+
+    @Benchmark
+    public byte[] jackson() throws IOException {
+        return mapper.writeValueAsBytes(device);
+    }
+
+    @Benchmark
+    public byte[] jacksonGzip() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(512);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            mapper.writeValue(out, device);
+        }
+        return buffer.toByteArray();
+    }
+
+    @Benchmark
+    public DeviceResponseCache.Encoded cached() {
+        return cache.getById(device.getId(), () -> new DeviceResponseCache.Rendered(device, device.getId()));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ResponseCacheBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,56 @@
+package com.insulinpump.deviceservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insulinpump.deviceservice.dto.DeviceDetailsDto;
+import com.insulinpump.deviceservice.fields.FieldSelection;
+import com.insulinpump.deviceservice.fields.SparseDevices;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Tamaño y coste de serializar la flota completa frente a fields=id,serialNo,status (y la variante con
+// paciente). "all" es la lista de DTOs tal cual la devuelve hoy el controlador. El tamaño se imprime en el setup.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SparseFieldsBenchmark {
+
+    @Param({"all", "id,serialNo,status", "id,serialNo,status,patient"})
+    public String fields;
+
+    @Param({"10000"})
+    public int devices;
+
+    private ObjectMapper mapper;
+    private Object payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = DeviceListEncodingBenchmark.mapper("JSON");
+        List<DeviceDetailsDto> fleet = DeviceListEncodingBenchmark.fleet(devices);
+        FieldSelection selection = FieldSelection.parse("all".equals(fields) ? null : fields);
+        payload = selection.isAll() ? fleet : SparseDevices.of(fleet, selection);
+        byte[] encoded = mapper.writeValueAsBytes(payload);
+        System.out.printf("%n%s: %d dispositivos -> %d bytes (%.1f bytes/dispositivo)%n",
+                fields, devices, encoded.length, (double) encoded.length / devices);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(payload);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SparseFieldsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
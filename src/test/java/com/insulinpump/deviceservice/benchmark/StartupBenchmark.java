@@ -0,0 +1,107 @@
+package com.insulinpump.deviceservice.benchmark;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Tiempo hasta la primera petición respondida (GET /api/devices) con cada variante de arranque.
+// Requiere haber construido con ./mvnw -Pstartup package; el ejecutable nativo es opcional
+// (./mvnw -Pnative native:compile). Se ejecuta con el perfil training (H2, sin Eureka).
+public class StartupBenchmark {
+
+    private static final Path APP_DIR = Path.of("target", "application");
+    private static final Path JAR = APP_DIR.resolve("deviceservice-0.0.1-SNAPSHOT.jar");
+    private static final Path CDS_ARCHIVE = APP_DIR.resolve("application.jsa");
+    private static final Path NATIVE_IMAGE = Path.of("target", "deviceservice");
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    public static void main(String[] args) throws Exception {
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException("El benchmark de arranque requiere un JDK 21 o superior");
+        }
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        if (!Files.exists(JAR)) {
+            throw new IllegalStateException("No existe " + JAR + ": ejecutar ./mvnw -Pstartup package -DskipTests");
+        }
+
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Map<String, List<String>> variants = new LinkedHashMap<>();
+        variants.put("jvm", List.of(java, "-jar", JAR.toString()));
+        variants.put("jvm+aot", List.of(java, "-Dspring.aot.enabled=true", "-jar", JAR.toString()));
+        if (Files.exists(CDS_ARCHIVE)) {
+            variants.put("jvm+aot+cds", List.of(java, "-XX:SharedArchiveFile=" + CDS_ARCHIVE,
+                    "-Dspring.aot.enabled=true", "-jar", JAR.toString()));
+        }
+        if (Files.isExecutable(NATIVE_IMAGE)) {
+            variants.put("native", List.of(NATIVE_IMAGE.toString()));
+        }
+
+        StartupBenchmark benchmark = new StartupBenchmark();
+        System.out.printf("%-14s %10s %10s %10s%n", "variante", "min ms", "mediana ms", "max ms");
+        for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+            long[] samples = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                samples[i] = benchmark.timeToFirstRequest(variant.getValue());
+            }
+            Arrays.sort(samples);
+            System.out.printf("%-14s %10d %10d %10d%n", variant.getKey(), samples[0], samples[runs / 2], samples[runs - 1]);
+        }
+    }
+
+    long timeToFirstRequest(List<String> command) throws Exception {
+        int port = freePort();
+        List<String> fullCommand = new ArrayList<>(command);
+        fullCommand.add("--spring.profiles.active=training");
+        fullCommand.add("--server.port=" + port);
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/devices"))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(fullCommand)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            long deadline = start + TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("El proceso terminó con código " + process.exitValue());
+                }
+                try {
+                    if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }
+                } catch (IOException e) {
+                    // Todavía no escucha
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("Sin respuesta en " + TIMEOUT);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.insulinpump.deviceservice.cache;
+
+import com.insulinpump.deviceservice.changelog.DeviceChange;
+import com.insulinpump.deviceservice.event.DeviceChangeType;
+import com.insulinpump.deviceservice.event.DeviceChangedEvent;
+import com.insulinpump.deviceservice.mapper.DeviceMapperImpl;
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeviceCacheTest {
+
+    private DeviceCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        DeviceCacheProperties properties = new DeviceCacheProperties();
+        properties.setMaxEntries(2);
+        Clock clock = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+        cache = new DeviceCache(properties, new DeviceMapperImpl(), clock);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void should_serve_by_id_and_serial_after_first_load() {
+        // Given
+        cache.getById(1L, loader(device(1L, "SN1")));
+
+        // When
+        Optional<Device> byId = cache.getById(1L, loader(device(1L, "SN1")));
+        Optional<Device> bySerial = cache.getBySerialNo("SN1", loader(device(1L, "SN1")));
+
+        // Then
+        assertThat(byId).get().extracting(Device::getSerialNo).isEqualTo("SN1");
+        assertThat(bySerial).get().extracting(Device::getId).isEqualTo(1L);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void should_return_copies_that_do_not_alter_cached_device() {
+        // Given
+        cache.getById(1L, loader(device(1L, "SN1")));
+
+        // When
+        cache.getById(1L, loader(device(1L, "SN1"))).orElseThrow().setStatus(DeviceStatus.INACTIVE);
+
+        // Then
+        assertThat(cache.getById(1L, loader(device(1L, "SN1")))).get()
+                .extracting(Device::getStatus).isEqualTo(DeviceStatus.ACTIVE);
+    }
+
+    @Test
+    void should_evict_old_serial_on_local_and_remote_changes() {
+        // Given
+        cache.getById(1L, loader(device(1L, "SN1")));
+        cache.getById(2L, loader(device(2L, "SN2")));
+
+        // When
+        cache.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.UPDATED, device(1L, "SN1"), device(1L, "SN1B")));
+        cache.onChanges(List.of(new DeviceChange(7L, 2L, "SN2", null, DeviceChangeType.DELETED)));
+
+        // Then
+        assertThat(cache.size()).isZero();
+        assertThat(cache.getBySerialNo("SN1", Optional::empty)).isEmpty();
+    }
+
+    @Test
+    void should_not_store_value_loaded_while_an_invalidation_happened() {
+        // Given
+        Supplier<Optional<Device>> racingLoader = () -> {
+            // Una escritura se confirma mientras se lee el valor anterior de la base de datos
+            cache.onChanges(List.of(new DeviceChange(1L, 1L, "SN1", null, DeviceChangeType.UPDATED)));
+            return Optional.of(device(1L, "SN1"));
+        };
+
+        // When
+        cache.getById(1L, racingLoader);
+
+        // Then
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void should_evict_least_recently_used_when_full() {
+        // Given
+        cache.getById(1L, loader(device(1L, "SN1")));
+        cache.getById(2L, loader(device(2L, "SN2")));
+        cache.getById(1L, loader(device(1L, "SN1")));
+
+        // When
+        cache.getById(3L, loader(device(3L, "SN3")));
+
+        // Then
+        assertThat(cache.size()).isEqualTo(2);
+        cache.getById(2L, loader(device(2L, "SN2")));
+        assertThat(loads).hasValue(4);
+    }
+
+    // Métodos helper
+    private Supplier<Optional<Device>> loader(Device device) {
+        return () -> {
+            loads.incrementAndGet();
+            return Optional.of(device);
+        };
+    }
+
+    private static Device device(Long id, String serialNo) {
+        Device device = new Device();
+        device.setId(id);
+        device.setSerialNo(serialNo);
+        device.setStatus(DeviceStatus.ACTIVE);
+        return device;
+    }
+}
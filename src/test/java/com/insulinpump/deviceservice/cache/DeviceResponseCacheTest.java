@@ -0,0 +1,147 @@
+package com.insulinpump.deviceservice.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insulinpump.deviceservice.changelog.DeviceChange;
+import com.insulinpump.deviceservice.dto.DeviceDetailsDto;
+import com.insulinpump.deviceservice.dto.PatientDto;
+import com.insulinpump.deviceservice.event.DeviceChangeType;
+import com.insulinpump.deviceservice.metrics.DeviceMetrics;
+import com.insulinpump.deviceservice.projection.PatientProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class DeviceResponseCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private DeviceResponseCacheProperties properties;
+    private PatientProjection patientProjection;
+    private DeviceResponseCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        properties = new DeviceResponseCacheProperties();
+        properties.setGzipMinSize(DataSize.ofBytes(0));
+        patientProjection = new PatientProjection();
+        Clock clock = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+        cache = new DeviceResponseCache(properties, objectMapper, patientProjection, mock(DeviceMetrics.class), clock);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void should_serve_same_bytes_by_id_and_serial_after_first_load() throws IOException {
+        // Given
+        DeviceResponseCache.Encoded first = cache.getById(1L, loader(device(1L, "SN1", null), null));
+
+        // When
+        DeviceResponseCache.Encoded byId = cache.getById(1L, loader(device(1L, "SN1", null), null));
+        DeviceResponseCache.Encoded bySerial = cache.getBySerialNo("SN1", loader(device(1L, "SN1", null), null));
+
+        // Then
+        assertThat(byId).isSameAs(first);
+        assertThat(bySerial).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        assertThat(objectMapper.readValue(first.json(), DeviceDetailsDto.class).getSerialNo()).isEqualTo("SN1");
+        assertThat(gunzip(first.gzip())).isEqualTo(first.json());
+        assertThat(cache.bytes()).isEqualTo(first.json().length + first.gzip().length);
+        assertThat(cache.hitRatio()).isEqualTo(2.0 / 3);
+    }
+
+    @Test
+    void should_render_again_when_embedded_patient_changes_in_projection() throws IOException {
+        // Given
+        patientProjection.upsert(patient("Ana"));
+        cache.getById(1L, loader(device(1L, "SN1", patient("Ana")), 5L));
+
+        // When
+        patientProjection.upsert(patient("Ana María"));
+        DeviceResponseCache.Encoded encoded = cache.getById(1L, loader(device(1L, "SN1", patient("Ana María")), 5L));
+
+        // Then
+        assertThat(loads).hasValue(2);
+        assertThat(objectMapper.readValue(encoded.json(), DeviceDetailsDto.class).getPatient().getName())
+                .isEqualTo("Ana María");
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void should_evict_on_changes_and_skip_loads_that_raced_an_invalidation() {
+        // Given
+        cache.getById(1L, loader(device(1L, "SN1", null), null));
+        Supplier<DeviceResponseCache.Rendered> racingLoader = () -> {
+            // Una escritura se confirma mientras se genera la respuesta anterior
+            cache.onChanges(List.of(new DeviceChange(2L, 2L, "SN2", null, DeviceChangeType.UPDATED)));
+            return new DeviceResponseCache.Rendered(device(2L, "SN2", null), null);
+        };
+
+        // When
+        cache.getById(2L, racingLoader);
+        cache.onChanges(List.of(new DeviceChange(3L, 1L, "SN1", null, DeviceChangeType.DELETED)));
+
+        // Then
+        assertThat(cache.size()).isZero();
+        assertThat(cache.bytes()).isZero();
+    }
+
+    @Test
+    void should_evict_least_recently_used_when_over_byte_budget() {
+        // Given
+        properties.setGzip(false);
+        int entrySize = cache.getById(1L, loader(device(1L, "SN1", null), null)).json().length;
+        properties.setMaxSize(DataSize.ofBytes(entrySize * 2L));
+        cache.getById(2L, loader(device(2L, "SN2", null), null));
+        cache.getById(1L, loader(device(1L, "SN1", null), null));
+
+        // When
+        cache.getById(3L, loader(device(3L, "SN3", null), null));
+
+        // Then
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.bytes()).isLessThanOrEqualTo(entrySize * 2L);
+        cache.getBySerialNo("SN2", loader(device(2L, "SN2", null), null));
+        assertThat(loads).hasValue(4);
+    }
+
+    // Métodos helper
+    private Supplier<DeviceResponseCache.Rendered> loader(DeviceDetailsDto device, Long patientId) {
+        return () -> {
+            loads.incrementAndGet();
+            return new DeviceResponseCache.Rendered(device, patientId);
+        };
+    }
+
+    private static DeviceDetailsDto device(Long id, String serialNo, PatientDto patient) {
+        DeviceDetailsDto device = new DeviceDetailsDto();
+        device.setId(id);
+        device.setSerialNo(serialNo);
+        device.setModel("Model X");
+        device.setManufacturer("Manufacturer A");
+        device.setStatus("ACTIVE");
+        device.setPatient(patient);
+        return device;
+    }
+
+    private static PatientDto patient(String name) {
+        return new PatientDto(5L, name, 40, "MED-5", 1L, "TYPE_1");
+    }
+
+    private static byte[] gunzip(byte[] gzip) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.insulinpump.deviceservice.changelog;
+
+import com.insulinpump.deviceservice.dto.DeviceChangesDto;
+import com.insulinpump.deviceservice.dto.DeviceDetailsDto;
+import com.insulinpump.deviceservice.event.DeviceChangeType;
+import com.insulinpump.deviceservice.service.DeviceService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeFeedTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Mock
+    private ChangeLogRepository repository;
+
+    @Mock
+    private DeviceService deviceService;
+
+    private MutableClock clock;
+    private ChangeFeed changeFeed;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW);
+        changeFeed = new ChangeFeed(repository, deviceService, new ChangeLogProperties(), new ChangeFeedProperties(),
+                clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        changeFeed.shutdown();
+    }
+
+    @Test
+    void should_return_latest_version_once_per_device() {
+        // Given
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(10L), any(Limit.class))).thenReturn(List.of(
+                entry(11L, 1L, DeviceChangeType.CREATED, 60),
+                entry(12L, 2L, DeviceChangeType.UPDATED, 60),
+                entry(13L, 1L, DeviceChangeType.UPDATED, 60),
+                entry(14L, 3L, DeviceChangeType.UPDATED, 60),
+                entry(15L, 2L, DeviceChangeType.DELETED, 60)));
+        when(deviceService.getDevicesByIds(List.of(1L, 3L))).thenReturn(List.of(device(1L)));
+
+        // When
+        DeviceChangesDto page = changeFeed.read(10L, 5);
+
+        // Then
+        assertThat(page.getDevices()).extracting(DeviceDetailsDto::getId).containsExactly(1L);
+        assertThat(page.getDeletedIds()).containsExactly(2L, 3L);
+        assertThat(page.getCursor()).isEqualTo(15L);
+        assertThat(page.isHasMore()).isTrue();
+    }
+
+    @Test
+    void should_report_archived_devices_apart_from_deleted_ones() {
+        // Given
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(10L), any(Limit.class))).thenReturn(List.of(
+                entry(11L, 1L, DeviceChangeType.ARCHIVED, 60),
+                entry(12L, 2L, DeviceChangeType.DELETED, 60)));
+
+        // When
+        DeviceChangesDto page = changeFeed.read(10L, 100);
+
+        // Then
+        assertThat(page.getDevices()).isEmpty();
+        assertThat(page.getArchivedIds()).containsExactly(1L);
+        assertThat(page.getDeletedIds()).containsExactly(2L);
+        verifyNoInteractions(deviceService);
+    }
+
+    @Test
+    void should_stop_before_new_gap_and_skip_it_after_gap_timeout() {
+        // Given: las entradas son antiguas, pero los huecos 12 y 14 se ven ahora por primera vez
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(10L), any(Limit.class))).thenReturn(List.of(
+                entry(11L, 1L, DeviceChangeType.UPDATED, 3_600),
+                entry(13L, 2L, DeviceChangeType.UPDATED, 3_600),
+                entry(15L, 3L, DeviceChangeType.UPDATED, 3_600)));
+        when(deviceService.getDevicesByIds(List.of(1L))).thenReturn(List.of(device(1L)));
+        when(deviceService.getDevicesByIds(List.of(1L, 2L))).thenReturn(List.of(device(1L), device(2L)));
+
+        // When
+        DeviceChangesDto first = changeFeed.read(10L, 100);
+        clock.advance(Duration.ofSeconds(10));
+        DeviceChangesDto second = changeFeed.read(10L, 100);
+
+        // Then: el hueco 12 ha caducado; el 14 se ve por primera vez en la segunda lectura
+        assertThat(first.getCursor()).isEqualTo(11L);
+        assertThat(second.getCursor()).isEqualTo(13L);
+        assertThat(second.isHasMore()).isFalse();
+        verify(deviceService, never()).getDevicesByIds(List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void should_require_resync_when_cursor_is_below_purge_watermark() {
+        // Given
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(10L), any(Limit.class)))
+                .thenReturn(List.of(entry(50L, 1L, DeviceChangeType.UPDATED, 3_600)));
+        when(repository.findMinId()).thenReturn(Optional.of(50L));
+
+        // When
+        DeviceChangesDto first = changeFeed.read(10L, 100);
+        clock.advance(Duration.ofSeconds(10));
+        DeviceChangesDto second = changeFeed.read(10L, 100);
+
+        // Then: hasta gapTimeout puede ser una transacción sin confirmar
+        assertThat(first.isResyncRequired()).isFalse();
+        assertThat(first.getCursor()).isEqualTo(10L);
+        assertThat(second.isResyncRequired()).isTrue();
+        assertThat(second.getCursor()).isEqualTo(10L);
+        verifyNoInteractions(deviceService);
+    }
+
+    @Test
+    void should_require_resync_when_change_log_is_empty() {
+        // Given
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(10L), any(Limit.class))).thenReturn(List.of());
+        when(repository.findMaxId()).thenReturn(Optional.empty());
+
+        // When
+        DeviceChangesDto page = changeFeed.read(10L, 100);
+
+        // Then
+        assertThat(page.isResyncRequired()).isTrue();
+        assertThat(page.getCursor()).isEqualTo(10L);
+    }
+
+    @Test
+    void should_return_empty_page_when_cursor_is_up_to_date() {
+        // Given
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(10L), any(Limit.class))).thenReturn(List.of());
+        when(repository.findMaxId()).thenReturn(Optional.of(10L));
+
+        // When
+        DeviceChangesDto page = changeFeed.read(10L, 100);
+
+        // Then
+        assertThat(page.isResyncRequired()).isFalse();
+        assertThat(page.getCursor()).isEqualTo(10L);
+    }
+
+    @Test
+    void should_return_current_cursor_without_since() {
+        // Given
+        when(repository.findMaxId()).thenReturn(Optional.of(42L));
+
+        // When
+        DeferredResult<DeviceChangesDto> result = changeFeed.changes(null, 100, Duration.ofSeconds(30));
+
+        // Then
+        assertThat(((DeviceChangesDto) result.getResult()).getCursor()).isEqualTo(42L);
+    }
+
+    @Test
+    void should_park_long_poll_until_a_change_arrives() throws InterruptedException {
+        // Given
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(10L), any(Limit.class)))
+                .thenReturn(List.of())
+                .thenReturn(List.of(entry(11L, 1L, DeviceChangeType.UPDATED, 60)));
+        when(repository.findMaxId()).thenReturn(Optional.of(10L));
+        when(deviceService.getDevicesByIds(List.of(1L))).thenReturn(List.of(device(1L)));
+        DeferredResult<DeviceChangesDto> result = changeFeed.changes(10L, 100, Duration.ofSeconds(30));
+        assertThat(result.hasResult()).isFalse();
+        assertThat(changeFeed.waiting()).isEqualTo(1);
+
+        // When
+        changeFeed.onChanges(List.of(new DeviceChange(11L, 1L, "SN1", null, DeviceChangeType.UPDATED)));
+
+        // Then
+        awaitResult(result);
+        assertThat(((DeviceChangesDto) result.getResult()).getCursor()).isEqualTo(11L);
+    }
+
+    // Métodos helper
+    private static void awaitResult(DeferredResult<?> result) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!result.hasResult() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static ChangeLogEntry entry(Long sequence, Long deviceId, DeviceChangeType type, long ageSeconds) {
+        return new ChangeLogEntry(sequence, deviceId, "SN" + deviceId, null, type, NOW.minusSeconds(ageSeconds));
+    }
+
+    private static DeviceDetailsDto device(Long id) {
+        DeviceDetailsDto device = new DeviceDetailsDto();
+        device.setId(id);
+        device.setSerialNo("SN" + id);
+        return device;
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.insulinpump.deviceservice.changelog;
+
+import com.insulinpump.deviceservice.event.DeviceChangeType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeLogPollerTest {
+
+    @Mock
+    private ChangeLogRepository repository;
+
+    @Mock
+    private ChangeLogListener listener;
+
+    private MutableClock clock;
+    private ChangeLogPoller poller;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        poller = new ChangeLogPoller(repository, List.of(listener), new ChangeLogProperties(),
+                new ChangeFeedProperties(), clock);
+        registry = new SimpleMeterRegistry();
+        poller.bindTo(registry);
+    }
+
+    @Test
+    void should_start_from_latest_sequence_and_apply_new_changes() {
+        // Given
+        when(repository.findMaxId()).thenReturn(Optional.of(10L));
+        poller.poll();
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(10L), any(Limit.class)))
+                .thenReturn(List.of(entry(11L, 1L), entry(12L, 2L)));
+
+        // When
+        poller.poll();
+
+        // Then
+        List<DeviceChange> changes = captureChanges();
+        assertThat(changes).extracting(DeviceChange::deviceId).containsExactly(1L, 2L);
+        assertThat(poller.getHighWaterMark()).isEqualTo(12L);
+        assertThat(registry.get("device.change-log.applied").counter().count()).isEqualTo(2);
+        verify(listener, never()).invalidateAll();
+    }
+
+    @Test
+    void should_apply_skipped_sequence_when_it_commits_later() {
+        // Given
+        when(repository.findMaxId()).thenReturn(Optional.of(10L));
+        poller.poll();
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(10L), any(Limit.class)))
+                .thenReturn(List.of(entry(12L, 2L)));
+        poller.poll();
+        assertThat(poller.pendingGaps()).isEqualTo(1);
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(12L), any(Limit.class))).thenReturn(List.of());
+        when(repository.findAllById(List.of(11L))).thenReturn(List.of(entry(11L, 1L)));
+
+        // When
+        poller.poll();
+
+        // Then
+        ArgumentCaptor<List<DeviceChange>> captor = changesCaptor();
+        verify(listener, times(2)).onChanges(captor.capture());
+        assertThat(captor.getAllValues().get(1)).extracting(DeviceChange::deviceId).containsExactly(1L);
+        assertThat(poller.pendingGaps()).isZero();
+        verify(listener, never()).invalidateAll();
+    }
+
+    @Test
+    void should_invalidate_all_when_gap_times_out() {
+        // Given
+        when(repository.findMaxId()).thenReturn(Optional.of(10L));
+        poller.poll();
+        when(repository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class)))
+                .thenReturn(List.of(entry(12L, 2L)))
+                .thenReturn(List.of());
+        poller.poll();
+        when(repository.findAllById(List.of(11L))).thenReturn(List.of());
+        clock.advance(Duration.ofSeconds(11));
+
+        // When
+        poller.poll();
+
+        // Then
+        verify(listener).invalidateAll();
+        assertThat(poller.pendingGaps()).isZero();
+        assertThat(registry.get("device.change-log.flushes").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_invalidate_all_when_lag_exceeds_limit() {
+        // Given
+        when(repository.findMaxId()).thenReturn(Optional.of(10L));
+        poller.poll();
+        when(repository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class)))
+                .thenThrow(new RuntimeException("Base de datos no disponible"));
+        poller.poll();
+        verify(listener, never()).invalidateAll();
+        clock.advance(Duration.ofSeconds(31));
+
+        // When
+        poller.poll();
+
+        // Then
+        verify(listener).invalidateAll();
+        assertThat(poller.lag()).isEqualTo(Duration.ofSeconds(31));
+    }
+
+    @Test
+    void should_purge_with_feed_retention_and_keep_latest_entry() {
+        // Given
+        when(repository.findMaxId()).thenReturn(Optional.of(500L));
+
+        // When
+        poller.purge();
+
+        // Then
+        verify(repository).deleteCreatedBefore(Instant.parse("2024-12-31T00:00:00Z"), 500L);
+    }
+
+    // Métodos helper
+    private List<DeviceChange> captureChanges() {
+        ArgumentCaptor<List<DeviceChange>> captor = changesCaptor();
+        verify(listener).onChanges(captor.capture());
+        return captor.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<DeviceChange>> changesCaptor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+
+    private static ChangeLogEntry entry(Long sequence, Long deviceId) {
+        return new ChangeLogEntry(sequence, deviceId, "SN" + deviceId, null, DeviceChangeType.UPDATED,
+                Instant.parse("2025-01-01T00:00:00Z"));
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
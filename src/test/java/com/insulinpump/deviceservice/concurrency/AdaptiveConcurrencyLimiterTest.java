@@ -0,0 +1,115 @@
+package com.insulinpump.deviceservice.concurrency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private ConcurrencyLimitProperties properties;
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ConcurrencyLimitProperties();
+        limiter = new AdaptiveConcurrencyLimiter(properties);
+    }
+
+    @Test
+    void should_raise_limit_while_latency_stays_stable_under_pressure() {
+        // Given
+        int initial = limiter.getLimit();
+
+        // When
+        for (int round = 0; round < 20; round++) {
+            saturate(10);
+        }
+
+        // Then
+        assertThat(limiter.getLimit()).isGreaterThan(initial);
+    }
+
+    @Test
+    void should_not_raise_limit_without_pressure() {
+        // When - una petición cada vez, muy por debajo del límite
+        for (int i = 0; i < 200; i++) {
+            limiter.tryAcquire(RequestPriority.READ);
+            limiter.release(RequestPriority.READ, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        // Then
+        assertThat(limiter.getLimit()).isEqualTo(properties.getInitialLimit());
+    }
+
+    @Test
+    void should_shrink_limit_when_downstream_slows_down() {
+        // Given - MySQL responde en 10 ms
+        for (int round = 0; round < 20; round++) {
+            saturate(10);
+        }
+        int healthyLimit = limiter.getLimit();
+
+        // When - patient-service o MySQL pasan a tardar 200 ms
+        saturate(200);
+
+        // Then
+        assertThat(limiter.getLimit()).isLessThan(healthyLimit / 2);
+        assertThat(limiter.getLimit()).isGreaterThanOrEqualTo(properties.getMinLimit());
+    }
+
+    @Test
+    void should_not_shrink_limit_when_slow_bulk_reads_follow_fast_point_reads() {
+        // Given - lecturas por id en 10 ms y listados en 200 ms, cada clase con su latencia habitual
+        for (int round = 0; round < 20; round++) {
+            saturate(RequestPriority.READ, 10);
+            saturate(RequestPriority.BULK, 200);
+        }
+        int limit = limiter.getLimit();
+
+        // When - una ráfaga de listados a su latencia de siempre
+        for (int round = 0; round < 5; round++) {
+            saturate(RequestPriority.BULK, 200);
+        }
+
+        // Then
+        assertThat(limiter.getLimit()).isGreaterThanOrEqualTo(limit);
+    }
+
+    @Test
+    void should_shed_bulk_reads_before_writes() {
+        // Given - límite inicial 20: 10 huecos para listados, 16 para lecturas, 20 para escrituras
+        int bulkAdmitted = 0;
+        while (limiter.tryAcquire(RequestPriority.BULK)) {
+            bulkAdmitted++;
+        }
+
+        // When / Then
+        assertThat(bulkAdmitted).isEqualTo(10);
+        assertThat(limiter.tryAcquire(RequestPriority.READ)).isTrue();
+        int writesAdmitted = 0;
+        while (limiter.tryAcquire(RequestPriority.WRITE)) {
+            writesAdmitted++;
+        }
+        assertThat(writesAdmitted).isEqualTo(9);
+        assertThat(limiter.tryAcquire(RequestPriority.READ)).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(20);
+    }
+
+    // Ocupa todos los huecos disponibles y los libera con la latencia indicada
+    private void saturate(long rttMillis) {
+        saturate(RequestPriority.WRITE, rttMillis);
+    }
+
+    private void saturate(RequestPriority priority, long rttMillis) {
+        int acquired = 0;
+        while (limiter.tryAcquire(priority)) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limiter.release(priority, TimeUnit.MILLISECONDS.toNanos(rttMillis));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.insulinpump.deviceservice.concurrency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+
+    private AdaptiveConcurrencyLimiter limiter;
+    private ConcurrencyLimitFilter filter;
+    private ExecutorService executor;
+    private CountDownLatch downstream;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(4);
+        limiter = new AdaptiveConcurrencyLimiter(properties);
+        filter = new ConcurrencyLimitFilter(limiter, properties, new ObjectMapper().registerModule(new JavaTimeModule()));
+        executor = Executors.newCachedThreadPool();
+        downstream = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        downstream.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void should_classify_requests_by_priority() {
+        assertThat(filter.priorityOf(new MockHttpServletRequest("GET", "/api/devices"))).isEqualTo(RequestPriority.BULK);
+        assertThat(filter.priorityOf(new MockHttpServletRequest("GET", "/api/devices/search/model")))
+                .isEqualTo(RequestPriority.BULK);
+        assertThat(filter.priorityOf(new MockHttpServletRequest("GET", "/api/devices/7"))).isEqualTo(RequestPriority.READ);
+        assertThat(filter.priorityOf(new MockHttpServletRequest("PATCH", "/api/devices/7/status")))
+                .isEqualTo(RequestPriority.WRITE);
+    }
+
+    @Test
+    void should_shed_bulk_reads_with_503_but_admit_writes_during_downstream_slowdown() throws Exception {
+        // Given - dos listados bloqueados en un downstream lento ocupan la cuota de listados (50 % de 4)
+        List<CompletableFuture<MockHttpServletResponse>> stuck = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            stuck.add(CompletableFuture.supplyAsync(() -> send("GET", "/api/devices", slowDownstream()), executor));
+        }
+        waitUntilInFlight(2);
+
+        // When
+        MockHttpServletResponse bulk = send("GET", "/api/devices", new MockFilterChain());
+        MockHttpServletResponse write = send("PATCH", "/api/devices/1/status", new MockFilterChain());
+
+        // Then
+        assertThat(bulk.getStatus()).isEqualTo(503);
+        assertThat(bulk.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(write.getStatus()).isEqualTo(200);
+
+        downstream.countDown();
+        for (CompletableFuture<MockHttpServletResponse> response : stuck) {
+            assertThat(response.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+        }
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void should_not_limit_actuator_endpoints() {
+        // When
+        MockHttpServletResponse response = send("GET", "/actuator/health", new MockFilterChain());
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    // Métodos helper
+    private FilterChain slowDownstream() {
+        return (request, response) -> {
+            try {
+                downstream.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+
+    private MockHttpServletResponse send(String method, String path, FilterChain chain) {
+        try {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest(method, path), response, chain);
+            return response;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void waitUntilInFlight(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (limiter.getInFlight() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(limiter.getInFlight()).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,121 @@
+package com.insulinpump.deviceservice.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.insulinpump.deviceservice.controller.DeviceController;
+import com.insulinpump.deviceservice.dto.DeviceDetailsDto;
+import com.insulinpump.deviceservice.service.DeviceService;
+import com.insulinpump.deviceservice.snapshot.FleetSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class BinaryFormatsConfigTest {
+
+    private static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Mock
+    private DeviceService deviceService;
+
+    @Mock
+    private FleetSnapshot fleetSnapshot;
+
+    @InjectMocks
+    private DeviceController deviceController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        converters.add(new MappingJackson2HttpMessageConverter(builder.build()));
+        new BinaryFormatsConfig(builder).extendMessageConverters(converters);
+
+        mockMvc = MockMvcBuilders.standaloneSetup(deviceController)
+                .setMessageConverters(converters.toArray(HttpMessageConverter[]::new))
+                .build();
+        when(deviceService.getAllDevices()).thenReturn(List.of(createTestDeviceDetailsDto()));
+    }
+
+    @Test
+    void should_keep_json_as_default() throws Exception {
+        mockMvc.perform(get("/api/devices"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void should_encode_device_list_as_cbor() throws Exception {
+        // When
+        byte[] body = mockMvc.perform(get("/api/devices").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        List<DeviceDetailsDto> devices = decode(new ObjectMapper(new CBORFactory()), body);
+        assertThat(devices).hasSize(1);
+        assertThat(devices.get(0).getSerialNo()).isEqualTo("ABC123");
+        assertThat(devices.get(0).getManufactureDate()).isEqualTo(LocalDate.of(2024, 1, 15));
+    }
+
+    @Test
+    void should_encode_device_list_as_smile() throws Exception {
+        // When
+        byte[] body = mockMvc.perform(get("/api/devices").accept(APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        List<DeviceDetailsDto> devices = decode(new ObjectMapper(new SmileFactory()), body);
+        assertThat(devices).hasSize(1);
+        assertThat(devices.get(0).getFirmwareVersion()).isEqualTo("1.0.0");
+    }
+
+    private List<DeviceDetailsDto> decode(ObjectMapper mapper, byte[] body) throws Exception {
+        mapper.registerModule(new JavaTimeModule());
+        return mapper.readValue(body, new TypeReference<>() {
+        });
+    }
+
+    private DeviceDetailsDto createTestDeviceDetailsDto() {
+        DeviceDetailsDto dto = new DeviceDetailsDto();
+        dto.setId(1L);
+        dto.setSerialNo("ABC123");
+        dto.setModel("Model X");
+        dto.setManufacturer("Manufacturer A");
+        dto.setStatus("ACTIVE");
+        dto.setManufactureDate(LocalDate.of(2024, 1, 15));
+        dto.setMaxBasalRate(2.0f);
+        dto.setMaxBolusAmount(10.0f);
+        dto.setReservoirCapacity(300);
+        dto.setFirmwareVersion("1.0.0");
+        dto.setBatteryType("Lithium");
+        return dto;
+    }
+}
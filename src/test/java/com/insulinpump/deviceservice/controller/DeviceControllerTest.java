@@ -2,12 +2,21 @@ package com.insulinpump.deviceservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.insulinpump.deviceservice.cache.DeviceResponseCache;
+import com.insulinpump.deviceservice.dto.BatchLookupResultDto;
 import com.insulinpump.deviceservice.dto.DeviceCreateDto;
 import com.insulinpump.deviceservice.dto.DeviceDetailsDto;
+import com.insulinpump.deviceservice.dto.FacetResultDto;
 import com.insulinpump.deviceservice.exception.DeviceNotFoundException;
 import com.insulinpump.deviceservice.exception.GlobalExceptionHandler;
+import com.insulinpump.deviceservice.exception.InvalidDevicePatchException;
+import com.insulinpump.deviceservice.exception.InvalidFacetFilterException;
+import com.insulinpump.deviceservice.facet.FacetService;
+import com.insulinpump.deviceservice.fields.FieldSelection;
 import com.insulinpump.deviceservice.model.DeviceStatus;
+import com.insulinpump.deviceservice.repository.DeviceSearch;
 import com.insulinpump.deviceservice.service.DeviceService;
+import com.insulinpump.deviceservice.snapshot.FleetSnapshot;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,6 +30,7 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -34,6 +44,15 @@ class DeviceControllerTest {
     @Mock
     private DeviceService deviceService;
 
+    @Mock
+    private FleetSnapshot fleetSnapshot;
+
+    @Mock
+    private FacetService facetService;
+
+    @Mock
+    private DeviceResponseCache deviceResponseCache;
+
     @InjectMocks
     private DeviceController deviceController;
 
@@ -68,6 +87,70 @@ class DeviceControllerTest {
         verify(deviceService, times(1)).getAllDevices();
     }
 
+    @Test
+    void should_read_all_devices_from_database_when_fleet_does_not_fit_snapshot() throws Exception {
+        // Given - view() devuelve null cuando el diccionario de la instantánea no admite la flota
+        when(fleetSnapshot.isEnabled()).thenReturn(true);
+        when(deviceService.getAllDevices()).thenReturn(List.of(createTestDeviceDetailsDto()));
+
+        // When & Then
+        mockMvc.perform(get("/api/devices"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].serialNo").value("ABC123"));
+
+        verify(deviceService, times(1)).getAllDevices();
+    }
+
+    @Test
+    void should_write_cached_bytes_and_gzip_only_when_accepted() throws Exception {
+        // Given
+        byte[] json = "{\"id\":1}".getBytes();
+        byte[] gzip = {31, -117, 8};
+        when(deviceResponseCache.isEnabled()).thenReturn(true);
+        when(deviceService.getEncodedDeviceById(1L)).thenReturn(new DeviceResponseCache.Encoded(json, gzip));
+
+        // When & Then
+        mockMvc.perform(get("/api/devices/1").header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andExpect(content().bytes(gzip));
+        mockMvc.perform(get("/api/devices/1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().bytes(json));
+        verify(deviceService, never()).getDeviceById(1L);
+    }
+
+    @Test
+    void should_return_only_requested_fields() throws Exception {
+        // Given
+        when(deviceService.getDevices(eq(DeviceSearch.byStatus(DeviceStatus.ACTIVE)), any(FieldSelection.class)))
+                .thenReturn(List.of(createTestDeviceDetailsDto()));
+
+        // When & Then
+        mockMvc.perform(get("/api/devices/status/ACTIVE").param("fields", "serialNo,status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].serialNo").value("ABC123"))
+                .andExpect(jsonPath("$[0].status").value("ACTIVE"))
+                .andExpect(jsonPath("$[0].model").doesNotExist())
+                .andExpect(jsonPath("$[0].patient").doesNotExist());
+
+        verify(deviceService, never()).getDevicesByStatus(any());
+    }
+
+    @Test
+    void should_return_400_for_unknown_field() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/devices/1").param("fields", "serialNo,colour"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Campo desconocido 'colour'"));
+
+        verifyNoInteractions(deviceService);
+    }
+
     @Test
     void should_get_device_by_id() throws Exception {
         // Given
@@ -111,6 +194,24 @@ class DeviceControllerTest {
         verify(deviceService, times(1)).getDeviceBySerialNo("ABC123");
     }
 
+    @Test
+    void should_look_in_archive_only_when_including_archived() throws Exception {
+        // Given
+        DeviceDetailsDto device = createTestDeviceDetailsDto();
+        device.setStatus("DEFECTIVE");
+        when(deviceService.getDeviceBySerialNoIncludingArchived("ABC123")).thenReturn(device);
+
+        // When & Then
+        mockMvc.perform(get("/api/devices/serial/ABC123").param("includeArchived", "true")
+                        .param("fields", "id,status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("DEFECTIVE"))
+                .andExpect(jsonPath("$.serialNo").doesNotExist());
+
+        verify(deviceService, never()).getDeviceBySerialNo(any());
+        verify(deviceService, never()).getEncodedDeviceBySerialNo(any());
+    }
+
     @Test
     void should_get_devices_by_patient_id() throws Exception {
         // Given
@@ -239,6 +340,30 @@ class DeviceControllerTest {
         verify(deviceService, times(1)).updateDeviceStatus(1L, DeviceStatus.MAINTENANCE);
     }
 
+    @Test
+    void should_merge_patch_device_and_report_invalid_fields() throws Exception {
+        // Given
+        DeviceDetailsDto updatedDevice = createTestDeviceDetailsDto();
+        updatedDevice.setFirmwareVersion("2.0.0");
+        when(deviceService.mergePatchDevice(eq(1L), any())).thenReturn(updatedDevice);
+        when(deviceService.mergePatchDevice(eq(2L), any()))
+                .thenThrow(new InvalidDevicePatchException(Map.of("model", "El modelo es obligatorio")));
+
+        // When & Then
+        mockMvc.perform(patch("/api/devices/1")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"firmwareVersion\":\"2.0.0\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firmwareVersion").value("2.0.0"));
+        mockMvc.perform(patch("/api/devices/2")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"model\":null}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.validationErrors.model").value("El modelo es obligatorio"));
+
+        verify(deviceService).mergePatchDevice(1L, objectMapper.readTree("{\"firmwareVersion\":\"2.0.0\"}"));
+    }
+
     @Test
     void should_assign_device_to_patient() throws Exception {
         // Given
@@ -265,6 +390,62 @@ class DeviceControllerTest {
         verify(deviceService, times(1)).deleteDevice(1L);
     }
 
+    @Test
+    void should_return_facet_counts() throws Exception {
+        // Given
+        FacetResultDto result = new FacetResultDto(2, Map.of("manufacturer", Map.of("Insulet", 2L)), null, null);
+        when(facetService.search("status:ACTIVE", List.of("manufacturer"), null, 0)).thenReturn(result);
+
+        // When & Then
+        mockMvc.perform(get("/api/devices/facets")
+                        .param("filter", "status:ACTIVE")
+                        .param("facets", "manufacturer"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.facets.manufacturer.Insulet").value(2));
+    }
+
+    @Test
+    void should_return_bad_request_for_invalid_facet_filter() throws Exception {
+        // Given
+        when(facetService.search(eq("colour:red"), any(), any(), eq(0)))
+                .thenThrow(new InvalidFacetFilterException("Posición 0: campo desconocido 'colour'"));
+
+        // When & Then
+        mockMvc.perform(get("/api/devices/facets").param("filter", "colour:red"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Posición 0: campo desconocido 'colour'"));
+    }
+
+    @Test
+    void should_lookup_devices_by_serial_batch() throws Exception {
+        // Given
+        BatchLookupResultDto<String> result = new BatchLookupResultDto<>(List.of(
+                new BatchLookupResultDto.Entry<>("ABC123", true, createTestDeviceDetailsDto()),
+                new BatchLookupResultDto.Entry<>("NOPE", false, null)), List.of("NOPE"));
+        when(deviceService.lookupDevicesBySerialNos(List.of("ABC123", "NOPE"))).thenReturn(result);
+
+        // When & Then
+        mockMvc.perform(post("/api/devices/serial/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"keys\":[\"ABC123\",\"NOPE\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].device.id").value(1))
+                .andExpect(jsonPath("$.results[1].found").value(false))
+                .andExpect(jsonPath("$.notFound[0]").value("NOPE"));
+    }
+
+    @Test
+    void should_return_400_for_empty_batch() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/devices/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"keys\":[]}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(deviceService);
+    }
+
     // Métodos helper
     private DeviceDetailsDto createTestDeviceDetailsDto() {
         DeviceDetailsDto dto = new DeviceDetailsDto();
@@ -0,0 +1,125 @@
+package com.insulinpump.deviceservice.controller;
+
+import com.insulinpump.deviceservice.archive.ArchivedDeviceRepository;
+import com.insulinpump.deviceservice.cache.DeviceCache;
+import com.insulinpump.deviceservice.cache.DeviceCacheProperties;
+import com.insulinpump.deviceservice.cache.DeviceResponseCache;
+import com.insulinpump.deviceservice.client.PatientClient;
+import com.insulinpump.deviceservice.exception.GlobalExceptionHandler;
+import com.insulinpump.deviceservice.facet.FacetService;
+import com.insulinpump.deviceservice.mapper.DeviceMapperImpl;
+import com.insulinpump.deviceservice.metrics.DeviceMetrics;
+import com.insulinpump.deviceservice.patch.DeviceMergePatchReader;
+import com.insulinpump.deviceservice.projection.PatientProjection;
+import com.insulinpump.deviceservice.service.DeviceService;
+import com.insulinpump.deviceservice.sharding.ScatterGather;
+import com.insulinpump.deviceservice.sharding.Shard;
+import com.insulinpump.deviceservice.sharding.ShardIdAllocator;
+import com.insulinpump.deviceservice.sharding.ShardRouter;
+import com.insulinpump.deviceservice.sharding.ShardSchemaInitializer;
+import com.insulinpump.deviceservice.sharding.ShardedDeviceRepository;
+import com.insulinpump.deviceservice.snapshot.FleetSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// DeviceController sobre un DeviceService real y dos shards H2 con rangos de 1.000 ids
+class ShardedDeviceControllerTest {
+
+    private static final long OUT_OF_RANGE = 2_001;
+
+    private List<Shard> shards;
+    private ExecutorService executor;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString();
+        shards = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            shards.add(Shard.of(i, new DriverManagerDataSource(
+                    "jdbc:h2:mem:controller-shard-" + i + "-" + run + ";DB_CLOSE_DELAY=-1;MODE=MySQL", "sa", "")));
+        }
+        ShardRouter router = new ShardRouter(2, 1_000);
+        ShardSchemaInitializer.initialize(shards, router);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        ShardedDeviceRepository repository = new ShardedDeviceRepository(shards, router,
+                new ShardIdAllocator(shards, 10), new ScatterGather(executor, Duration.ofSeconds(5)));
+
+        DeviceCacheProperties cacheProperties = new DeviceCacheProperties();
+        cacheProperties.setEnabled(false);
+        DeviceResponseCache deviceResponseCache = mock(DeviceResponseCache.class);
+        DeviceService deviceService = new DeviceService(repository, mock(ArchivedDeviceRepository.class),
+                mock(PatientClient.class), new DeviceMapperImpl(), mock(DeviceMetrics.class), new PatientProjection(),
+                new DeviceCache(cacheProperties, new DeviceMapperImpl()), deviceResponseCache,
+                mock(DeviceMergePatchReader.class), mock(ApplicationEventPublisher.class));
+        DeviceController controller = new DeviceController(deviceService, mock(FleetSnapshot.class),
+                mock(FacetService.class), deviceResponseCache);
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+        for (Shard shard : shards) {
+            shard.jdbc().getJdbcTemplate().execute("SHUTDOWN");
+        }
+    }
+
+    @Test
+    void should_return_404_for_ids_outside_shard_ranges() throws Exception {
+        // When & Then
+        for (long id : new long[]{0, -1, OUT_OF_RANGE}) {
+            mockMvc.perform(get("/api/devices/{id}", id))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
+    @Test
+    void should_return_404_when_writing_to_id_outside_shard_ranges() throws Exception {
+        // When & Then
+        mockMvc.perform(patch("/api/devices/{id}/status", OUT_OF_RANGE).param("status", "ACTIVE"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(patch("/api/devices/{id}", OUT_OF_RANGE)
+                        .contentType(DeviceController.MERGE_PATCH_JSON)
+                        .content("{\"model\": \"Model Y\"}"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(put("/api/devices/{id}/assign/{patientId}", OUT_OF_RANGE, 100L))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/devices/{id}", 0L))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/devices/{id}", OUT_OF_RANGE).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void should_report_ids_outside_shard_ranges_as_not_found_in_batch() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/devices/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"keys\": [0, 1, " + OUT_OF_RANGE + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.notFound.length()").value(3))
+                .andExpect(jsonPath("$.notFound[2]").value(OUT_OF_RANGE));
+    }
+}
@@ -0,0 +1,76 @@
+package com.insulinpump.deviceservice.facet;
+
+import com.insulinpump.deviceservice.exception.InvalidFacetFilterException;
+import com.insulinpump.deviceservice.firmware.FirmwareVersion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FacetFilterParserTest {
+
+    @Test
+    void should_give_and_precedence_over_or() {
+        // When
+        FacetFilter filter = FacetFilterParser.parse("status:active AND model:\"MiniMed 780G\" OR NOT assigned:TRUE");
+
+        // Then
+        assertThat(filter).isEqualTo(new FacetFilter.Or(List.of(
+                new FacetFilter.And(List.of(
+                        new FacetFilter.Term(FacetField.STATUS, "ACTIVE"),
+                        new FacetFilter.Term(FacetField.MODEL, "MiniMed 780G"))),
+                new FacetFilter.Not(new FacetFilter.Term(FacetField.ASSIGNED, "true")))));
+    }
+
+    @Test
+    void should_parse_parentheses_and_firmware_ranges() {
+        // When
+        FacetFilter filter = FacetFilterParser.parse("(manufacturer:Insulet or manufacturer:Tandem) and firmwareVersion < 2.1");
+
+        // Then
+        assertThat(filter).isInstanceOf(FacetFilter.And.class);
+        FacetFilter.And and = (FacetFilter.And) filter;
+        assertThat(and.filters().get(0)).isInstanceOf(FacetFilter.Or.class);
+        assertThat(and.filters().get(1)).isEqualTo(
+                new FacetFilter.FirmwareRange(FacetFilter.Comparison.LT, FirmwareVersion.parse("2.1.0")));
+    }
+
+    @Test
+    void should_match_everything_when_filter_is_empty() {
+        assertThat(FacetFilterParser.parse(" ")).isEqualTo(new FacetFilter.MatchAll());
+    }
+
+    @Test
+    void should_reject_invalid_filters() {
+        assertThatThrownBy(() -> FacetFilterParser.parse("colour:red"))
+                .isInstanceOf(InvalidFacetFilterException.class)
+                .hasMessageContaining("campo desconocido 'colour'");
+        assertThatThrownBy(() -> FacetFilterParser.parse("model<X"))
+                .isInstanceOf(InvalidFacetFilterException.class)
+                .hasMessageContaining("solo firmwareVersion");
+        assertThatThrownBy(() -> FacetFilterParser.parse("(status:ACTIVE"))
+                .isInstanceOf(InvalidFacetFilterException.class);
+        assertThatThrownBy(() -> FacetFilterParser.parse("status:ACTIVE model:X"))
+                .isInstanceOf(InvalidFacetFilterException.class);
+    }
+
+    @Test
+    void should_reject_filters_nested_too_deeply() {
+        // Given
+        String nested = "(".repeat(FacetFilterParser.MAX_DEPTH + 1) + "status:ACTIVE"
+                + ")".repeat(FacetFilterParser.MAX_DEPTH + 1);
+        String negated = "NOT ".repeat(FacetFilterParser.MAX_DEPTH + 1) + "status:ACTIVE";
+
+        // Then
+        assertThatThrownBy(() -> FacetFilterParser.parse(nested))
+                .isInstanceOf(InvalidFacetFilterException.class)
+                .hasMessageContaining("anidamiento máximo");
+        assertThatThrownBy(() -> FacetFilterParser.parse(negated))
+                .isInstanceOf(InvalidFacetFilterException.class)
+                .hasMessageContaining("anidamiento máximo");
+        assertThat(FacetFilterParser.parse("(".repeat(FacetFilterParser.MAX_DEPTH) + "status:ACTIVE"
+                + ")".repeat(FacetFilterParser.MAX_DEPTH))).isEqualTo(new FacetFilter.Term(FacetField.STATUS, "ACTIVE"));
+    }
+}
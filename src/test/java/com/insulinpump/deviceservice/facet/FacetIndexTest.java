@@ -0,0 +1,135 @@
+package com.insulinpump.deviceservice.facet;
+
+import com.insulinpump.deviceservice.changelog.DeviceChange;
+import com.insulinpump.deviceservice.event.DeviceChangeType;
+import com.insulinpump.deviceservice.event.DeviceChangedEvent;
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import com.insulinpump.deviceservice.repository.DeviceStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FacetIndexTest {
+
+    @Mock
+    private DeviceStore deviceRepository;
+
+    private FacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FacetIndex(deviceRepository);
+        when(deviceRepository.findAll()).thenReturn(List.of(
+                device(1L, DeviceStatus.ACTIVE, "Insulet", "1.9.0", 100L),
+                device(2L, DeviceStatus.ACTIVE, "Insulet", "2.1.0", null),
+                device(3L, DeviceStatus.ACTIVE, "Tandem", "1.10.2", 101L),
+                device(4L, DeviceStatus.MAINTENANCE, "Insulet", "1.2.0", null),
+                device(5L, DeviceStatus.DEFECTIVE, "Medtronic", "3.0.0", 102L)));
+    }
+
+    @Test
+    void should_answer_and_or_not_combinations() {
+        assertThat(ids("status:ACTIVE AND manufacturer:Insulet AND firmwareVersion<2.0")).containsExactly(1L);
+        assertThat(ids("manufacturer:Tandem OR status:MAINTENANCE")).containsExactly(3L, 4L);
+        assertThat(ids("NOT assigned:true AND NOT status:maintenance")).containsExactly(2L);
+        assertThat(ids("status:ACTIVE AND NOT (manufacturer:Insulet OR firmwareVersion>=1.10)")).isEmpty();
+        assertThat(ids("")).containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void should_count_values_within_matches() {
+        // Given
+        Roaring64Bitmap matches = index.evaluate(FacetFilterParser.parse("NOT status:DEFECTIVE"));
+
+        // When
+        Map<String, Long> byManufacturer = index.counts(FacetField.MANUFACTURER, matches);
+        Map<String, Long> byAssignment = index.counts(FacetField.ASSIGNED, matches);
+
+        // Then
+        assertThat(byManufacturer).containsExactly(Map.entry("Insulet", 3L), Map.entry("Tandem", 1L));
+        assertThat(byAssignment).containsExactly(Map.entry("false", 2L), Map.entry("true", 2L));
+    }
+
+    @Test
+    void should_maintain_bitmaps_on_local_and_remote_writes() {
+        // Given
+        Device before = device(2L, DeviceStatus.ACTIVE, "Insulet", "2.1.0", null);
+        index.evaluate(new FacetFilter.MatchAll());
+        Device after = device(2L, DeviceStatus.INACTIVE, "Insulet", "2.1.0", null);
+        when(deviceRepository.findAllById(List.of(3L))).thenReturn(List.of(device(3L, DeviceStatus.ACTIVE, "Tandem", "2.2.0", 101L)));
+
+        // When
+        index.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.UPDATED, before, after));
+        index.onChanges(List.of(
+                new DeviceChange(1L, 3L, "SN3", null, DeviceChangeType.UPDATED),
+                new DeviceChange(2L, 5L, "SN5", null, DeviceChangeType.DELETED)));
+
+        // Then
+        assertThat(ids("status:ACTIVE")).containsExactly(1L, 3L);
+        assertThat(ids("status:INACTIVE")).containsExactly(2L);
+        assertThat(ids("firmwareVersion>=2.2")).containsExactly(3L);
+        assertThat(index.size()).isEqualTo(4);
+        verify(deviceRepository, times(1)).findAll();
+        verify(deviceRepository, never()).findById(any());
+    }
+
+    @Test
+    void should_reload_remote_changes_when_local_write_lands_during_the_load() {
+        // Given - una escritura local confirmada mientras se leía el lote del change-log
+        index.evaluate(new FacetFilter.MatchAll());
+        Device stale = device(3L, DeviceStatus.ACTIVE, "Tandem", "1.10.2", 101L);
+        Device fresh = device(3L, DeviceStatus.INACTIVE, "Tandem", "1.10.2", 101L);
+        when(deviceRepository.findAllById(List.of(3L)))
+                .thenAnswer(invocation -> {
+                    index.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.UPDATED, stale, fresh));
+                    return List.of(stale);
+                })
+                .thenReturn(List.of(fresh));
+
+        // When
+        index.onChanges(List.of(new DeviceChange(1L, 3L, "SN3", null, DeviceChangeType.UPDATED)));
+
+        // Then
+        assertThat(ids("status:INACTIVE")).containsExactly(3L);
+        verify(deviceRepository, times(2)).findAllById(List.of(3L));
+    }
+
+    @Test
+    void should_page_matching_ids_after_cursor() {
+        // Given
+        Roaring64Bitmap matches = index.evaluate(FacetFilterParser.parse("manufacturer:Insulet"));
+
+        // When & Then
+        assertThat(FacetIndex.page(matches, -1, 2)).containsExactly(1L, 2L);
+        assertThat(FacetIndex.page(matches, 2, 2)).containsExactly(4L);
+    }
+
+    // Métodos helper
+    private List<Long> ids(String filter) {
+        return FacetIndex.page(index.evaluate(FacetFilterParser.parse(filter)), -1, 100);
+    }
+
+    private static Device device(Long id, DeviceStatus status, String manufacturer, String firmware, Long patientId) {
+        Device device = new Device();
+        device.setId(id);
+        device.setSerialNo("SN" + id);
+        device.setModel("Modelo " + manufacturer);
+        device.setManufacturer(manufacturer);
+        device.setStatus(status);
+        device.setFirmwareVersion(firmware);
+        device.setPatientId(patientId);
+        return device;
+    }
+}
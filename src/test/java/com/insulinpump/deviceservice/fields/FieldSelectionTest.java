@@ -0,0 +1,76 @@
+package com.insulinpump.deviceservice.fields;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.insulinpump.deviceservice.dto.DeviceDetailsDto;
+import com.insulinpump.deviceservice.exception.InvalidFieldSelectionException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FieldSelectionTest {
+
+    // Como el servidor: fechas ISO en JSON
+    private final ObjectMapper json = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Test
+    void should_always_include_id_and_keep_dto_order() {
+        // When
+        FieldSelection selection = FieldSelection.parse(" status, serialNo ,, patient");
+
+        // Then
+        assertThat(selection.isAll()).isFalse();
+        assertThat(selection.fields())
+                .containsExactly(DeviceField.ID, DeviceField.SERIAL_NO, DeviceField.STATUS, DeviceField.PATIENT);
+    }
+
+    @Test
+    void should_select_all_when_missing_or_complete() {
+        // Given
+        String everyField = Arrays.stream(DeviceField.values())
+                .map(DeviceField::getFieldName)
+                .collect(Collectors.joining(","));
+
+        // When & Then
+        assertThat(FieldSelection.parse(null).isAll()).isTrue();
+        assertThat(FieldSelection.parse("  ").isAll()).isTrue();
+        assertThat(FieldSelection.parse(everyField).isAll()).isTrue();
+    }
+
+    @Test
+    void should_reject_unknown_field() {
+        // When & Then
+        assertThatThrownBy(() -> FieldSelection.parse("id,colour"))
+                .isInstanceOf(InvalidFieldSelectionException.class)
+                .hasMessageContaining("colour");
+    }
+
+    @Test
+    void should_serialize_only_selected_fields() throws Exception {
+        // Given
+        DeviceDetailsDto device = new DeviceDetailsDto();
+        device.setId(1L);
+        device.setSerialNo("ABC123");
+        device.setModel("Model X");
+        device.setManufactureDate(LocalDate.of(2024, 5, 1));
+        FieldSelection selection = FieldSelection.parse("serialNo,manufactureDate,patient");
+
+        // When
+        String single = json.writeValueAsString(SparseDevices.of(device, selection));
+        String list = json.writeValueAsString(SparseDevices.of(List.of(device), selection));
+
+        // Then
+        assertThat(single)
+                .isEqualTo("{\"id\":1,\"serialNo\":\"ABC123\",\"manufactureDate\":\"2024-05-01\",\"patient\":null}");
+        assertThat(list).isEqualTo("[" + single + "]");
+    }
+}
@@ -0,0 +1,126 @@
+package com.insulinpump.deviceservice.firmware;
+
+import com.insulinpump.deviceservice.dto.CampaignCreateDto;
+import com.insulinpump.deviceservice.dto.CampaignDto;
+import com.insulinpump.deviceservice.exception.CampaignNotFoundException;
+import com.insulinpump.deviceservice.exception.InvalidCampaignException;
+import com.insulinpump.deviceservice.facet.FacetIndex;
+import com.insulinpump.deviceservice.mapper.CampaignMapper;
+import com.insulinpump.deviceservice.mapper.CampaignMapperImpl;
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import com.insulinpump.deviceservice.repository.DeviceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FirmwareRolloutServiceTest {
+
+    @Mock
+    private RolloutCampaignRepository repository;
+
+    @Mock
+    private DeviceRepository deviceRepository;
+
+    private FirmwareRolloutService rolloutService;
+
+    @BeforeEach
+    void setUp() {
+        CampaignMapper campaignMapper = new CampaignMapperImpl();
+        rolloutService = new FirmwareRolloutService(repository, campaignMapper, new FacetIndex(deviceRepository),
+                new FirmwareRolloutProperties());
+    }
+
+    @Test
+    void should_create_running_campaign_with_defaults_and_estimate() {
+        // Given
+        when(deviceRepository.findAll()).thenReturn(List.of(
+                device(1L, "1.4.0"), device(2L, "1.9.9"), device(3L, "2.0.0"), device(4L, "0.9.0")));
+        when(repository.save(any(RolloutCampaign.class))).thenAnswer(invocation -> {
+            RolloutCampaign campaign = invocation.getArgument(0);
+            campaign.setId(7L);
+            return campaign;
+        });
+
+        // When
+        CampaignDto result = rolloutService.createCampaign(createDto("1.0", null));
+
+        // Then
+        assertThat(result.getId()).isEqualTo(7L);
+        assertThat(result.getStatus()).isEqualTo("RUNNING");
+        assertThat(result.getChunkSize()).isEqualTo(500);
+        assertThat(result.getTargeted()).isEqualTo(2);
+    }
+
+    @Test
+    void should_reject_invalid_versions() {
+        assertThatThrownBy(() -> rolloutService.createCampaign(createDto("uno", null)))
+                .isInstanceOf(InvalidCampaignException.class)
+                .hasMessageContaining("minVersion");
+        assertThatThrownBy(() -> rolloutService.createCampaign(createDto("2.0", "1.0")))
+                .isInstanceOf(InvalidCampaignException.class)
+                .extracting(e -> ((InvalidCampaignException) e).getStatus())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void should_reject_transition_from_terminal_status() {
+        // Given
+        when(repository.transition(eq(1L), eq(Set.of(CampaignStatus.RUNNING)), eq(CampaignStatus.PAUSED), any()))
+                .thenReturn(0);
+        when(repository.findStatusById(1L)).thenReturn(Optional.of(CampaignStatus.COMPLETED));
+
+        // When & Then
+        assertThatThrownBy(() -> rolloutService.pauseCampaign(1L))
+                .isInstanceOf(InvalidCampaignException.class)
+                .extracting(e -> ((InvalidCampaignException) e).getStatus())
+                .isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void should_throw_not_found_for_unknown_campaign() {
+        // Given
+        when(repository.transition(eq(9L), any(), eq(CampaignStatus.CANCELLED), any())).thenReturn(0);
+        when(repository.findStatusById(9L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> rolloutService.cancelCampaign(9L))
+                .isInstanceOf(CampaignNotFoundException.class);
+    }
+
+    // Métodos helper
+    private static CampaignCreateDto createDto(String minVersion, String maxVersion) {
+        CampaignCreateDto dto = new CampaignCreateDto();
+        dto.setName("Parche de seguridad");
+        dto.setMinVersion(minVersion);
+        dto.setMaxVersion(maxVersion);
+        dto.setTargetVersion("2.0.0");
+        return dto;
+    }
+
+    private static Device device(Long id, String firmware) {
+        Device device = new Device();
+        device.setId(id);
+        device.setSerialNo("SN" + id);
+        device.setModel("Modelo X");
+        device.setManufacturer("Insulet");
+        device.setStatus(DeviceStatus.ACTIVE);
+        device.setFirmwareVersion(firmware);
+        return device;
+    }
+}
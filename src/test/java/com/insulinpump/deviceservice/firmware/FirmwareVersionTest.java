@@ -0,0 +1,36 @@
+package com.insulinpump.deviceservice.firmware;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FirmwareVersionTest {
+
+    @Test
+    void should_compare_components_numerically() {
+        assertThat(FirmwareVersion.parse("2.10.0")).isGreaterThan(FirmwareVersion.parse("2.9.1"));
+        assertThat(FirmwareVersion.parse("v1.2")).isEqualTo(FirmwareVersion.parse("1.2.0"));
+        assertThat(FirmwareVersion.parse("3.0.0+build7")).isEqualByComparingTo(FirmwareVersion.parse("3.0.0"));
+    }
+
+    @Test
+    void should_order_prereleases_before_release() {
+        assertThat(FirmwareVersion.parse("2.1.0-beta").isBefore(FirmwareVersion.parse("2.1.0"))).isTrue();
+        assertThat(FirmwareVersion.parse("2.1.0-alpha")).isLessThan(FirmwareVersion.parse("2.1.0-beta"));
+    }
+
+    @Test
+    void should_compare_prerelease_identifiers_like_semver() {
+        assertThat(FirmwareVersion.parse("1.0.0-rc.9")).isLessThan(FirmwareVersion.parse("1.0.0-rc.10"));
+        assertThat(FirmwareVersion.parse("1.0.0-rc")).isLessThan(FirmwareVersion.parse("1.0.0-rc.1"));
+        assertThat(FirmwareVersion.parse("1.0.0-alpha.1")).isLessThan(FirmwareVersion.parse("1.0.0-alpha.beta"));
+        assertThat(FirmwareVersion.parse("1.0.0-rc.01")).isEqualTo(FirmwareVersion.parse("1.0.0-rc.1"));
+    }
+
+    @Test
+    void should_reject_unrecognised_versions() {
+        assertThatThrownBy(() -> FirmwareVersion.parse("latest")).isInstanceOf(IllegalArgumentException.class);
+        assertThat(FirmwareVersion.parseOrNull("")).isNull();
+    }
+}
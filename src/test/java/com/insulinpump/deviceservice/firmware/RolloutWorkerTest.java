@@ -0,0 +1,198 @@
+package com.insulinpump.deviceservice.firmware;
+
+import com.insulinpump.deviceservice.facet.FacetIndex;
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import com.insulinpump.deviceservice.repository.DeviceRepository;
+import com.insulinpump.deviceservice.service.DeviceService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RolloutWorkerTest {
+
+    @Mock
+    private RolloutCampaignRepository repository;
+
+    @Mock
+    private DeviceRepository deviceRepository;
+
+    @Mock
+    private DeviceService deviceService;
+
+    private RolloutWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        FirmwareRolloutProperties properties = new FirmwareRolloutProperties();
+        properties.setParallelChunks(2);
+        Clock clock = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+        lenient().when(deviceRepository.findAll()).thenReturn(List.of(
+                device(1L, "1.0.0"), device(2L, "1.1.0"), device(3L, "2.0.0"),
+                device(4L, "1.2.0"), device(5L, "1.3.0"), device(6L, "0.9.0")));
+        worker = new RolloutWorker(repository, new FacetIndex(deviceRepository), deviceService, properties, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        worker.shutdown();
+    }
+
+    @Test
+    void should_apply_chunks_in_windows_and_complete() {
+        // Given
+        when(repository.findById(1L)).thenReturn(Optional.of(campaign(0L)));
+        when(repository.findStatusById(1L)).thenReturn(Optional.of(CampaignStatus.RUNNING));
+        when(deviceService.updateFirmwareVersion(anyList(), any(), eq("2.0.0")))
+                .thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+        when(repository.recordProgress(eq(1L), any(), anyLong(), anyLong(), anyLong(), any(), any())).thenReturn(1);
+
+        // When
+        worker.run(1L);
+
+        // Then
+        verify(deviceService).updateFirmwareVersion(eq(List.of(1L, 2L)), any(), eq("2.0.0"));
+        verify(deviceService).updateFirmwareVersion(eq(List.of(4L, 5L)), any(), eq("2.0.0"));
+        verify(deviceService, never()).updateFirmwareVersion(eq(List.of(6L)), any(), any());
+        verify(repository).recordProgress(eq(1L), any(), eq(5L), eq(4L), eq(0L), any(), any());
+        verify(repository).finish(eq(1L), any(), eq(CampaignStatus.COMPLETED), isNull(), any(),
+                eq(CampaignStatus.RUNNING));
+    }
+
+    @Test
+    void should_resume_from_checkpoint() {
+        // Given
+        when(repository.findById(1L)).thenReturn(Optional.of(campaign(2L)));
+        when(repository.findStatusById(1L)).thenReturn(Optional.of(CampaignStatus.RUNNING));
+        when(deviceService.updateFirmwareVersion(anyList(), any(), eq("2.0.0"))).thenReturn(1);
+        when(repository.recordProgress(eq(1L), any(), anyLong(), anyLong(), anyLong(), any(), any())).thenReturn(1);
+
+        // When
+        worker.run(1L);
+
+        // Then
+        verify(deviceService).updateFirmwareVersion(eq(List.of(4L, 5L)), any(), eq("2.0.0"));
+        verify(repository).recordProgress(eq(1L), any(), eq(5L), eq(1L), eq(1L), any(), any());
+        verifyNoMoreInteractions(deviceService);
+    }
+
+    @Test
+    void should_stop_and_release_when_paused() {
+        // Given
+        when(repository.findById(1L)).thenReturn(Optional.of(campaign(0L)));
+        when(repository.findStatusById(1L)).thenReturn(Optional.of(CampaignStatus.PAUSED));
+
+        // When
+        worker.run(1L);
+
+        // Then
+        verify(repository).release(eq(1L), any());
+        verify(repository, never()).finish(anyLong(), any(), any(), any(), any(), any());
+        verifyNoInteractions(deviceService);
+    }
+
+    @Test
+    void should_mark_campaign_failed_when_chunk_fails() {
+        // Given
+        when(repository.findById(1L)).thenReturn(Optional.of(campaign(0L)));
+        when(repository.findStatusById(1L)).thenReturn(Optional.of(CampaignStatus.RUNNING));
+        when(deviceService.updateFirmwareVersion(anyList(), any(), any()))
+                .thenThrow(new IllegalStateException("Base de datos no disponible"));
+
+        // When
+        worker.run(1L);
+
+        // Then
+        verify(repository).finish(eq(1L), any(), eq(CampaignStatus.FAILED), eq("Base de datos no disponible"),
+                any(), eq(CampaignStatus.RUNNING));
+        verify(repository, never()).recordProgress(anyLong(), any(), anyLong(), anyLong(), anyLong(), any(), any());
+    }
+
+    @Test
+    void should_cap_window_so_throttle_waits_less_than_a_third_of_the_lease() {
+        // When / Then: 60 s de reserva a 10 dispositivos/s -> 200 por ventana como mucho
+        assertThat(worker.windowSize(500, 10)).isEqualTo(200);
+        assertThat(worker.windowSize(2, 1_000_000)).isEqualTo(4);
+    }
+
+    @Test
+    void should_renew_lease_while_window_runs_and_abandon_when_lost() {
+        // Given
+        FirmwareRolloutProperties properties = new FirmwareRolloutProperties();
+        properties.setLeaseDuration(Duration.ofMillis(150));
+        RolloutWorker slowWorker = new RolloutWorker(repository, new FacetIndex(deviceRepository), deviceService,
+                properties, Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC));
+        when(repository.findById(1L)).thenReturn(Optional.of(campaign(0L)));
+        when(repository.findStatusById(1L)).thenReturn(Optional.of(CampaignStatus.RUNNING));
+        when(deviceService.updateFirmwareVersion(anyList(), any(), eq("2.0.0"))).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return 1;
+        });
+        when(repository.renewLease(eq(1L), any(), any())).thenReturn(0);
+
+        // When
+        try {
+            slowWorker.run(1L);
+        } finally {
+            slowWorker.shutdown();
+        }
+
+        // Then
+        verify(repository, atLeastOnce()).renewLease(eq(1L), any(), any());
+        verify(repository, never()).recordProgress(anyLong(), any(), anyLong(), anyLong(), anyLong(), any(), any());
+        verify(repository, never()).finish(anyLong(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void should_compare_target_version_as_a_version() {
+        // Given
+        RolloutTarget target = RolloutTarget.of(campaign(0L));
+
+        // When / Then
+        assertThat(target.needsUpgrade(device(1L, "2.0"))).isFalse();
+        assertThat(target.needsUpgrade(device(1L, "v2.0.0"))).isFalse();
+        assertThat(target.needsUpgrade(device(1L, "1.5"))).isTrue();
+    }
+
+    // Métodos helper
+    private static RolloutCampaign campaign(long lastProcessedId) {
+        RolloutCampaign campaign = new RolloutCampaign();
+        campaign.setId(1L);
+        campaign.setMinVersion("1.0.0");
+        campaign.setTargetVersion("2.0.0");
+        campaign.setStatus(CampaignStatus.RUNNING);
+        campaign.setChunkSize(2);
+        campaign.setMaxDevicesPerSecond(1_000_000);
+        campaign.setLastProcessedId(lastProcessedId);
+        return campaign;
+    }
+
+    private static Device device(Long id, String firmware) {
+        Device device = new Device();
+        device.setId(id);
+        device.setSerialNo("SN" + id);
+        device.setModel("Modelo X");
+        device.setManufacturer("Insulet");
+        device.setStatus(DeviceStatus.ACTIVE);
+        device.setFirmwareVersion(firmware);
+        return device;
+    }
+}
@@ -0,0 +1,247 @@
+package com.insulinpump.deviceservice.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyFilterTest {
+
+    private IdempotencyFilter filter;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setMaxRequestSize(DataSize.ofBytes(64));
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        filter = new IdempotencyFilter(new IdempotencyStore(properties), properties, objectMapper);
+        executions = new AtomicInteger();
+    }
+
+    @Test
+    void should_replay_first_response_without_executing_again() throws Exception {
+        // Given
+        FilterChain createDevice = respondingChain(HttpServletResponse.SC_CREATED);
+
+        // When
+        MockHttpServletResponse first = post("key-1", "{\"serialNo\":\"ABC123\"}", createDevice);
+        MockHttpServletResponse retry = post("key-1", "{\"serialNo\":\"ABC123\"}", createDevice);
+
+        // Then
+        assertThat(executions).hasValue(1);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(first.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+    }
+
+    @Test
+    void should_make_concurrent_duplicate_wait_for_in_flight_result() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slowChain = (request, response) -> {
+            executions.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_OK);
+            response.getOutputStream().write("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        };
+
+        // When
+        CompletableFuture<MockHttpServletResponse> original =
+                CompletableFuture.supplyAsync(() -> unchecked(() -> put("key-2", slowChain)));
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture<MockHttpServletResponse> duplicate =
+                CompletableFuture.supplyAsync(() -> unchecked(() -> put("key-2", slowChain)));
+        Thread.sleep(100);
+        release.countDown();
+
+        // Then
+        assertThat(duplicate.get(5, TimeUnit.SECONDS).getContentAsString()).isEqualTo("{\"id\":1}");
+        assertThat(original.get(5, TimeUnit.SECONDS).getContentAsString()).isEqualTo("{\"id\":1}");
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void should_reject_key_reused_with_different_body() throws Exception {
+        // Given
+        FilterChain createDevice = respondingChain(HttpServletResponse.SC_CREATED);
+        post("key-3", "{\"serialNo\":\"ABC123\"}", createDevice);
+
+        // When
+        MockHttpServletResponse response = post("key-3", "{\"serialNo\":\"XYZ999\"}", createDevice);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(422);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void should_execute_again_after_server_error() throws Exception {
+        // Given
+        FilterChain failingChain = respondingChain(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+
+        // When
+        post("key-4", "{}", failingChain);
+        MockHttpServletResponse retry = post("key-4", "{}", failingChain);
+
+        // Then
+        assertThat(executions).hasValue(2);
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+    }
+
+    @Test
+    void should_deliver_cached_body_to_read_listener() throws Exception {
+        // Given - lectura no bloqueante del cuerpo, como un controlador asíncrono
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        AtomicInteger allDataRead = new AtomicInteger();
+        FilterChain asyncChain = (request, response) -> {
+            ServletInputStream input = request.getInputStream();
+            input.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (input.isReady() && !input.isFinished()) {
+                        read.write(input.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    allDataRead.incrementAndGet();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    throw new IllegalStateException(t);
+                }
+            });
+            ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_CREATED);
+        };
+
+        // When
+        MockHttpServletResponse response = post("key-5", "{\"serialNo\":\"ABC123\"}", asyncChain);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(201);
+        assertThat(read.toString(StandardCharsets.UTF_8)).isEqualTo("{\"serialNo\":\"ABC123\"}");
+        assertThat(allDataRead).hasValue(1);
+    }
+
+    @Test
+    void should_reject_bodies_above_max_request_size() throws Exception {
+        // Given
+        FilterChain createDevice = respondingChain(HttpServletResponse.SC_CREATED);
+        String body = "{\"serialNo\":\"" + "A".repeat(64) + "\"}";
+
+        // When
+        MockHttpServletResponse response = post("key-6", body, createDevice);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(413);
+        assertThat(executions).hasValue(0);
+    }
+
+    @Test
+    void should_keep_keys_of_different_clients_apart() throws Exception {
+        // Given
+        FilterChain createDevice = respondingChain(HttpServletResponse.SC_CREATED);
+        post("key-7", "{}", createDevice, "client-a");
+
+        // When
+        MockHttpServletResponse sameClient = post("key-7", "{}", createDevice, "client-a");
+        MockHttpServletResponse otherClient = post("key-7", "{\"serialNo\":\"XYZ999\"}", createDevice, "client-b");
+
+        // Then
+        assertThat(sameClient.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(otherClient.getStatus()).isEqualTo(201);
+        assertThat(otherClient.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void should_not_intercept_requests_without_key() throws Exception {
+        // Given
+        FilterChain createDevice = respondingChain(HttpServletResponse.SC_CREATED);
+
+        // When
+        post(null, "{}", createDevice);
+        post(null, "{}", createDevice);
+
+        // Then
+        assertThat(executions).hasValue(2);
+    }
+
+    // Métodos helper
+    private FilterChain respondingChain(int status) {
+        return (request, response) -> {
+            int execution = executions.incrementAndGet();
+            // El controlador debe poder leer el cuerpo aunque el filtro ya lo haya leído
+            String body = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            ((HttpServletResponse) response).setStatus(status);
+            response.setContentType("application/json");
+            response.getOutputStream().write(("{\"execution\":" + execution + ",\"echo\":" + body + "}")
+                    .getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private MockHttpServletResponse post(String key, String body, FilterChain chain) throws Exception {
+        return post(key, body, chain, null);
+    }
+
+    private MockHttpServletResponse post(String key, String body, FilterChain chain, String apiKey) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/devices");
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.HEADER, key);
+        }
+        if (apiKey != null) {
+            request.addHeader("X-API-Key", apiKey);
+        }
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private MockHttpServletResponse put(String key, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/devices/1/assign/100");
+        request.addHeader(IdempotencyFilter.HEADER, key);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static <T> T unchecked(ThrowingSupplier<T> supplier) {
+        try {
+            return supplier.get();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private interface ThrowingSupplier<T> {
+        T get() throws Exception;
+    }
+}
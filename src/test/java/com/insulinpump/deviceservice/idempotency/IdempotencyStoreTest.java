@@ -0,0 +1,103 @@
+package com.insulinpump.deviceservice.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyStoreTest {
+
+    @Test
+    void should_expire_keys_after_ttl() {
+        // Given
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setTtl(Duration.ofMinutes(5));
+        MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        IdempotencyStore store = new IdempotencyStore(properties, clock);
+        store.reserve("key", "fp");
+
+        // When
+        clock.advance(Duration.ofMinutes(6));
+        IdempotencyStore.Reservation reservation = store.reserve("key", "fp");
+
+        // Then
+        assertThat(reservation.owner()).isTrue();
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void should_evict_oldest_keys_when_full() {
+        // Given
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setMaxEntries(2);
+        IdempotencyStore store = new IdempotencyStore(properties);
+
+        // When
+        complete(store, store.reserve("a", "fp"));
+        complete(store, store.reserve("b", "fp"));
+        store.reserve("c", "fp");
+
+        // Then
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.reserve("a", "fp").owner()).isTrue();
+        assertThat(store.reserve("c", "fp").owner()).isFalse();
+    }
+
+    @Test
+    void should_keep_in_flight_keys_when_full() {
+        // Given - "a" sigue en curso; "b" ya tiene respuesta
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setMaxEntries(2);
+        IdempotencyStore store = new IdempotencyStore(properties);
+        store.reserve("a", "fp");
+        complete(store, store.reserve("b", "fp"));
+
+        // When
+        store.reserve("c", "fp");
+
+        // Then
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.reserve("a", "fp").owner()).isFalse();
+        assertThat(store.reserve("b", "fp").owner()).isTrue();
+        // Todas en curso: se supera maxEntries antes que descartar una
+        assertThat(store.size()).isEqualTo(3);
+    }
+
+    // Métodos helper
+    private static void complete(IdempotencyStore store, IdempotencyStore.Reservation reservation) {
+        store.complete(reservation.entry(), new StoredResponse(201, "application/json", new byte[0]));
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
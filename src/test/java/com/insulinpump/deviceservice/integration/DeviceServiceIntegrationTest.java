@@ -1,11 +1,18 @@
 package com.insulinpump.deviceservice.integration;
 
+import com.insulinpump.deviceservice.archive.ArchivedDeviceRepository;
+import com.insulinpump.deviceservice.cache.DeviceCache;
+import com.insulinpump.deviceservice.cache.DeviceCacheProperties;
 import com.insulinpump.deviceservice.client.PatientClient;
 import com.insulinpump.deviceservice.dto.DeviceCreateDto;
 import com.insulinpump.deviceservice.dto.DeviceDetailsDto;
 import com.insulinpump.deviceservice.dto.PatientDto;
+import com.insulinpump.deviceservice.mapper.DeviceMapper;
+import com.insulinpump.deviceservice.mapper.DeviceMapperImpl;
+import com.insulinpump.deviceservice.metrics.DeviceMetrics;
 import com.insulinpump.deviceservice.model.Device;
 import com.insulinpump.deviceservice.model.DeviceStatus;
+import com.insulinpump.deviceservice.projection.PatientProjection;
 import com.insulinpump.deviceservice.repository.DeviceRepository;
 import com.insulinpump.deviceservice.service.DeviceService;
 import feign.FeignException;
@@ -15,7 +22,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDate;
 import java.util.Arrays;
@@ -32,9 +41,27 @@ class DeviceServiceIntegrationTest {
     @Mock
     private DeviceRepository deviceRepository;
 
+    @Mock
+    private ArchivedDeviceRepository archivedDeviceRepository;
+
     @Mock
     private PatientClient patientClient;
 
+    @Spy
+    private DeviceMapper deviceMapper = new DeviceMapperImpl();
+
+    @Mock
+    private DeviceMetrics deviceMetrics;
+
+    @Spy
+    private PatientProjection patientProjection = new PatientProjection();
+
+    @Spy
+    private DeviceCache deviceCache = new DeviceCache(new DeviceCacheProperties(), new DeviceMapperImpl());
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private DeviceService deviceService;
 
@@ -65,10 +92,15 @@ class DeviceServiceIntegrationTest {
 
         // Verificar que se consultaron ambos servicios
         verify(deviceRepository, times(1)).findById(1L);
-        verify(patientClient, times(2)).getPatientById(100L); // Cambiado de 1 a 2
+        verify(patientClient, times(1)).getPatientById(100L);
         verify(patientClient, times(1)).assignDeviceToPatient(100L, 1L);
         verify(deviceRepository, times(1)).save(any(Device.class));
+
+        // La respuesta de la asignación refresca la proyección local
+        assertThat(result.getPatient()).isNotNull();
+        assertThat(patientProjection.find(100L)).isPresent();
     }
+
     @Test
     @DisplayName("Debería manejar error cuando paciente no existe en patient-service")
     void should_handle_patient_not_found_in_patient_service() {
@@ -93,8 +125,8 @@ class DeviceServiceIntegrationTest {
     void should_get_devices_with_enriched_patient_information() {
         // Given
         testDevice.setPatientId(100L);
+        patientProjection.upsert(testPatient);
         when(deviceRepository.findAll()).thenReturn(Arrays.asList(testDevice));
-        when(patientClient.getPatientById(100L)).thenReturn(testPatient);
 
         // When
         var devices = deviceService.getAllDevices();
@@ -106,17 +138,15 @@ class DeviceServiceIntegrationTest {
         assertThat(devices.get(0).getPatient().getMedicalId()).isEqualTo("MED123");
 
         verify(deviceRepository, times(1)).findAll();
-        verify(patientClient, times(1)).getPatientById(100L);
+        verifyNoInteractions(patientClient);
     }
 
     @Test
-    @DisplayName("Debería continuar funcionando cuando patient-service no está disponible")
-    void should_continue_working_when_patient_service_unavailable() {
-        // Given
+    @DisplayName("Debería responder sin paciente cuando aún no está en la proyección local")
+    void should_continue_working_when_patient_not_in_projection() {
+        // Given - patient-service no se consulta en las lecturas
         testDevice.setPatientId(100L);
         when(deviceRepository.findById(1L)).thenReturn(Optional.of(testDevice));
-        when(patientClient.getPatientById(100L))
-                .thenThrow(new RuntimeException("Service unavailable"));
 
         // When
         DeviceDetailsDto result = deviceService.getDeviceById(1L);
@@ -125,10 +155,11 @@ class DeviceServiceIntegrationTest {
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(1L);
         assertThat(result.getSerialNo()).isEqualTo("ABC123");
-        assertThat(result.getPatient()).isNull(); // Sin info del paciente por el error
+        assertThat(result.getPatient()).isNull(); // Sin info del paciente hasta la próxima sincronización
 
         verify(deviceRepository, times(1)).findById(1L);
-        verify(patientClient, times(1)).getPatientById(100L);
+        verifyNoInteractions(patientClient);
+        verify(deviceMetrics, times(1)).patientProjectionMiss();
     }
 
     @Test
@@ -173,8 +204,8 @@ class DeviceServiceIntegrationTest {
     void should_search_devices_by_specific_patient() {
         // Given
         testDevice.setPatientId(100L);
+        patientProjection.upsert(testPatient);
         when(deviceRepository.findByPatientId(100L)).thenReturn(Arrays.asList(testDevice));
-        when(patientClient.getPatientById(100L)).thenReturn(testPatient);
 
         // When
         var devices = deviceService.getDevicesByPatientId(100L);
@@ -185,7 +216,7 @@ class DeviceServiceIntegrationTest {
         assertThat(devices.get(0).getPatient().getName()).isEqualTo("Juan Pérez");
 
         verify(deviceRepository, times(1)).findByPatientId(100L);
-        verify(patientClient, times(1)).getPatientById(100L);
+        verifyNoInteractions(patientClient);
     }
 
     @Test
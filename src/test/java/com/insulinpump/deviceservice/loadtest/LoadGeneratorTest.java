@@ -0,0 +1,116 @@
+package com.insulinpump.deviceservice.loadtest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadGeneratorTest {
+
+    private PatientServiceStub stub;
+    private LoadTestProperties.Stub stubConfig;
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() {
+        stubConfig = new LoadTestProperties.Stub();
+        stubConfig.setPort(0);
+        stubConfig.setLatency(LatencyDistribution.FIXED);
+        stubConfig.setMeanLatencyMs(0);
+        stubConfig.setErrorRate(0);
+        stub = new PatientServiceStub(stubConfig, 10);
+        stub.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.stop();
+    }
+
+    @Test
+    void should_serve_patient_from_stub() throws Exception {
+        // When
+        HttpResponse<String> response = httpClient.send(patientRequest(7), HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).contains("\"id\":7").contains("\"medicalId\":\"MED7\"");
+    }
+
+    @Test
+    void should_serve_patient_snapshot_from_stub() throws Exception {
+        // When
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + stub.getPort() + "/api/patients/snapshot")).build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).contains("\"id\":10,").contains("\"cursor\":1");
+    }
+
+    @Test
+    void should_report_errors_injected_by_stub() {
+        // Given
+        stubConfig.setErrorRate(1.0);
+        LoadTestProperties.Generator config = generatorConfig(LoadMode.CLOSED);
+
+        // When
+        EndpointResult result = new LoadGenerator(httpClient, config)
+                .run(new EndpointScenario("getPatientById", n -> patientRequest(n)));
+
+        // Then
+        assertThat(result.requests()).isPositive();
+        assertThat(result.errors()).isEqualTo(result.requests());
+    }
+
+    @Test
+    void should_measure_latency_in_closed_loop() {
+        // Given
+        stubConfig.setMeanLatencyMs(5);
+        LoadTestProperties.Generator config = generatorConfig(LoadMode.CLOSED);
+
+        // When
+        EndpointResult result = new LoadGenerator(httpClient, config)
+                .run(new EndpointScenario("getPatientById", n -> patientRequest(n)));
+
+        // Then
+        assertThat(result.requests()).isPositive();
+        assertThat(result.errors()).isZero();
+        assertThat(result.percentileMillis(50)).isGreaterThanOrEqualTo(5.0);
+    }
+
+    @Test
+    void should_send_at_fixed_rate_in_open_loop() {
+        // Given
+        LoadTestProperties.Generator config = generatorConfig(LoadMode.OPEN);
+        config.setRatePerSecond(100);
+
+        // When
+        EndpointResult result = new LoadGenerator(httpClient, config)
+                .run(new EndpointScenario("getPatientById", n -> patientRequest(n)));
+
+        // Then: 500 ms a 100 req/s
+        assertThat(result.requests()).isBetween(40L, 60L);
+    }
+
+    private LoadTestProperties.Generator generatorConfig(LoadMode mode) {
+        LoadTestProperties.Generator config = new LoadTestProperties.Generator();
+        config.setMode(mode);
+        config.setConcurrency(4);
+        config.setWarmup(Duration.ZERO);
+        config.setDuration(Duration.ofMillis(500));
+        return config;
+    }
+
+    private HttpRequest patientRequest(long id) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + stub.getPort() + "/api/patients/" + id)).build();
+    }
+}
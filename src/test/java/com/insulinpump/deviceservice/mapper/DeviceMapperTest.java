@@ -0,0 +1,107 @@
+package com.insulinpump.deviceservice.mapper;
+
+import com.insulinpump.deviceservice.dto.DeviceCreateDto;
+import com.insulinpump.deviceservice.dto.DeviceDetailsDto;
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeviceMapperTest {
+
+    private final DeviceMapper deviceMapper = new DeviceMapperImpl();
+
+    @Test
+    void should_map_create_dto_to_new_entity() {
+        // When
+        Device device = deviceMapper.toEntity(createTestDeviceCreateDto());
+
+        // Then
+        assertThat(device.getId()).isNull();
+        assertThat(device.getSerialNo()).isEqualTo("ABC123");
+        assertThat(device.getStatus()).isEqualTo(DeviceStatus.ACTIVE);
+        assertThat(device.getFirmwareVersion()).isEqualTo("1.0.0");
+        assertThat(device.getBatteryType()).isEqualTo("Lithium");
+    }
+
+    @Test
+    void should_keep_id_and_overwrite_nulls_on_full_update() {
+        // Given
+        Device device = createTestDevice();
+        DeviceCreateDto dto = createTestDeviceCreateDto();
+        dto.setModel("Model Y");
+        dto.setBatteryType(null);
+
+        // When
+        deviceMapper.updateEntity(dto, device);
+
+        // Then
+        assertThat(device.getId()).isEqualTo(1L);
+        assertThat(device.getModel()).isEqualTo("Model Y");
+        assertThat(device.getBatteryType()).isNull();
+    }
+
+    @Test
+    void should_ignore_null_fields_on_partial_update() {
+        // Given
+        Device device = createTestDevice();
+        DeviceCreateDto dto = new DeviceCreateDto();
+        dto.setFirmwareVersion("2.0.0");
+
+        // When
+        deviceMapper.patchEntity(dto, device);
+
+        // Then
+        assertThat(device.getId()).isEqualTo(1L);
+        assertThat(device.getFirmwareVersion()).isEqualTo("2.0.0");
+        assertThat(device.getSerialNo()).isEqualTo("ABC123");
+        assertThat(device.getBatteryType()).isEqualTo("Lithium");
+    }
+
+    @Test
+    void should_map_entity_to_details_dto_including_firmware_and_battery() {
+        // When
+        DeviceDetailsDto dto = deviceMapper.toDetailsDto(createTestDevice());
+
+        // Then
+        assertThat(dto.getId()).isEqualTo(1L);
+        assertThat(dto.getStatus()).isEqualTo("ACTIVE");
+        assertThat(dto.getFirmwareVersion()).isEqualTo("1.0.0");
+        assertThat(dto.getBatteryType()).isEqualTo("Lithium");
+        assertThat(dto.getPatient()).isNull();
+    }
+
+    private Device createTestDevice() {
+        Device device = new Device();
+        device.setId(1L);
+        device.setSerialNo("ABC123");
+        device.setModel("Model X");
+        device.setManufacturer("Manufacturer A");
+        device.setStatus(DeviceStatus.ACTIVE);
+        device.setManufactureDate(LocalDate.now().minusMonths(6));
+        device.setMaxBasalRate(2.0f);
+        device.setMaxBolusAmount(10.0f);
+        device.setReservoirCapacity(300);
+        device.setFirmwareVersion("1.0.0");
+        device.setBatteryType("Lithium");
+        return device;
+    }
+
+    private DeviceCreateDto createTestDeviceCreateDto() {
+        DeviceCreateDto dto = new DeviceCreateDto();
+        dto.setSerialNo("ABC123");
+        dto.setModel("Model X");
+        dto.setManufacturer("Manufacturer A");
+        dto.setStatus(DeviceStatus.ACTIVE);
+        dto.setManufactureDate(LocalDate.now().minusMonths(6));
+        dto.setMaxBasalRate(2.0f);
+        dto.setMaxBolusAmount(10.0f);
+        dto.setReservoirCapacity(300);
+        dto.setFirmwareVersion("1.0.0");
+        dto.setBatteryType("Lithium");
+        return dto;
+    }
+}
@@ -0,0 +1,74 @@
+package com.insulinpump.deviceservice.metrics;
+
+import com.insulinpump.deviceservice.client.PatientClient;
+import com.insulinpump.deviceservice.dto.PatientDto;
+import feign.FeignException;
+import feign.InvocationHandlerFactory;
+import feign.Request;
+import feign.Target;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FeignMetricsCapabilityTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private Method getPatientById;
+    private Target<PatientClient> target;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        getPatientById = PatientClient.class.getMethod("getPatientById", Long.class);
+        target = new Target.HardCodedTarget<>(PatientClient.class, "patient-service", "http://localhost");
+    }
+
+    @Test
+    void should_time_successful_calls_by_method() throws Throwable {
+        // Given
+        InvocationHandler handler = enrich((proxy, method, args) -> new PatientDto());
+
+        // When
+        handler.invoke(null, getPatientById, new Object[]{1L});
+
+        // Then
+        Timer timer = meterRegistry.get(FeignMetricsCapability.METRIC_NAME)
+                .tag("client", "patient-service")
+                .tag("method", "getPatientById")
+                .tag("outcome", "SUCCESS")
+                .timer();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_tag_server_errors() {
+        // Given
+        Request request = Request.create(Request.HttpMethod.GET, "/api/patients/1", Map.of(), null,
+                StandardCharsets.UTF_8, null);
+        InvocationHandler handler = enrich((proxy, method, args) -> {
+            throw new FeignException.ServiceUnavailable("caído", request, null, Map.of());
+        });
+
+        // When & Then
+        assertThatThrownBy(() -> handler.invoke(null, getPatientById, new Object[]{1L}))
+                .isInstanceOf(FeignException.class);
+        assertThat(meterRegistry.get(FeignMetricsCapability.METRIC_NAME)
+                .tag("outcome", "SERVER_ERROR")
+                .timer()
+                .count()).isEqualTo(1);
+    }
+
+    private InvocationHandler enrich(InvocationHandler delegate) {
+        InvocationHandlerFactory factory = (t, dispatch) -> delegate;
+        return new FeignMetricsCapability(meterRegistry).enrich(factory).create(target, Map.of());
+    }
+}
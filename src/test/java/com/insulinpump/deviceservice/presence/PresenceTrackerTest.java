@@ -0,0 +1,174 @@
+package com.insulinpump.deviceservice.presence;
+
+import com.insulinpump.deviceservice.changelog.DeviceChange;
+import com.insulinpump.deviceservice.event.DeviceChangeType;
+import com.insulinpump.deviceservice.exception.DeviceNotFoundException;
+import com.insulinpump.deviceservice.service.DeviceService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PresenceTrackerTest {
+
+    private static final Instant START = Instant.parse("2025-06-01T00:00:00Z");
+
+    @Mock
+    private DeviceService deviceService;
+
+    private MutableClock clock;
+    private SimpleMeterRegistry registry;
+    private PresenceTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        PresenceProperties properties = new PresenceProperties();
+        properties.setTimeout(Duration.ofSeconds(30));
+        properties.setTick(Duration.ofSeconds(1));
+        properties.setWheelSize(16);
+        clock = new MutableClock(START);
+        registry = new SimpleMeterRegistry();
+        tracker = new PresenceTracker(deviceService, properties, clock);
+        tracker.bindTo(registry);
+    }
+
+    @Test
+    void should_mark_device_online_on_check_in_and_resolve_id_only_once() {
+        // Given
+        when(deviceService.getDeviceIdBySerialNo("SN1")).thenReturn(1L);
+
+        // When
+        tracker.checkIn("SN1");
+        clock.advance(Duration.ofSeconds(5));
+        tracker.checkIn("SN1");
+        tracker.tick();
+
+        // Then
+        assertThat(tracker.onlineIds().contains(1L)).isTrue();
+        assertThat(tracker.lastSeen(1L)).isEqualTo(START.plusSeconds(5));
+        assertThat(tracker.trackedCount()).isEqualTo(1);
+        assertThat(registry.get("device.presence.check-ins").counter().count()).isEqualTo(2);
+        verify(deviceService, times(1)).getDeviceIdBySerialNo("SN1");
+    }
+
+    @Test
+    void should_expire_device_without_check_in_within_timeout() {
+        // Given
+        when(deviceService.getDeviceIdBySerialNo("SN1")).thenReturn(1L);
+        when(deviceService.getDeviceIdBySerialNo("SN2")).thenReturn(2L);
+        tracker.checkIn("SN1");
+        tracker.checkIn("SN2");
+        tracker.tick();
+
+        // When - SN2 sigue haciendo check-in, SN1 no
+        for (int second = 1; second <= 45; second++) {
+            clock.advance(Duration.ofSeconds(1));
+            if (second % 10 == 0) {
+                tracker.checkIn("SN2");
+            }
+            tracker.tick();
+        }
+
+        // Then
+        assertThat(tracker.onlineIds().contains(1L)).isFalse();
+        assertThat(tracker.onlineIds().contains(2L)).isTrue();
+        assertThat(tracker.onlineCount()).isEqualTo(1);
+        assertThat(tracker.scheduled()).isEqualTo(1);
+        assertThat(registry.get("device.presence.expired").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_bring_expired_device_back_online_on_next_check_in() {
+        // Given
+        when(deviceService.getDeviceIdBySerialNo("SN1")).thenReturn(1L);
+        tracker.checkIn("SN1");
+        tracker.tick();
+        clock.advance(Duration.ofSeconds(31));
+        tracker.tick();
+
+        // When
+        tracker.checkIn("SN1");
+        tracker.tick();
+
+        // Then
+        assertThat(tracker.onlineIds().contains(1L)).isTrue();
+        assertThat(tracker.scheduled()).isEqualTo(1);
+    }
+
+    @Test
+    void should_forget_deleted_and_renamed_devices() {
+        // Given
+        when(deviceService.getDeviceIdBySerialNo("SN1")).thenReturn(1L);
+        when(deviceService.getDeviceIdBySerialNo("SN2")).thenReturn(2L);
+        tracker.checkIn("SN1");
+        tracker.checkIn("SN2");
+        tracker.tick();
+
+        // When
+        tracker.onChanges(List.of(
+                new DeviceChange(1L, 1L, "SN1", "SN1", DeviceChangeType.DELETED),
+                new DeviceChange(2L, 2L, "SN2-B", "SN2", DeviceChangeType.UPDATED)));
+        clock.advance(Duration.ofSeconds(31));
+        tracker.tick();
+
+        // Then
+        assertThat(tracker.onlineCount()).isZero();
+        assertThat(tracker.trackedCount()).isZero();
+        assertThat(tracker.lastSeen(1L)).isNull();
+        assertThat(tracker.scheduled()).isZero();
+        assertThat(registry.get("device.presence.expired").counter().count()).isZero();
+    }
+
+    @Test
+    void should_reject_unknown_serial_number() {
+        // Given
+        when(deviceService.getDeviceIdBySerialNo("NOPE"))
+                .thenThrow(new DeviceNotFoundException("número de serie", "NOPE"));
+
+        // When & Then
+        assertThatThrownBy(() -> tracker.checkIn("NOPE")).isInstanceOf(DeviceNotFoundException.class);
+        assertThat(tracker.trackedCount()).isZero();
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.insulinpump.deviceservice.presence;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    @Test
+    void should_round_capacity_up_to_power_of_two() {
+        assertThat(new TimingWheel(512, 1000, 0).capacity()).isEqualTo(512);
+        assertThat(new TimingWheel(500, 1000, 0).capacity()).isEqualTo(512);
+        assertThat(new TimingWheel(1, 1000, 0).capacity()).isEqualTo(2);
+    }
+
+    @Test
+    void should_expire_entries_once_their_deadline_tick_is_reached() {
+        // Given
+        TimingWheel wheel = new TimingWheel(8, 1000, 0);
+        Presence early = presence(1);
+        Presence late = presence(2);
+        wheel.schedule(early, 2_500);
+        wheel.schedule(late, 5_000);
+        List<Presence> expired = new ArrayList<>();
+
+        // When
+        wheel.advance(2_999, expired::add);
+        List<Presence> afterThree = List.copyOf(expired);
+        wheel.advance(5_000, expired::add);
+
+        // Then
+        assertThat(afterThree).isEmpty();
+        assertThat(expired).containsExactly(early, late);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void should_keep_deadlines_beyond_one_revolution_for_extra_rounds() {
+        // Given - 4 ranuras de 1 s: un plazo de 10 s da dos vueltas y media
+        TimingWheel wheel = new TimingWheel(4, 1000, 0);
+        Presence presence = presence(1);
+        wheel.schedule(presence, 10_000);
+        List<Presence> expired = new ArrayList<>();
+
+        // When
+        wheel.advance(9_999, expired::add);
+        List<Presence> beforeDeadline = List.copyOf(expired);
+        wheel.advance(10_000, expired::add);
+
+        // Then
+        assertThat(beforeDeadline).isEmpty();
+        assertThat(expired).containsExactly(presence);
+    }
+
+    @Test
+    void should_schedule_past_deadlines_on_next_tick_and_allow_rescheduling_from_callback() {
+        // Given
+        TimingWheel wheel = new TimingWheel(8, 1000, 10_000);
+        Presence presence = presence(1);
+        wheel.schedule(presence, 5_000);
+        List<Long> expiredAt = new ArrayList<>();
+
+        // When
+        wheel.advance(11_000, p -> {
+            expiredAt.add(11_000L);
+            wheel.schedule(p, 13_000);
+        });
+        wheel.advance(13_000, p -> expiredAt.add(13_000L));
+
+        // Then
+        assertThat(expiredAt).containsExactly(11_000L, 13_000L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    // Métodos helper
+    private Presence presence(long deviceId) {
+        return new Presence("SN" + deviceId, deviceId, 0);
+    }
+}
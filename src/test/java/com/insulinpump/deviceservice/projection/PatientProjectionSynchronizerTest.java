@@ -0,0 +1,178 @@
+package com.insulinpump.deviceservice.projection;
+
+import com.insulinpump.deviceservice.dto.PatientChangesDto;
+import com.insulinpump.deviceservice.dto.PatientDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PatientProjectionSynchronizerTest {
+
+    @Mock
+    private PatientSource source;
+
+    @Mock
+    private PatientProjectionStore store;
+
+    private PatientProjection projection;
+    private PatientProjectionSynchronizer synchronizer;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        projection = new PatientProjection();
+        PatientProjectionProperties properties = new PatientProjectionProperties();
+        Clock clock = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+        synchronizer = new PatientProjectionSynchronizer(projection, source, store, properties, clock);
+        registry = new SimpleMeterRegistry();
+        synchronizer.bindTo(registry);
+    }
+
+    @Test
+    void should_load_full_snapshot_on_first_sync() {
+        // Given
+        when(source.fetchSnapshot()).thenReturn(page(List.of(patient(1L), patient(2L)), List.of(), 10, false));
+
+        // When
+        synchronizer.sync();
+
+        // Then
+        assertThat(projection.size()).isEqualTo(2);
+        assertThat(projection.find(1L)).isPresent();
+        assertThat(synchronizer.getCursor()).isEqualTo(10);
+        assertThat(registry.get("patient.projection.syncs").tag("type", "full").counter().count()).isEqualTo(1);
+        verify(source, never()).fetchChangesSince(anyLong(), anyInt());
+        verifyNoInteractions(store);
+    }
+
+    @Test
+    void should_apply_delta_upserts_and_deletions_from_cursor() {
+        // Given
+        when(source.fetchSnapshot()).thenReturn(page(List.of(patient(1L), patient(2L)), List.of(), 10, false));
+        synchronizer.sync();
+        PatientDto renamed = patient(1L);
+        renamed.setName("Nombre Actualizado");
+        when(source.fetchChangesSince(10, 500)).thenReturn(page(List.of(renamed), List.of(2L), 12, true));
+        when(source.fetchChangesSince(12, 500)).thenReturn(page(List.of(patient(3L)), List.of(), 13, false));
+
+        // When
+        synchronizer.sync();
+
+        // Then
+        assertThat(projection.find(1L)).get().extracting(PatientDto::getName).isEqualTo("Nombre Actualizado");
+        assertThat(projection.find(2L)).isEmpty();
+        assertThat(projection.find(3L)).isPresent();
+        assertThat(synchronizer.getCursor()).isEqualTo(13);
+        assertThat(registry.get("patient.projection.syncs").tag("type", "delta").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void should_fall_back_to_full_resync_when_cursor_expired() {
+        // Given
+        when(source.fetchSnapshot())
+                .thenReturn(page(List.of(patient(1L)), List.of(), 10, false))
+                .thenReturn(page(List.of(patient(5L)), List.of(), 50, false));
+        synchronizer.sync();
+        when(source.fetchChangesSince(10, 500)).thenReturn(page(List.of(), List.of(), 10, false, true));
+
+        // When
+        synchronizer.sync();
+
+        // Then
+        assertThat(projection.find(1L)).isEmpty();
+        assertThat(projection.find(5L)).isPresent();
+        assertThat(synchronizer.getCursor()).isEqualTo(50);
+        verify(source, times(2)).fetchSnapshot();
+    }
+
+    @Test
+    void should_keep_previous_data_when_patient_service_fails() {
+        // Given
+        when(source.fetchSnapshot()).thenReturn(page(List.of(patient(1L)), List.of(), 10, false));
+        synchronizer.sync();
+        when(source.fetchChangesSince(anyLong(), anyInt())).thenThrow(new RuntimeException("Service unavailable"));
+
+        // When
+        synchronizer.sync();
+
+        // Then
+        assertThat(projection.find(1L)).isPresent();
+        assertThat(synchronizer.getCursor()).isEqualTo(10);
+        assertThat(synchronizer.staleness()).isEqualTo(Duration.ZERO);
+        assertThat(registry.get("patient.projection.syncs").tag("type", "failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_report_staleness_since_startup_until_first_successful_sync() {
+        // Given
+        MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        PatientProjectionSynchronizer starting = new PatientProjectionSynchronizer(projection, source, store,
+                new PatientProjectionProperties(), clock);
+        when(source.fetchSnapshot()).thenThrow(new RuntimeException("Service unavailable"));
+
+        // When
+        clock.advance(Duration.ofMinutes(5));
+        starting.sync();
+
+        // Then
+        assertThat(starting.staleness()).isEqualTo(Duration.ofMinutes(5));
+    }
+
+    // Métodos helper
+    private static PatientChangesDto page(List<PatientDto> patients, List<Long> deletedIds, long cursor, boolean hasMore) {
+        return page(patients, deletedIds, cursor, hasMore, false);
+    }
+
+    private static PatientChangesDto page(List<PatientDto> patients, List<Long> deletedIds, long cursor,
+                                          boolean hasMore, boolean resyncRequired) {
+        return new PatientChangesDto(patients, deletedIds, cursor, hasMore, resyncRequired);
+    }
+
+    private static PatientDto patient(Long id) {
+        return new PatientDto(id, "Paciente " + id, 40, "MED" + id, null, "TYPE_1");
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
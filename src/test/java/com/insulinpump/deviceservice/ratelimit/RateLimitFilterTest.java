@@ -0,0 +1,78 @@
+package com.insulinpump.deviceservice.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setApiKeys(Set.of("integration-a", "integration-b"));
+        properties.setGroups(Map.of("search",
+                new RateLimitProperties.Group(List.of("/api/devices/search/**"), Set.of(), 2, 0.5)));
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        filter = new RateLimitFilter(new RateLimiter(properties), properties, objectMapper);
+    }
+
+    @Test
+    void should_answer_429_with_retry_after_when_bucket_empty() throws Exception {
+        // Given
+        search("integration-a");
+        search("integration-a");
+
+        // When
+        MockHttpServletResponse limited = search("integration-a");
+        MockHttpServletResponse otherClient = search("integration-b");
+
+        // Then
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(limited.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(limited.getContentAsString()).contains("search");
+        assertThat(otherClient.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void should_limit_unknown_api_keys_by_remote_address() throws Exception {
+        // Given
+        search("spoofed-1", "10.0.0.1");
+        search("spoofed-2", "10.0.0.1");
+
+        // When
+        MockHttpServletResponse rotatedKey = search("spoofed-3", "10.0.0.1");
+        MockHttpServletResponse knownKey = search("integration-a", "10.0.0.1");
+        MockHttpServletResponse otherAddress = search("spoofed-4", "10.0.0.2");
+
+        // Then
+        assertThat(rotatedKey.getStatus()).isEqualTo(429);
+        assertThat(knownKey.getStatus()).isEqualTo(200);
+        assertThat(otherAddress.getStatus()).isEqualTo(200);
+    }
+
+    // Métodos helper
+    private MockHttpServletResponse search(String apiKey) throws Exception {
+        return search(apiKey, "127.0.0.1");
+    }
+
+    private MockHttpServletResponse search(String apiKey, String remoteAddress) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/devices/search/model");
+        request.setRemoteAddr(remoteAddress);
+        request.addHeader("X-API-Key", apiKey);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
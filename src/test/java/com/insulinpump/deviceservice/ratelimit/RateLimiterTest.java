@@ -0,0 +1,92 @@
+package com.insulinpump.deviceservice.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    private RateLimitProperties properties;
+    private AtomicLong now;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    }
+
+    @Test
+    void should_resolve_first_matching_group() {
+        // Given
+        RateLimiter limiter = new RateLimiter(properties, now::get);
+
+        // When / Then
+        assertThat(limiter.groupFor("GET", "/api/devices/search/model").name()).isEqualTo("search");
+        assertThat(limiter.groupFor("PATCH", "/api/devices/1/status").name()).isEqualTo("writes");
+        assertThat(limiter.groupFor("GET", "/api/devices/1").name()).isEqualTo("reads");
+        assertThat(limiter.groupFor("GET", "/actuator/health")).isNull();
+    }
+
+    @Test
+    void should_allow_burst_then_reject_until_lazy_refill() {
+        // Given
+        RateLimiter limiter = new RateLimiter(properties, now::get);
+        RateLimiter.EndpointGroup search = limiter.groupFor("GET", "/api/devices/search/model");
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            assertThat(limiter.tryAcquire(search, "client-a")).isZero();
+        }
+        long wait = limiter.tryAcquire(search, "client-a");
+
+        // Then - 10 tokens/s: el siguiente llega en 100 ms
+        assertThat(wait).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(limiter.tryAcquire(search, "client-b")).isZero();
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(limiter.tryAcquire(search, "client-a")).isZero();
+        assertThat(limiter.tryAcquire(search, "client-a")).isPositive();
+    }
+
+    @Test
+    void should_bound_memory_by_purging_idle_clients() {
+        // Given
+        properties.setMaxClients(100);
+        RateLimiter limiter = new RateLimiter(properties, now::get);
+        RateLimiter.EndpointGroup reads = limiter.groupFor("GET", "/api/devices");
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire(reads, "client-" + i);
+        }
+
+        // When - los buckets se rellenan y el siguiente cliente nuevo dispara la purga
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        limiter.tryAcquire(reads, "new-client");
+
+        // Then
+        assertThat(limiter.trackedBuckets()).isEqualTo(1);
+    }
+
+    @Test
+    void should_share_overflow_bucket_when_all_clients_are_active() {
+        // Given
+        properties.setMaxClients(10);
+        RateLimiter limiter = new RateLimiter(properties, now::get);
+        RateLimiter.EndpointGroup reads = limiter.groupFor("GET", "/api/devices");
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire(reads, "client-" + i);
+        }
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            limiter.tryAcquire(reads, "burst-" + i);
+        }
+
+        // Then
+        assertThat(limiter.trackedBuckets()).isEqualTo(11);
+        assertThat(limiter.tryAcquire(reads, "another-new-client")).isPositive();
+    }
+}
@@ -0,0 +1,204 @@
+package com.insulinpump.deviceservice.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.insulinpump.deviceservice.concurrency.AdaptiveConcurrencyLimiter;
+import com.insulinpump.deviceservice.concurrency.ConcurrencyLimitProperties;
+import com.insulinpump.deviceservice.concurrency.ConcurrencyLimitWebFilter;
+import com.insulinpump.deviceservice.dto.DeviceDetailsDto;
+import com.insulinpump.deviceservice.dto.PatientDto;
+import com.insulinpump.deviceservice.exception.DeviceNotFoundException;
+import com.insulinpump.deviceservice.fields.FieldSelection;
+import com.insulinpump.deviceservice.mapper.DeviceMapperImpl;
+import com.insulinpump.deviceservice.metrics.DeviceMetrics;
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import com.insulinpump.deviceservice.projection.PatientProjection;
+import com.insulinpump.deviceservice.ratelimit.RateLimitProperties;
+import com.insulinpump.deviceservice.ratelimit.RateLimitWebFilter;
+import com.insulinpump.deviceservice.ratelimit.RateLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.json.JsonCompareMode;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveDeviceServiceTest {
+
+    @Mock
+    private ReactiveDeviceRepository deviceRepository;
+
+    @Mock
+    private ReactivePatientClient patientClient;
+
+    @Mock
+    private DeviceMetrics deviceMetrics;
+
+    private PatientProjection patientProjection;
+    private ReactiveDeviceService deviceService;
+
+    @BeforeEach
+    void setUp() {
+        patientProjection = new PatientProjection();
+        patientProjection.upsert(patient(100L));
+        deviceService = new ReactiveDeviceService(deviceRepository, patientClient, new DeviceMapperImpl(),
+                deviceMetrics, patientProjection, new ReactiveReadProperties());
+    }
+
+    @Test
+    void should_enrich_from_projection_without_remote_calls() {
+        // Given
+        when(deviceRepository.findById(1L)).thenReturn(Mono.just(device(1L, 100L)));
+
+        // When & Then
+        StepVerifier.create(deviceService.getDeviceById(1L, FieldSelection.ALL))
+                .assertNext(dto -> assertThat(dto.getPatient().getId()).isEqualTo(100L))
+                .verifyComplete();
+        verifyNoInteractions(patientClient);
+    }
+
+    @Test
+    void should_fetch_each_missing_patient_once_and_keep_order() {
+        // Given - el paciente 200 tarda más que el 300, pero el orden de salida es el de la consulta
+        AtomicInteger remoteCalls = new AtomicInteger();
+        when(deviceRepository.findByStatus(DeviceStatus.ACTIVE))
+                .thenReturn(Flux.just(device(1L, 200L), device(2L, 300L), device(3L, 200L), device(4L, null)));
+        when(patientClient.getPatientById(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            return Mono.fromCallable(() -> {
+                remoteCalls.incrementAndGet();
+                return patient(id);
+            }).delayElement(Duration.ofMillis(id == 200L ? 50 : 5));
+        });
+
+        // When & Then
+        StepVerifier.create(deviceService.getDevicesByStatus(DeviceStatus.ACTIVE, FieldSelection.ALL).map(DeviceDetailsDto::getId))
+                .expectNext(1L, 2L, 3L, 4L)
+                .verifyComplete();
+        assertThat(remoteCalls).hasValue(2);
+        assertThat(patientProjection.find(200L)).isPresent();
+        verifyNoInteractions(deviceMetrics);
+    }
+
+    @Test
+    void should_count_miss_when_patient_service_has_no_answer() {
+        // Given
+        when(deviceRepository.findBySerialNo("SN1")).thenReturn(Mono.just(device(1L, 999L)));
+        when(patientClient.getPatientById(999L)).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(deviceService.getDeviceBySerialNo("SN1", FieldSelection.ALL))
+                .assertNext(dto -> assertThat(dto.getPatient()).isNull())
+                .verifyComplete();
+        verify(deviceMetrics).patientProjectionMiss();
+    }
+
+    @Test
+    void should_answer_404_and_400_like_servlet_api() {
+        // Given
+        when(deviceRepository.findById(7L)).thenReturn(Mono.empty());
+        WebTestClient client = WebTestClient.bindToRouterFunction(new ReactiveDeviceRoutes(deviceService).routes()).build();
+
+        // When & Then
+        client.get().uri("/api/devices/7").exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.message").isEqualTo("Dispositivo no encontrado con ID: 7");
+        client.get().uri("/api/devices/status/UNKNOWN").exchange()
+                .expectStatus().isBadRequest();
+        client.get().uri("/api/devices/search/model").exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void should_apply_fields_without_resolving_patients() {
+        // Given
+        when(deviceRepository.findByStatus(DeviceStatus.ACTIVE)).thenReturn(Flux.just(device(1L, 999L), device(2L, 998L)));
+        when(deviceRepository.findById(1L)).thenReturn(Mono.just(device(1L, 999L)));
+        WebTestClient client = WebTestClient.bindToRouterFunction(new ReactiveDeviceRoutes(deviceService).routes()).build();
+
+        // When & Then
+        client.get().uri("/api/devices/status/ACTIVE?fields=serialNo,status").exchange()
+                .expectStatus().isOk()
+                .expectBody().json("[{\"id\":1,\"serialNo\":\"SN1\",\"status\":\"ACTIVE\"},"
+                        + "{\"id\":2,\"serialNo\":\"SN2\",\"status\":\"ACTIVE\"}]", JsonCompareMode.STRICT);
+        client.get().uri("/api/devices/1?fields=model").exchange()
+                .expectStatus().isOk()
+                .expectBody().json("{\"id\":1,\"model\":\"Omnipod 5\"}", JsonCompareMode.STRICT);
+        client.get().uri("/api/devices/1?fields=unknown").exchange()
+                .expectStatus().isBadRequest();
+        verifyNoInteractions(patientClient, deviceMetrics);
+    }
+
+    @Test
+    void should_look_in_archive_only_with_include_archived() {
+        // Given
+        when(deviceRepository.findById(5L)).thenReturn(Mono.empty());
+        when(deviceRepository.findArchivedById(5L)).thenReturn(Mono.just(device(5L, 100L)));
+        when(deviceRepository.findByPatientIdIncludingArchived(100L)).thenReturn(Flux.just(device(1L, 100L), device(5L, 100L)));
+        WebTestClient client = WebTestClient.bindToRouterFunction(new ReactiveDeviceRoutes(deviceService).routes()).build();
+
+        // When & Then
+        client.get().uri("/api/devices/5").exchange()
+                .expectStatus().isNotFound();
+        client.get().uri("/api/devices/5?includeArchived=true").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.id").isEqualTo(5);
+        client.get().uri("/api/devices/patient/100?includeArchived=true&fields=id").exchange()
+                .expectStatus().isOk()
+                .expectBody().json("[{\"id\":1},{\"id\":5}]", JsonCompareMode.STRICT);
+        verify(deviceRepository, never()).findByPatientId(anyLong());
+    }
+
+    @Test
+    void should_share_rate_limit_and_concurrency_limit_with_servlet_api() {
+        // Given
+        when(deviceRepository.findById(1L)).thenReturn(Mono.just(device(1L, null)));
+        RateLimitProperties rateLimitProperties = new RateLimitProperties();
+        rateLimitProperties.setGroups(Map.of("reads",
+                new RateLimitProperties.Group(List.of("/api/devices/**"), Set.of(), 2, 0.5)));
+        ConcurrencyLimitProperties concurrencyLimitProperties = new ConcurrencyLimitProperties();
+        AdaptiveConcurrencyLimiter concurrencyLimiter = new AdaptiveConcurrencyLimiter(concurrencyLimitProperties);
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        WebTestClient client = WebTestClient.bindToRouterFunction(new ReactiveDeviceRoutes(deviceService).routes())
+                .webFilter(new RateLimitWebFilter(new RateLimiter(rateLimitProperties), rateLimitProperties, objectMapper),
+                        new ConcurrencyLimitWebFilter(concurrencyLimiter, concurrencyLimitProperties, objectMapper))
+                .build();
+
+        // When & Then
+        for (int i = 0; i < 2; i++) {
+            client.get().uri("/api/devices/1").header("X-API-Key", "integration-a").exchange()
+                    .expectStatus().isOk();
+        }
+        client.get().uri("/api/devices/1").header("X-API-Key", "integration-a").exchange()
+                .expectStatus().isEqualTo(429)
+                .expectHeader().valueEquals("Retry-After", "2");
+        assertThat(concurrencyLimiter.getInFlight()).isZero();
+    }
+
+    // Métodos helper
+    private static Device device(Long id, Long patientId) {
+        return new Device(id, "SN" + id, "Omnipod 5", "Insulet", DeviceStatus.ACTIVE, patientId,
+                LocalDate.of(2023, 11, 22), null, 2.6f, 25.0f, 200, "2.1.0", "Litio", null);
+    }
+
+    private static PatientDto patient(Long id) {
+        return new PatientDto(id, "Paciente " + id, 40, "MED" + id, null, "TYPE_1");
+    }
+}
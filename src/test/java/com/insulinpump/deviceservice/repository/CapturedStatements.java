@@ -0,0 +1,26 @@
+package com.insulinpump.deviceservice.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Registra el SQL que genera Hibernate en DeviceRepositoryTest (hibernate.session_factory.statement_inspector)
+public class CapturedStatements implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+
+    static List<String> all() {
+        return List.copyOf(STATEMENTS);
+    }
+
+    static void clear() {
+        STATEMENTS.clear();
+    }
+}
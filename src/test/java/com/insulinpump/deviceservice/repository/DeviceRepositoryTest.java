@@ -1,5 +1,7 @@
 package com.insulinpump.deviceservice.repository;
 
+import com.insulinpump.deviceservice.fields.DeviceField;
+import com.insulinpump.deviceservice.fields.FieldSelection;
 import com.insulinpump.deviceservice.model.Device;
 import com.insulinpump.deviceservice.model.DeviceStatus;
 import org.junit.jupiter.api.Test;
@@ -7,13 +9,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@DataJpaTest
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.insulinpump.deviceservice.repository.CapturedStatements"})
 class DeviceRepositoryTest {
 
     @Autowired
@@ -130,6 +137,115 @@ class DeviceRepositoryTest {
                 .containsExactlyInAnyOrder("iPhone Model", "Samsung Model");
     }
 
+    @Test
+    void should_load_only_selected_columns() {
+        // Given
+        Device device1 = createTestDevice("ABC123", "Model X", "Manufacturer A");
+        device1.setPatientId(100L);
+        Device device2 = createTestDevice("ABC124", "Model Y", "Manufacturer B");
+        device2.setStatus(DeviceStatus.INACTIVE);
+        entityManager.persist(device1);
+        entityManager.persist(device2);
+        entityManager.flush();
+
+        // When
+        List<Device> found = deviceRepository.findSelected(FieldSelection.parse("serialNo,patient"),
+                DeviceSearch.byStatus(DeviceStatus.ACTIVE));
+
+        // Then
+        assertThat(found).hasSize(1);
+        assertThat(found.get(0).getId()).isEqualTo(device1.getId());
+        assertThat(found.get(0).getSerialNo()).isEqualTo("ABC123");
+        assertThat(found.get(0).getPatientId()).isEqualTo(100L);
+        assertThat(found.get(0).getModel()).isNull();
+        assertThat(found.get(0).getStatus()).isNull();
+    }
+
+    @Test
+    void should_match_like_wildcards_literally_in_selected_search() {
+        // Given
+        entityManager.persist(createTestDevice("ABC123", "Model a_b", "Manufacturer 100%"));
+        entityManager.persist(createTestDevice("ABC124", "Model axb", "Manufacturer 1000"));
+        entityManager.flush();
+
+        // When
+        List<Device> byModel = deviceRepository.findSelected(FieldSelection.parse("serialNo"), DeviceSearch.byModel("a_b"));
+        List<Device> byManufacturer = deviceRepository.findSelected(FieldSelection.parse("serialNo"),
+                DeviceSearch.byManufacturer("100%"));
+
+        // Then
+        assertThat(byModel).extracting(Device::getSerialNo).containsExactly("ABC123");
+        assertThat(byManufacturer).extracting(Device::getSerialNo).containsExactly("ABC123");
+    }
+
+    @Test
+    void should_update_only_changed_columns_without_loading_entity() {
+        // Given
+        Device device = entityManager.persistFlushFind(createTestDevice("ABC123", "Model X", "Manufacturer A"));
+        entityManager.clear();
+        CapturedStatements.clear();
+
+        // When
+        int updated = deviceRepository.updateColumns(device, Map.of(DeviceField.FIRMWARE_VERSION, "2.0.0"),
+                Instant.now());
+
+        // Then
+        assertThat(updated).isEqualTo(1);
+        assertThat(CapturedStatements.all())
+                .containsExactly("update dispositivos d1_0 set firmware_version=? where d1_0.id=?");
+        Device reloaded = entityManager.find(Device.class, device.getId());
+        assertThat(reloaded.getFirmwareVersion()).isEqualTo("2.0.0");
+        assertThat(reloaded.getModel()).isEqualTo("Model X");
+    }
+
+    @Test
+    void should_skip_guarded_update_when_row_no_longer_matches() {
+        // Given
+        Device device = entityManager.persistFlushFind(createTestDevice("ABC123", "Model X", "Manufacturer A"));
+        entityManager.clear();
+        Device stale = new Device(device.getId(), "ABC123", "Model Y", "Manufacturer A", DeviceStatus.ACTIVE, null,
+                device.getManufactureDate(), null, 2.0f, 10.0f, 300, "1.0.0", "Lithium", null);
+        Instant changedAt = Instant.parse("2025-01-01T00:00:00Z");
+        CapturedStatements.clear();
+
+        // When
+        int skipped = deviceRepository.updateColumnsIfUnchanged(stale, Map.of(DeviceField.STATUS, DeviceStatus.INACTIVE),
+                changedAt);
+        int updated = deviceRepository.updateColumnsIfUnchanged(device, Map.of(DeviceField.STATUS, DeviceStatus.INACTIVE),
+                changedAt);
+
+        // Then
+        assertThat(skipped).isZero();
+        assertThat(updated).isEqualTo(1);
+        assertThat(CapturedStatements.all()).hasSize(2).allSatisfy(sql -> assertThat(sql)
+                .startsWith("update dispositivos d1_0 set status=?,status_changed_at=? where d1_0.id=? and ")
+                .contains("d1_0.model=?", "d1_0.patient_id is null", "d1_0.last_maintenance_date is null",
+                        "abs((d1_0.max_basal_rate-")
+                .doesNotContain("d1_0.max_basal_rate=?", "d1_0.max_bolus_amount=?"));
+        Device reloaded = entityManager.find(Device.class, device.getId());
+        assertThat(reloaded.getStatus()).isEqualTo(DeviceStatus.INACTIVE);
+        assertThat(reloaded.getStatusChangedAt()).isEqualTo(changedAt);
+    }
+
+    @Test
+    void should_match_float_columns_within_tolerance_in_guarded_update() {
+        // Given - la copia no es idéntica bit a bit a la fila, como pasa con FLOAT en MySQL
+        Device device = entityManager.persistFlushFind(createTestDevice("ABC123", "Model X", "Manufacturer A"));
+        entityManager.clear();
+        Device copy = new Device(device.getId(), "ABC123", "Model X", "Manufacturer A", device.getStatus(), null,
+                device.getManufactureDate(), null, device.getMaxBasalRate() + 0.00001f,
+                device.getMaxBolusAmount() - 0.00001f, device.getReservoirCapacity(), device.getFirmwareVersion(),
+                device.getBatteryType(), null);
+
+        // When
+        int updated = deviceRepository.updateColumnsIfUnchanged(copy, Map.of(DeviceField.FIRMWARE_VERSION, "2.0.0"),
+                Instant.parse("2025-01-01T00:00:00Z"));
+
+        // Then
+        assertThat(copy.getMaxBasalRate()).isNotEqualTo(device.getMaxBasalRate());
+        assertThat(updated).isEqualTo(1);
+    }
+
     private Device createTestDevice(String serialNo, String model, String manufacturer) {
         Device device = new Device();
         device.setSerialNo(serialNo);
@@ -1,41 +1,95 @@
 package com.insulinpump.deviceservice.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.insulinpump.deviceservice.archive.ArchivedDevice;
+import com.insulinpump.deviceservice.archive.ArchivedDeviceRepository;
+import com.insulinpump.deviceservice.cache.DeviceCache;
+import com.insulinpump.deviceservice.cache.DeviceCacheProperties;
 import com.insulinpump.deviceservice.client.PatientClient;
+import com.insulinpump.deviceservice.dto.BatchLookupResultDto;
 import com.insulinpump.deviceservice.dto.DeviceCreateDto;
 import com.insulinpump.deviceservice.dto.DeviceDetailsDto;
 import com.insulinpump.deviceservice.dto.PatientDto;
+import com.insulinpump.deviceservice.event.DeviceChangeType;
+import com.insulinpump.deviceservice.event.DeviceChangedEvent;
 import com.insulinpump.deviceservice.exception.DeviceAlreadyExistsException;
 import com.insulinpump.deviceservice.exception.DeviceNotFoundException;
+import com.insulinpump.deviceservice.exception.InvalidDevicePatchException;
+import com.insulinpump.deviceservice.fields.DeviceField;
+import com.insulinpump.deviceservice.fields.FieldSelection;
+import com.insulinpump.deviceservice.mapper.DeviceMapper;
+import com.insulinpump.deviceservice.mapper.DeviceMapperImpl;
+import com.insulinpump.deviceservice.metrics.DeviceMetrics;
 import com.insulinpump.deviceservice.model.Device;
 import com.insulinpump.deviceservice.model.DeviceStatus;
-import com.insulinpump.deviceservice.repository.DeviceRepository;
+import com.insulinpump.deviceservice.patch.DeviceMergePatchReader;
+import com.insulinpump.deviceservice.projection.PatientProjection;
+import com.insulinpump.deviceservice.repository.DeviceSearch;
+import com.insulinpump.deviceservice.repository.DeviceStore;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class DeviceServiceTest {
 
     @Mock
-    private DeviceRepository deviceRepository;
+    private DeviceStore deviceRepository;
+
+    @Mock
+    private ArchivedDeviceRepository archivedDeviceRepository;
 
     @Mock
     private PatientClient patientClient;
 
+    @Spy
+    private DeviceMapper deviceMapper = new DeviceMapperImpl();
+
+    @Mock
+    private DeviceMetrics deviceMetrics;
+
+    @Spy
+    private PatientProjection patientProjection = new PatientProjection();
+
+    @Spy
+    private DeviceCache deviceCache = new DeviceCache(new DeviceCacheProperties(), new DeviceMapperImpl());
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private DeviceMergePatchReader deviceMergePatchReader = new DeviceMergePatchReader(
+            new ObjectMapper().registerModule(new JavaTimeModule()),
+            Validation.buildDefaultValidatorFactory().getValidator(), new DeviceMapperImpl());
+
     @InjectMocks
     private DeviceService deviceService;
 
@@ -79,6 +133,21 @@ class DeviceServiceTest {
         verify(deviceRepository).findById(1L);
     }
 
+    @Test
+    void should_serve_repeated_reads_from_cache() {
+        // Given
+        when(deviceRepository.findById(1L)).thenReturn(Optional.of(testDevice));
+
+        // When
+        deviceService.getDeviceById(1L);
+        DeviceDetailsDto result = deviceService.getDeviceBySerialNo("ABC123");
+
+        // Then
+        assertThat(result.getId()).isEqualTo(1L);
+        verify(deviceRepository, times(1)).findById(1L);
+        verify(deviceRepository, never()).findBySerialNo(any());
+    }
+
     @Test
     void should_throw_exception_when_device_not_found_by_id() {
         // Given
@@ -120,6 +189,185 @@ class DeviceServiceTest {
         verify(deviceRepository, never()).save(any(Device.class));
     }
 
+    @Test
+    void should_reject_serial_number_of_archived_device() {
+        // Given
+        when(deviceRepository.existsBySerialNo("ABC123")).thenReturn(false);
+        when(archivedDeviceRepository.existsBySerialNo("ABC123")).thenReturn(true);
+
+        // When & Then
+        assertThatThrownBy(() -> deviceService.createDevice(testDeviceCreateDto))
+                .isInstanceOf(DeviceAlreadyExistsException.class);
+        verify(deviceRepository, never()).save(any(Device.class));
+    }
+
+    @Test
+    void should_fall_back_to_archive_only_when_including_archived() {
+        // Given
+        ArchivedDevice archived = new ArchivedDevice();
+        archived.setId(1L);
+        archived.setSerialNo("ABC123");
+        archived.setStatus(DeviceStatus.DEFECTIVE);
+        archived.setArchivedAt(Instant.parse("2025-01-01T00:00:00Z"));
+        when(deviceRepository.findById(1L)).thenReturn(Optional.empty());
+        when(archivedDeviceRepository.findById(1L)).thenReturn(Optional.of(archived));
+
+        // When
+        DeviceDetailsDto result = deviceService.getDeviceIncludingArchived(1L);
+
+        // Then
+        assertThat(result.getSerialNo()).isEqualTo("ABC123");
+        assertThat(result.getStatus()).isEqualTo("DEFECTIVE");
+        assertThatThrownBy(() -> deviceService.getDeviceById(1L)).isInstanceOf(DeviceNotFoundException.class);
+    }
+
+    @Test
+    void should_archive_locked_devices_and_publish_them_as_deleted() {
+        // Given
+        Device other = createTestDevice();
+        other.setId(2L);
+        other.setSerialNo("DEF456");
+        Map<DeviceStatus, Instant> retiredBefore = Map.of(DeviceStatus.DEFECTIVE, Instant.parse("2025-01-01T00:00:00Z"));
+        when(archivedDeviceRepository.findArchivable(retiredBefore, 500)).thenReturn(List.of(testDevice, other));
+
+        // When
+        int archived = deviceService.archiveDevices(retiredBefore, 500);
+
+        // Then
+        assertThat(archived).isEqualTo(2);
+        verify(archivedDeviceRepository).moveToArchive(eq(List.of(1L, 2L)), any(Instant.class));
+        ArgumentCaptor<DeviceChangedEvent> events = ArgumentCaptor.forClass(DeviceChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertThat(events.getAllValues()).extracting(DeviceChangedEvent::type).containsOnly(DeviceChangeType.ARCHIVED);
+        assertThat(events.getAllValues()).extracting(DeviceChangedEvent::serialNo).containsExactly("ABC123", "DEF456");
+    }
+
+    @Test
+    void should_lookup_devices_in_request_order_reporting_not_found() {
+        // Given
+        Device other = createTestDevice();
+        other.setId(2L);
+        other.setSerialNo("DEF456");
+        when(deviceRepository.findBySerialNoIn(List.of("DEF456", "NOPE", "ABC123")))
+                .thenReturn(List.of(testDevice, other));
+
+        // When
+        BatchLookupResultDto<String> result =
+                deviceService.lookupDevicesBySerialNos(List.of("DEF456", "NOPE", "ABC123", "DEF456"));
+
+        // Then
+        assertThat(result.getResults()).extracting(BatchLookupResultDto.Entry::getKey)
+                .containsExactly("DEF456", "NOPE", "ABC123", "DEF456");
+        assertThat(result.getResults()).extracting(BatchLookupResultDto.Entry::isFound)
+                .containsExactly(true, false, true, true);
+        assertThat(result.getResults().get(0).getDevice().getId()).isEqualTo(2L);
+        assertThat(result.getNotFound()).containsExactly("NOPE");
+    }
+
+    @Test
+    void should_query_ids_in_chunks_and_resolve_each_patient_once() {
+        // Given
+        List<Long> ids = LongStream.rangeClosed(1, 1_200).boxed().toList();
+        when(deviceRepository.findAllById(anyList())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0)
+                .stream()
+                .map(id -> {
+                    Device device = createTestDevice();
+                    device.setId(id);
+                    device.setPatientId(100L + id % 2);
+                    return device;
+                })
+                .toList());
+
+        // When
+        List<DeviceDetailsDto> result = deviceService.getDevicesByIds(ids);
+
+        // Then
+        assertThat(result).hasSize(1_200);
+        verify(deviceRepository, times(3)).findAllById(anyList());
+        verify(patientProjection, times(2)).find(anyLong());
+    }
+
+    @Test
+    void should_skip_patient_lookup_when_patient_not_selected() {
+        // Given
+        testDevice.setPatientId(100L);
+        FieldSelection selection = FieldSelection.parse("serialNo,status");
+        when(deviceRepository.findSelected(selection, DeviceSearch.byStatus(DeviceStatus.ACTIVE)))
+                .thenReturn(List.of(testDevice));
+
+        // When
+        List<DeviceDetailsDto> result = deviceService.getDevices(DeviceSearch.byStatus(DeviceStatus.ACTIVE), selection);
+
+        // Then
+        assertThat(result).extracting(DeviceDetailsDto::getSerialNo).containsExactly("ABC123");
+        verify(patientProjection, never()).find(anyLong());
+        verify(deviceRepository, never()).findByStatus(any());
+    }
+
+    @Test
+    void should_merge_patch_only_changed_columns_from_cached_copy() throws Exception {
+        // Given
+        when(deviceRepository.findById(1L)).thenReturn(Optional.of(testDevice));
+        deviceService.getDeviceById(1L);
+        when(deviceRepository.updateColumnsIfUnchanged(any(Device.class), anyMap(), any(Instant.class))).thenReturn(1);
+        Map<DeviceField, Object> changes = new EnumMap<>(DeviceField.class);
+        changes.put(DeviceField.FIRMWARE_VERSION, "2.0.0");
+        changes.put(DeviceField.BATTERY_TYPE, null);
+
+        // When
+        DeviceDetailsDto result = deviceService.mergePatchDevice(1L,
+                json("{\"firmwareVersion\":\"2.0.0\",\"model\":\"Model X\",\"batteryType\":null}"));
+
+        // Then - solo una lectura (la que llenó la caché) y un UPDATE con las columnas que cambian
+        assertThat(result.getFirmwareVersion()).isEqualTo("2.0.0");
+        assertThat(result.getBatteryType()).isNull();
+        verify(deviceRepository, times(1)).findById(1L);
+        verify(deviceRepository).updateColumnsIfUnchanged(any(Device.class), eq(changes), any(Instant.class));
+        verify(deviceRepository, never()).findForUpdate(anyLong());
+        verify(deviceRepository, never()).save(any());
+        ArgumentCaptor<DeviceChangedEvent> event = ArgumentCaptor.forClass(DeviceChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().previous().getFirmwareVersion()).isEqualTo("1.0.0");
+        assertThat(event.getValue().current().getFirmwareVersion()).isEqualTo("2.0.0");
+        assertThat(event.getValue().current().getBatteryType()).isNull();
+    }
+
+    @Test
+    void should_merge_patch_from_current_row_when_cached_copy_is_stale() throws Exception {
+        // Given
+        Device current = createTestDevice();
+        current.setStatus(DeviceStatus.MAINTENANCE);
+        when(deviceRepository.findById(1L)).thenReturn(Optional.of(testDevice));
+        when(deviceRepository.updateColumnsIfUnchanged(any(Device.class), anyMap(), any(Instant.class))).thenReturn(0);
+        when(deviceRepository.findForUpdate(1L)).thenReturn(Optional.of(current));
+
+        // When
+        DeviceDetailsDto result = deviceService.mergePatchDevice(1L, json("{\"reservoirCapacity\":200}"));
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo("MAINTENANCE");
+        assertThat(result.getReservoirCapacity()).isEqualTo(200);
+        assertThat(current.getReservoirCapacity()).isEqualTo(300);
+        verify(deviceRepository).updateColumns(eq(current), eq(Map.of(DeviceField.RESERVOIR_CAPACITY, 200)),
+                any(Instant.class));
+    }
+
+    @Test
+    void should_reject_merge_patch_with_invalid_or_unknown_fields() {
+        // When & Then
+        assertThatThrownBy(() -> deviceService.mergePatchDevice(1L,
+                json("{\"model\":null,\"maxBasalRate\":-1,\"status\":\"BROKEN\",\"id\":7,\"color\":\"red\"}")))
+                .isInstanceOf(InvalidDevicePatchException.class)
+                .extracting(ex -> ((InvalidDevicePatchException) ex).getErrors())
+                .isEqualTo(Map.of(
+                        "model", "El modelo es obligatorio",
+                        "maxBasalRate", "La tasa basal máxima debe ser positiva",
+                        "status", "Valor no válido",
+                        "id", "Campo desconocido o no modificable",
+                        "color", "Campo desconocido o no modificable"));
+        verifyNoInteractions(deviceRepository, eventPublisher);
+    }
+
     @Test
     void should_update_device_status() {
         // Given
@@ -133,6 +381,13 @@ class DeviceServiceTest {
         assertThat(result.getStatus()).isEqualTo("MAINTENANCE");
         verify(deviceRepository).findById(1L);
         verify(deviceRepository).save(any(Device.class));
+        ArgumentCaptor<DeviceChangedEvent> event = ArgumentCaptor.forClass(DeviceChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().type()).isEqualTo(DeviceChangeType.UPDATED);
+        assertThat(event.getValue().previous().getStatus()).isEqualTo(DeviceStatus.ACTIVE);
+        assertThat(event.getValue().current().getStatus()).isEqualTo(DeviceStatus.MAINTENANCE);
+        assertThat(event.getValue().previous().getStatusChangedAt()).isNull();
+        assertThat(event.getValue().current().getStatusChangedAt()).isNotNull();
     }
 
     @Test
@@ -182,6 +437,10 @@ class DeviceServiceTest {
         verify(deviceRepository).findByStatus(DeviceStatus.ACTIVE);
     }
 
+    private static JsonNode json(String document) throws JsonProcessingException {
+        return new ObjectMapper().readTree(document);
+    }
+
     private Device createTestDevice() {
         Device device = new Device();
         device.setId(1L);
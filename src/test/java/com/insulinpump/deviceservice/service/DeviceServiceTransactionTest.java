@@ -0,0 +1,149 @@
+package com.insulinpump.deviceservice.service;
+
+import com.insulinpump.deviceservice.archive.ArchivedDeviceRepository;
+import com.insulinpump.deviceservice.cache.DeviceCache;
+import com.insulinpump.deviceservice.cache.DeviceResponseCache;
+import com.insulinpump.deviceservice.client.PatientClient;
+import com.insulinpump.deviceservice.exception.DeviceNotFoundException;
+import com.insulinpump.deviceservice.mapper.DeviceMapperImpl;
+import com.insulinpump.deviceservice.metrics.DeviceMetrics;
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import com.insulinpump.deviceservice.patch.DeviceMergePatchReader;
+import com.insulinpump.deviceservice.projection.PatientProjection;
+import com.insulinpump.deviceservice.repository.DeviceStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// Con el gestor de transacciones real: un acierto de caché no debe abrir transacción ni pedir conexión al pool
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DeviceServiceTransactionTest {
+
+    private static final AtomicInteger connections = new AtomicInteger();
+
+    @Autowired
+    private DeviceService deviceService;
+
+    @Autowired
+    private DeviceCache deviceCache;
+
+    @Autowired
+    private DeviceResponseCache deviceResponseCache;
+
+    @BeforeEach
+    void setUp() {
+        reset(deviceCache, deviceResponseCache);
+        connections.set(0);
+    }
+
+    @Test
+    void should_serve_response_cache_hit_without_acquiring_connection() {
+        // Given
+        DeviceResponseCache.Encoded encoded = new DeviceResponseCache.Encoded(new byte[]{'{', '}'}, null);
+        when(deviceResponseCache.getById(eq(1L), any())).thenReturn(encoded);
+
+        // When
+        DeviceResponseCache.Encoded result = deviceService.getEncodedDeviceById(1L);
+
+        // Then
+        assertThat(result).isSameAs(encoded);
+        assertThat(connections).hasValue(0);
+    }
+
+    @Test
+    void should_serve_device_cache_hit_without_acquiring_connection() {
+        // Given
+        when(deviceCache.getById(eq(1L), any())).thenReturn(Optional.of(device()));
+
+        // When
+        deviceService.getDeviceById(1L);
+
+        // Then
+        assertThat(connections).hasValue(0);
+    }
+
+    @Test
+    void should_acquire_connection_only_on_cache_miss() {
+        // Given
+        when(deviceCache.getBySerialNo(eq("SN1"), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<Optional<Device>>>getArgument(1).get());
+
+        // When & Then
+        assertThatThrownBy(() -> deviceService.getDeviceIdBySerialNo("SN1"))
+                .isInstanceOf(DeviceNotFoundException.class);
+        assertThat(connections).hasPositiveValue();
+    }
+
+    // Métodos helper
+    private static Device device() {
+        return new Device(1L, "SN1", "Omnipod 5", "Insulet", DeviceStatus.ACTIVE, null,
+                LocalDate.of(2023, 11, 22), null, 2.6f, 25.0f, 200, "2.1.0", "Litio", null);
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        // Cuenta las conexiones que se piden al DataSource del contexto
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+                    return new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            connections.incrementAndGet();
+                            return super.getConnection();
+                        }
+                    };
+                }
+            };
+        }
+
+        @Bean
+        DeviceCache deviceCache() {
+            return mock(DeviceCache.class);
+        }
+
+        @Bean
+        DeviceResponseCache deviceResponseCache() {
+            return mock(DeviceResponseCache.class);
+        }
+
+        @Bean
+        DeviceService deviceService(DeviceStore deviceRepository, ArchivedDeviceRepository archivedDeviceRepository,
+                                    DeviceCache deviceCache, DeviceResponseCache deviceResponseCache,
+                                    ApplicationEventPublisher eventPublisher) {
+            return new DeviceService(deviceRepository, archivedDeviceRepository, mock(PatientClient.class),
+                    new DeviceMapperImpl(), mock(DeviceMetrics.class), new PatientProjection(), deviceCache,
+                    deviceResponseCache, mock(DeviceMergePatchReader.class), eventPublisher);
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.insulinpump.deviceservice.sharding;
+
+import com.insulinpump.deviceservice.fields.DeviceField;
+import com.insulinpump.deviceservice.fields.FieldSelection;
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import com.insulinpump.deviceservice.repository.DeviceSearch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardedDeviceRepositoryTest {
+
+    private static final int SHARDS = 3;
+    private static final long RANGE = 1_000_000;
+
+    private List<Shard> shards;
+    private ShardRouter router;
+    private ExecutorService executor;
+    private ShardedDeviceRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        // Tres bases de datos H2 independientes, una por shard
+        String run = UUID.randomUUID().toString();
+        shards = new ArrayList<>();
+        for (int i = 0; i < SHARDS; i++) {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                    "jdbc:h2:mem:shard-" + i + "-" + run + ";DB_CLOSE_DELAY=-1;MODE=MySQL", "sa", "");
+            shards.add(Shard.of(i, dataSource));
+        }
+        router = new ShardRouter(SHARDS, RANGE);
+        ShardSchemaInitializer.initialize(shards, router);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        repository = new ShardedDeviceRepository(shards, router, new ShardIdAllocator(shards, 10),
+                new ScatterGather(executor, Duration.ofSeconds(5)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+        for (Shard shard : shards) {
+            shard.jdbc().getJdbcTemplate().execute("SHUTDOWN");
+        }
+    }
+
+    @Test
+    void should_spread_devices_across_shards_by_serial_hash() {
+        // When
+        for (int i = 1; i <= 300; i++) {
+            repository.save(device(String.format("LT-%08d", i), DeviceStatus.ACTIVE));
+        }
+
+        // Then - cada shard recibe una parte razonable y los ids caen en su rango
+        for (Shard shard : shards) {
+            long rows = rowsIn(shard);
+            assertThat(rows).isBetween(60L, 140L);
+            Long minId = shard.jdbc().queryForObject("SELECT MIN(id) FROM dispositivos", new MapSqlParameterSource(), Long.class);
+            assertThat(router.shardOfId(minId)).contains(shard.index());
+        }
+        assertThat(repository.count()).isEqualTo(300);
+    }
+
+    @Test
+    void should_route_lookups_by_id_and_serial_to_owning_shard() {
+        // Given
+        Device saved = repository.save(device("ABC123", DeviceStatus.ACTIVE));
+
+        // When / Then
+        assertThat(saved.getId()).isNotNull();
+        assertThat(router.shardOfId(saved.getId())).contains(router.shardForSerialNo("ABC123"));
+        assertThat(repository.findById(saved.getId())).get().extracting(Device::getSerialNo).isEqualTo("ABC123");
+        assertThat(repository.findBySerialNo("ABC123")).get().extracting(Device::getId).isEqualTo(saved.getId());
+        assertThat(repository.existsBySerialNo("ABC123")).isTrue();
+        assertThat(repository.existsBySerialNo("NOPE")).isFalse();
+    }
+
+    @Test
+    void should_treat_ids_outside_shard_ranges_as_absent() {
+        // Given
+        Device outside = device("OUT-1", DeviceStatus.ACTIVE);
+        outside.setId(SHARDS * RANGE + 1);
+
+        // When / Then
+        for (long id : new long[]{0, -1, SHARDS * RANGE + 1}) {
+            assertThat(repository.findById(id)).isEmpty();
+            assertThat(repository.existsById(id)).isFalse();
+            repository.deleteById(id);
+        }
+        assertThat(repository.updateColumns(outside, Map.of(DeviceField.MODEL, "Model Y"), null)).isZero();
+        assertThatThrownBy(() -> repository.save(outside)).isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void should_skip_ids_outside_shard_ranges_in_batch_lookup() {
+        // Given
+        Device saved = repository.save(device("ABC123", DeviceStatus.ACTIVE));
+
+        // When
+        List<Device> found = repository.findAllById(List.of(0L, saved.getId(), SHARDS * RANGE + 1));
+
+        // Then
+        assertThat(found).extracting(Device::getId).containsExactly(saved.getId());
+        assertThat(repository.findAllById(List.of(-1L))).isEmpty();
+    }
+
+    @Test
+    void should_enforce_global_serial_uniqueness_through_directory() {
+        // Given
+        repository.save(device("ABC123", DeviceStatus.ACTIVE));
+
+        // When / Then
+        assertThatThrownBy(() -> repository.save(device("ABC123", DeviceStatus.INACTIVE)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(repository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_keep_device_on_its_shard_when_serial_changes() {
+        // Given
+        Device saved = repository.save(device("OLD-SERIAL", DeviceStatus.ACTIVE));
+
+        // When
+        saved.setSerialNo("NEW-SERIAL");
+        saved.setStatus(DeviceStatus.MAINTENANCE);
+        repository.save(saved);
+
+        // Then
+        assertThat(repository.findBySerialNo("OLD-SERIAL")).isEmpty();
+        assertThat(repository.findBySerialNo("NEW-SERIAL")).get()
+                .extracting(Device::getStatus).isEqualTo(DeviceStatus.MAINTENANCE);
+    }
+
+    @Test
+    void should_patch_only_changed_columns_and_guard_on_full_row() {
+        // Given
+        Device saved = repository.save(device("OLD-SERIAL", DeviceStatus.ACTIVE));
+        Device stale = repository.findById(saved.getId()).orElseThrow();
+        stale.setModel("Model Y");
+
+        // When
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = ShardedDeviceRepository.patchSql(saved, Map.of(DeviceField.FIRMWARE_VERSION, "2.0.0"), true, params);
+        int skipped = repository.updateColumnsIfUnchanged(stale, Map.of(DeviceField.FIRMWARE_VERSION, "2.0.0"), null);
+        int patched = repository.updateColumnsIfUnchanged(saved,
+                Map.of(DeviceField.FIRMWARE_VERSION, "2.0.0", DeviceField.SERIAL_NO, "NEW-SERIAL"), null);
+
+        // Then
+        assertThat(sql).startsWith("UPDATE dispositivos SET firmware_version = :firmwareVersion WHERE id = :id AND ")
+                .contains("model = :expected_model", "patient_id IS NULL", "last_maintenance_date IS NULL",
+                        "ABS(max_basal_rate - :expected_maxBasalRate) <= :floatTolerance")
+                .doesNotContain("SET serial_no", "status = :status");
+        assertThat(params.getValue("expected_status")).isEqualTo("ACTIVE");
+        assertThat(skipped).isZero();
+        assertThat(patched).isEqualTo(1);
+        assertThat(repository.findBySerialNo("OLD-SERIAL")).isEmpty();
+        assertThat(repository.findBySerialNo("NEW-SERIAL")).get()
+                .extracting(Device::getFirmwareVersion, Device::getModel)
+                .containsExactly("2.0.0", "Model X");
+    }
+
+    @Test
+    void should_batch_lookups_by_ids_and_serials_across_shards() {
+        // Given
+        List<Device> saved = new ArrayList<>();
+        for (int i = 1; i <= 30; i++) {
+            saved.add(repository.save(device(String.format("LT-%08d", i), DeviceStatus.ACTIVE)));
+        }
+        List<Long> ids = saved.stream().map(Device::getId).toList();
+
+        // When
+        List<Device> byIds = repository.findAllById(List.of(ids.get(20), ids.get(3), ids.get(11), 999_999L));
+        List<Device> bySerials = repository.findBySerialNoIn(List.of("LT-00000030", "LT-00000001", "NOPE"));
+
+        // Then
+        assertThat(byIds).extracting(Device::getId)
+                .containsExactlyElementsOf(Stream.of(ids.get(20), ids.get(3), ids.get(11)).sorted().toList());
+        assertThat(bySerials).extracting(Device::getSerialNo)
+                .containsExactlyInAnyOrder("LT-00000001", "LT-00000030");
+    }
+
+    @Test
+    void should_scatter_gather_searches_in_global_id_order() {
+        // Given
+        for (int i = 1; i <= 60; i++) {
+            repository.save(device("SN-" + i, i % 2 == 0 ? DeviceStatus.ACTIVE : DeviceStatus.INACTIVE));
+        }
+
+        // When
+        List<Device> active = repository.findByStatus(DeviceStatus.ACTIVE);
+        List<Device> all = repository.findAll();
+
+        // Then
+        assertThat(active).hasSize(30).allMatch(device -> device.getStatus() == DeviceStatus.ACTIVE);
+        assertThat(active).isSortedAccordingTo((a, b) -> Long.compare(a.getId(), b.getId()));
+        assertThat(all).hasSize(60).isSortedAccordingTo((a, b) -> Long.compare(a.getId(), b.getId()));
+        assertThat(repository.findByModelContaining("Model")).hasSize(60);
+    }
+
+    @Test
+    void should_scatter_selected_columns_in_global_id_order() {
+        // Given
+        for (int i = 1; i <= 30; i++) {
+            repository.save(device(String.format("LT-%08d", i), i % 3 == 0 ? DeviceStatus.INACTIVE : DeviceStatus.ACTIVE));
+        }
+
+        // When
+        List<Device> found = repository.findSelected(FieldSelection.parse("serialNo,maxBasalRate,manufactureDate"),
+                DeviceSearch.byStatus(DeviceStatus.INACTIVE));
+
+        // Then
+        assertThat(found).hasSize(10);
+        assertThat(found).extracting(Device::getId).isSorted();
+        assertThat(found).allSatisfy(device -> {
+            assertThat(device.getSerialNo()).startsWith("LT-");
+            assertThat(device.getMaxBasalRate()).isNotNull();
+            assertThat(device.getManufactureDate()).isNotNull();
+            assertThat(device.getModel()).isNull();
+            assertThat(device.getStatus()).isNull();
+        });
+    }
+
+    @Test
+    void should_match_like_wildcards_literally() {
+        // Given
+        Device literal = device("SN-1", DeviceStatus.ACTIVE);
+        literal.setModel("Model a_b");
+        Device other = device("SN-2", DeviceStatus.ACTIVE);
+        other.setModel("Model axb");
+        repository.save(literal);
+        repository.save(other);
+
+        // When
+        List<Device> found = repository.findByModelContaining("a_b");
+        List<Device> selected = repository.findSelected(FieldSelection.parse("serialNo"), DeviceSearch.byModel("a_b"));
+
+        // Then
+        assertThat(found).extracting(Device::getSerialNo).containsExactly("SN-1");
+        assertThat(selected).extracting(Device::getSerialNo).containsExactly("SN-1");
+    }
+
+    @Test
+    void should_page_with_merged_keyset_across_shards() {
+        // Given
+        for (int i = 1; i <= 45; i++) {
+            repository.save(device("PG-" + i, DeviceStatus.ACTIVE));
+        }
+        List<Long> expected = repository.findAll().stream().map(Device::getId).toList();
+
+        // When
+        List<Long> paged = new ArrayList<>();
+        long cursor = 0;
+        List<Device> page;
+        do {
+            page = repository.findAllAfter(cursor, 10);
+            page.forEach(device -> paged.add(device.getId()));
+            if (!page.isEmpty()) {
+                cursor = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == 10);
+
+        // Then
+        assertThat(paged).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void should_delete_device_and_free_its_serial() {
+        // Given
+        Device saved = repository.save(device("ABC123", DeviceStatus.ACTIVE));
+
+        // When
+        repository.delete(saved);
+
+        // Then
+        assertThat(repository.findById(saved.getId())).isEmpty();
+        assertThat(repository.existsBySerialNo("ABC123")).isFalse();
+        assertThat(repository.save(device("ABC123", DeviceStatus.ACTIVE)).getId()).isNotEqualTo(saved.getId());
+    }
+
+    // Métodos helper
+    private static long rowsIn(Shard shard) {
+        return shard.jdbc().queryForObject("SELECT COUNT(*) FROM dispositivos", new MapSqlParameterSource(), Long.class);
+    }
+
+    private static Device device(String serialNo, DeviceStatus status) {
+        Device device = new Device();
+        device.setSerialNo(serialNo);
+        device.setModel("Model X");
+        device.setManufacturer("Manufacturer A");
+        device.setStatus(status);
+        device.setManufactureDate(LocalDate.of(2024, 1, 15));
+        device.setMaxBasalRate(2.0f);
+        device.setMaxBolusAmount(10.0f);
+        device.setReservoirCapacity(300);
+        device.setFirmwareVersion("1.0.0");
+        device.setBatteryType("Lithium");
+        return device;
+    }
+}
@@ -0,0 +1,274 @@
+package com.insulinpump.deviceservice.snapshot;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.insulinpump.deviceservice.changelog.DeviceChange;
+import com.insulinpump.deviceservice.dto.DeviceDetailsDto;
+import com.insulinpump.deviceservice.dto.PatientDto;
+import com.insulinpump.deviceservice.event.DeviceChangeType;
+import com.insulinpump.deviceservice.event.DeviceChangedEvent;
+import com.insulinpump.deviceservice.fields.FieldSelection;
+import com.insulinpump.deviceservice.mapper.DeviceMapper;
+import com.insulinpump.deviceservice.mapper.DeviceMapperImpl;
+import com.insulinpump.deviceservice.metrics.DeviceMetrics;
+import com.insulinpump.deviceservice.model.Device;
+import com.insulinpump.deviceservice.model.DeviceStatus;
+import com.insulinpump.deviceservice.projection.PatientProjection;
+import com.insulinpump.deviceservice.repository.DeviceStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FleetSnapshotTest {
+
+    private static final TypeReference<List<DeviceDetailsDto>> DEVICE_LIST = new TypeReference<>() {
+    };
+
+    @Mock
+    private DeviceStore deviceRepository;
+
+    @Mock
+    private DeviceMetrics deviceMetrics;
+
+    private final DeviceMapper deviceMapper = new DeviceMapperImpl();
+    private PatientProjection patientProjection;
+    private FleetSnapshot snapshot;
+    private ObjectMapper json;
+
+    @BeforeEach
+    void setUp() {
+        patientProjection = new PatientProjection();
+        patientProjection.upsert(new PatientDto(100L, "Paciente 100", 40, "MED100", 2L, "TYPE_1"));
+        snapshot = new FleetSnapshot(deviceRepository, patientProjection, deviceMetrics, new FleetSnapshotProperties());
+        json = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Test
+    void should_serialize_same_json_as_dto_list() throws Exception {
+        // Given
+        List<Device> devices = List.of(device(2L, "SN2", 100L), device(1L, "SN1", null), sparseDevice(3L));
+        when(deviceRepository.findAll()).thenReturn(devices);
+
+        // When
+        String fromSnapshot = json.writeValueAsString(snapshot.view());
+
+        // Then
+        String fromDtos = json.writeValueAsString(List.of(dto(devices.get(1)), dto(devices.get(0)), dto(devices.get(2))));
+        assertThat(json.readTree(fromSnapshot)).isEqualTo(json.readTree(fromDtos));
+    }
+
+    @Test
+    void should_write_dates_as_arrays_in_binary_formats() throws Exception {
+        // Given
+        Device device = device(1L, "SN1", 100L);
+        when(deviceRepository.findAll()).thenReturn(List.of(device));
+        ObjectMapper cbor = json.copyWith(new CBORFactory()).enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        // When
+        byte[] body = cbor.writeValueAsBytes(snapshot.view());
+
+        // Then
+        assertThat(cbor.readValue(body, DEVICE_LIST)).containsExactly(dto(device));
+    }
+
+    @Test
+    void should_apply_local_writes_without_reloading() throws Exception {
+        // Given
+        Device first = device(1L, "SN1", null);
+        Device second = device(2L, "SN2", null);
+        when(deviceRepository.findAll()).thenReturn(List.of(first, second));
+        snapshot.view();
+        Device updated = device(1L, "SN1", null);
+        updated.setStatus(DeviceStatus.MAINTENANCE);
+        updated.setModel("Modelo nuevo");
+
+        // When
+        snapshot.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.UPDATED, first, updated));
+        snapshot.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.CREATED, null, device(5L, "SN5", null)));
+        snapshot.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.DELETED, second, null));
+
+        // Then
+        List<DeviceDetailsDto> result = json.readValue(json.writeValueAsString(snapshot.view()), DEVICE_LIST);
+        assertThat(result).extracting(DeviceDetailsDto::getId).containsExactly(1L, 5L);
+        assertThat(result.get(0).getStatus()).isEqualTo("MAINTENANCE");
+        assertThat(result.get(0).getModel()).isEqualTo("Modelo nuevo");
+        verify(deviceRepository, times(1)).findAll();
+    }
+
+    @Test
+    void should_reload_rows_changed_by_other_replicas() throws Exception {
+        // Given
+        when(deviceRepository.findAll()).thenReturn(List.of(device(1L, "SN1", null), device(2L, "SN2", null)));
+        snapshot.view();
+        Device remote = device(1L, "SN1", null);
+        remote.setFirmwareVersion("9.9.9");
+        when(deviceRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(remote));
+
+        // When
+        snapshot.onChanges(List.of(
+                new DeviceChange(10L, 1L, "SN1", null, DeviceChangeType.UPDATED),
+                new DeviceChange(11L, 2L, "SN2", null, DeviceChangeType.DELETED)));
+
+        // Then
+        List<DeviceDetailsDto> result = json.readValue(json.writeValueAsString(snapshot.view()), DEVICE_LIST);
+        assertThat(result).extracting(DeviceDetailsDto::getFirmwareVersion).containsExactly("9.9.9");
+    }
+
+    @Test
+    void should_apply_a_batch_of_inserts_updates_and_deletes_in_one_pass() throws Exception {
+        // Given
+        when(deviceRepository.findAll()).thenReturn(List.of(
+                device(2L, "SN2", null), device(4L, "SN4", null), device(6L, "SN6", null), device(8L, "SN8", null)));
+        snapshot.view();
+        Device updated = device(6L, "SN6", null);
+        updated.setFirmwareVersion("3.0.0");
+
+        // When
+        snapshot.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.CREATED, null, device(1L, "SN1", null)));
+        snapshot.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.DELETED, device(4L, "SN4", null), null));
+        snapshot.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.CREATED, null, device(5L, "SN5", null)));
+        snapshot.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.UPDATED, device(6L, "SN6", null), updated));
+        snapshot.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.DELETED, device(8L, "SN8", null), null));
+        snapshot.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.CREATED, null, device(9L, "SN9", null)));
+        snapshot.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.DELETED, device(9L, "SN9", null), null));
+
+        // Then
+        List<DeviceDetailsDto> result = json.readValue(json.writeValueAsString(snapshot.view()), DEVICE_LIST);
+        assertThat(result).extracting(DeviceDetailsDto::getId).containsExactly(1L, 2L, 5L, 6L);
+        assertThat(result.get(3).getFirmwareVersion()).isEqualTo("3.0.0");
+        assertThat(snapshot.size()).isEqualTo(4);
+    }
+
+    @Test
+    void should_reload_instead_of_accumulating_too_many_pending_changes() {
+        // Given
+        FleetSnapshotProperties properties = new FleetSnapshotProperties();
+        properties.setMaxPendingChanges(2);
+        snapshot = new FleetSnapshot(deviceRepository, patientProjection, deviceMetrics, properties);
+        when(deviceRepository.findAll()).thenReturn(List.of(device(1L, "SN1", null)));
+        snapshot.view();
+
+        // When
+        for (long id = 2; id <= 4; id++) {
+            snapshot.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.CREATED, null, device(id, "SN" + id, null)));
+        }
+        snapshot.view();
+
+        // Then
+        verify(deviceRepository, times(2)).findAll();
+    }
+
+    @Test
+    void should_reload_everything_after_invalidation() {
+        // Given
+        when(deviceRepository.findAll()).thenReturn(List.of(device(1L, "SN1", null)));
+        snapshot.view();
+
+        // When
+        snapshot.invalidateAll();
+        snapshot.view();
+
+        // Then
+        verify(deviceRepository, times(2)).findAll();
+    }
+
+    @Test
+    void should_not_block_writers_during_full_load() throws Exception {
+        // Given - una escritura confirma en otro hilo mientras la carga completa lee la tabla
+        Device created = device(2L, "SN2", null);
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        when(deviceRepository.findAll()).thenAnswer(invocation -> {
+            DeviceChangedEvent event = new DeviceChangedEvent(DeviceChangeType.CREATED, null, created);
+            writer.submit(() -> snapshot.onDeviceChanged(event)).get(5, TimeUnit.SECONDS);
+            return List.of(device(1L, "SN1", null));
+        });
+
+        try {
+            // When
+            List<DeviceDetailsDto> result = json.readValue(json.writeValueAsString(snapshot.view()), DEVICE_LIST);
+
+            // Then
+            assertThat(result).extracting(DeviceDetailsDto::getId).containsExactly(1L, 2L);
+            verify(deviceRepository, times(1)).findAll();
+        } finally {
+            writer.shutdownNow();
+        }
+    }
+
+    @Test
+    void should_fall_back_when_fleet_exceeds_dictionary() {
+        // Given - un modelo distinto por dispositivo, más de los que caben en códigos de 2 bytes
+        List<Device> devices = new ArrayList<>();
+        for (long id = 1; id <= StringDictionary.NULL_CODE + 1; id++) {
+            Device device = device(id, "SN" + id, null);
+            device.setModel("Modelo " + id);
+            devices.add(device);
+        }
+        when(deviceRepository.findAll()).thenReturn(devices);
+
+        // When
+        FleetView first = snapshot.view();
+        FleetView second = snapshot.view();
+
+        // Then - no se reintenta la carga hasta el siguiente cambio
+        assertThat(first).isNull();
+        assertThat(second).isNull();
+        verify(deviceRepository, times(1)).findAll();
+    }
+
+    @Test
+    void should_write_only_selected_fields_without_patient_lookup() throws Exception {
+        // Given
+        PatientProjection projection = spy(patientProjection);
+        FleetSnapshot fleet = new FleetSnapshot(deviceRepository, projection, deviceMetrics, new FleetSnapshotProperties());
+        when(deviceRepository.findAll()).thenReturn(List.of(device(1L, "SN1", 100L)));
+
+        // When
+        String body = json.writeValueAsString(fleet.view(FieldSelection.parse("serialNo,status")));
+
+        // Then
+        assertThat(body).isEqualTo("[{\"id\":1,\"serialNo\":\"SN1\",\"status\":\"ACTIVE\"}]");
+        verify(projection, never()).find(anyLong());
+    }
+
+    // Métodos helper
+    private DeviceDetailsDto dto(Device device) {
+        DeviceDetailsDto dto = deviceMapper.toDetailsDto(device);
+        if (device.getPatientId() != null) {
+            patientProjection.find(device.getPatientId()).ifPresent(dto::setPatient);
+        }
+        return dto;
+    }
+
+    private static Device device(Long id, String serialNo, Long patientId) {
+        return new Device(id, serialNo, "Omnipod 5", "Insulet", DeviceStatus.ACTIVE, patientId,
+                LocalDate.of(2023, 11, 22), LocalDate.of(2025, 3, 1), 2.6f, 25.0f, 200, "2.1.0", "Litio", null);
+    }
+
+    private static Device sparseDevice(Long id) {
+        Device device = new Device();
+        device.setId(id);
+        device.setSerialNo("SN" + id);
+        device.setModel("T-Slim X2");
+        device.setManufacturer("Tandem");
+        device.setStatus(DeviceStatus.INACTIVE);
+        return device;
+    }
+}